@@ -1,9 +1,12 @@
 package com.stream.demo.common;
 
 import com.stream.demo.common.exception.BusinessException;
+import com.stream.demo.common.exception.ConflictException;
 import com.stream.demo.common.exception.ForbiddenException;
 import com.stream.demo.common.exception.ResourceNotFoundException;
+import com.stream.demo.common.exception.ServiceUnavailableException;
 import com.stream.demo.common.exception.UnauthorizedException;
+import com.stream.demo.common.exception.UnprocessableEntityException;
 
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -62,6 +65,30 @@ public class GlobalExceptionHandler {
 				.body(ApiResponse.error(ex.getMessage()));
 	}
 
+	@ExceptionHandler(ConflictException.class)
+	public ResponseEntity<ApiResponse<Void>> handleConflictException(
+			ConflictException ex) {
+		log.warn("Conflict: {}", ex.getMessage());
+		return ResponseEntity.status(HttpStatus.CONFLICT)
+				.body(ApiResponse.error(ex.getMessage()));
+	}
+
+	@ExceptionHandler(UnprocessableEntityException.class)
+	public ResponseEntity<ApiResponse<Void>> handleUnprocessableEntityException(
+			UnprocessableEntityException ex) {
+		log.warn("Unprocessable entity: {}", ex.getMessage());
+		return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+				.body(ApiResponse.error(ex.getMessage()));
+	}
+
+	@ExceptionHandler(ServiceUnavailableException.class)
+	public ResponseEntity<ApiResponse<Void>> handleServiceUnavailableException(
+			ServiceUnavailableException ex) {
+		log.error("Service unavailable: {}", ex.getMessage());
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+				.body(ApiResponse.error(ex.getMessage()));
+	}
+
 	// ============================================================
 	// Spring Security Exceptions
 	// ============================================================
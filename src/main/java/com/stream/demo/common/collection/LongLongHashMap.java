@@ -0,0 +1,182 @@
+package com.stream.demo.common.collection;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map long → long (không boxing, không Entry objects).
+ * <p>
+ * Linear probing, load factor ≤ 0.5, xóa bằng backward-shift (không tombstones).
+ * Không thread-safe: dùng theo kiểu copy-on-write (copy → mutate → publish qua volatile) khi đọc đồng thời.
+ */
+public final class LongLongHashMap {
+
+    private static final long FREE_KEY = 0L;
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private long[] values;
+    private int mask;
+    private int size;
+
+    // Key 0 trùng FREE_KEY → lưu riêng
+    private boolean hasZeroKey;
+    private long zeroValue;
+
+    public LongLongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize * 2) - 1) << 1);
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    private LongLongHashMap(LongLongHashMap source) {
+        keys = source.keys.clone();
+        values = source.values.clone();
+        mask = source.mask;
+        size = source.size;
+        hasZeroKey = source.hasZeroKey;
+        zeroValue = source.zeroValue;
+    }
+
+    public LongLongHashMap copy() {
+        return new LongLongHashMap(this);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        if (key == FREE_KEY) {
+            return hasZeroKey;
+        }
+        return keys[indexOf(key)] == key;
+    }
+
+    /**
+     * @return value của key, hoặc defaultValue nếu không có
+     */
+    public long get(long key, long defaultValue) {
+        if (key == FREE_KEY) {
+            return hasZeroKey ? zeroValue : defaultValue;
+        }
+        int index = indexOf(key);
+        return keys[index] == key ? values[index] : defaultValue;
+    }
+
+    public void put(long key, long value) {
+        if (key == FREE_KEY) {
+            if (!hasZeroKey) {
+                hasZeroKey = true;
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int index = indexOf(key);
+        if (keys[index] != key) {
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * @return true nếu key tồn tại và đã bị xóa
+     */
+    public boolean remove(long key) {
+        if (key == FREE_KEY) {
+            if (!hasZeroKey) {
+                return false;
+            }
+            hasZeroKey = false;
+            size--;
+            return true;
+        }
+        int index = indexOf(key);
+        if (keys[index] != key) {
+            return false;
+        }
+        size--;
+        // Backward-shift: kéo các entries phía sau về để chuỗi probe không bị đứt
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (keys[next] != FREE_KEY) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE_KEY;
+        return true;
+    }
+
+    /**
+     * Duyệt entries không cấp phát iterator
+     */
+    public void forEach(LongLongConsumer consumer) {
+        if (hasZeroKey) {
+            consumer.accept(FREE_KEY, zeroValue);
+        }
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != FREE_KEY) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface LongLongConsumer {
+        void accept(long key, long value);
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    /**
+     * Slot chứa key, hoặc slot trống đầu tiên trên chuỗi probe
+     */
+    private int indexOf(long key) {
+        int index = slot(key);
+        while (keys[index] != FREE_KEY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new long[capacity];
+        values = new long[capacity];
+        mask = capacity - 1;
+        Arrays.fill(keys, FREE_KEY);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE_KEY) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.stream.demo.common.collection;
+
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing hash map long → V (key không boxing, không Entry objects).
+ * <p>
+ * Linear probing, load factor ≤ 0.5, xóa bằng backward-shift (không tombstones).
+ * Không thread-safe: dùng theo kiểu copy-on-write (copy → mutate → publish qua volatile) khi đọc đồng thời.
+ */
+public final class LongObjectHashMap<V> {
+
+    private static final long FREE_KEY = 0L;
+    private static final int MIN_CAPACITY = 8;
+
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+
+    // Key 0 trùng FREE_KEY → lưu riêng
+    private Object zeroValue;
+
+    public LongObjectHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongObjectHashMap(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize * 2) - 1) << 1);
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    private LongObjectHashMap(LongObjectHashMap<V> source) {
+        keys = source.keys.clone();
+        values = source.values.clone();
+        mask = source.mask;
+        size = source.size;
+        zeroValue = source.zeroValue;
+    }
+
+    public LongObjectHashMap<V> copy() {
+        return new LongObjectHashMap<>(this);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * @return value của key, hoặc null nếu không có (null values không được hỗ trợ)
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        if (key == FREE_KEY) {
+            return (V) zeroValue;
+        }
+        int index = indexOf(key);
+        return keys[index] == key ? (V) values[index] : null;
+    }
+
+    public void put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("null values are not supported");
+        }
+        if (key == FREE_KEY) {
+            if (zeroValue == null) {
+                size++;
+            }
+            zeroValue = value;
+            return;
+        }
+        int index = indexOf(key);
+        if (keys[index] != key) {
+            keys[index] = key;
+            size++;
+        }
+        values[index] = value;
+        if (size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    /**
+     * @return value đã xóa, hoặc null nếu không có
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        if (key == FREE_KEY) {
+            Object previous = zeroValue;
+            if (previous != null) {
+                zeroValue = null;
+                size--;
+            }
+            return (V) previous;
+        }
+        int index = indexOf(key);
+        if (keys[index] != key) {
+            return null;
+        }
+        Object previous = values[index];
+        size--;
+        // Backward-shift: kéo các entries phía sau về để chuỗi probe không bị đứt
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (keys[next] != FREE_KEY) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        keys[gap] = FREE_KEY;
+        values[gap] = null;
+        return (V) previous;
+    }
+
+    /**
+     * Duyệt keys không cấp phát iterator / boxing
+     */
+    public void forEachKey(LongConsumer consumer) {
+        if (zeroValue != null) {
+            consumer.accept(FREE_KEY);
+        }
+        for (long key : keys) {
+            if (key != FREE_KEY) {
+                consumer.accept(key);
+            }
+        }
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    /**
+     * Slot chứa key, hoặc slot trống đầu tiên trên chuỗi probe
+     */
+    private int indexOf(long key) {
+        int index = slot(key);
+        while (keys[index] != FREE_KEY && keys[index] != key) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE_KEY) {
+                int index = indexOf(oldKeys[i]);
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.stream.demo.common.collection;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+import java.util.function.LongConsumer;
+
+/**
+ * Room Membership Index: room (long id) ↔ members (session handles), tối ưu cho broadcast (đọc nhiều, ghi ít)
+ * <p>
+ * - Room → members: lock striping theo roomId; mỗi stripe là LongObjectHashMap copy-on-write (chỉ copy khi room
+ *   xuất hiện / biến mất), members của room là mảng S[] copy-on-write trong field volatile
+ * - Member → rooms: long[] copy-on-write (mỗi member chỉ ở vài rooms), cập nhật dưới cùng stripe lock với
+ *   room → members nên add / remove đồng thời của cùng (room, member) không để lại reverse entry lệch
+ * <p>
+ * Reads không lock, không cấp phát: {@link #members(long)} trả thẳng snapshot array (caller không được sửa).
+ * Không boxing roomId, không Set/Node objects per member.
+ * Đổi lại join / leave tốn O(members của room) (copy mảng) - chấp nhận được vì mỗi member nhận nhiều frames.
+ */
+public final class RoomMembershipIndex<S> {
+
+    private static final int STRIPES = 64;
+    private static final long[] NO_ROOMS = new long[0];
+
+    private final IntFunction<S[]> arrayFactory;
+    private final S[] empty;
+    private final Stripe<S>[] stripes;
+    private final Map<S, long[]> roomsByMember = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public RoomMembershipIndex(IntFunction<S[]> arrayFactory) {
+        this.arrayFactory = arrayFactory;
+        this.empty = arrayFactory.apply(0);
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe<>();
+        }
+    }
+
+    // ============================================================
+    // Writes
+    // ============================================================
+
+    /**
+     * @return số members của room sau khi thêm (1 = room vừa xuất hiện), hoặc -1 nếu đã là member
+     */
+    public int add(long roomId, S member) {
+        Stripe<S> stripe = stripe(roomId);
+        int count;
+        synchronized (stripe) {
+            Room<S> room = stripe.rooms.get(roomId);
+            if (room == null) {
+                room = new Room<>(empty);
+                LongObjectHashMap<Room<S>> copy = stripe.rooms.copy();
+                copy.put(roomId, room);
+                stripe.rooms = copy;
+            }
+            S[] current = room.members;
+            if (indexOf(current, member) >= 0) {
+                return -1;
+            }
+            S[] updated = Arrays.copyOf(current, current.length + 1);
+            updated[current.length] = member;
+            room.members = updated;
+            count = updated.length;
+            roomsByMember.compute(member, (key, rooms) -> append(rooms, roomId));
+        }
+        return count;
+    }
+
+    /**
+     * @return số members còn lại của room (0 = room vừa biến mất), hoặc -1 nếu không phải member
+     */
+    public int remove(long roomId, S member) {
+        Stripe<S> stripe = stripe(roomId);
+        int remaining;
+        synchronized (stripe) {
+            Room<S> room = stripe.rooms.get(roomId);
+            int index = room != null ? indexOf(room.members, member) : -1;
+            if (index < 0) {
+                return -1;
+            }
+            S[] current = room.members;
+            if (current.length == 1) {
+                room.members = empty;
+                LongObjectHashMap<Room<S>> copy = stripe.rooms.copy();
+                copy.remove(roomId);
+                stripe.rooms = copy;
+                remaining = 0;
+            } else {
+                S[] updated = arrayFactory.apply(current.length - 1);
+                System.arraycopy(current, 0, updated, 0, index);
+                System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+                room.members = updated;
+                remaining = updated.length;
+            }
+            roomsByMember.computeIfPresent(member, (key, rooms) -> without(rooms, roomId));
+        }
+        return remaining;
+    }
+
+    // ============================================================
+    // Reads (lock-free, allocation-free)
+    // ============================================================
+
+    /**
+     * Snapshot members của room (mảng rỗng nếu không có); KHÔNG sửa mảng trả về
+     */
+    public S[] members(long roomId) {
+        Room<S> room = stripe(roomId).rooms.get(roomId);
+        return room != null ? room.members : empty;
+    }
+
+    public boolean hasMembers(long roomId) {
+        return stripe(roomId).rooms.containsKey(roomId);
+    }
+
+    public boolean contains(long roomId, S member) {
+        return indexOf(members(roomId), member) >= 0;
+    }
+
+    /**
+     * Snapshot rooms của member; KHÔNG sửa mảng trả về
+     */
+    public long[] roomsOf(S member) {
+        long[] rooms = roomsByMember.get(member);
+        return rooms != null ? rooms : NO_ROOMS;
+    }
+
+    public void forEachRoom(LongConsumer consumer) {
+        for (Stripe<S> stripe : stripes) {
+            stripe.rooms.forEachKey(consumer);
+        }
+    }
+
+    public int roomCount() {
+        int count = 0;
+        for (Stripe<S> stripe : stripes) {
+            count += stripe.rooms.size();
+        }
+        return count;
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    private Stripe<S> stripe(long roomId) {
+        long h = roomId * 0x9E3779B97F4A7C15L;
+        return stripes[(int) (h >>> 58)];
+    }
+
+    private static int indexOf(Object[] members, Object member) {
+        for (int i = 0; i < members.length; i++) {
+            if (members[i] == member) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long[] append(long[] rooms, long roomId) {
+        if (rooms == null) {
+            return new long[]{roomId};
+        }
+        for (long room : rooms) {
+            if (room == roomId) {
+                return rooms;
+            }
+        }
+        long[] updated = Arrays.copyOf(rooms, rooms.length + 1);
+        updated[rooms.length] = roomId;
+        return updated;
+    }
+
+    private static long[] without(long[] rooms, long roomId) {
+        int index = -1;
+        for (int i = 0; i < rooms.length; i++) {
+            if (rooms[i] == roomId) {
+                index = i;
+                break;
+            }
+        }
+        if (index < 0) {
+            return rooms;
+        }
+        if (rooms.length == 1) {
+            // null → xóa entry của member
+            return null;
+        }
+        long[] updated = new long[rooms.length - 1];
+        System.arraycopy(rooms, 0, updated, 0, index);
+        System.arraycopy(rooms, index + 1, updated, index, rooms.length - index - 1);
+        return updated;
+    }
+
+    private static final class Stripe<S> {
+        private volatile LongObjectHashMap<Room<S>> rooms = new LongObjectHashMap<>();
+    }
+
+    private static final class Room<S> {
+        private volatile S[] members;
+
+        private Room(S[] members) {
+            this.members = members;
+        }
+    }
+}
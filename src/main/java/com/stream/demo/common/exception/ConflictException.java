@@ -0,0 +1,16 @@
+package com.stream.demo.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception khi request xung đột với request khác đang xử lý (ví dụ cùng Idempotency-Key)
+ * HTTP Status: 409 CONFLICT
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
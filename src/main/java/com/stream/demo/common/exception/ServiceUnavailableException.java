@@ -0,0 +1,21 @@
+package com.stream.demo.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception khi dependency (RabbitMQ, Redis...) tạm thời không khả dụng.
+ * Client nên retry sau.
+ * HTTP Status: 503 SERVICE_UNAVAILABLE
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class ServiceUnavailableException extends RuntimeException {
+
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,17 @@
+package com.stream.demo.common.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Exception khi request hợp lệ về cú pháp nhưng mâu thuẫn với request trước đó (ví dụ Idempotency-Key dùng lại
+ * với payload khác)
+ * HTTP Status: 422 UNPROCESSABLE ENTITY
+ */
+@ResponseStatus(HttpStatus.UNPROCESSABLE_ENTITY)
+public class UnprocessableEntityException extends RuntimeException {
+
+    public UnprocessableEntityException(String message) {
+        super(message);
+    }
+}
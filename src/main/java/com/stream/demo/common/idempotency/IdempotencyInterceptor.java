@@ -0,0 +1,115 @@
+package com.stream.demo.common.idempotency;
+
+import com.stream.demo.common.exception.BusinessException;
+import com.stream.demo.common.exception.ConflictException;
+import com.stream.demo.common.exception.UnauthorizedException;
+import com.stream.demo.common.exception.UnprocessableEntityException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Idempotency Interceptor
+ * <p>
+ * Với handler có @Idempotent và header Idempotency-Key:
+ * - Key mới → claim, đánh dấu request để IdempotencyResponseFilter lưu response
+ * - Key đã hoàn tất → replay response đã lưu (header Idempotent-Replayed), không gọi controller
+ * - Key đang xử lý → 409; key dùng lại với method/path/body khác → 422
+ * <p>
+ * Fingerprint = method + path + SHA-256 của body (IdempotencyResponseFilter tính trước khi controller đọc body).
+ * Key scope theo principal: users khác nhau không thể đọc response của nhau. Request chưa xác thực (kể cả trên
+ * endpoints permitAll) gửi Idempotency-Key → 401, vì mọi anonymous callers sẽ chung một namespace keys.
+ */
+@Component
+@RequiredArgsConstructor
+public class IdempotencyInterceptor implements HandlerInterceptor {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    static final String CLAIM_ATTRIBUTE = IdempotencyInterceptor.class.getName() + ".claim";
+
+    private static final int MAX_KEY_LENGTH = 128;
+
+    private final IdempotencyStore store;
+
+    @Value("${app.idempotency.ttl-seconds:86400}")
+    private long defaultTtlSeconds;
+
+    @Value("${app.idempotency.max-ttl-seconds:604800}")
+    private long maxTtlSeconds;
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request,
+                             @NonNull HttpServletResponse response,
+                             @NonNull Object handler) throws IOException {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        Idempotent idempotent = handlerMethod.getMethodAnnotation(Idempotent.class);
+        if (idempotent == null) {
+            return true;
+        }
+
+        String key = request.getHeader(HEADER);
+        if (key == null || key.isBlank()) {
+            if (idempotent.required()) {
+                throw new BusinessException(HEADER + " header is required");
+            }
+            return true;
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new BusinessException(HEADER + " must not exceed " + MAX_KEY_LENGTH + " characters");
+        }
+
+        String entryKey = store.entryKey(principalName(), key);
+        String fingerprint = request.getMethod() + " " + request.getRequestURI() + " "
+                + request.getAttribute(IdempotencyResponseFilter.BODY_HASH_ATTRIBUTE);
+        IdempotencyStore.StoredResponse existing = store.claim(entryKey, fingerprint);
+        if (existing == null) {
+            long ttlSeconds = idempotent.ttlSeconds() > 0 ? idempotent.ttlSeconds() : defaultTtlSeconds;
+            request.setAttribute(CLAIM_ATTRIBUTE,
+                    new Claim(entryKey, fingerprint, Math.min(ttlSeconds, maxTtlSeconds)));
+            return true;
+        }
+
+        if (!existing.fingerprint().equals(fingerprint)) {
+            throw new UnprocessableEntityException(HEADER + " was already used for a different request");
+        }
+        if (!existing.completed()) {
+            throw new ConflictException("A request with this " + HEADER + " is still being processed");
+        }
+
+        response.setStatus(existing.status());
+        if (existing.contentType() != null) {
+            response.setContentType(existing.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (existing.body() != null) {
+            response.getOutputStream().write(existing.body().getBytes(StandardCharsets.UTF_8));
+        }
+        return false;
+    }
+
+    private String principalName() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            throw new UnauthorizedException(HEADER + " requires an authenticated request");
+        }
+        return authentication.getName();
+    }
+
+    record Claim(String entryKey, String fingerprint, long ttlSeconds) {
+    }
+}
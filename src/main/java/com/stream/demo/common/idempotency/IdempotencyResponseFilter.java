@@ -0,0 +1,179 @@
+package com.stream.demo.common.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Idempotency Response Filter
+ * <p>
+ * Chỉ buffer requests mutating có header Idempotency-Key:
+ * - Trước: đọc trước body, gắn SHA-256 vào request attribute (fingerprint của IdempotencyInterceptor);
+ *   controller đọc lại body từ buffer. Form posts: hash các parameters (servlet container đã parse body)
+ * - Sau khi xử lý xong:
+ *   + Request đã được IdempotencyInterceptor claim + status < 500 → lưu response để replay
+ *   + Lỗi server (5xx hoặc exception) → bỏ claim để client retry
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyResponseFilter extends OncePerRequestFilter {
+
+    static final String BODY_HASH_ATTRIBUTE = IdempotencyResponseFilter.class.getName() + ".bodyHash";
+
+    private final IdempotencyStore store;
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        String method = request.getMethod();
+        return request.getHeader(IdempotencyInterceptor.HEADER) == null
+                || HttpMethod.GET.matches(method)
+                || HttpMethod.HEAD.matches(method)
+                || HttpMethod.OPTIONS.matches(method);
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull FilterChain filterChain) throws ServletException, IOException {
+        HttpServletRequest target = request;
+        if (isForm(request)) {
+            request.setAttribute(BODY_HASH_ATTRIBUTE, sha256(canonicalParameters(request.getParameterMap())));
+        } else {
+            byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+            request.setAttribute(BODY_HASH_ATTRIBUTE, sha256(body));
+            target = new CachedBodyRequest(request, body);
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean failed = true;
+        try {
+            filterChain.doFilter(target, wrapper);
+            failed = false;
+        } finally {
+            if (request.getAttribute(IdempotencyInterceptor.CLAIM_ATTRIBUTE) instanceof IdempotencyInterceptor.Claim claim) {
+                finish(claim, wrapper, failed);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void finish(IdempotencyInterceptor.Claim claim, ContentCachingResponseWrapper wrapper, boolean failed) {
+        try {
+            if (failed || wrapper.getStatus() >= 500) {
+                store.release(claim.entryKey());
+                return;
+            }
+            store.complete(claim.entryKey(), new IdempotencyStore.StoredResponse(
+                    true,
+                    claim.fingerprint(),
+                    wrapper.getStatus(),
+                    wrapper.getContentType(),
+                    new String(wrapper.getContentAsByteArray(), StandardCharsets.UTF_8)), claim.ttlSeconds());
+        } catch (RuntimeException ex) {
+            // Response vẫn trả cho client; pending entry tự hết hạn sau pending-ttl-seconds
+            log.error("Failed to store idempotent response for {}: {}", claim.entryKey(), ex.getMessage());
+        }
+    }
+
+    private static boolean isForm(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null
+                && (contentType.startsWith(MediaType.APPLICATION_FORM_URLENCODED_VALUE)
+                || contentType.startsWith(MediaType.MULTIPART_FORM_DATA_VALUE));
+    }
+
+    /**
+     * name=value1,value2&... theo thứ tự name (thứ tự parameters không đổi fingerprint)
+     */
+    private static byte[] canonicalParameters(Map<String, String[]> parameters) {
+        StringBuilder canonical = new StringBuilder();
+        new TreeMap<>(parameters).forEach((name, values) ->
+                canonical.append(name).append('=').append(String.join(",", values)).append('&'));
+        return canonical.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    /**
+     * Body đã đọc trước, phát lại cho controller
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException("Async reads are not supported");
+                }
+
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) {
+                    return input.read(buffer, offset, length);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() throws UnsupportedEncodingException {
+            String encoding = getCharacterEncoding();
+            return new BufferedReader(new InputStreamReader(getInputStream(),
+                    encoding != null ? encoding : StandardCharsets.UTF_8.name()));
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.stream.demo.common.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stream.demo.common.exception.ServiceUnavailableException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Idempotency Store
+ * <p>
+ * Redis entry per (principal, Idempotency-Key): idempotency:v1:{principal}:{key}
+ * - Claim: GET-or-SET trong một script → request trùng đọc được response đã lưu trong cùng round trip
+ * - Pending entry có TTL ngắn (request chết giữa chừng không khóa key mãi)
+ * - Completed entry có TTL bounded + index ZSET (score = expiresAt) để cleanup theo batch
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyStore {
+
+    private static final String KEY_PREFIX = "idempotency:v1:";
+    private static final String INDEX_KEY = "idempotency:v1:index";
+
+    private static final RedisScript<String> CLAIM_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/idempotency_claim.lua"), String.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.idempotency.pending-ttl-seconds:30}")
+    private long pendingTtlSeconds;
+
+    @Value("${app.idempotency.cleanup-batch-size:500}")
+    private int cleanupBatchSize;
+
+    public String entryKey(String principal, String idempotencyKey) {
+        return KEY_PREFIX + principal + ":" + idempotencyKey;
+    }
+
+    /**
+     * Claim key cho request này
+     *
+     * @return record đã có (request trùng), null nếu claim thành công
+     */
+    public StoredResponse claim(String entryKey, String fingerprint) {
+        try {
+            String existing = stringRedisTemplate.execute(CLAIM_SCRIPT, List.of(entryKey),
+                    serialize(StoredResponse.pending(fingerprint)), String.valueOf(pendingTtlSeconds));
+            return existing != null ? objectMapper.readValue(existing, StoredResponse.class) : null;
+        } catch (DataAccessException ex) {
+            log.error("Idempotency claim failed for {}: {}", entryKey, ex.getMessage());
+            throw new ServiceUnavailableException("Idempotency store unavailable, please retry", ex);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Corrupt idempotency record: " + entryKey, ex);
+        }
+    }
+
+    /**
+     * Lưu response hoàn chỉnh (ghi đè pending) + index cho cleanup
+     */
+    public void complete(String entryKey, StoredResponse response, long ttlSeconds) {
+        String value = serialize(response);
+        double expiresAt = System.currentTimeMillis() + ttlSeconds * 1000;
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.setEx(entryKey, ttlSeconds, value);
+            conn.zAdd(INDEX_KEY, expiresAt, entryKey);
+            return null;
+        });
+    }
+
+    /**
+     * Bỏ claim (request lỗi server) để client retry được
+     */
+    public void release(String entryKey) {
+        stringRedisTemplate.delete(entryKey);
+    }
+
+    // ============================================================
+    // Cleanup
+    // ============================================================
+
+    /**
+     * Entries hết hạn chỉ được Redis thu hồi khi bị truy cập hoặc khi active expiry lấy mẫu trúng.
+     * Sweep index theo batch: EXISTS trên key đã hết hạn buộc Redis xóa ngay (giải phóng response body),
+     * key còn sống (đã được claim lại sau khi hết hạn) không bị đụng tới.
+     */
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:60000}")
+    public void cleanupExpired() {
+        int total = 0;
+        Set<String> due;
+        do {
+            due = stringRedisTemplate.opsForZSet()
+                    .rangeByScore(INDEX_KEY, 0, System.currentTimeMillis(), 0, cleanupBatchSize);
+            if (due == null || due.isEmpty()) {
+                break;
+            }
+            String[] keys = due.toArray(String[]::new);
+            stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection conn = (StringRedisConnection) connection;
+                for (String key : keys) {
+                    conn.exists(key);
+                }
+                conn.zRem(INDEX_KEY, keys);
+                return null;
+            });
+            total += keys.length;
+        } while (due.size() == cleanupBatchSize);
+
+        if (total > 0) {
+            log.debug("Swept {} expired idempotency entries", total);
+        }
+    }
+
+    private String serialize(StoredResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize idempotency record", ex);
+        }
+    }
+
+    /**
+     * Record lưu trong Redis. Body là UTF-8 text (API chỉ trả JSON).
+     */
+    public record StoredResponse(boolean completed, String fingerprint, int status, String contentType,
+                                 String body) {
+
+        static StoredResponse pending(String fingerprint) {
+            return new StoredResponse(false, fingerprint, 0, null, null);
+        }
+    }
+}
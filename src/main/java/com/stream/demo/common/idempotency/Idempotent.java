@@ -0,0 +1,29 @@
+package com.stream.demo.common.idempotency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Đánh dấu endpoint mutating hỗ trợ header Idempotency-Key.
+ * <p>
+ * Request đầu tiên với một key được xử lý bình thường và response được lưu (Redis);
+ * retry cùng key trả lại đúng response đó mà không gọi controller.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Idempotent {
+
+    /**
+     * Bắt buộc client gửi Idempotency-Key (400 nếu thiếu)
+     */
+    boolean required() default false;
+
+    /**
+     * Thời gian giữ response; 0 = app.idempotency.ttl-seconds (luôn bị chặn bởi max-ttl-seconds)
+     */
+    long ttlSeconds() default 0;
+}
@@ -0,0 +1,129 @@
+package com.stream.demo.common.time;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical Timing Wheel
+ * <p>
+ * {@code levels} wheels, mỗi wheel {@code wheelSize} buckets; tick của level i = tickMs × wheelSize^i.
+ * Ví dụ tick 1s, size 64, 4 levels: 64s / ~68 phút / ~3 ngày / ~194 ngày.
+ * <p>
+ * schedule O(1); advanceTo chỉ chạm bucket đến hạn của mỗi tick (không scan tất cả timers).
+ * Mỗi khi tick chạm ranh giới của level cao, bucket tương ứng được cascade xuống level thấp hơn.
+ * Timer xa hơn level cao nhất nằm ở bucket xa nhất và được xếp lại mỗi vòng.
+ * Không hỗ trợ cancel: payload tự kiểm tra còn hiệu lực khi fire.
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    private final long tickMs;
+    private final int wheelSize;
+    private final List<Level<T>> levels;
+    private long currentTimeMs;
+
+    public HierarchicalTimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+        this.tickMs = tickMs;
+        this.wheelSize = wheelSize;
+        this.levels = new ArrayList<>(levels);
+        long levelTick = tickMs;
+        for (int i = 0; i < levels; i++) {
+            this.levels.add(new Level<>(levelTick, wheelSize));
+            levelTick *= wheelSize;
+        }
+        this.currentTimeMs = startMs - (startMs % tickMs);
+    }
+
+    /**
+     * Đăng ký timer; đã đến hạn → trả về false (caller tự xử lý ngay)
+     */
+    public synchronized boolean schedule(long expireAtMs, T payload) {
+        return insert(new Timer<>(expireAtMs, payload));
+    }
+
+    /**
+     * Tiến wheel tới thời điểm nowMs, gọi onExpire cho các timers đến hạn (ngoài lock)
+     */
+    public void advanceTo(long nowMs, Consumer<T> onExpire) {
+        List<T> expired = new ArrayList<>();
+        synchronized (this) {
+            while (currentTimeMs + tickMs <= nowMs) {
+                currentTimeMs += tickMs;
+
+                // 1. Level 0: bucket của tick hiện tại
+                drain(levels.get(0), currentTimeMs, expired);
+
+                // 2. Cascade các levels cao mà tick này chạm ranh giới
+                for (int i = levels.size() - 1; i >= 1; i--) {
+                    Level<T> level = levels.get(i);
+                    if (currentTimeMs % level.tickMs == 0) {
+                        drain(level, currentTimeMs, expired);
+                    }
+                }
+            }
+        }
+        expired.forEach(onExpire);
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    private void drain(Level<T> level, long timeMs, List<T> expired) {
+        int index = (int) ((timeMs / level.tickMs) % wheelSize);
+        List<Timer<T>> bucket = level.buckets.get(index);
+        if (bucket.isEmpty()) {
+            return;
+        }
+        level.buckets.set(index, new ArrayList<>());
+        for (Timer<T> timer : bucket) {
+            if (!insert(timer)) {
+                expired.add(timer.payload);
+            }
+        }
+    }
+
+    private boolean insert(Timer<T> timer) {
+        long delay = timer.expireAtMs - currentTimeMs;
+        if (delay <= 0) {
+            return false;
+        }
+        Level<T> level0 = levels.get(0);
+        if (delay < level0.intervalMs) {
+            // ceil: fire tại tick đầu tiên ≥ expireAt
+            long slot = (timer.expireAtMs + tickMs - 1) / tickMs;
+            level0.buckets.get((int) (slot % wheelSize)).add(timer);
+            return true;
+        }
+        for (int i = 1; i < levels.size(); i++) {
+            Level<T> level = levels.get(i);
+            if (delay < level.intervalMs) {
+                level.buckets.get((int) ((timer.expireAtMs / level.tickMs) % wheelSize)).add(timer);
+                return true;
+            }
+        }
+        // Xa hơn level cao nhất: bucket xa nhất, xếp lại khi cascade
+        Level<T> top = levels.get(levels.size() - 1);
+        long farthest = currentTimeMs / top.tickMs + wheelSize - 1;
+        top.buckets.get((int) (farthest % wheelSize)).add(timer);
+        return true;
+    }
+
+    private static final class Level<T> {
+        private final long tickMs;
+        private final long intervalMs;
+        private final List<List<Timer<T>>> buckets;
+
+        private Level(long tickMs, int wheelSize) {
+            this.tickMs = tickMs;
+            this.intervalMs = tickMs * wheelSize;
+            this.buckets = new ArrayList<>(wheelSize);
+            for (int i = 0; i < wheelSize; i++) {
+                buckets.add(new ArrayList<>());
+            }
+        }
+    }
+
+    private record Timer<T>(long expireAtMs, T payload) {
+    }
+}
@@ -0,0 +1,275 @@
+package com.stream.demo.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.RetryInterceptorBuilder;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.amqp.rabbit.retry.RejectAndDontRequeueRecoverer;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RabbitMQ Configuration
+ * <p>
+ * Khai báo exchanges/queues và listener container factories.
+ * Tên exchange/queue tập trung trong {@link RabbitNames} để producer và consumer dùng chung.
+ */
+@Configuration
+public class RabbitMQConfig {
+
+    /**
+     * Exchange / Queue names
+     * Constants dùng chung cho producer và consumer
+     */
+    public static class RabbitNames {
+        private RabbitNames() {}
+
+        // RTMP webhook ingestion (partitioned theo streamKey)
+        public static final String RTMP_WEBHOOK_EXCHANGE = "webhook.rtmp.exchange";
+        public static final String RTMP_WEBHOOK_QUEUE_PREFIX = "webhook.rtmp.queue.";
+        public static final String RTMP_WEBHOOK_ROUTING_PREFIX = "rtmp.";
+        public static final String RTMP_WEBHOOK_DLX = "webhook.rtmp.dlx";
+        public static final String RTMP_WEBHOOK_DLQ = "webhook.rtmp.dlq";
+
+        public static final String RTMP_WEBHOOK_CONTAINER_FACTORY = "rtmpWebhookListenerContainerFactory";
+
+        // Stream lifecycle domain events (publish bởi outbox relay)
+        // Routing keys: stream.started, stream.ended
+        public static final String STREAM_EVENTS_EXCHANGE = "stream.events";
+        public static final String STREAM_ENDED_ROUTING_KEY = "stream.ended";
+
+        // End-of-stream finalization (consume stream.ended theo batch)
+        public static final String STREAM_FINALIZATION_QUEUE = "stream.finalization.queue";
+        public static final String STREAM_FINALIZATION_DLQ = "stream.finalization.dlq";
+
+        public static final String STREAM_FINALIZATION_CONTAINER_FACTORY = "streamFinalizationListenerContainerFactory";
+
+        // Chat write-behind persistence
+        public static final String CHAT_MESSAGES_EXCHANGE = "chat.messages";
+        public static final String CHAT_PERSIST_ROUTING_KEY = "chat.persist";
+        public static final String CHAT_PERSISTENCE_QUEUE = "chat.persistence.queue";
+        public static final String CHAT_PERSISTENCE_DLQ = "chat.persistence.dlq";
+
+        public static final String CHAT_PERSISTENCE_CONTAINER_FACTORY = "chatPersistenceListenerContainerFactory";
+
+        public static String rtmpWebhookQueue(int partition) {
+            return RTMP_WEBHOOK_QUEUE_PREFIX + partition;
+        }
+
+        public static String rtmpWebhookRoutingKey(int partition) {
+            return RTMP_WEBHOOK_ROUTING_PREFIX + partition;
+        }
+    }
+
+    @Value("${app.webhook.rtmp.partitions:4}")
+    private int rtmpWebhookPartitions;
+
+    @Value("${app.stream.finalization.batch-size:50}")
+    private int finalizationBatchSize;
+
+    @Value("${app.stream.finalization.batch-timeout-ms:1000}")
+    private long finalizationBatchTimeoutMs;
+
+    @Value("${app.chat.persistence.batch-size:500}")
+    private int chatPersistenceBatchSize;
+
+    @Value("${app.chat.persistence.batch-timeout-ms:250}")
+    private long chatPersistenceBatchTimeoutMs;
+
+    @Value("${app.chat.persistence.consumers:2}")
+    private int chatPersistenceConsumers;
+
+    /**
+     * JSON message converter cho tất cả RabbitTemplate / listeners
+     * (Spring Boot tự động gắn MessageConverter bean vào RabbitTemplate).
+     * Chỉ trust event DTO package khi deserialize theo __TypeId__ header.
+     */
+    @Bean
+    public MessageConverter rabbitMessageConverter() {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModule(new JavaTimeModule());
+        mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return new Jackson2JsonMessageConverter(mapper, "com.stream.demo.model.dto.event");
+    }
+
+    // ============================================================
+    // RTMP Webhook Ingestion
+    // ============================================================
+
+    /**
+     * Mỗi partition là một queue riêng với single-active-consumer:
+     * events của cùng streamKey luôn vào cùng partition, và chỉ một consumer
+     * (trên toàn cluster) xử lý partition đó → đảm bảo thứ tự per stream.
+     */
+    @Bean
+    public Declarables rtmpWebhookDeclarables() {
+        DirectExchange exchange = new DirectExchange(RabbitNames.RTMP_WEBHOOK_EXCHANGE, true, false);
+        DirectExchange dlx = new DirectExchange(RabbitNames.RTMP_WEBHOOK_DLX, true, false);
+        Queue dlq = QueueBuilder.durable(RabbitNames.RTMP_WEBHOOK_DLQ).build();
+
+        List<Declarable> declarables = new ArrayList<>();
+        declarables.add(exchange);
+        declarables.add(dlx);
+        declarables.add(dlq);
+        declarables.add(BindingBuilder.bind(dlq).to(dlx).with(RabbitNames.RTMP_WEBHOOK_DLQ));
+
+        for (int partition = 0; partition < rtmpWebhookPartitions; partition++) {
+            Queue queue = QueueBuilder.durable(RabbitNames.rtmpWebhookQueue(partition))
+                    .singleActiveConsumer()
+                    .deadLetterExchange(RabbitNames.RTMP_WEBHOOK_DLX)
+                    .deadLetterRoutingKey(RabbitNames.RTMP_WEBHOOK_DLQ)
+                    .build();
+            Binding binding = BindingBuilder.bind(queue).to(exchange)
+                    .with(RabbitNames.rtmpWebhookRoutingKey(partition));
+            declarables.add(queue);
+            declarables.add(binding);
+        }
+        return new Declarables(declarables);
+    }
+
+    // ============================================================
+    // Stream Lifecycle Events
+    // ============================================================
+
+    @Bean
+    public TopicExchange streamEventsExchange() {
+        return new TopicExchange(RabbitNames.STREAM_EVENTS_EXCHANGE, true, false);
+    }
+
+    /**
+     * Finalization queue nhận stream.ended; batch lỗi sau retry dead-letter sang DLQ (qua default exchange)
+     */
+    @Bean
+    public Declarables streamFinalizationDeclarables(TopicExchange streamEventsExchange) {
+        Queue dlq = QueueBuilder.durable(RabbitNames.STREAM_FINALIZATION_DLQ).build();
+        Queue queue = QueueBuilder.durable(RabbitNames.STREAM_FINALIZATION_QUEUE)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(RabbitNames.STREAM_FINALIZATION_DLQ)
+                .build();
+        return new Declarables(
+                dlq,
+                queue,
+                BindingBuilder.bind(queue).to(streamEventsExchange).with(RabbitNames.STREAM_ENDED_ROUTING_KEY));
+    }
+
+    // ============================================================
+    // Chat Persistence
+    // ============================================================
+
+    /**
+     * Chat persistence queue; batch lỗi sau retry dead-letter sang DLQ (qua default exchange)
+     */
+    @Bean
+    public Declarables chatPersistenceDeclarables() {
+        DirectExchange exchange = new DirectExchange(RabbitNames.CHAT_MESSAGES_EXCHANGE, true, false);
+        Queue dlq = QueueBuilder.durable(RabbitNames.CHAT_PERSISTENCE_DLQ).build();
+        Queue queue = QueueBuilder.durable(RabbitNames.CHAT_PERSISTENCE_QUEUE)
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(RabbitNames.CHAT_PERSISTENCE_DLQ)
+                .build();
+        return new Declarables(
+                exchange,
+                dlq,
+                queue,
+                BindingBuilder.bind(queue).to(exchange).with(RabbitNames.CHAT_PERSIST_ROUTING_KEY));
+    }
+
+    /**
+     * Container factory cho RTMP webhook consumers.
+     * Concurrency = 1 per queue để giữ thứ tự; retry 3 lần rồi đẩy sang DLQ.
+     */
+    @Bean(name = RabbitNames.RTMP_WEBHOOK_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory rtmpWebhookListenerContainerFactory(
+            ConnectionFactory connectionFactory, MessageConverter rabbitMessageConverter) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(rabbitMessageConverter);
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        factory.setPrefetchCount(50);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(3)
+                .backOffOptions(500, 2.0, 5000)
+                .recoverer(new RejectAndDontRequeueRecoverer())
+                .build());
+        return factory;
+    }
+
+    /**
+     * Container factory cho finalization consumer.
+     * Consumer-side batching: gom tối đa batch-size messages hoặc chờ batch-timeout-ms,
+     * listener nhận List → một pipeline Redis + một JDBC batch cho cả batch.
+     * Retry cả batch 3 lần rồi reject (→ DLQ).
+     */
+    @Bean(name = RabbitNames.STREAM_FINALIZATION_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory streamFinalizationListenerContainerFactory(
+            ConnectionFactory connectionFactory, MessageConverter rabbitMessageConverter) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(rabbitMessageConverter);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(finalizationBatchSize);
+        factory.setReceiveTimeout(finalizationBatchTimeoutMs);
+        factory.setPrefetchCount(finalizationBatchSize * 2);
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(2);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(3)
+                .backOffOptions(1000, 2.0, 10000)
+                .recoverer((MessageBatchRecoverer) (messages, cause) -> {
+                    throw new AmqpRejectAndDontRequeueException(
+                            "Finalization batch of " + messages.size() + " messages failed", cause);
+                })
+                .build());
+        return factory;
+    }
+
+    /**
+     * Container factory cho chat persistence consumer.
+     * Gom tối đa batch-size messages hoặc chờ batch-timeout-ms → một JDBC batch insert.
+     * AUTO ack: cả batch chỉ được ack sau khi listener return (transaction đã commit);
+     * lỗi → retry cả batch 3 lần rồi reject (→ DLQ). Không cần thứ tự → nhiều consumers song song.
+     */
+    @Bean(name = RabbitNames.CHAT_PERSISTENCE_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory chatPersistenceListenerContainerFactory(
+            ConnectionFactory connectionFactory, MessageConverter rabbitMessageConverter) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(rabbitMessageConverter);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(chatPersistenceBatchSize);
+        factory.setReceiveTimeout(chatPersistenceBatchTimeoutMs);
+        factory.setPrefetchCount(chatPersistenceBatchSize * 2);
+        factory.setConcurrentConsumers(chatPersistenceConsumers);
+        factory.setMaxConcurrentConsumers(chatPersistenceConsumers);
+        factory.setAdviceChain(RetryInterceptorBuilder.stateless()
+                .maxAttempts(3)
+                .backOffOptions(500, 2.0, 5000)
+                .recoverer((MessageBatchRecoverer) (messages, cause) -> {
+                    throw new AmqpRejectAndDontRequeueException(
+                            "Chat persistence batch of " + messages.size() + " messages failed", cause);
+                })
+                .build());
+        return factory;
+    }
+}
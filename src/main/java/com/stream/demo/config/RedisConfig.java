@@ -4,10 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.stream.demo.model.dto.cache.SessionCacheDTO;
+import com.stream.demo.model.dto.cache.StreamSearchCacheDTO;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -28,6 +31,7 @@ public class RedisConfig {
 	    private RedisTemplateBeanNames() {}
 
 	    public static final String SESSION_CACHE = "sessionCacheRedisTemplate";
+        public static final String STREAM_SEARCH_CACHE = "streamSearchCacheRedisTemplate";
         // Add more bean names here
         // public static final String USER_PROFILE = "userProfileRedisTemplate";
     }
@@ -52,6 +56,25 @@ public class RedisConfig {
         return createRedisTemplate(factory, redisObjectMapper, SessionCacheDTO.class);
     }
 
+    @Bean(name = RedisTemplateBeanNames.STREAM_SEARCH_CACHE)
+    public RedisTemplate<String, StreamSearchCacheDTO> streamSearchCacheRedisTemplate(
+            RedisConnectionFactory factory, ObjectMapper redisObjectMapper) {
+        return createRedisTemplate(factory, redisObjectMapper, StreamSearchCacheDTO.class);
+    }
+
+    /**
+     * Pub/Sub listener container (một subscription connection cho cả node).
+     * Dispatch đồng bộ trên subscription thread - listeners tự hand off sang executor riêng,
+     * tránh SimpleAsyncTaskExecutor mặc định tạo thread mới cho mỗi message.
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        container.setTaskExecutor(new SyncTaskExecutor());
+        return container;
+    }
+
     // Add more beans here (simple copy-paste):
     // @Bean(name = RedisTemplateBeanNames.USER_PROFILE)
     // public RedisTemplate<String, UserProfileDTO> userProfileRedisTemplate(
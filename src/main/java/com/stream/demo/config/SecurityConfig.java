@@ -59,11 +59,19 @@ public class SecurityConfig {
                                 "/webjars/**")
                         .permitAll()
 
+                        // Actuator: health public, metrics chỉ ADMIN
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
+
+                        // WebSocket handshake (viewer counts public)
+                        .requestMatchers("/ws/**").permitAll()
+
                         // Public viewing endpoints
                         .requestMatchers(HttpMethod.GET, "/api/streams/**").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/gifts").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/analytics/leaderboard").permitAll()
                         .requestMatchers(HttpMethod.GET, "/api/chat/*/history").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/chat/*/node").permitAll()
 
                         // ============================================================
                         // ROLE-BASED ENDPOINTS
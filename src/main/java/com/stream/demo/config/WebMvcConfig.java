@@ -0,0 +1,24 @@
+package com.stream.demo.config;
+
+import com.stream.demo.common.idempotency.IdempotencyInterceptor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Spring MVC configuration
+ * <p>
+ * IdempotencyInterceptor chỉ tác động lên handlers có @Idempotent.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    private final IdempotencyInterceptor idempotencyInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(idempotencyInterceptor).addPathPatterns("/api/**");
+    }
+}
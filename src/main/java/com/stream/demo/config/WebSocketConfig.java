@@ -0,0 +1,36 @@
+package com.stream.demo.config;
+
+import com.stream.demo.security.WebSocketAuthHandshakeInterceptor;
+import com.stream.demo.websocket.LiveWebSocketHandler;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * WebSocket Configuration
+ * <p>
+ * Raw WebSocket endpoint /ws/live (JSON text frames, không dùng STOMP):
+ * push viewer counts và chat cho các streams client subscribe.
+ * Handshake xác thực JWT (optional) qua WebSocketAuthHandshakeInterceptor.
+ */
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final LiveWebSocketHandler liveWebSocketHandler;
+    private final WebSocketAuthHandshakeInterceptor authHandshakeInterceptor;
+
+    @Value("${app.websocket.allowed-origins:*}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(liveWebSocketHandler, "/ws/live")
+                .addInterceptors(authHandshakeInterceptor)
+                .setAllowedOriginPatterns(allowedOrigins);
+    }
+}
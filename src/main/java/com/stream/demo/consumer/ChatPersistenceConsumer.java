@@ -0,0 +1,31 @@
+package com.stream.demo.consumer;
+
+import com.stream.demo.config.RabbitMQConfig.RabbitNames;
+import com.stream.demo.model.dto.event.ChatMessageEvent;
+import com.stream.demo.service.ChatPersistenceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Chat Persistence Consumer
+ * <p>
+ * Write-behind: consume chat messages theo batch (size hoặc timeout) và persist bằng một batch insert.
+ * Batch chỉ được ack sau khi insert commit.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChatPersistenceConsumer {
+
+    private final ChatPersistenceService chatPersistenceService;
+
+    @RabbitListener(
+            id = "chatPersistenceConsumer",
+            queues = RabbitNames.CHAT_PERSISTENCE_QUEUE,
+            containerFactory = RabbitNames.CHAT_PERSISTENCE_CONTAINER_FACTORY)
+    public void onChatMessages(List<ChatMessageEvent> messages) {
+        chatPersistenceService.persistBatch(messages);
+    }
+}
@@ -0,0 +1,52 @@
+package com.stream.demo.consumer;
+
+import com.stream.demo.config.RabbitMQConfig.RabbitNames;
+import com.stream.demo.model.dto.event.RtmpWebhookEvent;
+import com.stream.demo.service.RtmpWebhookService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * RTMP Webhook Consumer
+ * <p>
+ * Đăng ký một listener (concurrency = 1) cho mỗi partition queue.
+ * Các partitions xử lý song song, events trong cùng partition xử lý tuần tự
+ * → lifecycle transitions của một stream luôn được apply theo thứ tự.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RtmpWebhookConsumer implements RabbitListenerConfigurer {
+
+    private final RtmpWebhookService rtmpWebhookService;
+    private final MessageConverter rabbitMessageConverter;
+
+    @Qualifier(RabbitNames.RTMP_WEBHOOK_CONTAINER_FACTORY)
+    private final SimpleRabbitListenerContainerFactory rtmpWebhookListenerContainerFactory;
+
+    @Value("${app.webhook.rtmp.partitions:4}")
+    private int partitions;
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (int partition = 0; partition < partitions; partition++) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("rtmpWebhookConsumer-" + partition);
+            endpoint.setQueueNames(RabbitNames.rtmpWebhookQueue(partition));
+            endpoint.setMessageListener(message -> {
+                RtmpWebhookEvent event = (RtmpWebhookEvent) rabbitMessageConverter.fromMessage(message);
+                log.debug("Consuming {} event {} for streamKey: {}", event.getType(), event.getEventId(), event.getStreamKey());
+                rtmpWebhookService.process(event);
+            });
+            registrar.registerEndpoint(endpoint, rtmpWebhookListenerContainerFactory);
+        }
+    }
+}
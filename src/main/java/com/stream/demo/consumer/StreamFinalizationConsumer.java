@@ -0,0 +1,39 @@
+package com.stream.demo.consumer;
+
+import com.stream.demo.config.RabbitMQConfig.RabbitNames;
+import com.stream.demo.model.dto.event.StreamLifecycleEvent;
+import com.stream.demo.service.StreamStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stream Finalization Consumer
+ * <p>
+ * Consume stream.ended (publish bởi outbox relay) theo batch và finalize stats off webhook thread.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StreamFinalizationConsumer {
+
+    private final StreamStatsService streamStatsService;
+
+    @RabbitListener(
+            id = "streamFinalizationConsumer",
+            queues = RabbitNames.STREAM_FINALIZATION_QUEUE,
+            containerFactory = RabbitNames.STREAM_FINALIZATION_CONTAINER_FACTORY)
+    public void onStreamEnded(List<StreamLifecycleEvent> events) {
+        Set<Long> streamIds = new LinkedHashSet<>();
+        for (StreamLifecycleEvent event : events) {
+            streamIds.add(event.getStreamId());
+        }
+        log.debug("Consuming {} stream.ended events for {} streams", events.size(), streamIds.size());
+        streamStatsService.finalizeStreams(streamIds);
+    }
+}
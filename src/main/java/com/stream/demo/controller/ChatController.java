@@ -0,0 +1,84 @@
+package com.stream.demo.controller;
+
+import com.stream.demo.common.ApiResponse;
+import com.stream.demo.model.dto.request.ChatMuteRequest;
+import com.stream.demo.model.dto.response.ChatHistoryResponse;
+import com.stream.demo.model.dto.response.RoomNodeResponse;
+import com.stream.demo.service.ChatHistoryService;
+import com.stream.demo.service.ChatMuteService;
+import com.stream.demo.service.RoomAffinityService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Chat Controller
+ * <p>
+ * Gửi message qua WebSocket /ws/live; REST phục vụ history và moderation (mute).
+ */
+@RestController
+@RequestMapping("/api/chat")
+@RequiredArgsConstructor
+@Tag(name = "Chat", description = "Live chat APIs")
+public class ChatController {
+
+    private final ChatHistoryService chatHistoryService;
+    private final ChatMuteService chatMuteService;
+    private final RoomAffinityService roomAffinity;
+
+    // ============================================================
+    // PUBLIC ENDPOINTS
+    // ============================================================
+
+    @GetMapping("/{streamId}/history")
+    @Operation(summary = "Get chat history", description = "Newest messages first. Recent messages are served from the Redis ring buffer; pass nextCursor as before to page into older history.")
+    public ApiResponse<ChatHistoryResponse> getHistory(
+            @PathVariable Long streamId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Integer limit) {
+        return ApiResponse.success(chatHistoryService.getHistory(streamId, before, limit), null);
+    }
+
+    @GetMapping("/{streamId}/node")
+    @Operation(summary = "Get the node serving a chat room", description = "With room affinity enabled, connect the WebSocket for this stream to the returned url")
+    public ApiResponse<RoomNodeResponse> getRoomNode(@PathVariable Long streamId) {
+        return ApiResponse.success(roomAffinity.getRoomNode(streamId), null);
+    }
+
+    // ============================================================
+    // OWNER + ADMIN: Moderation
+    // ============================================================
+
+    @PreAuthorize("hasRole('ADMIN') or @streamService.isStreamOwner(#streamId, authentication.name)")
+    @PostMapping("/{streamId}/mute")
+    @Operation(summary = "Mute a user in chat", description = "Muted users cannot send chat messages in this stream until the mute expires (omit durationSeconds for a permanent mute)")
+    public ApiResponse<Void> muteUser(
+            @PathVariable Long streamId,
+            @Valid @RequestBody ChatMuteRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        chatMuteService.mute(streamId, request.getUserId(), request.getDurationSeconds(), userDetails.getUsername());
+        return ApiResponse.success(null, "User muted");
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or @streamService.isStreamOwner(#streamId, authentication.name)")
+    @PostMapping("/{streamId}/unmute")
+    @Operation(summary = "Unmute a user in chat")
+    public ApiResponse<Void> unmuteUser(
+            @PathVariable Long streamId,
+            @Valid @RequestBody ChatMuteRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        chatMuteService.unmute(streamId, request.getUserId(), userDetails.getUsername());
+        return ApiResponse.success(null, "User unmuted");
+    }
+}
@@ -0,0 +1,55 @@
+package com.stream.demo.controller;
+
+import com.stream.demo.common.ApiResponse;
+import com.stream.demo.model.dto.BannedPhraseDTO;
+import com.stream.demo.model.dto.request.BannedPhraseRequest;
+import com.stream.demo.service.BannedPhraseFilterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Chat Moderation Controller
+ * <p>
+ * Admin quản lý danh sách banned phrases; thay đổi được áp dụng trên mọi node sau khi automaton rebuild.
+ */
+@RestController
+@RequestMapping("/api/admin/chat")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+@Tag(name = "Chat Moderation", description = "Admin chat moderation APIs")
+public class ChatModerationController {
+
+    private final BannedPhraseFilterService bannedPhraseFilterService;
+
+    @GetMapping("/banned-phrases")
+    @Operation(summary = "List banned phrases", description = "Admin only")
+    public ApiResponse<List<BannedPhraseDTO>> getBannedPhrases() {
+        return ApiResponse.success(bannedPhraseFilterService.getBannedPhrases(), null);
+    }
+
+    @PostMapping("/banned-phrases")
+    @Operation(summary = "Add banned phrase", description = "Admin only. Matching is case-insensitive and normalizes leetspeak inside words; "
+            + "wholeWord=true only matches the phrase as a separate word.")
+    public ApiResponse<BannedPhraseDTO> addBannedPhrase(
+            @Valid @RequestBody BannedPhraseRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        BannedPhraseDTO phrase = bannedPhraseFilterService.addBannedPhrase(
+                request.getPhrase(), request.isWholeWord(), userDetails.getUsername());
+        return ApiResponse.success(phrase, "Banned phrase added successfully");
+    }
+
+    @DeleteMapping("/banned-phrases/{id}")
+    @Operation(summary = "Remove banned phrase", description = "Admin only")
+    public ApiResponse<Void> removeBannedPhrase(@PathVariable Long id) {
+        bannedPhraseFilterService.removeBannedPhrase(id);
+        return ApiResponse.success(null, "Banned phrase removed successfully");
+    }
+}
@@ -0,0 +1,102 @@
+package com.stream.demo.controller;
+
+import com.stream.demo.common.ApiResponse;
+import com.stream.demo.common.idempotency.Idempotent;
+import com.stream.demo.model.dto.PollDTO;
+import com.stream.demo.model.dto.request.CreatePollRequest;
+import com.stream.demo.model.dto.request.PollVoteRequest;
+import com.stream.demo.model.entity.User;
+import com.stream.demo.service.PollService;
+import com.stream.demo.service.UserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Poll Controller
+ * <p>
+ * Live polls trong stream; kết quả live được push qua WebSocket /ws/live ({"type":"poll",...}).
+ */
+@RestController
+@RequestMapping("/api/streams/{streamId}/polls")
+@RequiredArgsConstructor
+@Tag(name = "Polls", description = "Live poll APIs")
+public class PollController {
+
+    private final PollService pollService;
+    private final UserService userService;
+
+    // ============================================================
+    // PUBLIC ENDPOINTS
+    // ============================================================
+
+    @GetMapping
+    @Operation(summary = "Get polls of a stream", description = "Most recent 20 polls, newest first, with current results")
+    public ApiResponse<List<PollDTO>> getPolls(@PathVariable Long streamId) {
+        return ApiResponse.success(pollService.getPolls(streamId), null);
+    }
+
+    @GetMapping("/{pollId}")
+    @Operation(summary = "Get poll results")
+    public ApiResponse<PollDTO> getPoll(@PathVariable Long streamId, @PathVariable Long pollId) {
+        return ApiResponse.success(pollService.getPoll(streamId, pollId), null);
+    }
+
+    // ============================================================
+    // AUTHENTICATED ENDPOINTS
+    // ============================================================
+
+    @PostMapping("/{pollId}/vote")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Vote in a poll", description = "One vote per user per poll; results update on the next push")
+    public ApiResponse<Void> vote(
+            @PathVariable Long streamId,
+            @PathVariable Long pollId,
+            @Valid @RequestBody PollVoteRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        User user = userService.getUserByUsername(userDetails.getUsername());
+        pollService.vote(streamId, pollId, user.getId(), request.getOption());
+        return ApiResponse.success(null, "Vote accepted");
+    }
+
+    // ============================================================
+    // OWNER + ADMIN
+    // ============================================================
+
+    @PreAuthorize("hasRole('ADMIN') or @streamService.isStreamOwner(#streamId, authentication.name)")
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    @Idempotent
+    @Operation(summary = "Create a poll", description = "Only one open poll per stream")
+    public ApiResponse<PollDTO> createPoll(
+            @PathVariable Long streamId,
+            @Valid @RequestBody CreatePollRequest request,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        return ApiResponse.success(pollService.createPoll(streamId, request, userDetails.getUsername()), "Poll created");
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or @streamService.isStreamOwner(#streamId, authentication.name)")
+    @PostMapping("/{pollId}/close")
+    @Operation(summary = "Close a poll", description = "Results are persisted shortly after closing")
+    public ApiResponse<Void> closePoll(
+            @PathVariable Long streamId,
+            @PathVariable Long pollId,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        pollService.closePoll(streamId, pollId, userDetails.getUsername());
+        return ApiResponse.success(null, "Poll closed");
+    }
+}
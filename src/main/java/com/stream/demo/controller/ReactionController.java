@@ -0,0 +1,55 @@
+package com.stream.demo.controller;
+
+import com.stream.demo.common.ApiResponse;
+import com.stream.demo.model.dto.request.ReactionRequest;
+import com.stream.demo.service.ReactionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * Reaction Controller
+ * <p>
+ * Taps cũng gửi được qua WebSocket /ws/live ({"action":"react",...}); deltas push về subscribers mỗi tick.
+ */
+@RestController
+@RequestMapping("/api/streams/{streamId}/reactions")
+@RequiredArgsConstructor
+@Tag(name = "Reactions", description = "Live reaction (heart/tap) APIs")
+public class ReactionController {
+
+    private final ReactionService reactionService;
+
+    // ============================================================
+    // PUBLIC ENDPOINTS
+    // ============================================================
+
+    @GetMapping
+    @Operation(summary = "Get reaction totals", description = "Total taps per reaction type (lags live taps by at most one flush tick)")
+    public ApiResponse<Map<String, Long>> getTotals(@PathVariable Long streamId) {
+        return ApiResponse.success(reactionService.getTotals(streamId), null);
+    }
+
+    // ============================================================
+    // AUTHENTICATED ENDPOINTS
+    // ============================================================
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    @Operation(summary = "Send reaction taps", description = "Counted in memory and flushed to Redis once per tick")
+    public ApiResponse<Void> react(@PathVariable Long streamId, @Valid @RequestBody ReactionRequest request) {
+        reactionService.react(streamId, request.getType(), request.getCount());
+        return ApiResponse.success(null, "Reaction accepted");
+    }
+}
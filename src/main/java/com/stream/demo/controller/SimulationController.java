@@ -1,6 +1,7 @@
 package com.stream.demo.controller;
 
 import com.stream.demo.common.ApiResponse;
+import com.stream.demo.common.idempotency.Idempotent;
 import com.stream.demo.model.dto.WalletDTO;
 import com.stream.demo.model.dto.request.SimulateDepositRequest;
 import com.stream.demo.service.WalletService;
@@ -25,14 +26,15 @@ public class SimulationController {
      * Simulate payment deposit.
      */
     @PostMapping("/payment/deposit")
-    @Operation(summary = "Simulate payment deposit")
+    @Idempotent
+    @Operation(summary = "Simulate payment deposit",
+            description = "Send an Idempotency-Key header to make client retries return the original result")
     public ApiResponse<WalletDTO> simulateDeposit(
             @RequestBody @Valid SimulateDepositRequest request) {
-        WalletDTO wallet = walletService.deposit(
-                request.getUserId(),
-                request.getAmount(),
-                "Simulated deposit"
-        );
+        WalletDTO wallet = request.getTransactionId() != null
+                ? walletService.deposit(request.getUserId(), request.getAmount(), "Simulated deposit",
+                        request.getTransactionId())
+                : walletService.deposit(request.getUserId(), request.getAmount(), "Simulated deposit");
         return ApiResponse.success(wallet, "Deposit successful (simulated)");
     }
 }
@@ -1,19 +1,34 @@
 package com.stream.demo.controller;
 
 import com.stream.demo.common.ApiResponse;
+import com.stream.demo.common.exception.BusinessException;
 import com.stream.demo.model.dto.StreamDTO;
+import com.stream.demo.model.dto.StreamStatsDTO;
 import com.stream.demo.model.dto.request.CreateStreamRequest;
+import com.stream.demo.model.dto.response.StreamSearchResponse;
 import com.stream.demo.model.entity.User;
+import com.stream.demo.service.LiveListingSnapshotService;
 import com.stream.demo.service.LiveStreamCacheService;
+import com.stream.demo.service.StreamSearchService;
 import com.stream.demo.service.StreamService;
+import com.stream.demo.service.StreamStatsService;
+import com.stream.demo.service.StreamVersionService;
+import com.stream.demo.service.StreamViewerArchiveService;
 import com.stream.demo.service.UserService;
+import com.stream.demo.service.ViewerBitmapService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -30,33 +45,86 @@ import java.util.List;
 @Tag(name = "Streams", description = "Livestream management APIs")
 public class StreamController {
 
+    private static final int MAX_OVERLAP_STREAMS = 100;
+
     private final StreamService streamService;
+    private final StreamSearchService streamSearchService;
+    private final StreamStatsService streamStatsService;
     private final UserService userService;
     private final LiveStreamCacheService liveStreamCache;
+    private final StreamViewerArchiveService viewerArchiveService;
+    private final StreamVersionService streamVersionService;
+    private final LiveListingSnapshotService liveListingSnapshotService;
+    private final ViewerBitmapService viewerBitmapService;
 
     // ============================================================
     // PUBLIC ENDPOINTS
     // ============================================================
 
     @GetMapping
-    @Operation(summary = "Get all streams", description = "Public endpoint to browse active streams. Use liveOnly=true (default) to get only live streams.")
-    public ApiResponse<List<StreamDTO>> getAllStreams(
-            @RequestParam(defaultValue = "true") boolean liveOnly) {
-        List<StreamDTO> streams = liveOnly ? streamService.getAllLiveStreams() : streamService.getAllStreams();
-        return ApiResponse.success(streams, null);
+    @Operation(summary = "Get all streams", description = "Public endpoint to browse active streams. Use liveOnly=true (default) to get only live streams. Supports If-None-Match (304).")
+    public ResponseEntity<?> getAllStreams(
+            @RequestParam(defaultValue = "true") boolean liveOnly,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest,
+            HttpServletResponse servletResponse) {
+        if (liveOnly) {
+            // Pre-serialized snapshot: không query DB, không Jackson
+            LiveListingSnapshotService.Snapshot snapshot = liveListingSnapshotService.getSnapshot();
+            boolean gzip = acceptEncoding != null && acceptEncoding.contains("gzip");
+            // Vary cả trên 304: cache phải tách representation theo Accept-Encoding
+            servletResponse.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (webRequest.checkNotModified(snapshot.etag(gzip))) {
+                return null;
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .cacheControl(CacheControl.noCache());
+            if (gzip) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(gzip ? snapshot.gzip() : snapshot.json());
+        }
+
+        // ETag đọc trước khi query: version bump sau đó chỉ làm ETag cũ hơn content (an toàn)
+        String etag = streamVersionService.listingETag(false);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<StreamDTO> streams = streamService.getAllStreams();
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success(streams, null));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search streams", description = "Full-text search over title and description, ranked by relevance. Use nextCursor from the previous page to paginate.")
+    public ApiResponse<StreamSearchResponse> searchStreams(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "false") boolean liveOnly,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        StreamSearchResponse result = streamSearchService.search(q, liveOnly, cursor, limit);
+        return ApiResponse.success(result, null);
     }
 
     @GetMapping("/{streamId}")
-    @Operation(summary = "Get stream details", description = "Public endpoint to view stream info")
-    public ApiResponse<StreamDTO> getStreamById(@PathVariable Long streamId) {
+    @Operation(summary = "Get stream details", description = "Public endpoint to view stream info. Supports If-None-Match (304).")
+    public ResponseEntity<ApiResponse<StreamDTO>> getStreamById(@PathVariable Long streamId, WebRequest webRequest) {
+        String etag = streamVersionService.streamETag(streamId);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return null;
+        }
         StreamDTO stream = streamService.getStreamById(streamId);
-        return ApiResponse.success(stream, null);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .body(ApiResponse.success(stream, null));
     }
 
     @GetMapping("/{streamId}/viewers")
-    @Operation(summary = "Get realtime viewer count", description = "Returns unique viewer count from Redis HyperLogLog")
+    @Operation(summary = "Get realtime viewer count", description = "Returns unique viewer count from Redis HyperLogLog (archived copy for ended streams)")
     public ApiResponse<Long> getViewerCount(@PathVariable Long streamId) {
-        Long count = liveStreamCache.getViewerCount(streamId);
+        Long count = viewerArchiveService.getViewerCount(streamId);
         return ApiResponse.success(count, null);
     }
 
@@ -68,19 +136,65 @@ public class StreamController {
         // Sử dụng session ID hoặc IP làm identifier cho anonymous users
         String viewerId = request.getSession().getId();
 
-        // Nếu user đã login, dùng user ID
+        // Nếu user đã login, dùng user ID (và ghi vào exact viewer bitmap sau khi heartbeat được nhận)
+        Long loggedInUserId = null;
         try {
             User currentUser = userService.getCurrentUser();
-            viewerId = "user:" + currentUser.getId();
+            loggedInUserId = currentUser.getId();
+            viewerId = "user:" + loggedInUserId;
         } catch (Exception ignored) {
             // Anonymous user - dùng session ID
             viewerId = "session:" + viewerId;
         }
 
-        liveStreamCache.addViewer(streamId, viewerId);
+        // Stream đã end / chưa live → bỏ qua heartbeat (không tạo lại viewer keys sau finalization)
+        if (!liveStreamCache.addViewer(streamId, viewerId)) {
+            return ApiResponse.success(null, "Stream is not live");
+        }
+        if (loggedInUserId != null) {
+            viewerBitmapService.recordViewer(streamId, loggedInUserId);
+        }
         return ApiResponse.success(null, "Viewer tracked");
     }
 
+    // ============================================================
+    // OWNER + ADMIN: Exact logged-in viewers (Roaring bitmap)
+    // ============================================================
+
+    @PreAuthorize("hasRole('ADMIN') or @streamService.isStreamOwner(#streamId, authentication.name)")
+    @GetMapping("/{streamId}/viewers/exact")
+    @Operation(summary = "Get exact logged-in viewer count", description = "Exact number of distinct authenticated viewers (anonymous viewers are only counted by the approximate endpoint)")
+    public ApiResponse<Long> getExactViewerCount(@PathVariable Long streamId) {
+        return ApiResponse.success(viewerBitmapService.getExactViewerCount(streamId), null);
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or @streamService.isStreamOwner(#streamId, authentication.name)")
+    @GetMapping("/{streamId}/viewers/{userId}/watched")
+    @Operation(summary = "Check if a user watched the stream", description = "Exact membership check in the stream's logged-in viewer set")
+    public ApiResponse<Boolean> hasWatched(@PathVariable Long streamId, @PathVariable Long userId) {
+        return ApiResponse.success(viewerBitmapService.hasWatched(streamId, userId), null);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping("/viewers/overlap")
+    @Operation(summary = "Count viewers across streams", description = "UNION: watched any of the streams, INTERSECTION: watched all of them (logged-in viewers, exact)")
+    public ApiResponse<Long> getViewerOverlap(
+            @RequestParam List<Long> streamIds,
+            @RequestParam(defaultValue = "UNION") OverlapMode mode) {
+        if (streamIds.isEmpty() || streamIds.size() > MAX_OVERLAP_STREAMS) {
+            throw new BusinessException("streamIds must contain 1 to " + MAX_OVERLAP_STREAMS + " streams");
+        }
+        long count = mode == OverlapMode.UNION
+                ? viewerBitmapService.countUnion(streamIds)
+                : viewerBitmapService.countIntersection(streamIds);
+        return ApiResponse.success(count, null);
+    }
+
+    public enum OverlapMode {
+        UNION,
+        INTERSECTION
+    }
+
     // ============================================================
     // STREAMER + ADMIN: Create Stream
     // ============================================================
@@ -107,6 +221,23 @@ public class StreamController {
         return ApiResponse.success(streams, null);
     }
 
+    @PreAuthorize("isAuthenticated()")
+    @GetMapping("/my/stats")
+    @Operation(summary = "Get stats of my ended streams", description = "Creator dashboard: precomputed stats snapshot per ended stream, newest first")
+    public ApiResponse<List<StreamStatsDTO>> getMyStreamStats() {
+        User currentUser = userService.getCurrentUser();
+        List<StreamStatsDTO> stats = streamStatsService.getStatsByCreatorId(currentUser.getId());
+        return ApiResponse.success(stats, null);
+    }
+
+    @PreAuthorize("hasRole('ADMIN') or @streamService.isStreamOwner(#streamId, authentication.name)")
+    @GetMapping("/{streamId}/stats")
+    @Operation(summary = "Get stats of an ended stream", description = "Unique viewers, peak concurrency, duration and gift total snapshot at stream end. Owner or ADMIN only.")
+    public ApiResponse<StreamStatsDTO> getStreamStats(@PathVariable Long streamId) {
+        StreamStatsDTO stats = streamStatsService.getStatsByStreamId(streamId);
+        return ApiResponse.success(stats, null);
+    }
+
     // ============================================================
     // NOTE: Stream lifecycle (start/end) moved to WebhookController
     // RTMP server calls webhooks when OBS starts/stops streaming
@@ -0,0 +1,43 @@
+package com.stream.demo.controller;
+
+import com.stream.demo.common.ApiResponse;
+import com.stream.demo.model.dto.WalletDTO;
+import com.stream.demo.model.dto.WalletLedgerEntryDTO;
+import com.stream.demo.service.WalletService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/users/{userId}")
+@RequiredArgsConstructor
+@Tag(name = "Wallet", description = "APIs for wallet balance and ledger")
+public class WalletController {
+
+    private final WalletService walletService;
+
+    @Operation(summary = "Get wallet", description = "Live balance. Only allowed for the user themselves or ADMIN.")
+    @GetMapping("/wallet")
+    @PreAuthorize("hasRole('ADMIN') or #userId == authentication.principal.id")
+    public ResponseEntity<ApiResponse<WalletDTO>> getWallet(@PathVariable Long userId) {
+        WalletDTO wallet = walletService.getWallet(userId);
+        return ResponseEntity.ok(ApiResponse.success(wallet, "Get wallet successfully"));
+    }
+
+    @Operation(summary = "Get recent transactions",
+            description = "Latest 50 persisted ledger entries (may lag the live balance by a moment). Self or ADMIN.")
+    @GetMapping("/transactions")
+    @PreAuthorize("hasRole('ADMIN') or #userId == authentication.principal.id")
+    public ResponseEntity<ApiResponse<List<WalletLedgerEntryDTO>>> getTransactions(@PathVariable Long userId) {
+        List<WalletLedgerEntryDTO> entries = walletService.getRecentTransactions(userId);
+        return ResponseEntity.ok(ApiResponse.success(entries, "Get transactions successfully"));
+    }
+}
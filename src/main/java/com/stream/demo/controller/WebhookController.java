@@ -2,15 +2,21 @@ package com.stream.demo.controller;
 
 import com.stream.demo.common.ApiResponse;
 import com.stream.demo.common.exception.UnauthorizedException;
-import com.stream.demo.model.dto.StreamDTO;
+import com.stream.demo.model.dto.event.RtmpWebhookEvent;
+import com.stream.demo.model.dto.request.RtmpWebhookBatchRequest;
 import com.stream.demo.model.dto.request.RtmpWebhookRequest;
-import com.stream.demo.service.StreamService;
+import com.stream.demo.model.dto.response.RtmpWebhookBatchResponse;
+import com.stream.demo.model.dto.response.WebhookAckResponse;
+import com.stream.demo.service.RtmpWebhookBatchService;
+import com.stream.demo.service.RtmpWebhookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 /**
@@ -20,6 +26,9 @@ import org.springframework.web.bind.annotation.*;
  * Xem docs: docs/concepts/webhooks.md
  * <p>
  * Security: Sử dụng secret key verification thay vì JWT.
+ * <p>
+ * RTMP webhooks được xử lý bất đồng bộ: ACK (202) ngay sau khi event được
+ * enqueue durable vào RabbitMQ, consumer apply transition sau (xem RtmpWebhookService).
  */
 @RestController
 @RequestMapping("/api/webhooks")
@@ -28,7 +37,8 @@ import org.springframework.web.bind.annotation.*;
 @Tag(name = "Webhooks", description = "External service callback endpoints")
 public class WebhookController {
 
-    private final StreamService streamService;
+    private final RtmpWebhookService rtmpWebhookService;
+    private final RtmpWebhookBatchService rtmpWebhookBatchService;
 
     @Value("${app.webhook.rtmp-secret:dev-secret-key}")
     private String rtmpWebhookSecret;
@@ -42,8 +52,8 @@ public class WebhookController {
      * Flow: OBS → RTMP Server → Webhook → Backend
      */
     @PostMapping("/rtmp/stream-started")
-    @Operation(summary = "Handle stream started event", description = "Called by RTMP server when OBS starts streaming. Requires X-Webhook-Secret header.")
-    public ApiResponse<StreamDTO> handleStreamStarted(
+    @Operation(summary = "Handle stream started event", description = "Called by RTMP server when OBS starts streaming. Requires X-Webhook-Secret header. Returns 202 once the event is durably enqueued.")
+    public ResponseEntity<ApiResponse<WebhookAckResponse>> handleStreamStarted(
             @RequestHeader(value = "X-Webhook-Secret", required = false) String secret,
             @Valid @RequestBody RtmpWebhookRequest request) {
 
@@ -52,19 +62,17 @@ public class WebhookController {
         // Verify secret
         verifyWebhookSecret(secret);
 
-        // Process webhook
-        StreamDTO stream = streamService.startStreamByKey(request.getStreamKey());
-
-        log.info("Stream {} started via webhook", stream.getId());
-        return ApiResponse.success(stream, "Stream started");
+        // Enqueue webhook
+        WebhookAckResponse ack = rtmpWebhookService.enqueue(request, RtmpWebhookEvent.Type.STREAM_STARTED);
+        return toAckResponse(ack, "Stream started event accepted");
     }
 
     /**
      * RTMP server gọi khi stream kết thúc.
      */
     @PostMapping("/rtmp/stream-ended")
-    @Operation(summary = "Handle stream ended event", description = "Called by RTMP server when OBS stops streaming. Requires X-Webhook-Secret header.")
-    public ApiResponse<StreamDTO> handleStreamEnded(
+    @Operation(summary = "Handle stream ended event", description = "Called by RTMP server when OBS stops streaming. Requires X-Webhook-Secret header. Returns 202 once the event is durably enqueued.")
+    public ResponseEntity<ApiResponse<WebhookAckResponse>> handleStreamEnded(
             @RequestHeader(value = "X-Webhook-Secret", required = false) String secret,
             @Valid @RequestBody RtmpWebhookRequest request) {
 
@@ -73,17 +81,44 @@ public class WebhookController {
         // Verify secret
         verifyWebhookSecret(secret);
 
-        // Process webhook
-        StreamDTO stream = streamService.endStreamByKey(request.getStreamKey());
+        // Enqueue webhook
+        WebhookAckResponse ack = rtmpWebhookService.enqueue(request, RtmpWebhookEvent.Type.STREAM_ENDED);
+        return toAckResponse(ack, "Stream ended event accepted");
+    }
+
+    /**
+     * RTMP edge servers gom nhiều start/end callbacks vào một request.
+     * Xử lý đồng bộ trong một transaction, trả kết quả per event.
+     */
+    @PostMapping("/rtmp/batch")
+    @Operation(summary = "Handle batch of lifecycle events", description = "Called by RTMP edge servers to deliver many start/end events at once. Requires X-Webhook-Secret header. Retry only events with status FAILED.")
+    public ApiResponse<RtmpWebhookBatchResponse> handleBatch(
+            @RequestHeader(value = "X-Webhook-Secret", required = false) String secret,
+            @Valid @RequestBody RtmpWebhookBatchRequest request) {
+
+        log.info("Received batch webhook with {} events", request.getEvents().size());
 
-        log.info("Stream {} ended via webhook with {} viewers", stream.getId(), stream.getViewerCount());
-        return ApiResponse.success(stream, "Stream ended");
+        // Verify secret
+        verifyWebhookSecret(secret);
+
+        RtmpWebhookBatchResponse response = rtmpWebhookBatchService.processBatch(request.getEvents());
+        return ApiResponse.success(response, "Batch processed");
     }
 
     // ============================================================
     // Helper methods
     // ============================================================
 
+    /**
+     * ACCEPTED → 202, DUPLICATE → 200 (RTMP server không cần retry trong cả hai trường hợp)
+     */
+    private ResponseEntity<ApiResponse<WebhookAckResponse>> toAckResponse(WebhookAckResponse ack, String message) {
+        if (ack.getStatus() == WebhookAckResponse.Status.DUPLICATE) {
+            return ResponseEntity.ok(ApiResponse.success(ack, "Duplicate event ignored"));
+        }
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(ApiResponse.success(ack, message));
+    }
+
     /**
      * Verify webhook secret key.
      * Throws UnauthorizedException if invalid.
@@ -0,0 +1,16 @@
+package com.stream.demo.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class BannedPhraseDTO {
+    private Long id;
+    private String phrase;
+    private boolean wholeWord;
+    private String createdBy;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,30 @@
+package com.stream.demo.model.dto;
+
+import com.stream.demo.model.entity.Poll;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+public class PollDTO {
+    private Long id;
+    private Long streamId;
+    private String question;
+    private Poll.Status status;
+    private List<Option> options;
+    private Long totalVotes;
+    private LocalDateTime closesAt;
+    private LocalDateTime closedAt;
+    private LocalDateTime createdAt;
+
+    @Data
+    @Builder
+    public static class Option {
+        private Integer position;
+        private String text;
+        private Long votes;
+    }
+}
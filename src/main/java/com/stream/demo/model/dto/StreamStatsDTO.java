@@ -0,0 +1,20 @@
+package com.stream.demo.model.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class StreamStatsDTO {
+    private Long streamId;
+    private Long uniqueViewers;
+    private Long peakConcurrentViewers;
+    private Long durationSeconds;
+    private BigDecimal giftTotal;
+    private LocalDateTime startedAt;
+    private LocalDateTime endedAt;
+    private LocalDateTime finalizedAt;
+}
@@ -0,0 +1,23 @@
+package com.stream.demo.model.dto;
+
+import com.stream.demo.model.entity.WalletLedgerEntry;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+public class WalletLedgerEntryDTO {
+    private Long id;
+    private String txnId;
+    private WalletLedgerEntry.Type type;
+    /**
+     * Âm = debit
+     */
+    private BigDecimal amount;
+    private BigDecimal balanceAfter;
+    private String reference;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,46 @@
+package com.stream.demo.model.dto.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.stream.demo.model.dto.StreamDTO;
+import com.stream.demo.model.dto.response.StreamSearchResponse;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Stream Search Cache DTO
+ * <p>
+ * Một trang kết quả search được cache ngắn hạn trong Redis.
+ * Dùng Type Alias để decouple khỏi package structure.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "@type")
+@JsonTypeName("StreamSearch_v1") // Type alias - không đổi khi move package
+public class StreamSearchCacheDTO {
+
+    private List<StreamDTO> items;
+    private String nextCursor;
+
+    public static StreamSearchCacheDTO fromResponse(StreamSearchResponse response) {
+        return StreamSearchCacheDTO.builder()
+                .items(response.getItems())
+                .nextCursor(response.getNextCursor())
+                .build();
+    }
+
+    public StreamSearchResponse toResponse() {
+        return StreamSearchResponse.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.stream.demo.model.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Chat Message Event
+ * <p>
+ * Publish lên exchange chat.messages cho write-behind persistence.
+ * id = snowflake id của chat message → insert idempotent khi message bị redeliver.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageEvent {
+
+    private Long id;
+    private Long streamId;
+    private Long userId;
+    private String content;
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,20 @@
+package com.stream.demo.model.dto.event;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Cluster Ring Changed Event
+ * <p>
+ * Spring application event (in-process) publish khi tập nodes live của room-affinity ring thay đổi.
+ * Listeners chuyển các rooms không còn thuộc node này sang owner mới.
+ */
+@Value
+public class ClusterRingChangedEvent {
+
+    /**
+     * Node ids trên ring mới
+     */
+    List<String> nodeIds;
+}
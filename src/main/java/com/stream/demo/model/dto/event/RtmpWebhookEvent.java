@@ -0,0 +1,40 @@
+package com.stream.demo.model.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * RTMP Webhook Event
+ * <p>
+ * Message được enqueue vào RabbitMQ khi RTMP server gọi webhook.
+ * Consumer xử lý message này để apply lifecycle transition cho stream.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RtmpWebhookEvent {
+
+    private String eventId;
+    private Type type;
+    private String streamKey;
+
+    /**
+     * Thời điểm event xảy ra theo RTMP server (fallback = receivedAt)
+     */
+    private Instant occurredAt;
+
+    /**
+     * Thời điểm backend nhận webhook
+     */
+    private Instant receivedAt;
+
+    public enum Type {
+        STREAM_STARTED,
+        STREAM_ENDED
+    }
+}
@@ -0,0 +1,26 @@
+package com.stream.demo.model.dto.event;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Stream Changed Event
+ * <p>
+ * Spring application event (in-process) publish khi stream được tạo / start / end.
+ * Listeners xử lý sau commit để invalidate các representations đã cache
+ * (ETag version counters, live listing snapshot).
+ */
+@Value
+public class StreamChangedEvent {
+
+    /**
+     * Streams có representation thay đổi
+     */
+    List<Long> streamIds;
+
+    /**
+     * true nếu live listing thay đổi (start/end); create chỉ đổi full listing
+     */
+    boolean liveListingChanged;
+}
@@ -0,0 +1,43 @@
+package com.stream.demo.model.dto.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stream Lifecycle Event
+ * <p>
+ * Domain event publish lên exchange stream.events (qua transactional outbox).
+ * eventId = outbox row id (IDENTITY: thứ tự cấp phát, không phải thứ tự commit), consumers dùng để dedupe.
+ * Transitions lock row stream trước khi ghi outbox → trong cùng một stream, ids tăng theo thứ tự commit;
+ * giữa các streams khác nhau không có đảm bảo thứ tự.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamLifecycleEvent {
+
+    private Long eventId;
+    private Type type;
+    private Long streamId;
+    private LocalDateTime occurredAt;
+
+    public enum Type {
+        STREAM_STARTED("stream.started"),
+        STREAM_ENDED("stream.ended");
+
+        private final String routingKey;
+
+        Type(String routingKey) {
+            this.routingKey = routingKey;
+        }
+
+        public String getRoutingKey() {
+            return routingKey;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.stream.demo.model.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * Request DTO thêm banned phrase
+ */
+@Data
+@Schema(description = "Request body để thêm phrase bị cấm trong chat")
+public class BannedPhraseRequest {
+
+    @NotBlank(message = "Phrase is required")
+    @Size(max = 100, message = "Phrase must be at most 100 characters")
+    @Schema(description = "Phrase bị cấm (so khớp không phân biệt hoa thường, chuẩn hóa leetspeak)", example = "spam link")
+    private String phrase;
+
+    @Schema(description = "Chỉ chặn khi phrase đứng thành word riêng (mặc định false = chặn cả khi nằm trong word khác)",
+            example = "false")
+    private boolean wholeWord;
+}
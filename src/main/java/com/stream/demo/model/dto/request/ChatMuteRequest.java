@@ -0,0 +1,22 @@
+package com.stream.demo.model.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.Data;
+
+/**
+ * Request DTO mute / unmute user trong chat room
+ */
+@Data
+@Schema(description = "Request body để mute hoặc unmute user trong chat của stream")
+public class ChatMuteRequest {
+
+    @NotNull(message = "User ID is required")
+    @Schema(description = "ID của user bị mute", example = "42")
+    private Long userId;
+
+    @Positive(message = "Duration must be positive")
+    @Schema(description = "Thời gian mute (giây); bỏ trống = mute vĩnh viễn. Bị bỏ qua khi unmute", example = "600")
+    private Long durationSeconds;
+}
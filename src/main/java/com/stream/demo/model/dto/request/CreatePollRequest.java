@@ -0,0 +1,34 @@
+package com.stream.demo.model.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Request DTO tạo live poll
+ */
+@Data
+@Schema(description = "Request body để tạo poll trong stream")
+public class CreatePollRequest {
+
+    @NotBlank(message = "Question is required")
+    @Size(max = 200, message = "Question must be at most 200 characters")
+    @Schema(description = "Câu hỏi", example = "Chơi map nào tiếp theo?")
+    private String question;
+
+    @NotNull(message = "Options are required")
+    @Size(min = 2, max = 10, message = "A poll must have 2 to 10 options")
+    @Schema(description = "Các lựa chọn (theo thứ tự hiển thị)", example = "[\"Ascent\", \"Bind\", \"Haven\"]")
+    private List<@NotBlank(message = "Option must not be blank") @Size(max = 100, message = "Option must be at most 100 characters") String> options;
+
+    @Min(value = 10, message = "Duration must be at least 10 seconds")
+    @Max(value = 3600, message = "Duration must be at most 3600 seconds")
+    @Schema(description = "Tự đóng sau số giây này; bỏ trống = streamer tự đóng", example = "120")
+    private Integer durationSeconds;
+}
@@ -0,0 +1,19 @@
+package com.stream.demo.model.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Request DTO vote trong poll
+ */
+@Data
+@Schema(description = "Request body để vote (mỗi user một vote mỗi poll)")
+public class PollVoteRequest {
+
+    @NotNull(message = "Option is required")
+    @Min(value = 0, message = "Option position must not be negative")
+    @Schema(description = "Vị trí lựa chọn (0-based)", example = "1")
+    private Integer option;
+}
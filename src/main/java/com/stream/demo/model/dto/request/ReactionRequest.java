@@ -0,0 +1,25 @@
+package com.stream.demo.model.dto.request;
+
+import com.stream.demo.model.dto.websocket.ReactionMessage;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+/**
+ * Request DTO gửi reactions (taps) cho stream
+ */
+@Data
+@Schema(description = "Request body để gửi reaction taps; client nên gom taps liên tiếp thành một request")
+public class ReactionRequest {
+
+    @NotNull(message = "Reaction type is required")
+    @Schema(description = "Loại reaction", example = "heart")
+    private ReactionMessage.Type type;
+
+    @Min(value = 1, message = "Count must be at least 1")
+    @Max(value = 50, message = "Count must be at most 50")
+    @Schema(description = "Số taps đã gom ở client", example = "5", defaultValue = "1")
+    private Integer count = 1;
+}
@@ -0,0 +1,24 @@
+package com.stream.demo.model.dto.request;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Request DTO cho batch RTMP webhook endpoint.
+ * Edge servers gom nhiều start/end callbacks vào một request.
+ */
+@Data
+@Schema(description = "Batch of RTMP webhook events")
+public class RtmpWebhookBatchRequest {
+
+    @NotEmpty(message = "events must not be empty")
+    @Size(max = 500, message = "events cannot exceed 500 items per batch")
+    @Valid
+    @Schema(description = "Danh sách events, xử lý theo thứ tự trong mảng")
+    private List<RtmpWebhookRequest> events;
+}
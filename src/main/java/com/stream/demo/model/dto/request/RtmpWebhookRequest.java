@@ -1,5 +1,6 @@
 package com.stream.demo.model.dto.request;
 
+import com.stream.demo.model.dto.event.RtmpWebhookEvent;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
@@ -18,4 +19,10 @@ public class RtmpWebhookRequest {
 
     @Schema(description = "Timestamp của event từ RTMP server", example = "2025-12-18T21:00:00Z")
     private String timestamp;
+
+    @Schema(description = "ID duy nhất của event (optional, dùng để deduplicate retries)", example = "evt-20251218-0001")
+    private String eventId;
+
+    @Schema(description = "Loại event (chỉ bắt buộc cho batch endpoint)", example = "STREAM_STARTED")
+    private RtmpWebhookEvent.Type event;
 }
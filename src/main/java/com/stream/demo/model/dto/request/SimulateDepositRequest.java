@@ -3,6 +3,7 @@ package com.stream.demo.model.dto.request;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.math.BigDecimal;
@@ -15,6 +16,11 @@ public class SimulateDepositRequest {
 
     @NotNull
     @Positive
-    @Schema(description = "Amount to deposit", example = "1000.00")
+    @Schema(description = "Amount to deposit", example = "1000")
     private BigDecimal amount;
+
+    @Size(max = 64)
+    @Schema(description = "Idempotency key - retry với cùng id không nạp hai lần (bỏ trống = sinh mới)",
+            example = "deposit-2f1c9a")
+    private String transactionId;
 }
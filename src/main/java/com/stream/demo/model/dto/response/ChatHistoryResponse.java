@@ -0,0 +1,29 @@
+package com.stream.demo.model.dto.response;
+
+import com.stream.demo.model.dto.websocket.ChatMessage;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response cho chat history (keyset pagination theo message id)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatHistoryResponse {
+
+    /**
+     * Messages mới nhất trước (id giảm dần)
+     */
+    private List<ChatMessage> items;
+
+    /**
+     * Truyền vào before để lấy trang cũ hơn (null nếu hết)
+     */
+    private Long nextCursor;
+}
@@ -0,0 +1,26 @@
+package com.stream.demo.model.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Node phục vụ chat room của một stream
+ */
+@Data
+@Builder
+@Schema(description = "WebSocket endpoint của node sở hữu room")
+public class RoomNodeResponse {
+
+    @Schema(description = "Stream ID", example = "1")
+    private Long streamId;
+
+    @Schema(description = "false khi room-affinity tắt - mọi node đều phục vụ được room")
+    private boolean affinityEnabled;
+
+    @Schema(description = "Node ID sở hữu room (null khi affinity tắt)", example = "node-2")
+    private String nodeId;
+
+    @Schema(description = "WebSocket URL để kết nối (null khi affinity tắt)", example = "ws://node-2.internal:8080/ws/live")
+    private String url;
+}
@@ -0,0 +1,66 @@
+package com.stream.demo.model.dto.response;
+
+import com.stream.demo.model.dto.event.RtmpWebhookEvent;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response cho batch RTMP webhook endpoint.
+ * Kết quả per event để edge server chỉ retry các events FAILED.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Per-event results of a batch webhook call")
+public class RtmpWebhookBatchResponse {
+
+    @Schema(description = "Số events đã apply", example = "18")
+    private int applied;
+
+    @Schema(description = "Số events cần retry", example = "0")
+    private int failed;
+
+    private List<EventResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class EventResult {
+
+        @Schema(description = "Vị trí event trong request", example = "0")
+        private int index;
+
+        @Schema(description = "Event ID", example = "evt-20251218-0001")
+        private String eventId;
+
+        @Schema(description = "Stream key", example = "abc123xyz")
+        private String streamKey;
+
+        @Schema(description = "Loại event", example = "STREAM_STARTED")
+        private RtmpWebhookEvent.Type event;
+
+        @Schema(description = "Kết quả xử lý", example = "APPLIED")
+        private Status status;
+
+        @Schema(description = "Stream ID (nếu resolve được)", example = "1")
+        private Long streamId;
+
+        @Schema(description = "Lý do khi không APPLIED", example = "Unknown streamKey")
+        private String error;
+    }
+
+    public enum Status {
+        APPLIED,   // Transition đã được apply
+        SKIPPED,   // Transition đã apply trước đó hoặc event cũ - không cần retry
+        DUPLICATE, // Event đã nhận trước đó - không cần retry
+        REJECTED,  // Event không hợp lệ (unknown streamKey, thiếu event type...) - retry vô ích
+        FAILED     // Lỗi tạm thời - edge nên retry
+    }
+}
@@ -0,0 +1,29 @@
+package com.stream.demo.model.dto.response;
+
+import com.stream.demo.model.dto.StreamDTO;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response cho stream search (keyset pagination)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamSearchResponse {
+
+    /**
+     * Kết quả theo relevance giảm dần
+     */
+    private List<StreamDTO> items;
+
+    /**
+     * Cursor cho trang kế tiếp (null nếu hết kết quả)
+     */
+    private String nextCursor;
+}
@@ -0,0 +1,32 @@
+package com.stream.demo.model.dto.response;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response trả về cho RTMP server sau khi webhook được enqueue.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Webhook acknowledgement")
+public class WebhookAckResponse {
+
+    @Schema(description = "Event ID (do RTMP server gửi hoặc backend generate)", example = "evt-20251218-0001")
+    private String eventId;
+
+    @Schema(description = "Stream key của event", example = "abc123xyz")
+    private String streamKey;
+
+    @Schema(description = "ACCEPTED nếu event được enqueue, DUPLICATE nếu đã nhận trước đó", example = "ACCEPTED")
+    private Status status;
+
+    public enum Status {
+        ACCEPTED,
+        DUPLICATE
+    }
+}
@@ -0,0 +1,51 @@
+package com.stream.demo.model.dto.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Chat message frame
+ * <p>
+ * Serialize một lần ở node gửi; JSON này vừa là payload Redis pub/sub vừa là WebSocket frame
+ * (nodes nhận forward nguyên bytes, không deserialize lại).
+ * <p>
+ * Ví dụ: {"type":"chat","id":123,"streamId":1,"userId":2,"username":"user001","content":"hi","sentAt":"..."}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessage {
+
+    public static final String TYPE = "chat";
+
+    @Builder.Default
+    private String type = TYPE;
+
+    /**
+     * Snowflake id (tăng theo thời gian) - dùng cho history pagination và dedupe khi persist
+     */
+    private Long id;
+    private Long streamId;
+    private Long userId;
+    private String username;
+    private String content;
+    private LocalDateTime sentAt;
+
+    private Role role;
+
+    /**
+     * Luôn deliver kể cả khi room đang sampling (streamer, moderator, gift messages)
+     */
+    private boolean priority;
+
+    public enum Role {
+        VIEWER,
+        MODERATOR,
+        STREAMER
+    }
+}
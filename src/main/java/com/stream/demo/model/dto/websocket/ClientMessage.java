@@ -0,0 +1,46 @@
+package com.stream.demo.model.dto.websocket;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Message client gửi qua WebSocket /ws/live
+ * <p>
+ * Ví dụ: {"action":"subscribe","streamId":1}, {"action":"chat","streamId":1,"content":"hello"},
+ * {"action":"react","streamId":1,"reaction":"heart","count":3}, {"action":"vote","streamId":1,"pollId":7,"option":0}
+ */
+@Data
+@NoArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ClientMessage {
+
+    private Action action;
+    private Long streamId;
+
+    /**
+     * Nội dung chat (chỉ với action CHAT)
+     */
+    private String content;
+
+    /**
+     * Loại reaction và số taps đã gom (chỉ với action REACT; count mặc định 1)
+     */
+    private ReactionMessage.Type reaction;
+    private Integer count;
+
+    /**
+     * Poll và vị trí lựa chọn (chỉ với action VOTE)
+     */
+    private Long pollId;
+    private Integer option;
+
+    public enum Action {
+        @JsonProperty("subscribe") SUBSCRIBE,
+        @JsonProperty("unsubscribe") UNSUBSCRIBE,
+        @JsonProperty("chat") CHAT,
+        @JsonProperty("react") REACT,
+        @JsonProperty("vote") VOTE
+    }
+}
@@ -0,0 +1,35 @@
+package com.stream.demo.model.dto.websocket;
+
+import com.stream.demo.model.entity.Poll;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Frame kết quả poll server push theo chu kỳ cố định (chỉ khi có thay đổi)
+ * <p>
+ * Ví dụ: {"type":"poll","pollId":7,"streamId":1,"status":"OPEN","counts":[120,45,3],"totalVotes":168}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PollMessage {
+
+    public static final String TYPE = "poll";
+
+    @Builder.Default
+    private String type = TYPE;
+    private Long pollId;
+    private Long streamId;
+    private Poll.Status status;
+
+    /**
+     * Votes theo vị trí lựa chọn
+     */
+    private List<Long> counts;
+    private Long totalVotes;
+}
@@ -0,0 +1,43 @@
+package com.stream.demo.model.dto.websocket;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Frame reactions server push mỗi tick: số taps mới (delta) của room theo loại, gộp từ tất cả nodes
+ * <p>
+ * Ví dụ: {"type":"reactions","streamId":1,"counts":{"heart":120,"clap":3}}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReactionMessage {
+
+    public static final String TYPE = "reactions";
+
+    @Builder.Default
+    private String type = TYPE;
+    private Long streamId;
+    private Map<String, Long> counts;
+
+    public enum Type {
+        @JsonProperty("heart") HEART,
+        @JsonProperty("like") LIKE,
+        @JsonProperty("laugh") LAUGH,
+        @JsonProperty("wow") WOW,
+        @JsonProperty("clap") CLAP;
+
+        /**
+         * Key trong frame và Redis hash
+         */
+        public String getKey() {
+            return name().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.stream.demo.model.dto.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Frame báo client kết nối tới node sở hữu room (room-affinity mode)
+ * <p>
+ * Ví dụ: {"type":"redirect","streamId":1,"url":"ws://node-2.internal:8080/ws/live"}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomRedirectMessage {
+
+    public static final String TYPE = "redirect";
+
+    @Builder.Default
+    private String type = TYPE;
+    private Long streamId;
+    private String url;
+}
@@ -0,0 +1,25 @@
+package com.stream.demo.model.dto.websocket;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Frame viewer count server push tới subscribers của stream
+ * <p>
+ * Ví dụ: {"type":"viewers","streamId":1,"count":1234}
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewerCountMessage {
+
+    public static final String TYPE = "viewers";
+
+    @Builder.Default
+    private String type = TYPE;
+    private Long streamId;
+    private Long count;
+}
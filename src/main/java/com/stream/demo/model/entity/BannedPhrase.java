@@ -0,0 +1,49 @@
+package com.stream.demo.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Banned Phrase Entity
+ * <p>
+ * Danh sách phrases bị cấm trong chat (admin quản lý).
+ * Mỗi node compile toàn bộ danh sách thành một Aho-Corasick automaton (BannedPhraseMatcher).
+ */
+@Entity
+@Table(name = "banned_phrases")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BannedPhrase {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "phrase", nullable = false, unique = true, length = 100)
+    private String phrase;
+
+    /**
+     * true → chỉ match nguyên word ("ass" không chặn "classic"), false → match như substring
+     */
+    @Builder.Default
+    @Column(name = "whole_word", nullable = false, columnDefinition = "BOOLEAN NOT NULL DEFAULT FALSE")
+    private boolean wholeWord = false;
+
+    /**
+     * Username của admin đã thêm phrase
+     */
+    @Column(name = "created_by", nullable = false, length = 50)
+    private String createdBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
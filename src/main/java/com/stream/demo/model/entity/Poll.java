@@ -0,0 +1,84 @@
+package com.stream.demo.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Poll Entity
+ * <p>
+ * Live poll trong stream. Votes không ghi DB từng cái: đếm trong Redis (bitmap voters + tally hash),
+ * kết quả ghi một lần (batch) sau khi poll đóng.
+ */
+@Entity
+@Table(name = "polls", indexes = {
+        @Index(name = "idx_poll_stream_id", columnList = "stream_id"),
+        @Index(name = "idx_poll_status", columnList = "status")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Poll {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * FK thủ công tới Stream.id (không dùng @ManyToOne)
+     */
+    @Column(name = "stream_id", nullable = false)
+    private Long streamId;
+
+    @Column(nullable = false, length = 200)
+    private String question;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.OPEN;
+
+    /**
+     * Username của người tạo poll (streamer hoặc admin)
+     */
+    @Column(name = "created_by", nullable = false, length = 50)
+    private String createdBy;
+
+    /**
+     * Tự đóng tại thời điểm này (null = chỉ đóng thủ công)
+     */
+    @Column(name = "closes_at")
+    private LocalDateTime closesAt;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    /**
+     * Tổng votes - chỉ có giá trị sau khi kết quả đã persist
+     */
+    @Column(name = "total_votes", nullable = false)
+    @Builder.Default
+    private Long totalVotes = 0L;
+
+    /**
+     * true khi tally đã được ghi vào poll_options
+     */
+    @Column(name = "results_persisted", nullable = false)
+    @Builder.Default
+    private Boolean resultsPersisted = false;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum Status {
+        OPEN,
+        CLOSED
+    }
+}
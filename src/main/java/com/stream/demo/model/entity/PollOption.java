@@ -0,0 +1,43 @@
+package com.stream.demo.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Poll Option Entity
+ * <p>
+ * Lựa chọn của poll theo vị trí (0-based, cũng là field trong Redis tally hash).
+ */
+@Entity
+@Table(name = "poll_options", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_poll_option_position", columnNames = {"poll_id", "position"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PollOption {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * FK thủ công tới Poll.id
+     */
+    @Column(name = "poll_id", nullable = false)
+    private Long pollId;
+
+    @Column(nullable = false)
+    private Integer position;
+
+    @Column(nullable = false, length = 100)
+    private String text;
+
+    @Column(name = "vote_count", nullable = false)
+    @Builder.Default
+    private Long voteCount = 0L;
+}
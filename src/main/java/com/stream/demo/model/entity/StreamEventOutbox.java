@@ -0,0 +1,48 @@
+package com.stream.demo.model.entity;
+
+import com.stream.demo.model.dto.event.StreamLifecycleEvent;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stream Event Outbox Entity
+ * <p>
+ * Transactional outbox: lifecycle events được ghi cùng transaction với update streams,
+ * relay đọc theo thứ tự id và publish lên RabbitMQ (xem StreamOutboxRelay).
+ * publishedAt = null nghĩa là chưa publish.
+ */
+@Entity
+@Table(name = "stream_event_outbox", indexes = {
+        @Index(name = "idx_outbox_published_at_id", columnList = "published_at, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamEventOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "stream_id", nullable = false)
+    private Long streamId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 32)
+    private StreamLifecycleEvent.Type eventType;
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "published_at")
+    private LocalDateTime publishedAt;
+}
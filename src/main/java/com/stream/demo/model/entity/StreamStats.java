@@ -0,0 +1,65 @@
+package com.stream.demo.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Stream Stats Entity
+ * <p>
+ * Snapshot stats của một phiên stream đã kết thúc, ghi bởi finalization pipeline
+ * (xem StreamStatsService). Creator dashboard / historical queries đọc bảng này thay vì đếm lại.
+ * Một row per stream - stream restart rồi end lại sẽ overwrite snapshot.
+ */
+@Entity
+@Table(name = "stream_stats", indexes = {
+        @Index(name = "idx_stream_stats_creator_ended", columnList = "creator_id, ended_at")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamStats {
+
+    /**
+     * FK thủ công tới Stream.id (không dùng @OneToOne)
+     */
+    @Id
+    @Column(name = "stream_id")
+    private Long streamId;
+
+    @Column(name = "creator_id", nullable = false)
+    private Long creatorId;
+
+    /**
+     * Unique viewers (HyperLogLog, ~0.81% standard error)
+     */
+    @Column(name = "unique_viewers", nullable = false)
+    private Long uniqueViewers;
+
+    @Column(name = "peak_concurrent_viewers", nullable = false)
+    private Long peakConcurrentViewers;
+
+    @Column(name = "duration_seconds", nullable = false)
+    private Long durationSeconds;
+
+    /**
+     * Tổng giá trị gifts nhận được (NULL cho tới khi có gifts - Phase 7)
+     */
+    @Column(name = "gift_total", precision = 19, scale = 2)
+    private BigDecimal giftTotal;
+
+    @Column(name = "started_at")
+    private LocalDateTime startedAt;
+
+    @Column(name = "ended_at", nullable = false)
+    private LocalDateTime endedAt;
+
+    @Column(name = "finalized_at", nullable = false)
+    private LocalDateTime finalizedAt;
+}
@@ -0,0 +1,46 @@
+package com.stream.demo.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stream Viewer Archive Entity
+ * <p>
+ * Bản sao HyperLogLog (raw bytes từ Redis GET) của stream đã kết thúc.
+ * HLL bị xóa khỏi Redis sau khi archive; raw bytes giữ lại để có thể RESTORE/PFMERGE sau này.
+ */
+@Entity
+@Table(name = "stream_viewer_archives")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamViewerArchive {
+
+    /**
+     * FK thủ công tới Stream.id
+     */
+    @Id
+    @Column(name = "stream_id")
+    private Long streamId;
+
+    /**
+     * Raw HLL bytes (Redis string encoding, tối đa ~12 KB)
+     */
+    @Column(name = "hll", nullable = false, columnDefinition = "BYTEA")
+    private byte[] hll;
+
+    /**
+     * PFCOUNT tại thời điểm archive - serve trực tiếp, không cần decode HLL
+     */
+    @Column(name = "unique_viewers", nullable = false)
+    private Long uniqueViewers;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,60 @@
+package com.stream.demo.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Wallet Entity
+ * <p>
+ * Snapshot balance trong DB, materialize từ ledger bởi WalletLedgerWriter (một upsert per user per batch).
+ * Balance live (dùng để chi tiêu) nằm trong Redis - không ghi row này trên hot path.
+ */
+@Entity
+@Table(name = "wallets", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wallet_user_id", columnNames = "user_id")
+}, indexes = {
+        // WalletReconciliationScheduler: wallets đổi sau checkpoint, keyset (ledger_seq, id)
+        @Index(name = "idx_wallet_ledger_seq", columnList = "ledger_seq, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class Wallet {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * FK thủ công tới User.id
+     */
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Balance (coins, số nguyên) sau ledger entry mới nhất đã persist
+     */
+    @Column(nullable = false)
+    @Builder.Default
+    private Long balance = 0L;
+
+    @Column(nullable = false, length = 10)
+    @Builder.Default
+    private String currency = "COINS";
+
+    /**
+     * Sequence (từ ledger stream id) của entry mới nhất đã apply - chặn batch cũ ghi đè batch mới
+     */
+    @Column(name = "ledger_seq", nullable = false)
+    @Builder.Default
+    private Long ledgerSeq = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
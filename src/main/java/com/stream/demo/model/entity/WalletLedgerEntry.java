@@ -0,0 +1,73 @@
+package com.stream.demo.model.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Wallet Ledger Entry
+ * <p>
+ * Append-only: một row cho mỗi leg của một transaction (transfer = 2 rows cùng txn_id).
+ * Ghi theo batch bởi WalletLedgerWriter; unique (txn_id, user_id) làm redelivery idempotent.
+ */
+@Entity
+@Table(name = "wallet_ledger", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_wallet_ledger_txn_user", columnNames = {"txn_id", "user_id"})
+}, indexes = {
+        @Index(name = "idx_wallet_ledger_user_id", columnList = "user_id, id")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class WalletLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /**
+     * Idempotency key của transaction (client/caller cung cấp)
+     */
+    @Column(name = "txn_id", nullable = false, length = 64)
+    private String txnId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    /**
+     * Thay đổi balance (âm = debit)
+     */
+    @Column(nullable = false)
+    private Long delta;
+
+    @Column(name = "balance_after", nullable = false)
+    private Long balanceAfter;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Type type;
+
+    @Column(length = 100)
+    private String reference;
+
+    @Column(name = "ledger_seq", nullable = false)
+    private Long ledgerSeq;
+
+    /**
+     * Thời điểm apply trong Redis (không phải thời điểm persist)
+     */
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public enum Type {
+        DEPOSIT,
+        DEBIT,
+        GIFT,
+        REFUND
+    }
+}
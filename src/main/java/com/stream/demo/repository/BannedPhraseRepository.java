@@ -0,0 +1,31 @@
+package com.stream.demo.repository;
+
+import com.stream.demo.model.entity.BannedPhrase;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository cho BannedPhrase entity
+ */
+@Repository
+public interface BannedPhraseRepository extends JpaRepository<BannedPhrase, Long> {
+
+    boolean existsByPhraseIgnoreCase(String phrase);
+
+    List<BannedPhrase> findAllByOrderByIdAsc();
+
+    /**
+     * Chỉ đọc phrase + match mode để compile matcher
+     */
+    @Query("SELECT p.phrase AS phrase, p.wholeWord AS wholeWord FROM BannedPhrase p")
+    List<PhraseRule> findAllRules();
+
+    interface PhraseRule {
+        String getPhrase();
+
+        boolean isWholeWord();
+    }
+}
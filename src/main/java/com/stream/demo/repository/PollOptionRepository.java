@@ -0,0 +1,19 @@
+package com.stream.demo.repository;
+
+import com.stream.demo.model.entity.PollOption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository cho PollOption entity
+ */
+@Repository
+public interface PollOptionRepository extends JpaRepository<PollOption, Long> {
+
+    List<PollOption> findByPollIdOrderByPositionAsc(Long pollId);
+
+    List<PollOption> findByPollIdInOrderByPollIdAscPositionAsc(Collection<Long> pollIds);
+}
@@ -0,0 +1,20 @@
+package com.stream.demo.repository;
+
+import com.stream.demo.model.entity.Poll;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository cho Poll entity
+ */
+@Repository
+public interface PollRepository extends JpaRepository<Poll, Long> {
+
+    List<Poll> findTop20ByStreamIdOrderByIdDesc(Long streamId);
+
+    List<Poll> findByStatus(Poll.Status status);
+
+    boolean existsByStreamIdAndStatus(Long streamId, Poll.Status status);
+}
@@ -1,9 +1,12 @@
 package com.stream.demo.repository;
 
 import com.stream.demo.model.entity.Stream;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +21,27 @@ public interface StreamRepository extends JpaRepository<Stream, Long> {
      */
     Optional<Stream> findByStreamKey(String streamKey);
 
+    /**
+     * Tìm stream theo stream key và lock row (FOR UPDATE)
+     * Dùng cho async webhook consumer - serialize với batch webhook path trên cùng stream
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Stream> findForUpdateByStreamKey(String streamKey);
+
+    /**
+     * Tìm stream theo ID và lock row (FOR UPDATE)
+     * Dùng cho lifecycle transitions - transitions của cùng stream commit tuần tự → outbox ids đúng thứ tự
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Stream> findForUpdateById(Long id);
+
+    /**
+     * Resolve nhiều stream keys trong một query, lock rows (FOR UPDATE) theo thứ tự id
+     * Dùng cho batch webhook - tránh race với async consumer và tránh deadlock giữa các batch
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Stream> findByStreamKeyInOrderByIdAsc(Collection<String> streamKeys);
+
     /**
      * Tìm tất cả stream của một creator
      */
@@ -0,0 +1,19 @@
+package com.stream.demo.repository;
+
+import com.stream.demo.model.entity.StreamStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository cho StreamStats entity
+ */
+@Repository
+public interface StreamStatsRepository extends JpaRepository<StreamStats, Long> {
+
+    /**
+     * Stats các phiên stream của một creator, mới nhất trước
+     */
+    List<StreamStats> findByCreatorIdOrderByEndedAtDesc(Long creatorId);
+}
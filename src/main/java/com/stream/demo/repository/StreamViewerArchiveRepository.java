@@ -0,0 +1,22 @@
+package com.stream.demo.repository;
+
+import com.stream.demo.model.entity.StreamViewerArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository cho StreamViewerArchive entity
+ */
+@Repository
+public interface StreamViewerArchiveRepository extends JpaRepository<StreamViewerArchive, Long> {
+
+    /**
+     * Chỉ đọc count (không load HLL bytes)
+     */
+    @Query("SELECT a.uniqueViewers FROM StreamViewerArchive a WHERE a.streamId = :streamId")
+    Optional<Long> findUniqueViewersByStreamId(@Param("streamId") Long streamId);
+}
@@ -0,0 +1,16 @@
+package com.stream.demo.repository;
+
+import com.stream.demo.model.entity.WalletLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository cho WalletLedgerEntry (chỉ đọc - ghi bằng JDBC batch trong WalletLedgerWriter)
+ */
+@Repository
+public interface WalletLedgerEntryRepository extends JpaRepository<WalletLedgerEntry, Long> {
+
+    List<WalletLedgerEntry> findTop50ByUserIdOrderByIdDesc(Long userId);
+}
@@ -0,0 +1,61 @@
+package com.stream.demo.scheduler;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Chat Partition Maintenance Scheduler
+ * <p>
+ * Tạo trước daily partitions của chat_messages (hôm nay + partitions-ahead-days)
+ * để batch inserts không rơi vào DEFAULT partition.
+ * Idempotent (CREATE TABLE IF NOT EXISTS) → an toàn khi nhiều nodes cùng chạy.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatPartitionMaintenanceScheduler {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.chat.persistence.partitions-ahead-days:3}")
+    private int partitionsAheadDays;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        ensurePartitions();
+    }
+
+    /**
+     * Chạy mỗi ngày lúc 00:05
+     */
+    @Scheduled(cron = "0 5 0 * * *")
+    public void ensurePartitions() {
+        LocalDate today = LocalDate.now();
+        for (int i = 0; i <= partitionsAheadDays; i++) {
+            LocalDate day = today.plusDays(i);
+            try {
+                createPartition(day);
+            } catch (RuntimeException ex) {
+                // Ví dụ: DEFAULT partition đã có rows thuộc range này
+                log.error("Failed to create chat_messages partition for {}: {}", day, ex.getMessage());
+            }
+        }
+    }
+
+    private void createPartition(LocalDate day) {
+        // Tên và bounds sinh từ LocalDate → không có input ngoài trong DDL
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS chat_messages_p" + day.format(PARTITION_SUFFIX)
+                + " PARTITION OF chat_messages FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+    }
+}
@@ -0,0 +1,66 @@
+package com.stream.demo.scheduler;
+
+import com.stream.demo.service.StreamStatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stream Finalization Sweep Scheduler
+ * <p>
+ * Safety net cho finalization pipeline: streams đã end nhưng chưa có stream_stats
+ * (event vào DLQ, streams end trước khi có pipeline) được finalize theo batch
+ * → HLLs cũ cũng được archive và xóa khỏi Redis.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StreamFinalizationSweepScheduler {
+
+    // Keyset theo id; bỏ qua streams vừa end (consumer đang xử lý)
+    private static final String SELECT_UNFINALIZED_SQL =
+            "SELECT s.id FROM streams s LEFT JOIN stream_stats st ON st.stream_id = s.id "
+                    + "WHERE s.is_live = false AND s.ended_at IS NOT NULL AND s.ended_at < ? "
+                    + "AND st.stream_id IS NULL AND s.id > ? ORDER BY s.id LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StreamStatsService streamStatsService;
+
+    @Value("${app.stream.finalization.sweep-batch-size:500}")
+    private int sweepBatchSize;
+
+    @Value("${app.stream.finalization.sweep-grace-minutes:10}")
+    private long graceMinutes;
+
+    /**
+     * Finalize streams bị bỏ sót
+     * Chạy mỗi giờ
+     */
+    @Scheduled(cron = "0 45 * * * *")
+    public void sweepUnfinalizedStreams() {
+        Timestamp endedBefore = Timestamp.valueOf(LocalDateTime.now().minusMinutes(graceMinutes));
+        long lastId = 0;
+        int total = 0;
+        List<Long> batch;
+        do {
+            batch = jdbcTemplate.queryForList(SELECT_UNFINALIZED_SQL, Long.class, endedBefore, lastId, sweepBatchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            streamStatsService.finalizeStreams(batch);
+            lastId = batch.get(batch.size() - 1);
+            total += batch.size();
+        } while (batch.size() == sweepBatchSize);
+
+        if (total > 0) {
+            log.info("Finalization sweep processed {} unfinalized streams", total);
+        }
+    }
+}
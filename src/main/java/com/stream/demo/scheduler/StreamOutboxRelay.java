@@ -0,0 +1,378 @@
+package com.stream.demo.scheduler;
+
+import com.stream.demo.config.RabbitMQConfig.RabbitNames;
+import com.stream.demo.model.dto.event.StreamLifecycleEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stream Outbox Relay
+ * <p>
+ * Background worker drain bảng stream_event_outbox theo batch và publish lên exchange stream.events:
+ * - Đánh thức ngay sau commit (StreamEventOutboxService), chờ linger để gom batch, poll fallback cho events từ node khác
+ * - Một relay duy nhất toàn cluster: session advisory lock (pg_try_advisory_lock) giữ trên một connection riêng,
+ *   không giữ transaction nào mở + publish trên một channel theo thứ tự id → events của cùng stream được deliver theo thứ tự
+ * - Publisher confirms cho cả batch ngoài transaction; sau đó đánh dấu published prefix đã được ack
+ *   trong một transaction ngắn riêng (at-least-once)
+ * <p>
+ * Metrics: outbox.relay.published, outbox.relay.batch.size, outbox.relay.delivery.lag, outbox.relay.pending.age
+ */
+@Component
+@Slf4j
+public class StreamOutboxRelay implements SmartLifecycle {
+
+    private static final long RELAY_LOCK_KEY = 0x5354524d4f424f58L; // "STRMOBOX"
+
+    private static final String SELECT_BATCH_SQL =
+            "SELECT id, stream_id, event_type, occurred_at, created_at FROM stream_event_outbox "
+                    + "WHERE published_at IS NULL ORDER BY id LIMIT ?";
+    private static final String MARK_PUBLISHED_SQL =
+            "UPDATE stream_event_outbox SET published_at = ? WHERE id = ?";
+    private static final String PURGE_SQL =
+            "DELETE FROM stream_event_outbox WHERE id IN ("
+                    + "SELECT id FROM stream_event_outbox WHERE published_at < ? LIMIT ?)";
+    private static final int PURGE_CHUNK_SIZE = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RabbitTemplate rabbitTemplate;
+    private final DataSource dataSource;
+
+    private final Counter publishedCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer deliveryLagTimer;
+    private final AtomicLong pendingAgeMillis = new AtomicLong();
+
+    private final Semaphore wakeUpSignal = new Semaphore(0);
+    private volatile boolean running;
+    private Thread worker;
+
+    /**
+     * Connection giữ session advisory lock khi node này là relay (chỉ relay thread truy cập)
+     */
+    private Connection leaderConnection;
+
+    @Value("${app.outbox.relay.batch-size:200}")
+    private int batchSize;
+
+    @Value("${app.outbox.relay.linger-ms:20}")
+    private long lingerMs;
+
+    @Value("${app.outbox.relay.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${app.outbox.relay.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    @Value("${app.outbox.relay.retention-days:7}")
+    private long retentionDays;
+
+    public StreamOutboxRelay(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             RabbitTemplate rabbitTemplate,
+                             DataSource dataSource,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rabbitTemplate = rabbitTemplate;
+        this.dataSource = dataSource;
+        this.publishedCounter = Counter.builder("outbox.relay.published")
+                .description("Stream lifecycle events published from outbox")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("outbox.relay.batch.size")
+                .description("Events per relay batch")
+                .register(meterRegistry);
+        this.deliveryLagTimer = Timer.builder("outbox.relay.delivery.lag")
+                .description("Time from outbox insert to broker confirm")
+                .register(meterRegistry);
+        meterRegistry.gauge("outbox.relay.pending.age", pendingAgeMillis);
+    }
+
+    /**
+     * Đánh thức relay (gọi sau khi transaction ghi outbox commit)
+     */
+    public void wakeUp() {
+        if (wakeUpSignal.availablePermits() == 0) {
+            wakeUpSignal.release();
+        }
+    }
+
+    // ============================================================
+    // Relay loop
+    // ============================================================
+
+    private void runLoop() {
+        while (running) {
+            try {
+                boolean signalled = wakeUpSignal.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                if (signalled && lingerMs > 0) {
+                    // Linger: gom thêm events commit ngay sau đó vào cùng batch
+                    Thread.sleep(lingerMs);
+                }
+                wakeUpSignal.drainPermits();
+
+                int relayed;
+                do {
+                    relayed = relayBatch();
+                } while (running && relayed == batchSize);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (RuntimeException ex) {
+                log.error("Outbox relay iteration failed: {}", ex.getMessage());
+                sleepQuietly(pollIntervalMs);
+            }
+        }
+        releaseLeadership();
+    }
+
+    /**
+     * Relay một batch.
+     *
+     * @return số events đã publish và được confirm
+     */
+    private int relayBatch() {
+        if (!ensureLeadership()) {
+            // Node khác đang relay
+            return 0;
+        }
+
+        List<OutboxRow> rows = jdbcTemplate.query(SELECT_BATCH_SQL, (rs, rowNum) -> new OutboxRow(
+                rs.getLong("id"),
+                StreamLifecycleEvent.builder()
+                        .eventId(rs.getLong("id"))
+                        .streamId(rs.getLong("stream_id"))
+                        .type(StreamLifecycleEvent.Type.valueOf(rs.getString("event_type")))
+                        .occurredAt(rs.getTimestamp("occurred_at").toLocalDateTime())
+                        .build(),
+                rs.getTimestamp("created_at").toLocalDateTime()), batchSize);
+
+        if (rows.isEmpty()) {
+            pendingAgeMillis.set(0);
+            return 0;
+        }
+        pendingAgeMillis.set(Duration.between(rows.get(0).createdAt(), LocalDateTime.now()).toMillis());
+
+        // Chờ confirms ngoài transaction - không giữ connection/transaction nào trong lúc chờ broker
+        int acked = publishWithConfirms(rows);
+        if (acked > 0) {
+            List<OutboxRow> published = rows.subList(0, acked);
+            LocalDateTime now = LocalDateTime.now();
+            Timestamp publishedAt = Timestamp.valueOf(now);
+            transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.batchUpdate(MARK_PUBLISHED_SQL, published, published.size(),
+                            (ps, row) -> {
+                                ps.setTimestamp(1, publishedAt);
+                                ps.setLong(2, row.id());
+                            }));
+            published.forEach(row -> deliveryLagTimer.record(Duration.between(row.createdAt(), now)));
+            publishedCounter.increment(acked);
+            batchSizeSummary.record(acked);
+        }
+        if (acked < rows.size()) {
+            log.warn("Outbox relay: only {}/{} events confirmed, remaining will be retried", acked, rows.size());
+        }
+        return acked;
+    }
+
+    // ============================================================
+    // Leadership
+    // ============================================================
+
+    /**
+     * Giữ/giành vai trò relay bằng session advisory lock trên một connection riêng (autocommit, không transaction).
+     * Connection chết → PostgreSQL tự nhả lock, node khác giành được ở lần poll sau.
+     */
+    private boolean ensureLeadership() {
+        if (leaderConnection != null) {
+            try {
+                if (leaderConnection.isValid(1)) {
+                    return true;
+                }
+            } catch (SQLException ex) {
+                log.warn("Outbox relay leader connection check failed: {}", ex.getMessage());
+            }
+            closeQuietly(leaderConnection);
+            leaderConnection = null;
+        }
+
+        Connection connection = null;
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(true);
+            try (PreparedStatement ps = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                ps.setLong(1, RELAY_LOCK_KEY);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next() && rs.getBoolean(1)) {
+                        leaderConnection = connection;
+                        log.info("Stream outbox relay acquired leadership");
+                        return true;
+                    }
+                }
+            }
+        } catch (SQLException ex) {
+            log.warn("Outbox relay leadership check failed: {}", ex.getMessage());
+        }
+        // Không giữ lock → trả connection về pool
+        closeQuietly(connection);
+        return false;
+    }
+
+    /**
+     * Nhả lock trước khi trả connection về pool (session lock không tự nhả khi connection quay lại pool)
+     */
+    private void releaseLeadership() {
+        if (leaderConnection == null) {
+            return;
+        }
+        try (PreparedStatement ps = leaderConnection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            ps.setLong(1, RELAY_LOCK_KEY);
+            ps.execute();
+        } catch (SQLException ex) {
+            log.warn("Failed to release outbox relay lock: {}", ex.getMessage());
+        }
+        closeQuietly(leaderConnection);
+        leaderConnection = null;
+    }
+
+    private void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            log.debug("Failed to close connection: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Publish toàn bộ batch trên một channel (giữ thứ tự), sau đó chờ confirms.
+     *
+     * @return độ dài prefix liên tục đã được broker ack
+     */
+    private int publishWithConfirms(List<OutboxRow> rows) {
+        List<CorrelationData> correlations = rabbitTemplate.invoke(operations -> {
+            List<CorrelationData> sent = new ArrayList<>(rows.size());
+            for (OutboxRow row : rows) {
+                CorrelationData correlation = new CorrelationData("outbox-" + row.id());
+                operations.convertAndSend(
+                        RabbitNames.STREAM_EVENTS_EXCHANGE,
+                        row.event().getType().getRoutingKey(),
+                        row.event(),
+                        correlation);
+                sent.add(correlation);
+            }
+            return sent;
+        });
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        int acked = 0;
+        for (CorrelationData correlation : correlations) {
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                CorrelationData.Confirm confirm = correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS);
+                if (!confirm.isAck()) {
+                    log.warn("Outbox event {} nacked by broker: {}", correlation.getId(), confirm.getReason());
+                    break;
+                }
+                // Unroutable (chưa có queue bind) vẫn tính là delivered tới exchange
+                acked++;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException | TimeoutException ex) {
+                log.warn("Outbox event {} not confirmed: {}", correlation.getId(), ex.getMessage());
+                break;
+            }
+        }
+        return acked;
+    }
+
+    // ============================================================
+    // Retention
+    // ============================================================
+
+    /**
+     * Purge events đã publish quá retention, theo chunks để tránh long transaction
+     * Chạy mỗi giờ
+     */
+    @Scheduled(cron = "0 15 * * * *")
+    public void purgePublishedEvents() {
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(PURGE_SQL, cutoff, PURGE_CHUNK_SIZE);
+            total += deleted;
+        } while (deleted == PURGE_CHUNK_SIZE);
+
+        if (total > 0) {
+            log.info("Purged {} published outbox events older than {} days", total, retentionDays);
+        }
+    }
+
+    // ============================================================
+    // SmartLifecycle
+    // ============================================================
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::runLoop, "stream-outbox-relay");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Stream outbox relay started (batchSize={}, lingerMs={})", batchSize, lingerMs);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record OutboxRow(long id, StreamLifecycleEvent event, LocalDateTime createdAt) {
+    }
+}
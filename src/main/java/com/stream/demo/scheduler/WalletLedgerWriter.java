@@ -0,0 +1,445 @@
+package com.stream.demo.scheduler;
+
+import com.stream.demo.model.entity.WalletLedgerEntry;
+import com.stream.demo.service.WalletService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands.XClaimOptions;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamInfo.XInfoConsumers;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wallet Ledger Writer
+ * <p>
+ * Background worker drain ledger stream (wallet:v1:ledger, append bởi wallet_apply.lua) vào PostgreSQL theo batch:
+ * - Consumer group: mỗi node đọc phần của mình; entries của node chết được claim lại sau claim-idle-ms
+ * - Một transaction per batch: INSERT wallet_ledger (ON CONFLICT DO NOTHING) + upsert snapshot wallets
+ *   (một row per user per batch, guard theo ledger_seq) → không lock row wallets per transaction
+ * - XACK + XDEL chỉ sau khi commit (at-least-once, redelivery idempotent)
+ * - Entry không parse được: copy nguyên fields sang dead-letter stream (wallet:v1:ledger:dead) rồi mới ack,
+ *   phần còn lại của batch persist bình thường. Dead-letter không trim - xử lý tay
+ * - Consumer name ổn định (mặc định hostname) → restart đọc lại pending của chính nó;
+ *   consumers khác không còn pending và idle quá dead-consumer-idle-ms bị XGROUP DELCONSUMER
+ * <p>
+ * Metrics: wallet.ledger.persisted, wallet.ledger.batch.size, wallet.ledger.lag, wallet.ledger.backlog,
+ * wallet.ledger.dead_lettered
+ */
+@Component
+@Slf4j
+public class WalletLedgerWriter implements SmartLifecycle {
+
+    private static final String GROUP = "ledger-writers";
+    public static final String DEAD_LETTER_STREAM_KEY = "wallet:v1:ledger:dead";
+
+    private static final String INSERT_LEDGER_SQL =
+            "INSERT INTO wallet_ledger (txn_id, user_id, delta, balance_after, type, reference, ledger_seq, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (txn_id, user_id) DO NOTHING";
+    private static final String UPSERT_WALLET_SQL =
+            "INSERT INTO wallets (user_id, balance, currency, ledger_seq, updated_at) VALUES (?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (user_id) DO UPDATE SET balance = EXCLUDED.balance, ledger_seq = EXCLUDED.ledger_seq, "
+                    + "updated_at = EXCLUDED.updated_at WHERE wallets.ledger_seq < EXCLUDED.ledger_seq";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter persistedCounter;
+    private final Counter deadLetteredCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer lagTimer;
+    private final AtomicLong backlog = new AtomicLong();
+
+    private final Semaphore wakeUpSignal = new Semaphore(0);
+    private volatile boolean running;
+    private Thread worker;
+    private long lastClaimAt;
+
+    @Value("${app.wallet.ledger.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.wallet.ledger.linger-ms:20}")
+    private long lingerMs;
+
+    @Value("${app.wallet.ledger.poll-interval-ms:1000}")
+    private long pollIntervalMs;
+
+    @Value("${app.wallet.ledger.claim-idle-ms:30000}")
+    private long claimIdleMs;
+
+    @Value("${app.wallet.ledger.dead-consumer-idle-ms:3600000}")
+    private long deadConsumerIdleMs;
+
+    @Value("${app.wallet.ledger.consumer-name:}")
+    private String consumerName;
+
+    public WalletLedgerWriter(StringRedisTemplate stringRedisTemplate,
+                              JdbcTemplate jdbcTemplate,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.persistedCounter = Counter.builder("wallet.ledger.persisted")
+                .description("Wallet ledger rows written to PostgreSQL")
+                .register(meterRegistry);
+        this.deadLetteredCounter = Counter.builder("wallet.ledger.dead_lettered")
+                .description("Malformed ledger stream entries moved to the dead-letter stream")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("wallet.ledger.batch.size")
+                .description("Ledger stream entries per writer batch")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("wallet.ledger.lag")
+                .description("Time from Redis apply to ledger commit")
+                .register(meterRegistry);
+        meterRegistry.gauge("wallet.ledger.backlog", backlog);
+    }
+
+    /**
+     * Đánh thức writer (gọi sau mỗi transaction apply thành công)
+     */
+    public void wakeUp() {
+        if (wakeUpSignal.availablePermits() == 0) {
+            wakeUpSignal.release();
+        }
+    }
+
+    /**
+     * Số entries còn trong stream (chưa persist hoặc chưa ack)
+     */
+    public long getBacklog() {
+        return backlog.get();
+    }
+
+    // ============================================================
+    // Writer loop
+    // ============================================================
+
+    private void runLoop() {
+        boolean groupReady = false;
+        while (running) {
+            try {
+                if (!groupReady) {
+                    ensureGroup();
+                    groupReady = true;
+                }
+                boolean signalled = wakeUpSignal.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS);
+                if (signalled && lingerMs > 0) {
+                    // Linger: gom thêm transactions vào cùng batch
+                    Thread.sleep(lingerMs);
+                }
+                wakeUpSignal.drainPermits();
+
+                int written;
+                do {
+                    written = writeBatch();
+                } while (running && written == batchSize);
+
+                if (System.currentTimeMillis() - lastClaimAt >= claimIdleMs) {
+                    claimStaleEntries();
+                    removeDeadConsumers();
+                    lastClaimAt = System.currentTimeMillis();
+                }
+                Long size = stringRedisTemplate.opsForStream().size(WalletService.LEDGER_STREAM_KEY);
+                backlog.set(size != null ? size : 0);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException ex) {
+                log.error("Wallet ledger writer iteration failed: {}", ex.getMessage());
+                sleepQuietly(pollIntervalMs);
+            }
+        }
+    }
+
+    /**
+     * Persist một batch: entries pending của consumer này trước (retry sau lỗi), sau đó entries mới.
+     *
+     * @return số stream entries đã xử lý
+     */
+    private int writeBatch() {
+        List<MapRecord<String, Object, Object>> records = read(ReadOffset.from("0"));
+        if (records.isEmpty()) {
+            records = read(ReadOffset.lastConsumed());
+        }
+        if (records.isEmpty()) {
+            return 0;
+        }
+
+        List<LedgerRow> rows = new ArrayList<>(records.size() * 2);
+        List<RecordId> ids = new ArrayList<>(records.size());
+        List<MapRecord<String, Object, Object>> malformed = new ArrayList<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            ids.add(record.getId());
+            List<LedgerRow> parsed = new ArrayList<>(2);
+            try {
+                parse(record, parsed);
+                rows.addAll(parsed);
+            } catch (RuntimeException ex) {
+                // Không để một entry hỏng chặn cả ledger, nhưng cũng không xóa bản ghi tiền
+                log.error("Dead-lettering malformed wallet ledger entry {}: {}", record.getId(), ex.getMessage());
+                malformed.add(record);
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> persist(rows));
+        }
+        // Lỗi ở đây → không ack gì, cả batch được đọc lại từ pending (persist idempotent)
+        deadLetter(malformed);
+        acknowledge(ids);
+
+        LocalDateTime now = LocalDateTime.now();
+        rows.forEach(row -> lagTimer.record(Duration.between(row.createdAt(), now)));
+        persistedCounter.increment(rows.size());
+        batchSizeSummary.record(records.size());
+        return records.size();
+    }
+
+    private void persist(List<LedgerRow> rows) {
+        jdbcTemplate.batchUpdate(INSERT_LEDGER_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setString(1, row.txnId());
+            ps.setLong(2, row.userId());
+            ps.setLong(3, row.delta());
+            ps.setLong(4, row.balanceAfter());
+            ps.setString(5, row.type());
+            ps.setString(6, row.reference());
+            ps.setLong(7, row.ledgerSeq());
+            ps.setTimestamp(8, Timestamp.valueOf(row.createdAt()));
+        });
+
+        // Snapshot = balance_after của entry mới nhất per user; thứ tự user_id cố định tránh deadlock giữa các nodes
+        Map<Long, LedgerRow> latest = new HashMap<>();
+        for (LedgerRow row : rows) {
+            latest.merge(row.userId(), row, (a, b) -> a.ledgerSeq() >= b.ledgerSeq() ? a : b);
+        }
+        List<LedgerRow> snapshots = latest.values().stream()
+                .sorted(Comparator.comparingLong(LedgerRow::userId))
+                .toList();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_WALLET_SQL, snapshots, snapshots.size(), (ps, row) -> {
+            ps.setLong(1, row.userId());
+            ps.setLong(2, row.balanceAfter());
+            ps.setString(3, WalletService.CURRENCY);
+            ps.setLong(4, row.ledgerSeq());
+            ps.setTimestamp(5, now);
+        });
+    }
+
+    /**
+     * Chuyển entries pending quá claim-idle-ms của consumer khác (node đã chết) về consumer này
+     */
+    private void claimStaleEntries() {
+        PendingMessages pending = stringRedisTemplate.opsForStream()
+                .pending(WalletService.LEDGER_STREAM_KEY, GROUP, Range.unbounded(), batchSize);
+        RecordId[] stale = pending.stream()
+                .filter(message -> !message.getConsumerName().equals(consumerName))
+                .filter(message -> message.getElapsedTimeSinceLastDelivery().toMillis() >= claimIdleMs)
+                .map(PendingMessage::getId)
+                .toArray(RecordId[]::new);
+        if (stale.length > 0) {
+            stringRedisTemplate.opsForStream().claim(WalletService.LEDGER_STREAM_KEY, GROUP, consumerName,
+                    XClaimOptions.minIdle(Duration.ofMillis(claimIdleMs)).ids(stale));
+            log.warn("Claimed {} stale wallet ledger entries from other consumers", stale.length);
+        }
+    }
+
+    /**
+     * XGROUP DELCONSUMER các consumers không còn pending entries và idle quá dead-consumer-idle-ms
+     * (node đã bị thay thế / đổi tên). Consumer còn pending giữ lại cho tới khi claimStaleEntries lấy hết.
+     */
+    private void removeDeadConsumers() {
+        XInfoConsumers consumers = stringRedisTemplate.opsForStream()
+                .consumers(WalletService.LEDGER_STREAM_KEY, GROUP);
+        consumers.forEach(consumer -> {
+            if (!consumer.consumerName().equals(consumerName)
+                    && consumer.pendingCount() == 0
+                    && consumer.idleTimeMs() >= deadConsumerIdleMs) {
+                stringRedisTemplate.opsForStream().deleteConsumer(WalletService.LEDGER_STREAM_KEY,
+                        Consumer.from(GROUP, consumer.consumerName()));
+                log.info("Removed idle wallet ledger consumer {}", consumer.consumerName());
+            }
+        });
+    }
+
+    // ============================================================
+    // Stream helpers
+    // ============================================================
+
+    @SuppressWarnings("unchecked")
+    private List<MapRecord<String, Object, Object>> read(ReadOffset offset) {
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().read(
+                Consumer.from(GROUP, consumerName),
+                StreamReadOptions.empty().count(batchSize),
+                StreamOffset.create(WalletService.LEDGER_STREAM_KEY, offset));
+        return records != null ? records : List.of();
+    }
+
+    /**
+     * Copy entries hỏng (fields gốc + id gốc) sang dead-letter stream trước khi ack
+     */
+    private void deadLetter(List<MapRecord<String, Object, Object>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (MapRecord<String, Object, Object> record : records) {
+                Map<String, String> fields = new LinkedHashMap<>();
+                record.getValue().forEach((field, value) -> fields.put(String.valueOf(field), String.valueOf(value)));
+                fields.put("source_id", record.getId().getValue());
+                conn.xAdd(DEAD_LETTER_STREAM_KEY, fields);
+            }
+            return null;
+        });
+        deadLetteredCounter.increment(records.size());
+    }
+
+    private void acknowledge(List<RecordId> ids) {
+        String[] recordIds = ids.stream().map(RecordId::getValue).toArray(String[]::new);
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.xAck(WalletService.LEDGER_STREAM_KEY, GROUP, recordIds);
+            conn.xDel(WalletService.LEDGER_STREAM_KEY, recordIds);
+            return null;
+        });
+    }
+
+    /**
+     * Tạo consumer group (MKSTREAM) nếu chưa có
+     */
+    private void ensureGroup() {
+        try {
+            stringRedisTemplate.execute((RedisCallback<Object>) connection -> {
+                connection.streamCommands().xGroupCreate(
+                        WalletService.LEDGER_STREAM_KEY.getBytes(StandardCharsets.UTF_8), GROUP,
+                        ReadOffset.from("0"), true);
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            String message = String.valueOf(ex.getMessage()) + (ex.getCause() != null ? ex.getCause().getMessage() : "");
+            if (!message.contains("BUSYGROUP")) {
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Fields: txn, type, ref, at, legs = "userId:delta:balanceAfter,..."
+     */
+    private void parse(MapRecord<String, Object, Object> record, List<LedgerRow> rows) {
+        Map<Object, Object> fields = record.getValue();
+        String txnId = (String) fields.get("txn");
+        String type = WalletLedgerEntry.Type.valueOf((String) fields.get("type")).name();
+        String reference = (String) fields.get("ref");
+        LocalDateTime createdAt = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(Long.parseLong((String) fields.get("at"))), ZoneId.systemDefault());
+        long ledgerSeq = ledgerSeq(record.getId());
+
+        for (String leg : ((String) fields.get("legs")).split(",")) {
+            String[] parts = leg.split(":");
+            rows.add(new LedgerRow(txnId, Long.parseLong(parts[0]), Long.parseLong(parts[1]),
+                    Long.parseLong(parts[2]), type, reference == null || reference.isEmpty() ? null : reference,
+                    ledgerSeq, createdAt));
+        }
+    }
+
+    /**
+     * Stream id (ms-seq) → số tăng dần; Redis chạy script tuần tự nên thứ tự này trùng thứ tự apply balance
+     */
+    static long ledgerSeq(RecordId id) {
+        return id.getTimestamp() * 1_000_000L + Math.min(id.getSequence(), 999_999L);
+    }
+
+    // ============================================================
+    // SmartLifecycle
+    // ============================================================
+
+    @Override
+    public void start() {
+        if (consumerName.isBlank()) {
+            consumerName = defaultConsumerName();
+        }
+        running = true;
+        worker = new Thread(this::runLoop, "wallet-ledger-writer");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Wallet ledger writer started (consumer={}, batchSize={})", consumerName, batchSize);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Hostname: ổn định qua restart (pod name trên Kubernetes). Nhiều instances trên cùng host phải set consumer-name.
+     */
+    private String defaultConsumerName() {
+        String hostname = System.getenv("HOSTNAME");
+        if (hostname != null && !hostname.isBlank()) {
+            return hostname;
+        }
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException ex) {
+            throw new IllegalStateException("Cannot resolve hostname, set app.wallet.ledger.consumer-name", ex);
+        }
+    }
+
+    private void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record LedgerRow(String txnId, long userId, long delta, long balanceAfter, String type,
+                             String reference, long ledgerSeq, LocalDateTime createdAt) {
+    }
+}
@@ -0,0 +1,206 @@
+package com.stream.demo.scheduler;
+
+import com.stream.demo.service.WalletService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wallet Reconciliation Scheduler
+ * <p>
+ * Đối chiếu định kỳ (một node, Redis lock), chỉ wallets có ledger_seq > checkpoint (đổi từ lần chạy trước):
+ * 1. Snapshot wallets.balance ↔ SUM(wallet_ledger.delta) của user (idx_wallet_ledger_user_id) → lệch = lỗi ghi ledger
+ * 2. Balance Redis ↔ snapshot → lệch còn lại sau recheck-delay-ms (writer đã kịp persist) = drift
+ * <p>
+ * Checkpoint (wallet:v1:reconcile:checkpoint) không vượt entry cũ nhất còn trong ledger stream: entry chưa persist
+ * sẽ mang ledger_seq lớn hơn checkpoint → wallet của nó được quét ở lần sau. Xóa key để quét lại toàn bộ.
+ * Recheck được hẹn trên executor riêng, không sleep trong thread @Scheduled (pool dùng chung).
+ * <p>
+ * Chỉ báo (log + metric wallet.reconcile.mismatches), không tự sửa balance.
+ */
+@Component
+@Slf4j
+public class WalletReconciliationScheduler {
+
+    private static final String LOCK_KEY = "wallet:v1:reconcile:lock";
+    private static final String CHECKPOINT_KEY = "wallet:v1:reconcile:checkpoint";
+
+    // Keyset theo (ledger_seq, id): nhiều wallets chung ledger_seq (các legs của một transfer)
+    private static final String SELECT_CHUNK_SQL =
+            "SELECT w.id, w.user_id, w.balance, w.ledger_seq, "
+                    + "(SELECT COALESCE(SUM(l.delta), 0) FROM wallet_ledger l WHERE l.user_id = w.user_id) AS ledger_sum "
+                    + "FROM wallets w WHERE (w.ledger_seq, w.id) > (?, ?) ORDER BY w.ledger_seq, w.id LIMIT ?";
+    private static final String SELECT_BALANCE_SQL = "SELECT balance FROM wallets WHERE user_id = ?";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ScheduledExecutorService recheckExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "wallet-reconcile-recheck");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Counter ledgerMismatchCounter;
+    private final Counter balanceMismatchCounter;
+
+    @Value("${app.wallet.reconcile.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${app.wallet.reconcile.recheck-delay-ms:5000}")
+    private long recheckDelayMs;
+
+    @Value("${app.wallet.reconcile.interval-ms:300000}")
+    private long intervalMs;
+
+    public WalletReconciliationScheduler(StringRedisTemplate stringRedisTemplate,
+                                         JdbcTemplate jdbcTemplate,
+                                         MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerMismatchCounter = Counter.builder("wallet.reconcile.mismatches")
+                .tag("kind", "ledger")
+                .description("Wallet snapshots not matching the sum of their ledger entries")
+                .register(meterRegistry);
+        this.balanceMismatchCounter = Counter.builder("wallet.reconcile.mismatches")
+                .tag("kind", "redis")
+                .description("Live Redis balances not matching the persisted snapshot")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.wallet.reconcile.interval-ms:300000}",
+            initialDelayString = "${app.wallet.reconcile.interval-ms:300000}")
+    public void reconcile() {
+        Boolean acquired = stringRedisTemplate.opsForValue()
+                .setIfAbsent(LOCK_KEY, "1", Duration.ofMillis(intervalMs / 2));
+        if (!Boolean.TRUE.equals(acquired)) {
+            return;
+        }
+
+        // Đọc trước khi quét: mọi entry chưa persist có ledger_seq ≥ entry cũ nhất đang còn trong stream
+        long checkpointLimit = checkpointLimit();
+        long checkpoint = parse(stringRedisTemplate.opsForValue().get(CHECKPOINT_KEY), 0L);
+
+        int checked = 0;
+        int ledgerMismatches = 0;
+        List<Candidate> candidates = new ArrayList<>();
+        long lastSeq = checkpoint;
+        long lastId = 0;
+        List<WalletRow> chunk;
+        do {
+            chunk = jdbcTemplate.query(SELECT_CHUNK_SQL, (rs, rowNum) -> new WalletRow(
+                    rs.getLong("id"), rs.getLong("user_id"), rs.getLong("balance"), rs.getLong("ledger_seq"),
+                    rs.getLong("ledger_sum")),
+                    lastSeq, lastId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            lastSeq = chunk.get(chunk.size() - 1).ledgerSeq();
+            lastId = chunk.get(chunk.size() - 1).id();
+            checked += chunk.size();
+
+            List<String> live = stringRedisTemplate.opsForValue().multiGet(
+                    chunk.stream().map(row -> WalletService.balanceKey(row.userId())).toList());
+            for (int i = 0; i < chunk.size(); i++) {
+                WalletRow row = chunk.get(i);
+                if (row.balance() != row.ledgerSum()) {
+                    ledgerMismatches++;
+                    ledgerMismatchCounter.increment();
+                    log.error("Wallet ledger mismatch for userId {}: snapshot={}, ledger sum={}",
+                            row.userId(), row.balance(), row.ledgerSum());
+                }
+                Long redisBalance = parse(live != null ? live.get(i) : null, null);
+                // Key chưa seed → chưa có balance live để so
+                if (redisBalance != null && redisBalance != row.balance()) {
+                    candidates.add(new Candidate(row.userId(), redisBalance));
+                }
+            }
+        } while (chunk.size() == chunkSize);
+
+        long nextCheckpoint = Math.min(lastSeq, checkpointLimit);
+        if (nextCheckpoint > checkpoint) {
+            stringRedisTemplate.opsForValue().set(CHECKPOINT_KEY, String.valueOf(nextCheckpoint));
+        }
+        if (!candidates.isEmpty()) {
+            recheckExecutor.schedule(() -> recheck(candidates), recheckDelayMs, TimeUnit.MILLISECONDS);
+        }
+        log.info("Wallet reconciliation: {} wallets changed since checkpoint {}, {} ledger mismatches, "
+                + "{} Redis candidates to recheck", checked, checkpoint, ledgerMismatches, candidates.size());
+    }
+
+    /**
+     * Checkpoint tối đa: ngay trước entry cũ nhất còn trong ledger stream (chưa persist / chưa ack).
+     * Stream rỗng → mọi entry sau này có id lớn hơn mọi ledger_seq đã persist → không giới hạn.
+     */
+    private long checkpointLimit() {
+        List<MapRecord<String, Object, Object>> oldest = stringRedisTemplate.opsForStream()
+                .range(WalletService.LEDGER_STREAM_KEY, Range.unbounded(), Limit.limit().count(1));
+        if (oldest == null || oldest.isEmpty()) {
+            return Long.MAX_VALUE;
+        }
+        return WalletLedgerWriter.ledgerSeq(oldest.get(0).getId()) - 1;
+    }
+
+    /**
+     * Lệch Redis ↔ snapshot thường chỉ là entries chưa persist. So lại sau recheck-delay-ms:
+     * chỉ báo drift khi balance Redis không đổi (không còn activity) mà snapshot vẫn khác.
+     */
+    private void recheck(List<Candidate> candidates) {
+        try {
+            log.info("Wallet reconciliation recheck: {} candidates, {} Redis drifts",
+                    candidates.size(), recheckDrifts(candidates));
+        } catch (RuntimeException ex) {
+            log.error("Wallet reconciliation recheck failed: {}", ex.getMessage());
+        }
+    }
+
+    private int recheckDrifts(List<Candidate> candidates) {
+        List<String> live = stringRedisTemplate.opsForValue().multiGet(
+                candidates.stream().map(candidate -> WalletService.balanceKey(candidate.userId())).toList());
+        int drifted = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            Candidate candidate = candidates.get(i);
+            Long redisBalance = parse(live != null ? live.get(i) : null, null);
+            if (redisBalance == null || redisBalance != candidate.redisBalance()) {
+                continue;
+            }
+            Long snapshot = jdbcTemplate.queryForObject(SELECT_BALANCE_SQL, Long.class, candidate.userId());
+            if (snapshot != null && snapshot != candidate.redisBalance()) {
+                drifted++;
+                balanceMismatchCounter.increment();
+                log.error("Wallet balance drift for userId {}: redis={}, snapshot={}",
+                        candidate.userId(), candidate.redisBalance(), snapshot);
+            }
+        }
+        return drifted;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        recheckExecutor.shutdownNow();
+    }
+
+    private Long parse(String value, Long defaultValue) {
+        return value != null ? Long.valueOf(value) : defaultValue;
+    }
+
+    private record WalletRow(long id, long userId, long balance, long ledgerSeq, long ledgerSum) {
+    }
+
+    private record Candidate(long userId, long redisBalance) {
+    }
+}
@@ -0,0 +1,83 @@
+package com.stream.demo.security;
+
+import com.stream.demo.model.entity.User;
+import com.stream.demo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * WebSocket Auth Handshake Interceptor
+ * <p>
+ * Xác thực handshake /ws/live bằng Access Token (Authorization header hoặc query param token,
+ * vì browser WebSocket API không set được header).
+ * - Không có token → anonymous (chỉ xem)
+ * - Token hợp lệ → gắn userId/username/admin vào session attributes (được chat; admin = moderator)
+ * - Token sai / hết hạn → từ chối handshake (401)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class WebSocketAuthHandshakeInterceptor implements HandshakeInterceptor {
+
+    public static final String USER_ID_ATTRIBUTE = "userId";
+    public static final String USERNAME_ATTRIBUTE = "username";
+    public static final String ADMIN_ATTRIBUTE = "admin";
+
+    private static final String ADMIN_AUTHORITY = "ROLE_ADMIN";
+
+    private static final String TOKEN_QUERY_PARAM = "token";
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final UserRepository userRepository;
+    private final CustomUserDetailsService userDetailsService;
+
+    @Override
+    public boolean beforeHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                                   @NonNull WebSocketHandler wsHandler, @NonNull Map<String, Object> attributes) {
+        String token = extractToken(request);
+        if (!StringUtils.hasText(token)) {
+            return true;
+        }
+
+        Optional<User> user = jwtTokenProvider.validateToken(token)
+                ? userRepository.findByUsername(jwtTokenProvider.getUsernameFromToken(token))
+                : Optional.empty();
+        if (user.isEmpty()) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        attributes.put(USER_ID_ATTRIBUTE, user.get().getId());
+        attributes.put(USERNAME_ATTRIBUTE, user.get().getUsername());
+        attributes.put(ADMIN_ATTRIBUTE, userDetailsService.loadUserByUsername(user.get().getUsername())
+                .getAuthorities().stream()
+                .anyMatch(authority -> ADMIN_AUTHORITY.equals(authority.getAuthority())));
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                               @NonNull WebSocketHandler wsHandler, Exception exception) {
+    }
+
+    private String extractToken(ServerHttpRequest request) {
+        String bearerToken = request.getHeaders().getFirst("Authorization");
+        if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
+            return bearerToken.substring(7);
+        }
+        return UriComponentsBuilder.fromUri(request.getURI()).build()
+                .getQueryParams().getFirst(TOKEN_QUERY_PARAM);
+    }
+}
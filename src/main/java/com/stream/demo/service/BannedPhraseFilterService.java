@@ -0,0 +1,180 @@
+package com.stream.demo.service;
+
+import com.stream.demo.common.exception.BusinessException;
+import com.stream.demo.common.exception.ResourceNotFoundException;
+import com.stream.demo.model.dto.BannedPhraseDTO;
+import com.stream.demo.model.entity.BannedPhrase;
+import com.stream.demo.repository.BannedPhraseRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Banned Phrase Filter Service
+ * <p>
+ * Kiểm tra chat messages bằng BannedPhraseMatcher hiện tại (volatile read, không lock).
+ * Khi admin sửa danh sách: PUBLISH chat:moderation:banned_phrases → mọi node rebuild automaton
+ * trên thread riêng rồi swap reference; rebuild dồn lại nếu nhiều thay đổi đến liên tiếp.
+ * Rebuild định kỳ làm fallback cho node lỡ notification (pub/sub không durable).
+ */
+@Service
+@Slf4j
+public class BannedPhraseFilterService implements MessageListener {
+
+    private static final String CHANGE_CHANNEL = "chat:moderation:banned_phrases";
+
+    private final BannedPhraseRepository bannedPhraseRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "banned-phrase-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    private volatile BannedPhraseMatcher matcher = BannedPhraseMatcher.EMPTY;
+
+    public BannedPhraseFilterService(BannedPhraseRepository bannedPhraseRepository,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     RedisMessageListenerContainer listenerContainer) {
+        this.bannedPhraseRepository = bannedPhraseRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @PostConstruct
+    void subscribeChanges() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGE_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestRebuild();
+    }
+
+    // ============================================================
+    // Matching (chat hot path)
+    // ============================================================
+
+    public boolean containsBannedPhrase(String content) {
+        return matcher.matches(content);
+    }
+
+    // ============================================================
+    // Admin operations
+    // ============================================================
+
+    public List<BannedPhraseDTO> getBannedPhrases() {
+        return bannedPhraseRepository.findAllByOrderByIdAsc().stream()
+                .map(this::convertToDTO)
+                .toList();
+    }
+
+    public BannedPhraseDTO addBannedPhrase(String phrase, boolean wholeWord, String createdBy) {
+        String normalized = phrase.strip();
+        if (bannedPhraseRepository.existsByPhraseIgnoreCase(normalized)) {
+            throw new BusinessException("Phrase is already banned");
+        }
+        BannedPhrase saved = bannedPhraseRepository.save(BannedPhrase.builder()
+                .phrase(normalized)
+                .wholeWord(wholeWord)
+                .createdBy(createdBy)
+                .build());
+        publishChange();
+        log.info("Banned phrase {} added by {}", saved.getId(), createdBy);
+        return convertToDTO(saved);
+    }
+
+    public void removeBannedPhrase(Long id) {
+        if (!bannedPhraseRepository.existsById(id)) {
+            throw new ResourceNotFoundException("BannedPhrase", "id", id);
+        }
+        bannedPhraseRepository.deleteById(id);
+        publishChange();
+        log.info("Banned phrase {} removed", id);
+    }
+
+    // ============================================================
+    // Rebuild
+    // ============================================================
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        requestRebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${app.chat.moderation.refresh-interval-ms:300000}",
+            initialDelayString = "${app.chat.moderation.refresh-interval-ms:300000}")
+    public void refresh() {
+        requestRebuild();
+    }
+
+    /**
+     * Schedule rebuild trên rebuild thread; các requests trong lúc đang chờ được gộp thành một
+     */
+    private void requestRebuild() {
+        if (rebuildPending.compareAndSet(false, true)) {
+            rebuildExecutor.execute(() -> {
+                rebuildPending.set(false);
+                rebuild();
+            });
+        }
+    }
+
+    private void rebuild() {
+        try {
+            long start = System.nanoTime();
+            List<BannedPhraseMatcher.Phrase> phrases = bannedPhraseRepository.findAllRules().stream()
+                    .map(rule -> new BannedPhraseMatcher.Phrase(rule.getPhrase(), rule.isWholeWord()))
+                    .toList();
+            BannedPhraseMatcher rebuilt = BannedPhraseMatcher.compilePhrases(phrases);
+            matcher = rebuilt;
+            log.info("Banned phrase matcher rebuilt: {} phrases, {} states in {} ms",
+                    rebuilt.getPatternCount(), rebuilt.getStateCount(), (System.nanoTime() - start) / 1_000_000);
+        } catch (RuntimeException ex) {
+            // Giữ matcher cũ
+            log.error("Failed to rebuild banned phrase matcher: {}", ex.getMessage());
+        }
+    }
+
+    private void publishChange() {
+        try {
+            stringRedisTemplate.convertAndSend(CHANGE_CHANNEL, String.valueOf(System.currentTimeMillis()));
+        } catch (RuntimeException ex) {
+            // Các node khác nhận thay đổi ở lần refresh định kỳ
+            log.warn("Failed to publish banned phrase change: {}", ex.getMessage());
+            requestRebuild();
+        }
+    }
+
+    private BannedPhraseDTO convertToDTO(BannedPhrase bannedPhrase) {
+        return BannedPhraseDTO.builder()
+                .id(bannedPhrase.getId())
+                .phrase(bannedPhrase.getPhrase())
+                .wholeWord(bannedPhrase.isWholeWord())
+                .createdBy(bannedPhrase.getCreatedBy())
+                .createdAt(bannedPhrase.getCreatedAt())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,380 @@
+package com.stream.demo.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Banned Phrase Matcher
+ * <p>
+ * Aho-Corasick automaton bất biến (build một lần, dùng chung giữa các threads):
+ * - Không phân biệt hoa thường theo từng char (bảng tra 64K: toUpperCase → toLowerCase, vd. ς/σ/Σ giống nhau).
+ *   Không phải full Unicode case folding: mapping một char → nhiều chars (ß → ss) không được hỗ trợ
+ * - Leetspeak (0→o, 1/!→i, 3→e, 4/@→a, 5/$→s, 7→t, 8→b) chỉ áp dụng trong word có ít nhất một chữ cái
+ *   ("a55" → "ass", "455" giữ nguyên). Word = chuỗi chữ/số/ký hiệu leet liền nhau, ký hiệu ở cuối word
+ *   là dấu câu ("ass!" = "ass" + "!")
+ * - Phrase whole-word chỉ match khi hai đầu là ranh giới word ("ass" không chặn "classic")
+ * - Chars chuẩn hóa được map sang alphabet nhỏ (chỉ chars có trong patterns; còn lại = class 0)
+ * - Goto function lưu trong open-addressing table (long keys / int values), failure links + output đã propagate;
+ *   whole-word outputs nối thành chain theo failure links để kiểm tra ranh giới
+ * <p>
+ * Match: O(độ dài message), không cấp phát object nào. Supplementary code points (emoji)
+ * được xử lý như char không thuộc pattern nào.
+ */
+public final class BannedPhraseMatcher {
+
+    private static final char[] FOLD = buildFoldTable();
+    private static final char[] LEET = buildLeetTable();
+    private static final long EMPTY_KEY = -1L;
+
+    public static final BannedPhraseMatcher EMPTY = compile(List.of());
+
+    // Char (BMP) → alphabet class; 0 = không xuất hiện trong pattern nào
+    private final short[] charClass;
+    // Ký tự leet (ASCII) trong word có chữ cái → alphabet class của chữ tương ứng
+    private final short[] leetClass;
+
+    // Goto table: key = (state << 16) | class → next state
+    private final long[] gotoKeys;
+    private final int[] gotoValues;
+    private final int gotoMask;
+
+    private final int[] fail;
+    private final int[] depth;
+    // Substring pattern kết thúc tại state (hoặc trên failure chain)
+    private final boolean[] output;
+    // Whole-word pattern gần nhất trên failure chain (kể cả chính state), -1 nếu không có
+    private final int[] wordOutput;
+    // Whole-word pattern kế tiếp trên failure chain của một whole-word state
+    private final int[] wordNext;
+    private final int patternCount;
+
+    private BannedPhraseMatcher(short[] charClass, short[] leetClass, long[] gotoKeys, int[] gotoValues,
+                                int[] fail, int[] depth, boolean[] output, int[] wordOutput, int[] wordNext,
+                                int patternCount) {
+        this.charClass = charClass;
+        this.leetClass = leetClass;
+        this.gotoKeys = gotoKeys;
+        this.gotoValues = gotoValues;
+        this.gotoMask = gotoKeys.length - 1;
+        this.fail = fail;
+        this.depth = depth;
+        this.output = output;
+        this.wordOutput = wordOutput;
+        this.wordNext = wordNext;
+        this.patternCount = patternCount;
+    }
+
+    /**
+     * Phrase cần compile
+     *
+     * @param wholeWord true → chỉ match nguyên word, false → match bất kỳ đâu trong message
+     */
+    public record Phrase(String text, boolean wholeWord) {
+    }
+
+    // ============================================================
+    // Matching
+    // ============================================================
+
+    /**
+     * @return true nếu text chứa ít nhất một banned phrase (sau chuẩn hóa)
+     */
+    public boolean matches(CharSequence text) {
+        if (patternCount == 0) {
+            return false;
+        }
+        int state = 0;
+        int runEnd = 0;
+        int wordEnd = 0;
+        boolean leet = false;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (i >= runEnd && isRunChar(c)) {
+                // Word mới: quét một lần tới hết run để biết word có chữ cái không + vị trí kết thúc word
+                int lastAlnum = -1;
+                leet = false;
+                for (runEnd = i; runEnd < length && isRunChar(text.charAt(runEnd)); runEnd++) {
+                    char d = text.charAt(runEnd);
+                    if (Character.isLetterOrDigit(d)) {
+                        lastAlnum = runEnd;
+                        leet |= Character.isLetter(d);
+                    }
+                }
+                wordEnd = lastAlnum + 1;
+            }
+            int cls = leet && i < wordEnd && c < LEET.length && LEET[c] != 0 ? leetClass[c] : charClass[c];
+            if (cls == 0) {
+                state = 0;
+                continue;
+            }
+            int next;
+            while ((next = transition(state, cls)) < 0 && state != 0) {
+                state = fail[state];
+            }
+            state = Math.max(next, 0);
+            if (output[state]) {
+                return true;
+            }
+            for (int s = wordOutput[state]; s >= 0; s = wordNext[s]) {
+                if (!isWordChar(text, i - depth[s]) && !isWordChar(text, i + 1)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    public int getStateCount() {
+        return fail.length;
+    }
+
+    private int transition(int state, int cls) {
+        long key = ((long) state << 16) | cls;
+        int slot = mix(key) & gotoMask;
+        while (true) {
+            long candidate = gotoKeys[slot];
+            if (candidate == key) {
+                return gotoValues[slot];
+            }
+            if (candidate == EMPTY_KEY) {
+                return -1;
+            }
+            slot = (slot + 1) & gotoMask;
+        }
+    }
+
+    // ============================================================
+    // Compilation (off hot path)
+    // ============================================================
+
+    /**
+     * Build automaton từ danh sách phrases, tất cả match như substring
+     */
+    public static BannedPhraseMatcher compile(Collection<String> phrases) {
+        List<Phrase> substrings = new ArrayList<>(phrases.size());
+        for (String phrase : phrases) {
+            substrings.add(new Phrase(phrase, false));
+        }
+        return compilePhrases(substrings);
+    }
+
+    /**
+     * Build automaton từ danh sách phrases (bỏ qua phrase rỗng sau chuẩn hóa)
+     */
+    public static BannedPhraseMatcher compilePhrases(Collection<Phrase> phrases) {
+        // 1. Alphabet: chars chuẩn hóa xuất hiện trong patterns
+        Map<Character, Short> alphabet = new HashMap<>();
+        List<short[]> patterns = new ArrayList<>(phrases.size());
+        List<Boolean> wholeWords = new ArrayList<>(phrases.size());
+        for (Phrase phrase : phrases) {
+            String normalized = phrase.text() == null ? "" : normalize(phrase.text().strip());
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            short[] encoded = new short[normalized.length()];
+            for (int i = 0; i < normalized.length(); i++) {
+                char folded = normalized.charAt(i);
+                Short cls = alphabet.get(folded);
+                if (cls == null) {
+                    if (alphabet.size() >= Short.MAX_VALUE - 1) {
+                        throw new IllegalArgumentException("Banned phrase alphabet too large");
+                    }
+                    cls = (short) (alphabet.size() + 1);
+                    alphabet.put(folded, cls);
+                }
+                encoded[i] = cls;
+            }
+            patterns.add(encoded);
+            wholeWords.add(phrase.wholeWord());
+        }
+
+        short[] charClass = new short[Character.MAX_VALUE + 1];
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            Short cls = alphabet.get(FOLD[c]);
+            charClass[c] = cls != null ? cls : 0;
+        }
+        short[] leetClass = new short[LEET.length];
+        for (int c = 0; c < LEET.length; c++) {
+            Short cls = LEET[c] != 0 ? alphabet.get(LEET[c]) : null;
+            leetClass[c] = cls != null ? cls : 0;
+        }
+
+        // 2. Trie
+        List<Map<Short, Integer>> children = new ArrayList<>();
+        children.add(new HashMap<>());
+        List<Integer> depths = new ArrayList<>();
+        depths.add(0);
+        List<Boolean> terminal = new ArrayList<>();
+        terminal.add(false);
+        List<Boolean> wordTerminal = new ArrayList<>();
+        wordTerminal.add(false);
+        int edgeCount = 0;
+        for (int p = 0; p < patterns.size(); p++) {
+            int state = 0;
+            for (short cls : patterns.get(p)) {
+                Integer next = children.get(state).get(cls);
+                if (next == null) {
+                    next = children.size();
+                    children.get(state).put(cls, next);
+                    children.add(new HashMap<>());
+                    depths.add(depths.get(state) + 1);
+                    terminal.add(false);
+                    wordTerminal.add(false);
+                    edgeCount++;
+                }
+                state = next;
+            }
+            if (wholeWords.get(p)) {
+                wordTerminal.set(state, true);
+            } else {
+                terminal.set(state, true);
+            }
+        }
+
+        int stateCount = children.size();
+        int[] fail = new int[stateCount];
+        int[] depth = new int[stateCount];
+        boolean[] output = new boolean[stateCount];
+        int[] wordOutput = new int[stateCount];
+        int[] wordNext = new int[stateCount];
+        for (int s = 0; s < stateCount; s++) {
+            depth[s] = depths.get(s);
+            output[s] = terminal.get(s);
+            wordOutput[s] = wordTerminal.get(s) ? s : -1;
+            wordNext[s] = -1;
+        }
+
+        // 3. Failure links (BFS) + propagate output theo failure chain
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int child : children.get(0).values()) {
+            fail[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (Map.Entry<Short, Integer> edge : children.get(state).entrySet()) {
+                int child = edge.getValue();
+                int f = fail[state];
+                while (f != 0 && !children.get(f).containsKey(edge.getKey())) {
+                    f = fail[f];
+                }
+                Integer target = children.get(f).get(edge.getKey());
+                fail[child] = target != null && target != child ? target : 0;
+                output[child] |= output[fail[child]];
+                if (wordOutput[child] == child) {
+                    wordNext[child] = wordOutput[fail[child]];
+                } else {
+                    wordOutput[child] = wordOutput[fail[child]];
+                }
+                queue.add(child);
+            }
+        }
+
+        // 4. Goto table (load factor ≤ 0.5)
+        int capacity = Integer.highestOneBit(Math.max(2, edgeCount * 2) - 1) << 1;
+        long[] gotoKeys = new long[capacity];
+        int[] gotoValues = new int[capacity];
+        Arrays.fill(gotoKeys, EMPTY_KEY);
+        int mask = capacity - 1;
+        for (int state = 0; state < stateCount; state++) {
+            for (Map.Entry<Short, Integer> edge : children.get(state).entrySet()) {
+                long key = ((long) state << 16) | edge.getKey();
+                int slot = mix(key) & mask;
+                while (gotoKeys[slot] != EMPTY_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                gotoKeys[slot] = key;
+                gotoValues[slot] = edge.getValue();
+            }
+        }
+
+        return new BannedPhraseMatcher(charClass, leetClass, gotoKeys, gotoValues,
+                fail, depth, output, wordOutput, wordNext, patterns.size());
+    }
+
+    /**
+     * Chuẩn hóa text giống hệt matches(): case per char + leet trong word có chữ cái (dùng cho patterns)
+     */
+    static String normalize(CharSequence text) {
+        StringBuilder normalized = new StringBuilder(text.length());
+        int runEnd = 0;
+        int wordEnd = 0;
+        boolean leet = false;
+        for (int i = 0, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (i >= runEnd && isRunChar(c)) {
+                int lastAlnum = -1;
+                leet = false;
+                for (runEnd = i; runEnd < length && isRunChar(text.charAt(runEnd)); runEnd++) {
+                    char d = text.charAt(runEnd);
+                    if (Character.isLetterOrDigit(d)) {
+                        lastAlnum = runEnd;
+                        leet |= Character.isLetter(d);
+                    }
+                }
+                wordEnd = lastAlnum + 1;
+            }
+            normalized.append(leet && i < wordEnd && c < LEET.length && LEET[c] != 0 ? LEET[c] : FOLD[c]);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Char tại index thuộc một word: chữ/số, hoặc ký hiệu leet đứng trước chữ/số trong cùng run
+     * (index ngoài text = ranh giới)
+     */
+    static boolean isWordChar(CharSequence text, int index) {
+        if (index < 0) {
+            return false;
+        }
+        for (int i = index, length = text.length(); i < length; i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                return true;
+            }
+            if (!isLeetSymbol(c)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isRunChar(char c) {
+        return Character.isLetterOrDigit(c) || isLeetSymbol(c);
+    }
+
+    private static boolean isLeetSymbol(char c) {
+        return c == '!' || c == '@' || c == '$';
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static char[] buildFoldTable() {
+        char[] fold = new char[Character.MAX_VALUE + 1];
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            fold[c] = Character.toLowerCase(Character.toUpperCase((char) c));
+        }
+        return fold;
+    }
+
+    private static char[] buildLeetTable() {
+        char[] leet = new char[128];
+        String mapping = "0o1i!i3e4a@a5s$s7t8b";
+        for (int i = 0; i < mapping.length(); i += 2) {
+            leet[mapping.charAt(i)] = mapping.charAt(i + 1);
+        }
+        return leet;
+    }
+}
@@ -0,0 +1,145 @@
+package com.stream.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stream.demo.model.dto.response.ChatHistoryResponse;
+import com.stream.demo.model.dto.websocket.ChatMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Chat History Service
+ * <p>
+ * Recent window phục vụ từ Redis Stream ring buffer (XREVRANGE), không chạm DB:
+ * join storm của stream lớn chỉ đọc Redis.
+ * Fall through PostgreSQL (keyset theo id) chỉ khi cần messages cũ hơn buffer:
+ * - buffer đã bị trim (XLEN ≥ buffer-size) → có thể còn messages cũ hơn trong DB
+ * - buffer không tồn tại và stream không live (stream đã kết thúc lâu, key hết TTL)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatHistoryService {
+
+    private static final String HISTORY_FIELD = "m";
+
+    private static final String SELECT_OLDER_SQL =
+            "SELECT m.id, m.stream_id, m.user_id, u.username, m.content, m.sent_at "
+                    + "FROM chat_messages m LEFT JOIN users u ON u.id = m.user_id "
+                    + "WHERE m.stream_id = ? AND m.id < ? ORDER BY m.id DESC LIMIT ?";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final LiveStreamCacheService liveStreamCache;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.chat.history.buffer-size:200}")
+    private int historyBufferSize;
+
+    @Value("${app.chat.history.default-limit:50}")
+    private int defaultLimit;
+
+    @Value("${app.chat.history.max-limit:100}")
+    private int maxLimit;
+
+    /**
+     * Lấy messages mới nhất (before = null) hoặc cũ hơn message id before
+     */
+    public ChatHistoryResponse getHistory(Long streamId, Long before, Integer limit) {
+        int pageSize = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+
+        // Trang đầu chỉ đọc pageSize entries; có cursor → đọc cả buffer (bị chặn bởi MAXLEN)
+        List<ChatMessage> buffered = readBuffer(streamId, before == null ? pageSize : -1);
+        if (before == null && buffered.size() == pageSize) {
+            return page(buffered, pageSize);
+        }
+
+        List<ChatMessage> items = new ArrayList<>(pageSize);
+        long oldestBufferedId = Long.MAX_VALUE;
+        for (ChatMessage message : buffered) {
+            oldestBufferedId = Math.min(oldestBufferedId, message.getId());
+            if (before == null || message.getId() < before) {
+                items.add(message);
+            }
+        }
+        // Thứ tự stream entries là thứ tự publish; sort theo id để khớp keyset cursor
+        items.sort(Comparator.comparing(ChatMessage::getId).reversed());
+        if (items.size() >= pageSize) {
+            return page(items, pageSize);
+        }
+
+        // Phần còn thiếu nằm trước buffer: buffer đầy đủ → hết history, không query DB
+        boolean mayHaveOlder = buffered.isEmpty()
+                ? !liveStreamCache.isLive(streamId)
+                : buffered.size() >= historyBufferSize;
+        if (!mayHaveOlder) {
+            return ChatHistoryResponse.builder().items(items).nextCursor(null).build();
+        }
+
+        long dbBefore = Math.min(before != null ? before : Long.MAX_VALUE, oldestBufferedId);
+        int remaining = pageSize - items.size();
+        List<ChatMessage> older = jdbcTemplate.query(SELECT_OLDER_SQL, (rs, rowNum) -> ChatMessage.builder()
+                .id(rs.getLong("id"))
+                .streamId(rs.getLong("stream_id"))
+                .userId(rs.getLong("user_id"))
+                .username(rs.getString("username"))
+                .content(rs.getString("content"))
+                .sentAt(rs.getTimestamp("sent_at").toLocalDateTime())
+                .build(), streamId, dbBefore, remaining);
+        items.addAll(older);
+        return page(items, pageSize);
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    /**
+     * XREVRANGE history stream (mới nhất trước)
+     *
+     * @param count số entries tối đa, -1 = toàn bộ buffer
+     */
+    private List<ChatMessage> readBuffer(Long streamId, int count) {
+        List<MapRecord<String, Object, Object>> records = stringRedisTemplate.opsForStream().reverseRange(
+                ChatService.historyKey(streamId),
+                Range.unbounded(),
+                count < 0 ? Limit.unlimited() : Limit.limit().count(count));
+        if (records == null) {
+            return List.of();
+        }
+
+        List<ChatMessage> messages = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            Object json = record.getValue().get(HISTORY_FIELD);
+            if (json == null) {
+                continue;
+            }
+            try {
+                messages.add(objectMapper.readValue(json.toString(), ChatMessage.class));
+            } catch (JsonProcessingException ex) {
+                log.warn("Skipping malformed chat history entry {} of stream {}", record.getId(), streamId);
+            }
+        }
+        return messages;
+    }
+
+    private ChatHistoryResponse page(List<ChatMessage> items, int pageSize) {
+        List<ChatMessage> pageItems = items.size() > pageSize ? items.subList(0, pageSize) : items;
+        Long nextCursor = pageItems.size() == pageSize ? pageItems.get(pageItems.size() - 1).getId() : null;
+        return ChatHistoryResponse.builder()
+                .items(pageItems)
+                .nextCursor(nextCursor)
+                .build();
+    }
+}
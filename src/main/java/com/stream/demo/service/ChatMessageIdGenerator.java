@@ -0,0 +1,62 @@
+package com.stream.demo.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Chat Message Id Generator
+ * <p>
+ * Snowflake-style ids: 41 bits millis (từ 2024-01-01) | 10 bits worker | 12 bits sequence.
+ * Worker id cấp qua Redis INCR lúc startup → unique giữa các nodes (tối đa 1024 nodes đồng thời).
+ * Ids tăng theo thời gian → keyset pagination cho chat history.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChatMessageIdGenerator {
+
+    private static final long EPOCH_MILLIS = 1704067200000L; // 2024-01-01T00:00:00Z
+    private static final int WORKER_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_WORKER_ID = (1L << WORKER_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final String WORKER_SEQUENCE_KEY = "chat:v1:worker_seq";
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    private long workerId;
+    private long lastMillis = -1;
+    private long sequence;
+
+    @PostConstruct
+    void assignWorkerId() {
+        Long next = stringRedisTemplate.opsForValue().increment(WORKER_SEQUENCE_KEY);
+        workerId = (next != null ? next : 0) & MAX_WORKER_ID;
+        log.info("Chat message id generator using worker id {}", workerId);
+    }
+
+    public synchronized long nextId() {
+        long now = System.currentTimeMillis();
+        if (now < lastMillis) {
+            // Clock lùi: tiếp tục trên mốc cũ thay vì phát id trùng
+            now = lastMillis;
+        }
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // Hết sequence trong millisecond này
+                while (now <= lastMillis) {
+                    now = System.currentTimeMillis();
+                }
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return ((now - EPOCH_MILLIS) << (WORKER_BITS + SEQUENCE_BITS)) | (workerId << SEQUENCE_BITS) | sequence;
+    }
+}
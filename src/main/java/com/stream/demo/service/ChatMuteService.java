@@ -0,0 +1,309 @@
+package com.stream.demo.service;
+
+import com.stream.demo.common.collection.LongLongHashMap;
+import com.stream.demo.common.exception.BusinessException;
+import com.stream.demo.common.exception.ResourceNotFoundException;
+import com.stream.demo.common.time.HierarchicalTimingWheel;
+import com.stream.demo.model.entity.Stream;
+import com.stream.demo.repository.StreamRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Chat Mute Service
+ * <p>
+ * Mute state của mỗi room giữ local trong LongLongHashMap userId → expiresAt (0 = vĩnh viễn),
+ * publish theo kiểu copy-on-write → send path kiểm tra mute bằng một volatile read + probe, không I/O.
+ * <p>
+ * - Source of truth: Redis hash chat:v1:mutes:{streamId}; node load khi room được dùng lần đầu
+ *   (HGETALL ngoài map lock), room không có chat trong room-idle-evict-ms bị bỏ khỏi memory
+ * - Mute / unmute: ghi hash rồi PUBLISH chat:moderation:mutes → mọi node apply vào state local
+ * - Hết hạn: HierarchicalTimingWheel tick mỗi giây chỉ chạm bucket đến hạn, không scan mute lists
+ */
+@Service
+@Slf4j
+public class ChatMuteService implements MessageListener {
+
+    private static final String CHANGE_CHANNEL = "chat:moderation:mutes";
+    private static final String MUTES_KEY_PATTERN = "chat:v1:mutes:%d";
+    private static final long NOT_MUTED = -1L;
+    private static final long PERMANENT = 0L;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final StreamRepository streamRepository;
+
+    private final Map<Long, RoomMutes> rooms = new ConcurrentHashMap<>();
+    private final HierarchicalTimingWheel<MuteExpiry> expiryWheel;
+    // Số mute changes đã nhận (mọi room): phát hiện change bị bỏ lỡ trong lúc load room
+    private final AtomicLong changeCount = new AtomicLong();
+
+    @Value("${app.chat.mute.max-duration-seconds:2592000}")
+    private long maxDurationSeconds;
+
+    @Value("${app.chat.mute.room-idle-evict-ms:600000}")
+    private long roomIdleEvictMs;
+
+    public ChatMuteService(StringRedisTemplate stringRedisTemplate,
+                           RedisMessageListenerContainer listenerContainer,
+                           StreamRepository streamRepository,
+                           @Value("${app.chat.mute.wheel-tick-ms:1000}") long wheelTickMs) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.streamRepository = streamRepository;
+        // 64 buckets × 4 levels: tick 1s → 64s / ~68 phút / ~3 ngày / ~194 ngày
+        this.expiryWheel = new HierarchicalTimingWheel<>(wheelTickMs, 64, 4, System.currentTimeMillis());
+    }
+
+    @PostConstruct
+    void subscribeChanges() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(CHANGE_CHANNEL));
+    }
+
+    // ============================================================
+    // Check (chat hot path)
+    // ============================================================
+
+    public boolean isMuted(Long streamId, Long userId) {
+        long expiresAt = room(streamId).mutes.get(userId, NOT_MUTED);
+        // So thêm với clock: wheel có thể fire trễ tối đa một tick
+        return expiresAt == PERMANENT || expiresAt > System.currentTimeMillis();
+    }
+
+    // ============================================================
+    // Moderation operations
+    // ============================================================
+
+    /**
+     * Mute user trong room; durationSeconds null = vĩnh viễn
+     */
+    public void mute(Long streamId, Long userId, Long durationSeconds, String mutedBy) {
+        Stream stream = streamRepository.findById(streamId)
+                .orElseThrow(() -> new ResourceNotFoundException("Stream", "id", streamId));
+        if (stream.getCreatorId().equals(userId)) {
+            throw new BusinessException("Cannot mute the streamer");
+        }
+        if (durationSeconds != null && durationSeconds > maxDurationSeconds) {
+            throw new BusinessException("Mute duration must not exceed " + maxDurationSeconds + " seconds");
+        }
+
+        long expiresAt = durationSeconds != null
+                ? System.currentTimeMillis() + durationSeconds * 1000
+                : PERMANENT;
+        stringRedisTemplate.opsForHash().put(mutesKey(streamId), String.valueOf(userId), String.valueOf(expiresAt));
+        publishChange(streamId, userId, expiresAt);
+        log.info("User {} muted in stream {} by {} (duration: {}s)", userId, streamId, mutedBy,
+                durationSeconds != null ? durationSeconds : "permanent");
+    }
+
+    public void unmute(Long streamId, Long userId, String unmutedBy) {
+        if (!streamRepository.existsById(streamId)) {
+            throw new ResourceNotFoundException("Stream", "id", streamId);
+        }
+        stringRedisTemplate.opsForHash().delete(mutesKey(streamId), String.valueOf(userId));
+        publishChange(streamId, userId, NOT_MUTED);
+        log.info("User {} unmuted in stream {} by {}", userId, streamId, unmutedBy);
+    }
+
+    // ============================================================
+    // Replication
+    // ============================================================
+
+    /**
+     * Payload: "{streamId}:{userId}:{expiresAt}", expiresAt = -1 nghĩa là unmute
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(":");
+        try {
+            long streamId = Long.parseLong(parts[0]);
+            long userId = Long.parseLong(parts[1]);
+            long expiresAt = Long.parseLong(parts[2]);
+            changeCount.incrementAndGet();
+            RoomMutes room = rooms.get(streamId);
+            if (room == null) {
+                // Room chưa load trên node này: lần load đầu tiên sẽ đọc state mới từ Redis
+                return;
+            }
+            if (expiresAt == NOT_MUTED) {
+                room.remove(userId, NOT_MUTED);
+            } else {
+                applyMute(room, streamId, userId, expiresAt);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Ignoring malformed mute change: {}", ex.getMessage());
+        }
+    }
+
+    // ============================================================
+    // Expiry
+    // ============================================================
+
+    @Scheduled(fixedRateString = "${app.chat.mute.wheel-tick-ms:1000}")
+    public void tick() {
+        expiryWheel.advanceTo(System.currentTimeMillis(), this::expire);
+    }
+
+    /**
+     * Bỏ rooms không được dùng trong room-idle-evict-ms (lần dùng sau load lại từ Redis).
+     * Timers còn trong wheel của room đã bỏ tự no-op khi fire.
+     */
+    @Scheduled(fixedDelayString = "${app.chat.mute.evict-interval-ms:60000}")
+    public void evictIdleRooms() {
+        long cutoff = System.currentTimeMillis() - roomIdleEvictMs;
+        rooms.values().removeIf(room -> room.lastAccessMs < cutoff);
+    }
+
+    /**
+     * Timer không cancel được: chỉ xóa nếu entry vẫn là mute đã đặt timer (chưa unmute / mute lại)
+     */
+    private void expire(MuteExpiry expiry) {
+        RoomMutes room = rooms.get(expiry.streamId());
+        if (room != null && room.remove(expiry.userId(), expiry.expiresAt())) {
+            log.debug("Mute of user {} in stream {} expired", expiry.userId(), expiry.streamId());
+        }
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    private RoomMutes room(Long streamId) {
+        RoomMutes room = rooms.get(streamId);
+        if (room == null) {
+            room = loadAndInstall(streamId);
+        }
+        long now = System.currentTimeMillis();
+        if (now - room.lastAccessMs > 1000) {
+            room.lastAccessMs = now;
+        }
+        return room;
+    }
+
+    /**
+     * HGETALL chạy ngoài ConcurrentHashMap.computeIfAbsent (không giữ bin lock trong lúc I/O).
+     * Change đến giữa lúc đọc và lúc install bị onMessage bỏ qua (room chưa có) → đọc lại một lần.
+     */
+    private RoomMutes loadAndInstall(Long streamId) {
+        long changesBefore = changeCount.get();
+        RoomMutes loaded = loadRoom(streamId);
+        RoomMutes existing = rooms.putIfAbsent(streamId, loaded);
+        if (existing != null) {
+            return existing;
+        }
+        if (changeCount.get() != changesBefore) {
+            loaded.replaceWith(loadRoom(streamId));
+        }
+        return loaded;
+    }
+
+    /**
+     * Load mute hash từ Redis (một HGETALL mỗi room mỗi node), dọn fields đã hết hạn
+     */
+    private RoomMutes loadRoom(Long streamId) {
+        RoomMutes room = new RoomMutes();
+        Map<Object, Object> entries;
+        try {
+            entries = stringRedisTemplate.opsForHash().entries(mutesKey(streamId));
+        } catch (RuntimeException ex) {
+            // Không cache room rỗng khi Redis lỗi, lần sau load lại
+            log.error("Failed to load mutes for stream {}: {}", streamId, ex.getMessage());
+            throw new BusinessException("Chat is temporarily unavailable, please retry");
+        }
+
+        long now = System.currentTimeMillis();
+        List<Object> expired = new ArrayList<>();
+        entries.forEach((field, value) -> {
+            long userId = Long.parseLong((String) field);
+            long expiresAt = Long.parseLong((String) value);
+            if (expiresAt != PERMANENT && expiresAt <= now) {
+                expired.add(field);
+            } else {
+                applyMute(room, streamId, userId, expiresAt);
+            }
+        });
+        if (!expired.isEmpty()) {
+            stringRedisTemplate.opsForHash().delete(mutesKey(streamId), expired.toArray());
+        }
+        return room;
+    }
+
+    private void applyMute(RoomMutes room, long streamId, long userId, long expiresAt) {
+        room.put(userId, expiresAt);
+        if (expiresAt != PERMANENT && !expiryWheel.schedule(expiresAt, new MuteExpiry(streamId, userId, expiresAt))) {
+            room.remove(userId, expiresAt);
+        }
+    }
+
+    private void publishChange(Long streamId, Long userId, long expiresAt) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANGE_CHANNEL, streamId + ":" + userId + ":" + expiresAt);
+        } catch (RuntimeException ex) {
+            // Hash đã ghi: các node khác thấy thay đổi khi load lại room
+            log.warn("Failed to publish mute change for stream {}: {}", streamId, ex.getMessage());
+            RoomMutes room = rooms.get(streamId);
+            if (room != null) {
+                if (expiresAt == NOT_MUTED) {
+                    room.remove(userId, NOT_MUTED);
+                } else {
+                    applyMute(room, streamId, userId, expiresAt);
+                }
+            }
+        }
+    }
+
+    private static String mutesKey(Long streamId) {
+        return String.format(MUTES_KEY_PATTERN, streamId);
+    }
+
+    /**
+     * Mute list của một room: reads đọc snapshot volatile, writes copy-on-write dưới lock của room
+     * (mute / unmute hiếm so với chat messages)
+     */
+    private static final class RoomMutes {
+        private volatile LongLongHashMap mutes = new LongLongHashMap();
+        private volatile long lastAccessMs = System.currentTimeMillis();
+
+        private synchronized void replaceWith(RoomMutes reloaded) {
+            mutes = reloaded.mutes;
+        }
+
+        private synchronized void put(long userId, long expiresAt) {
+            LongLongHashMap copy = mutes.copy();
+            copy.put(userId, expiresAt);
+            mutes = copy;
+        }
+
+        /**
+         * @param expectedExpiresAt chỉ xóa nếu expiresAt hiện tại khớp; NOT_MUTED = xóa vô điều kiện
+         */
+        private synchronized boolean remove(long userId, long expectedExpiresAt) {
+            long current = mutes.get(userId, NOT_MUTED);
+            if (current == NOT_MUTED || (expectedExpiresAt != NOT_MUTED && current != expectedExpiresAt)) {
+                return false;
+            }
+            LongLongHashMap copy = mutes.copy();
+            copy.remove(userId);
+            mutes = copy;
+            return true;
+        }
+    }
+
+    private record MuteExpiry(long streamId, long userId, long expiresAt) {
+    }
+}
@@ -0,0 +1,82 @@
+package com.stream.demo.service;
+
+import com.stream.demo.model.dto.event.ChatMessageEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Chat Persistence Service
+ * <p>
+ * Ghi một batch chat messages bằng một JDBC batch insert (reWriteBatchedInserts → multi-row INSERT)
+ * trong một transaction. ON CONFLICT DO NOTHING → redeliver sau crash giữa commit và ack không tạo duplicate.
+ * <p>
+ * Metrics: chat.persist.rows (rate = rows/sec), chat.persist.batch.size, chat.persist.lag (sentAt → commit)
+ */
+@Service
+@Slf4j
+public class ChatPersistenceService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO chat_messages (id, stream_id, user_id, content, sent_at) VALUES (?, ?, ?, ?, ?) "
+                    + "ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Counter rowsCounter;
+    private final DistributionSummary batchSizeSummary;
+    private final Timer lagTimer;
+
+    public ChatPersistenceService(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rowsCounter = Counter.builder("chat.persist.rows")
+                .description("Chat messages persisted")
+                .register(meterRegistry);
+        this.batchSizeSummary = DistributionSummary.builder("chat.persist.batch.size")
+                .description("Chat messages per persistence batch")
+                .register(meterRegistry);
+        this.lagTimer = Timer.builder("chat.persist.lag")
+                .description("Time from chat message sent to persisted")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Persist batch trong một transaction; exception → caller không ack, cả batch được retry
+     */
+    public void persistBatch(List<ChatMessageEvent> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.batchUpdate(INSERT_SQL, messages, messages.size(), (ps, message) -> {
+                    ps.setLong(1, message.getId());
+                    ps.setLong(2, message.getStreamId());
+                    ps.setLong(3, message.getUserId());
+                    ps.setString(4, message.getContent());
+                    ps.setTimestamp(5, Timestamp.valueOf(message.getSentAt()));
+                }));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (ChatMessageEvent message : messages) {
+            lagTimer.record(Duration.between(message.getSentAt(), now));
+        }
+        rowsCounter.increment(messages.size());
+        batchSizeSummary.record(messages.size());
+        log.debug("Persisted {} chat messages", messages.size());
+    }
+}
@@ -0,0 +1,204 @@
+package com.stream.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Chat Room Policy Service
+ * <p>
+ * Delivery policy per room cho mega-rooms, tính độc lập trên mỗi node
+ * (mọi node có member của room đều nhận toàn bộ messages của room → cùng message rate):
+ * - Room vào mega mode khi concurrent viewers (presence ZSET, LiveStreamCacheService) ≥ viewer-threshold
+ *   và message rate ≥ message-rate-threshold; thoát khi xuống dưới 75% ngưỡng (hysteresis)
+ * - Mega mode: broadcast messages thường được sample với xác suất cap/rate và chặn cứng
+ *   max-broadcast-per-second (quy đổi theo tick-ms); priority messages (streamer, moderator, gift) luôn deliver
+ * - Slow mode: mỗi user gửi tối đa slow-mode-burst messages mỗi slow-mode-interval-ms
+ *   (token bucket lock-free kiểu GCRA: một AtomicLong per user, CAS)
+ */
+@Service
+@Slf4j
+public class ChatRoomPolicyService {
+
+    private static final double EXIT_RATIO = 0.75;
+    private static final int IDLE_TICKS_BEFORE_EVICT = 60;
+
+    private final LiveStreamCacheService liveStreamCache;
+    private final Counter sampledOutCounter;
+
+    private final Map<Long, RoomState> rooms = new ConcurrentHashMap<>();
+    private long nextViewerRefreshMillis;
+
+    @Value("${app.chat.mega-room.viewer-threshold:50000}")
+    private long viewerThreshold;
+
+    @Value("${app.chat.mega-room.message-rate-threshold:20}")
+    private long messageRateThreshold;
+
+    @Value("${app.chat.mega-room.max-broadcast-per-second:30}")
+    private int maxBroadcastPerSecond;
+
+    @Value("${app.chat.mega-room.slow-mode-interval-ms:5000}")
+    private long slowModeIntervalMs;
+
+    @Value("${app.chat.mega-room.slow-mode-burst:1}")
+    private int slowModeBurst;
+
+    @Value("${app.chat.mega-room.viewer-refresh-ms:5000}")
+    private long viewerRefreshMs;
+
+    @Value("${app.chat.mega-room.tick-ms:1000}")
+    private long tickMs;
+
+    public ChatRoomPolicyService(LiveStreamCacheService liveStreamCache, MeterRegistry meterRegistry) {
+        this.liveStreamCache = liveStreamCache;
+        this.sampledOutCounter = Counter.builder("chat.delivery.sampled.out")
+                .description("Chat messages not broadcast because their room was sampling")
+                .register(meterRegistry);
+    }
+
+    // ============================================================
+    // Hot path
+    // ============================================================
+
+    /**
+     * Đếm message nhận được của room (gọi bởi relay cho mọi message)
+     */
+    public void recordMessage(Long streamId) {
+        rooms.computeIfAbsent(streamId, id -> new RoomState()).received.increment();
+    }
+
+    public boolean isMegaRoom(Long streamId) {
+        RoomState state = rooms.get(streamId);
+        return state != null && state.mega;
+    }
+
+    /**
+     * Quyết định broadcast message trên node này
+     */
+    public boolean shouldDeliver(Long streamId, boolean priority) {
+        RoomState state = rooms.get(streamId);
+        if (priority || state == null || !state.mega) {
+            return true;
+        }
+        if (ThreadLocalRandom.current().nextDouble() < state.sampleProbability
+                && state.budget.getAndDecrement() > 0) {
+            return true;
+        }
+        sampledOutCounter.increment();
+        return false;
+    }
+
+    /**
+     * Slow mode: lấy một token của user trong room.
+     *
+     * @return 0 nếu được gửi, ngược lại số ms phải chờ
+     */
+    public long tryAcquireSend(Long streamId, Long userId) {
+        RoomState state = rooms.get(streamId);
+        if (state == null || !state.mega) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        long interval = TimeUnit.MILLISECONDS.toNanos(slowModeIntervalMs);
+        long tolerance = (Math.max(1, slowModeBurst) - 1) * interval;
+        AtomicLong theoreticalArrival = state.sendBuckets.computeIfAbsent(userId, id -> new AtomicLong(now));
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = Math.max(tat, now);
+            if (base - now > tolerance) {
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(base - now - tolerance));
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + interval)) {
+                return 0;
+            }
+        }
+    }
+
+    // ============================================================
+    // Tick
+    // ============================================================
+
+    /**
+     * Tính lại rate, mode, sampling probability và budget của mọi room mỗi tick
+     */
+    @Scheduled(fixedRateString = "${app.chat.mega-room.tick-ms:1000}")
+    public void tick() {
+        if (rooms.isEmpty()) {
+            return;
+        }
+        refreshViewerCounts();
+
+        long now = System.nanoTime();
+        int budgetPerTick = (int) Math.max(1, maxBroadcastPerSecond * tickMs / 1000);
+        rooms.forEach((streamId, state) -> {
+            long rate = state.received.sumThenReset() * 1000 / tickMs;
+            boolean wasMega = state.mega;
+            boolean mega = wasMega
+                    ? state.viewers >= viewerThreshold * EXIT_RATIO && rate >= messageRateThreshold * EXIT_RATIO
+                    : state.viewers >= viewerThreshold && rate >= messageRateThreshold;
+            if (mega != wasMega) {
+                log.info("Chat room {} {} mega mode (viewers={}, rate={}/s)",
+                        streamId, mega ? "entered" : "left", state.viewers, rate);
+                if (!mega) {
+                    state.sendBuckets.clear();
+                }
+            }
+
+            state.sampleProbability = rate <= maxBroadcastPerSecond ? 1.0 : (double) maxBroadcastPerSecond / rate;
+            state.budget.set(budgetPerTick);
+            state.mega = mega;
+            // Bucket đã refill đầy = không còn thông tin → bỏ
+            state.sendBuckets.values().removeIf(tat -> tat.get() <= now);
+
+            state.idleTicks = rate == 0 && !mega ? state.idleTicks + 1 : 0;
+            if (state.idleTicks > IDLE_TICKS_BEFORE_EVICT) {
+                rooms.remove(streamId, state);
+            }
+        });
+    }
+
+    private void refreshViewerCounts() {
+        long nowMillis = System.currentTimeMillis();
+        if (nowMillis < nextViewerRefreshMillis) {
+            return;
+        }
+        nextViewerRefreshMillis = nowMillis + viewerRefreshMs;
+        try {
+            liveStreamCache.getConcurrentViewerCounts(rooms.keySet()).forEach((streamId, count) -> {
+                RoomState state = rooms.get(streamId);
+                if (state != null) {
+                    state.viewers = count;
+                }
+            });
+        } catch (RuntimeException ex) {
+            // Giữ viewer counts cũ, thử lại tick sau
+            log.warn("Failed to refresh chat room viewer counts: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Trạng thái policy của một room (đọc lock-free từ fan-out / WebSocket threads)
+     */
+    private static final class RoomState {
+        private final LongAdder received = new LongAdder();
+        private final AtomicInteger budget = new AtomicInteger();
+        private final Map<Long, AtomicLong> sendBuckets = new ConcurrentHashMap<>();
+        private volatile boolean mega;
+        private volatile double sampleProbability = 1.0;
+        private volatile long viewers;
+        private int idleTicks;
+    }
+}
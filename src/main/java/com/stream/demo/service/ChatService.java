@@ -0,0 +1,191 @@
+package com.stream.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stream.demo.common.exception.BusinessException;
+import com.stream.demo.common.exception.ResourceNotFoundException;
+import com.stream.demo.common.exception.ServiceUnavailableException;
+import com.stream.demo.config.RabbitMQConfig.RabbitNames;
+import com.stream.demo.model.dto.event.ChatMessageEvent;
+import com.stream.demo.model.dto.websocket.ChatMessage;
+import com.stream.demo.model.entity.Stream;
+import com.stream.demo.repository.StreamRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Chat Service
+ * <p>
+ * Gửi chat message:
+ * - Validate nội dung, banned phrase filter, mute check, spam detection, slow mode (mega-room)
+ * - Gán snowflake id, enqueue persistence (RabbitMQ, write-behind)
+ * - Serialize một lần, XADD history ring buffer + PUBLISH chat:room:{streamId} (một script, một round trip)
+ * <p>
+ * Mỗi node có subscriber của room nhận đúng một bản và fan-out local (ChatRoomRelay)
+ * → Redis không thấy traffic per recipient.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChatService {
+
+    private static final String ROOM_CHANNEL_PREFIX = "chat:room:";
+    private static final String HISTORY_KEY_PATTERN = "chat:v1:history:%d";
+
+    private static final RedisScript<Long> APPEND_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/chat_append.lua"), Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ChatMessageIdGenerator idGenerator;
+    private final ObjectMapper objectMapper;
+    private final RabbitTemplate rabbitTemplate;
+    private final StreamRepository streamRepository;
+    private final ChatRoomPolicyService chatRoomPolicy;
+    private final BannedPhraseFilterService bannedPhraseFilter;
+    private final ChatSpamDetector spamDetector;
+    private final ChatMuteService chatMuteService;
+
+    @Value("${app.chat.max-message-length:500}")
+    private int maxMessageLength;
+
+    @Value("${app.chat.history.buffer-size:200}")
+    private int historyBufferSize;
+
+    @Value("${app.chat.history.ttl-hours:48}")
+    private long historyTtlHours;
+
+    /**
+     * Gửi message vào room của stream
+     *
+     * @return message đã publish
+     */
+    public ChatMessage sendMessage(Long streamId, Long userId, String username, ChatMessage.Role role,
+                                   String content) {
+        String text = content != null ? content.strip() : "";
+        if (text.isEmpty()) {
+            throw new BusinessException("Message content is required");
+        }
+        if (text.length() > maxMessageLength) {
+            throw new BusinessException("Message must not exceed " + maxMessageLength + " characters");
+        }
+        if (bannedPhraseFilter.containsBannedPhrase(text)) {
+            throw new BusinessException("Message contains banned content");
+        }
+        boolean priority = role != ChatMessage.Role.VIEWER;
+        if (!priority) {
+            if (chatMuteService.isMuted(streamId, userId)) {
+                throw new BusinessException("You are muted in this chat");
+            }
+            switch (spamDetector.check(streamId, userId, text)) {
+                case USER_FLOOD -> throw new BusinessException("You are sending messages too fast");
+                case USER_DUPLICATE, ROOM_DUPLICATE -> throw new BusinessException("Duplicate message suppressed");
+                case OK -> {
+                }
+            }
+            long waitMillis = chatRoomPolicy.tryAcquireSend(streamId, userId);
+            if (waitMillis > 0) {
+                throw new BusinessException("Slow mode is on, wait " + ((waitMillis + 999) / 1000) + "s before sending again");
+            }
+        }
+
+        ChatMessage message = ChatMessage.builder()
+                .id(idGenerator.nextId())
+                .streamId(streamId)
+                .userId(userId)
+                .username(username)
+                .content(text)
+                .sentAt(LocalDateTime.now())
+                .role(role)
+                .priority(priority)
+                .build();
+
+        enqueuePersistence(message);
+        stringRedisTemplate.execute(APPEND_SCRIPT, List.of(historyKey(streamId)),
+                serialize(message),
+                String.valueOf(historyBufferSize),
+                String.valueOf(historyTtlHours * 3600),
+                roomChannel(streamId));
+        return message;
+    }
+
+    /**
+     * Role của user trong chat room: creator của stream = STREAMER, admin = MODERATOR
+     */
+    public ChatMessage.Role resolveRole(Long streamId, Long userId, boolean admin) {
+        Stream stream = streamRepository.findById(streamId)
+                .orElseThrow(() -> new ResourceNotFoundException("Stream", "id", streamId));
+        if (stream.getCreatorId().equals(userId)) {
+            return ChatMessage.Role.STREAMER;
+        }
+        return admin ? ChatMessage.Role.MODERATOR : ChatMessage.Role.VIEWER;
+    }
+
+    public static String historyKey(Long streamId) {
+        return String.format(HISTORY_KEY_PATTERN, streamId);
+    }
+
+    public static String roomChannel(Long streamId) {
+        return ROOM_CHANNEL_PREFIX + streamId;
+    }
+
+    /**
+     * Parse streamId từ channel name (null nếu không phải chat room channel)
+     */
+    public static Long parseRoomChannel(String channel) {
+        if (!channel.startsWith(ROOM_CHANNEL_PREFIX)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(channel.substring(ROOM_CHANNEL_PREFIX.length()));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Enqueue cho ChatPersistenceConsumer. Không chờ confirm trên chat path (latency);
+     * broker không nhận được (exception) → reject message, nack → log để điều tra.
+     */
+    private void enqueuePersistence(ChatMessage message) {
+        ChatMessageEvent event = ChatMessageEvent.builder()
+                .id(message.getId())
+                .streamId(message.getStreamId())
+                .userId(message.getUserId())
+                .content(message.getContent())
+                .sentAt(message.getSentAt())
+                .build();
+        CorrelationData correlation = new CorrelationData("chat-" + message.getId());
+        try {
+            rabbitTemplate.convertAndSend(
+                    RabbitNames.CHAT_MESSAGES_EXCHANGE, RabbitNames.CHAT_PERSIST_ROUTING_KEY, event, correlation);
+        } catch (AmqpException ex) {
+            log.error("Failed to enqueue chat message {} for persistence: {}", message.getId(), ex.getMessage());
+            throw new ServiceUnavailableException("Chat is temporarily unavailable, please retry", ex);
+        }
+        correlation.getFuture().whenComplete((confirm, ex) -> {
+            if (ex != null || !confirm.isAck() || correlation.getReturned() != null) {
+                log.error("Chat message {} was not accepted by broker: {}", message.getId(),
+                        ex != null ? ex.getMessage() : confirm.getReason());
+            }
+        });
+    }
+
+    private String serialize(ChatMessage message) {
+        try {
+            return objectMapper.writeValueAsString(message);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize chat message", ex);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.stream.demo.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chat Spam Detector
+ * <p>
+ * Phát hiện duplicate / flood trước khi publish, bằng sliding-window count-min sketches trong memory:
+ * - Per room: tần suất của fingerprint message trong room (copy-paste raids)
+ * - Per user (sketches dùng chung cho users trên node, mỗi loại count một sketch riêng): số messages của user
+ *   (flood) và số lần user lặp lại cùng (user, fingerprint)
+ * <p>
+ * Sizing: width = events dự kiến trong window / maxLoad, maxLoad = threshold × MAX_LOAD_PER_THRESHOLD.
+ * Với conservative update, noise của item hiếm ≈ load / depth → traffic unique ở rate dự kiến không bị suppress.
+ * User sketches sized từ expected-messages-per-second của node; room sketches bắt đầu nhỏ, tự tăng width khi room đông.
+ * <p>
+ * Fingerprint = hash của content đã chuẩn hóa (chỉ letters/digits, case folded, gộp ký tự lặp liên tiếp)
+ * → "FREE   coins!!!" và "free coinsss" trùng nhau. O(độ dài message), không cấp phát.
+ * Counts là per node (mỗi node đếm messages gửi qua nó).
+ */
+@Service
+@Slf4j
+public class ChatSpamDetector {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final int IDLE_ROTATIONS_BEFORE_EVICT = 12;
+    private static final double MAX_LOAD_PER_THRESHOLD = 0.8;
+    // User sketches tự tăng tối đa tới 4× rate dự kiến
+    private static final int USER_GROWTH_FACTOR = 4;
+    private static final int MAX_SKETCH_WIDTH = 1 << 22;
+
+    public enum Verdict {
+        OK,
+        ROOM_DUPLICATE,
+        USER_DUPLICATE,
+        USER_FLOOD
+    }
+
+    private final Map<Long, RoomSketch> roomSketches = new ConcurrentHashMap<>();
+    private final SlidingCountMinSketch userCountSketch;
+    private final SlidingCountMinSketch userDuplicateSketch;
+    private final Map<Verdict, Counter> suppressedCounters = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    private final int buckets;
+    private final int roomDuplicateThreshold;
+    private final int userDuplicateThreshold;
+    private final int userFloodThreshold;
+    private final int roomSketchWidth;
+    private final int roomSketchMaxWidth;
+
+    public ChatSpamDetector(MeterRegistry meterRegistry,
+                            @Value("${app.chat.spam.buckets:6}") int buckets,
+                            @Value("${app.chat.spam.bucket-seconds:5}") int bucketSeconds,
+                            @Value("${app.chat.spam.expected-messages-per-second:10000}") int expectedMessagesPerSecond,
+                            @Value("${app.chat.spam.room-duplicate-threshold:10}") int roomDuplicateThreshold,
+                            @Value("${app.chat.spam.user-duplicate-threshold:3}") int userDuplicateThreshold,
+                            @Value("${app.chat.spam.user-flood-threshold:20}") int userFloodThreshold,
+                            @Value("${app.chat.spam.room-sketch-width:256}") int roomSketchWidth,
+                            @Value("${app.chat.spam.room-sketch-max-width:8192}") int roomSketchMaxWidth) {
+        this.meterRegistry = meterRegistry;
+        this.buckets = buckets;
+        this.roomDuplicateThreshold = roomDuplicateThreshold;
+        this.userDuplicateThreshold = userDuplicateThreshold;
+        this.userFloodThreshold = userFloodThreshold;
+        this.roomSketchWidth = roomSketchWidth;
+        this.roomSketchMaxWidth = roomSketchMaxWidth;
+
+        long windowEvents = (long) expectedMessagesPerSecond * buckets * bucketSeconds;
+        this.userCountSketch = userSketch(windowEvents, userFloodThreshold);
+        this.userDuplicateSketch = userSketch(windowEvents, userDuplicateThreshold);
+        log.info("Chat spam detector user sketches: count width={}, duplicate width={} ({} KB)",
+                userCountSketch.getWidth(), userDuplicateSketch.getWidth(),
+                (userCountSketch.getMemoryBytes() + userDuplicateSketch.getMemoryBytes()) / 1024);
+    }
+
+    /**
+     * Đếm message và quyết định có suppress không. O(1) theo số rooms/users/messages.
+     */
+    public Verdict check(Long streamId, Long userId, String content) {
+        long fingerprint = fingerprint(content);
+        long userKey = mix(userId);
+
+        int userCount = userCountSketch.addAndEstimate(userKey);
+        int userDuplicates = userDuplicateSketch.addAndEstimate(mix(userKey ^ fingerprint));
+        int roomDuplicates = roomSketches
+                .computeIfAbsent(streamId, id -> new RoomSketch(new SlidingCountMinSketch(3, roomSketchWidth,
+                        roomSketchMaxWidth, buckets, maxLoad(roomDuplicateThreshold))))
+                .touch()
+                .addAndEstimate(fingerprint);
+
+        Verdict verdict = Verdict.OK;
+        if (userCount > userFloodThreshold) {
+            verdict = Verdict.USER_FLOOD;
+        } else if (userDuplicates > userDuplicateThreshold) {
+            verdict = Verdict.USER_DUPLICATE;
+        } else if (roomDuplicates > roomDuplicateThreshold) {
+            verdict = Verdict.ROOM_DUPLICATE;
+        }
+        if (verdict != Verdict.OK) {
+            suppressedCounters.computeIfAbsent(verdict, v -> Counter.builder("chat.spam.suppressed")
+                    .description("Chat messages suppressed by spam detection")
+                    .tag("reason", v.name())
+                    .register(meterRegistry)).increment();
+        }
+        return verdict;
+    }
+
+    /**
+     * Trượt window một bucket (window = buckets × bucket-seconds)
+     */
+    @Scheduled(fixedRateString = "${app.chat.spam.bucket-seconds:5}", timeUnit = TimeUnit.SECONDS)
+    public void rotate() {
+        userCountSketch.rotate();
+        userDuplicateSketch.rotate();
+        roomSketches.forEach((streamId, room) -> {
+            room.sketch.rotate();
+            if (++room.idleRotations > IDLE_ROTATIONS_BEFORE_EVICT) {
+                roomSketches.remove(streamId, room);
+            }
+        });
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    private SlidingCountMinSketch userSketch(long windowEvents, int threshold) {
+        double maxLoad = maxLoad(threshold);
+        int width = widthFor(windowEvents, maxLoad);
+        int maxWidth = widthFor(windowEvents * USER_GROWTH_FACTOR, maxLoad);
+        return new SlidingCountMinSketch(4, width, maxWidth, buckets, maxLoad);
+    }
+
+    private static double maxLoad(int threshold) {
+        return Math.max(1, threshold * MAX_LOAD_PER_THRESHOLD);
+    }
+
+    /**
+     * Power of two nhỏ nhất có events / width ≤ maxLoad
+     */
+    private static int widthFor(long events, double maxLoad) {
+        long needed = Math.max(64, (long) Math.ceil(events / maxLoad));
+        return (int) Math.min(MAX_SKETCH_WIDTH, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    /**
+     * FNV-1a 64 trên content chuẩn hóa; message không có letter/digit nào (emoji, ký hiệu)
+     * hash mọi ký tự không phải whitespace để các emoji khác nhau không trùng fingerprint
+     */
+    private static long fingerprint(String content) {
+        long hash = FNV_OFFSET;
+        boolean hashed = false;
+        char previous = 0;
+        for (int i = 0, length = content.length(); i < length; i++) {
+            char c = content.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                continue;
+            }
+            c = Character.toLowerCase(Character.toUpperCase(c));
+            if (c == previous) {
+                continue;
+            }
+            previous = c;
+            hash ^= c;
+            hash *= FNV_PRIME;
+            hashed = true;
+        }
+        if (!hashed) {
+            for (int i = 0, length = content.length(); i < length; i++) {
+                char c = content.charAt(i);
+                if (!Character.isWhitespace(c)) {
+                    hash ^= c;
+                    hash *= FNV_PRIME;
+                }
+            }
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 31);
+    }
+
+    private static final class RoomSketch {
+        private final SlidingCountMinSketch sketch;
+        private volatile int idleRotations;
+
+        private RoomSketch(SlidingCountMinSketch sketch) {
+            this.sketch = sketch;
+        }
+
+        private SlidingCountMinSketch touch() {
+            idleRotations = 0;
+            return sketch;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.stream.demo.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Consistent Hash Ring (immutable)
+ * <p>
+ * Mỗi node có {@code virtualNodes} điểm trên ring 64-bit → phân bố đều, và khi node join / leave
+ * chỉ ~1/N keys đổi owner (các keys nằm trên cung của node đó). Lookup: binary search trên long[] đã sort.
+ */
+public final class ConsistentHashRing {
+
+    public static final ConsistentHashRing EMPTY = new RingBuilder().build();
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final int[] owners;
+
+    private ConsistentHashRing(List<String> nodes, long[] points, int[] owners) {
+        this.nodes = nodes;
+        this.points = points;
+        this.owners = owners;
+    }
+
+    /**
+     * Build ring từ node ids (thứ tự không ảnh hưởng kết quả)
+     */
+    public static ConsistentHashRing of(Collection<String> nodeIds, int virtualNodes) {
+        RingBuilder builder = new RingBuilder();
+        nodeIds.stream().distinct().sorted().forEach(nodeId -> builder.add(nodeId, virtualNodes));
+        return builder.build();
+    }
+
+    /**
+     * Node sở hữu key: điểm đầu tiên ≥ hash(key) theo chiều kim đồng hồ; null nếu ring rỗng
+     */
+    public String ownerOf(long key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, mix(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        if (index == points.length) {
+            index = 0;
+        }
+        return nodes.get(owners[index]);
+    }
+
+    public List<String> getNodes() {
+        return nodes;
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    // ============================================================
+    // Hashing
+    // ============================================================
+
+    /**
+     * FNV-1a 64-bit + finalizer của MurmurHash3 (fmix64)
+     */
+    private static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return mix(h);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class RingBuilder {
+        private final List<String> nodes = new ArrayList<>();
+        private final List<long[]> entries = new ArrayList<>();
+
+        private void add(String nodeId, int virtualNodes) {
+            int nodeIndex = nodes.size();
+            nodes.add(nodeId);
+            for (int i = 0; i < virtualNodes; i++) {
+                entries.add(new long[]{hash(nodeId + "#" + i), nodeIndex});
+            }
+        }
+
+        private ConsistentHashRing build() {
+            // Sort theo điểm; trùng điểm (hiếm) → node index nhỏ hơn thắng, kết quả như nhau trên mọi node
+            entries.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+            long[] points = new long[entries.size()];
+            int[] owners = new int[entries.size()];
+            int size = 0;
+            for (long[] entry : entries) {
+                if (size > 0 && points[size - 1] == entry[0]) {
+                    continue;
+                }
+                points[size] = entry[0];
+                owners[size] = (int) entry[1];
+                size++;
+            }
+            return new ConsistentHashRing(List.copyOf(nodes),
+                    Arrays.copyOf(points, size), Arrays.copyOf(owners, size));
+        }
+    }
+}
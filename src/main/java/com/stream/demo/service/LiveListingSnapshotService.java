@@ -0,0 +1,126 @@
+package com.stream.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stream.demo.common.ApiResponse;
+import com.stream.demo.model.dto.StreamDTO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Live Listing Snapshot Service
+ * <p>
+ * GET /api/streams (liveOnly) giống nhau cho mọi viewer → build và serialize một lần,
+ * serve raw bytes (JSON + gzip) cho tất cả requests.
+ * <p>
+ * Rebuild khi live listing version (Redis, bump bởi start/end trên bất kỳ node nào) thay đổi,
+ * tối đa một lần mỗi refresh-interval-ms. max-age-ms là fallback nếu một lần bump bị mất.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LiveListingSnapshotService {
+
+    private final StreamService streamService;
+    private final StreamVersionService streamVersionService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.stream.live-snapshot.max-age-ms:60000}")
+    private long maxAgeMs;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Snapshot hiện tại (build đồng bộ nếu chưa có - chỉ request đầu tiên sau startup)
+     */
+    public Snapshot getSnapshot() {
+        Snapshot current = snapshot;
+        if (current != null) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                snapshot = build(streamVersionService.getLiveListingVersion());
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Rebuild nếu version đổi hoặc snapshot quá max-age
+     */
+    @Scheduled(fixedDelayString = "${app.stream.live-snapshot.refresh-interval-ms:1000}")
+    public void refreshIfChanged() {
+        Snapshot current = snapshot;
+        String version = streamVersionService.getLiveListingVersion();
+        boolean changed = current == null
+                || (version != null && !Objects.equals(version, current.version()))
+                || System.currentTimeMillis() - current.builtAtMillis() > maxAgeMs;
+        if (!changed) {
+            return;
+        }
+        try {
+            snapshot = build(version);
+        } catch (RuntimeException ex) {
+            // Giữ snapshot cũ, thử lại ở tick sau
+            log.error("Failed to rebuild live listing snapshot: {}", ex.getMessage());
+        }
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    /**
+     * Version đọc trước khi query: snapshot không bao giờ mới hơn version nó mang
+     */
+    private Snapshot build(String version) {
+        List<StreamDTO> streams = streamService.getAllLiveStreams();
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(ApiResponse.success(streams, null));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize live listing", ex);
+        }
+        byte[] gzip = gzip(json);
+        // Redis lỗi → ETag theo content hash (prefix riêng, không trùng version)
+        String tag = version != null
+                ? "live-" + version
+                : "live-h" + Integer.toHexString(Arrays.hashCode(json));
+
+        log.debug("Live listing snapshot rebuilt: {} streams, {} bytes ({} gzipped)", streams.size(), json.length, gzip.length);
+        return new Snapshot(version, "\"" + tag + "\"", "\"" + tag + "-gz\"", json, gzip, System.currentTimeMillis());
+    }
+
+    private byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(data);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Serialized live listing (immutable - byte arrays không được sửa sau khi build).
+     * Strong ETag riêng cho mỗi representation: gzip và identity khác bytes nên không được chung tag.
+     */
+    public record Snapshot(String version, String etag, String gzipEtag, byte[] json, byte[] gzip, long builtAtMillis) {
+
+        public String etag(boolean gzip) {
+            return gzip ? gzipEtag : etag;
+        }
+    }
+}
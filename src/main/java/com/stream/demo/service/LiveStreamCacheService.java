@@ -2,16 +2,27 @@ package com.stream.demo.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * LiveStream Cache Service
  * <p>
  * Quản lý các operations Redis cho livestream:
  * - HyperLogLog cho unique viewer counting
+ * - Presence ZSET + peak cho concurrent viewers
  * - Live status caching
  */
 @Service
@@ -23,28 +34,53 @@ public class LiveStreamCacheService {
 
     // Cache key patterns
     private static final String VIEWER_KEY_PATTERN = "stream:%d:viewers";
+    private static final String PRESENCE_KEY_PATTERN = "stream:%d:presence";
+    private static final String PEAK_KEY_PATTERN = "stream:%d:peak";
     private static final String LIVE_STATUS_KEY_PATTERN = "stream:%d:live";
 
     // TTLs
     private static final Duration LIVE_STATUS_TTL = Duration.ofHours(24);
+    private static final Duration PRESENCE_TTL = Duration.ofHours(24);
+
+    // Viewer được tính là đang xem nếu có heartbeat trong window (client heartbeat mỗi 30s)
+    private static final Duration PRESENCE_WINDOW = Duration.ofSeconds(60);
+
+    private static final RedisScript<Long> VIEWER_HEARTBEAT_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/viewer_heartbeat.lua"), Long.class);
 
     // ============================================================
     // Viewer Tracking (HyperLogLog)
     // ============================================================
 
     /**
-     * Track một viewer cho stream (HyperLogLog PFADD)
-     * HyperLogLog chỉ đếm unique values với ~0.81% standard error
+     * Track một viewer cho stream (HyperLogLog PFADD + presence heartbeat)
+     * HyperLogLog chỉ đếm unique values với ~0.81% standard error.
+     * Presence ZSET giữ viewers có heartbeat trong window → cập nhật peak concurrency (một Lua script).
+     * Stream không live (đã end / chưa start) → bỏ qua, không tạo lại keys đã được finalization release.
      *
      * @param streamId ID của stream
      * @param userId   ID của viewer (có thể là sessionId cho anonymous)
+     * @return false nếu stream không live
      */
-    public void addViewer(Long streamId, String userId) {
-        String key = String.format(VIEWER_KEY_PATTERN, streamId);
-        Long added = stringRedisTemplate.opsForHyperLogLog().add(key, userId);
-        if (added > 0) {
+    public boolean addViewer(Long streamId, String userId) {
+        Long added = stringRedisTemplate.execute(VIEWER_HEARTBEAT_SCRIPT,
+                List.of(String.format(VIEWER_KEY_PATTERN, streamId),
+                        String.format(PRESENCE_KEY_PATTERN, streamId),
+                        String.format(PEAK_KEY_PATTERN, streamId),
+                        String.format(LIVE_STATUS_KEY_PATTERN, streamId)),
+                userId,
+                String.valueOf(System.currentTimeMillis()),
+                String.valueOf(PRESENCE_WINDOW.toMillis()),
+                String.valueOf(PRESENCE_TTL.toSeconds()),
+                String.valueOf(LIVE_STATUS_TTL.toSeconds()));
+        if (added != null && added < 0) {
+            log.debug("Heartbeat ignored for stream {} (not live): {}", streamId, userId);
+            return false;
+        }
+        if (added != null && added > 0) {
             log.debug("New unique viewer added to stream {}: {}", streamId, userId);
         }
+        return true;
     }
 
     /**
@@ -58,6 +94,73 @@ public class LiveStreamCacheService {
 	    return stringRedisTemplate.opsForHyperLogLog().size(key);
     }
 
+    /**
+     * Unique viewers của stream đang live: EXISTS live status + PFCOUNT trong một pipeline
+     *
+     * @param streamId ID của stream
+     * @return số unique viewers, null nếu stream không live
+     */
+    public Long getLiveViewerCount(Long streamId) {
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            conn.exists(String.format(LIVE_STATUS_KEY_PATTERN, streamId));
+            conn.pfCount(String.format(VIEWER_KEY_PATTERN, streamId));
+            return null;
+        });
+        if (!Boolean.TRUE.equals(results.get(0))) {
+            return null;
+        }
+        Long count = (Long) results.get(1);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * PFCOUNT cho nhiều streams trong một pipeline (WebSocket broadcaster: một round trip mỗi tick)
+     *
+     * @return streamId → unique viewers
+     */
+    public Map<Long, Long> getViewerCounts(Collection<Long> streamIds) {
+        List<Long> ids = new ArrayList<>(streamIds);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long streamId : ids) {
+                conn.pfCount(String.format(VIEWER_KEY_PATTERN, streamId));
+            }
+            return null;
+        });
+
+        Map<Long, Long> counts = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long count = (Long) results.get(i);
+            counts.put(ids.get(i), count != null ? count : 0L);
+        }
+        return counts;
+    }
+
+    /**
+     * Concurrent viewers (heartbeat trong PRESENCE_WINDOW) cho nhiều streams: ZCOUNT presence ZSET trong một pipeline
+     *
+     * @return streamId → viewers đang xem
+     */
+    public Map<Long, Long> getConcurrentViewerCounts(Collection<Long> streamIds) {
+        List<Long> ids = new ArrayList<>(streamIds);
+        double since = System.currentTimeMillis() - PRESENCE_WINDOW.toMillis();
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long streamId : ids) {
+                conn.zCount(String.format(PRESENCE_KEY_PATTERN, streamId), since, Double.POSITIVE_INFINITY);
+            }
+            return null;
+        });
+
+        Map<Long, Long> counts = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long count = (Long) results.get(i);
+            counts.put(ids.get(i), count != null ? count : 0L);
+        }
+        return counts;
+    }
+
     /**
      * Reset viewer count cho stream (khi stream kết thúc hoặc cần clear)
      */
@@ -67,6 +170,84 @@ public class LiveStreamCacheService {
         log.info("Viewer count reset for stream {}", streamId);
     }
 
+    // ============================================================
+    // End-of-stream Finalization
+    // ============================================================
+
+    /**
+     * Đọc unique viewers (PFCOUNT) và peak concurrency của nhiều streams trong một pipeline
+     *
+     * @return streamId → snapshot
+     */
+    public Map<Long, ViewerSnapshot> getViewerSnapshots(Collection<Long> streamIds) {
+        List<Long> ids = new ArrayList<>(streamIds);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long streamId : ids) {
+                conn.pfCount(String.format(VIEWER_KEY_PATTERN, streamId));
+                conn.get(String.format(PEAK_KEY_PATTERN, streamId));
+            }
+            return null;
+        });
+
+        Map<Long, ViewerSnapshot> snapshots = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long uniqueViewers = (Long) results.get(2 * i);
+            String peak = (String) results.get(2 * i + 1);
+            snapshots.put(ids.get(i), new ViewerSnapshot(
+                    uniqueViewers != null ? uniqueViewers : 0L,
+                    peak != null ? Long.parseLong(peak) : 0L));
+        }
+        return snapshots;
+    }
+
+    /**
+     * Export raw HLL bytes của nhiều streams (một MGET, không decode qua String serializer)
+     *
+     * @return streamId → HLL bytes (chỉ streams còn key trong Redis)
+     */
+    public Map<Long, byte[]> dumpViewerHlls(List<Long> streamIds) {
+        byte[][] keys = streamIds.stream()
+                .map(streamId -> String.format(VIEWER_KEY_PATTERN, streamId).getBytes(StandardCharsets.UTF_8))
+                .toArray(byte[][]::new);
+        List<byte[]> values = stringRedisTemplate.execute(
+                (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(keys));
+
+        Map<Long, byte[]> hlls = new HashMap<>();
+        for (int i = 0; i < streamIds.size(); i++) {
+            byte[] value = values != null ? values.get(i) : null;
+            if (value != null) {
+                hlls.put(streamIds.get(i), value);
+            }
+        }
+        return hlls;
+    }
+
+    /**
+     * Release tất cả viewer keys của các streams đã finalize (một pipeline)
+     */
+    public void releaseViewerKeys(Collection<Long> streamIds) {
+        if (streamIds.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (Long streamId : streamIds) {
+                conn.del(String.format(VIEWER_KEY_PATTERN, streamId),
+                        String.format(PRESENCE_KEY_PATTERN, streamId),
+                        String.format(PEAK_KEY_PATTERN, streamId));
+            }
+            return null;
+        });
+        log.info("Viewer keys released for {} streams", streamIds.size());
+    }
+
+    /**
+     * Viewer stats tại thời điểm finalize
+     */
+    public record ViewerSnapshot(long uniqueViewers, long peakConcurrentViewers) {
+    }
+
     // ============================================================
     // Live Status Caching
     // ============================================================
@@ -88,6 +269,30 @@ public class LiveStreamCacheService {
         }
     }
 
+    /**
+     * Set trạng thái live cho nhiều streams trong một pipeline (một round trip)
+     *
+     * @param liveStatuses streamId → isLive
+     */
+    public void setLiveStatuses(Map<Long, Boolean> liveStatuses) {
+        if (liveStatuses.isEmpty()) {
+            return;
+        }
+        stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            liveStatuses.forEach((streamId, isLive) -> {
+                String key = String.format(LIVE_STATUS_KEY_PATTERN, streamId);
+                if (isLive) {
+                    conn.setEx(key, LIVE_STATUS_TTL.toSeconds(), "true");
+                } else {
+                    conn.del(key);
+                }
+            });
+            return null;
+        });
+        log.info("Live status updated in cache for {} streams", liveStatuses.size());
+    }
+
     /**
      * Kiểm tra stream có đang live không (từ cache)
      *
@@ -0,0 +1,649 @@
+package com.stream.demo.service;
+
+import com.stream.demo.common.exception.BusinessException;
+import com.stream.demo.common.exception.ResourceNotFoundException;
+import com.stream.demo.model.dto.PollDTO;
+import com.stream.demo.model.dto.request.CreatePollRequest;
+import com.stream.demo.model.entity.Poll;
+import com.stream.demo.model.entity.PollOption;
+import com.stream.demo.repository.PollOptionRepository;
+import com.stream.demo.repository.PollRepository;
+import com.stream.demo.repository.StreamRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Poll Service
+ * <p>
+ * Vote path không chạm DB:
+ * 1. SETBIT poll:v1:{pollId}:voters {userId} → bit cũ = 1 nghĩa là đã vote (một vote mỗi user, mọi node)
+ * 2. Tăng LongAdder của lựa chọn trong LivePoll local (sharded per node)
+ * 3. Mỗi flush tick: một Lua script (polls_flush.lua) HINCRBY poll:v1:{pollId}:tally cho deltas của tất cả polls,
+ *    idempotent theo flush id - batch lỗi được retry nguyên vẹn, không cộng lại vào counters
+ * <p>
+ * PollId không tồn tại / đã đóng được cache âm ngắn hạn → vote spam vào poll cũ không chạm DB mỗi lần.
+ * Một poll OPEN per stream được đảm bảo bởi partial unique index (uq_polls_open_stream).
+ * <p>
+ * Đóng poll: UPDATE có điều kiện (một node thắng) + PUBLISH polls:events → mọi node ngừng nhận votes, flush nốt.
+ * Sau finalize-delay-ms (đủ để mọi node flush) sweep chốt tally (poll_seal.lua: final marker + HGETALL atomic)
+ * và ghi kết quả vào poll_options bằng một batch. Node finalize chưa chốt khi chính nó còn batch lỗi chứa poll;
+ * deltas của node khác đến sau khi chốt bị script từ chối (log) → tally trong Redis luôn khớp kết quả trong DB.
+ */
+@Service
+@Slf4j
+public class PollService implements MessageListener {
+
+    private static final String EVENTS_CHANNEL = "polls:events";
+    private static final String TALLY_KEY_PATTERN = "poll:v1:%d:tally";
+    private static final String VOTERS_KEY_PATTERN = "poll:v1:%d:voters";
+    private static final String FINAL_KEY_PATTERN = "poll:v1:%d:final";
+    private static final String FLUSH_KEY_PREFIX = "poll:v1:flush:";
+    private static final long FLUSH_DEDUP_TTL_SECONDS = 3600;
+
+    private static final RedisScript<Long> FLUSH_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/polls_flush.lua"), Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> SEAL_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/poll_seal.lua"), List.class);
+
+    private static final String CLOSE_SQL =
+            "UPDATE polls SET status = 'CLOSED', closed_at = ? WHERE id = ? AND status = 'OPEN'";
+    private static final String SELECT_UNPERSISTED_SQL =
+            "SELECT id FROM polls WHERE status = 'CLOSED' AND results_persisted = false AND closed_at < ?";
+    private static final String MARK_PERSISTED_SQL =
+            "UPDATE polls SET results_persisted = true, total_votes = ? WHERE id = ? AND results_persisted = false";
+    private static final String UPDATE_OPTION_SQL =
+            "UPDATE poll_options SET vote_count = ? WHERE poll_id = ? AND position = ?";
+
+    private final PollRepository pollRepository;
+    private final PollOptionRepository pollOptionRepository;
+    private final StreamRepository streamRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Cache âm tối đa bao nhiêu pollIds (vote spam với ids ngẫu nhiên không làm phình memory)
+    private static final int MAX_MISSING_POLLS = 10_000;
+
+    // Polls đang mở (và vừa đóng, chờ flush nốt) mà node này biết
+    private final Map<Long, LivePoll> livePolls = new ConcurrentHashMap<>();
+    // PollId không tồn tại hoặc không còn OPEN → thời điểm hết hạn cache âm (millis)
+    private final Map<Long, Long> missingPolls = new ConcurrentHashMap<>();
+
+    // Flush id = node id + sequence; batch flush lỗi chờ retry (chỉ flush thread ghi, sweep đọc)
+    private final String nodeId = UUID.randomUUID().toString();
+    private long flushSequence;
+    private volatile FlushBatch failedBatch;
+
+    @Value("${app.polls.missing-cache-ms:5000}")
+    private long missingCacheMs;
+
+    @Value("${app.polls.finalize-delay-ms:3000}")
+    private long finalizeDelayMs;
+
+    @Value("${app.polls.result-ttl-hours:24}")
+    private long resultTtlHours;
+
+    public PollService(PollRepository pollRepository,
+                       PollOptionRepository pollOptionRepository,
+                       StreamRepository streamRepository,
+                       StringRedisTemplate stringRedisTemplate,
+                       RedisMessageListenerContainer listenerContainer,
+                       JdbcTemplate jdbcTemplate,
+                       TransactionTemplate transactionTemplate) {
+        this.pollRepository = pollRepository;
+        this.pollOptionRepository = pollOptionRepository;
+        this.streamRepository = streamRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    void subscribeEvents() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(EVENTS_CHANNEL));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOpenPolls() {
+        List<Poll> open = pollRepository.findByStatus(Poll.Status.OPEN);
+        for (Poll poll : open) {
+            register(poll, pollOptionRepository.findByPollIdOrderByPositionAsc(poll.getId()).size());
+        }
+        log.info("Loaded {} open polls", open.size());
+    }
+
+    // ============================================================
+    // Streamer operations
+    // ============================================================
+
+    public PollDTO createPoll(Long streamId, CreatePollRequest request, String createdBy) {
+        if (!streamRepository.existsById(streamId)) {
+            throw new ResourceNotFoundException("Stream", "id", streamId);
+        }
+        // Fast path; hai request đồng thời vẫn bị chặn bởi uq_polls_open_stream
+        if (pollRepository.existsByStreamIdAndStatus(streamId, Poll.Status.OPEN)) {
+            throw new BusinessException("Stream already has an open poll");
+        }
+
+        LocalDateTime closesAt = request.getDurationSeconds() != null
+                ? LocalDateTime.now().plusSeconds(request.getDurationSeconds())
+                : null;
+        Poll poll;
+        try {
+            poll = insertPoll(streamId, request, createdBy, closesAt);
+        } catch (DataIntegrityViolationException ex) {
+            throw new BusinessException("Stream already has an open poll");
+        }
+
+        register(poll, request.getOptions().size());
+        publishEvent("open:" + poll.getId());
+        log.info("Poll {} created in stream {} by {}", poll.getId(), streamId, createdBy);
+        return convertToDTO(poll, pollOptionRepository.findByPollIdOrderByPositionAsc(poll.getId()), null);
+    }
+
+    private Poll insertPoll(Long streamId, CreatePollRequest request, String createdBy, LocalDateTime closesAt) {
+        return transactionTemplate.execute(status -> {
+            Poll saved = pollRepository.save(Poll.builder()
+                    .streamId(streamId)
+                    .question(request.getQuestion().strip())
+                    .createdBy(createdBy)
+                    .closesAt(closesAt)
+                    .build());
+            pollOptionRepository.saveAll(IntStream.range(0, request.getOptions().size())
+                    .mapToObj(position -> PollOption.builder()
+                            .pollId(saved.getId())
+                            .position(position)
+                            .text(request.getOptions().get(position).strip())
+                            .build())
+                    .toList());
+            return saved;
+        });
+    }
+
+    public void closePoll(Long streamId, Long pollId, String closedBy) {
+        Poll poll = findPoll(streamId, pollId);
+        if (poll.getStatus() == Poll.Status.CLOSED || !close(pollId)) {
+            throw new BusinessException("Poll is already closed");
+        }
+        log.info("Poll {} closed by {}", pollId, closedBy);
+    }
+
+    // ============================================================
+    // Voting (hot path)
+    // ============================================================
+
+    public void vote(Long streamId, Long pollId, Long userId, int option) {
+        LivePoll poll = livePolls.get(pollId);
+        if (poll == null) {
+            // Node lỡ event "open" (pub/sub không durable) → load từ DB, trừ khi vừa biết poll không mở
+            poll = isKnownMissing(pollId) ? null : loadLivePoll(pollId);
+        }
+        if (poll == null || poll.streamId != streamId) {
+            throw new ResourceNotFoundException("Poll", "id", pollId);
+        }
+        if (!poll.isAcceptingVotes(System.currentTimeMillis())) {
+            throw new BusinessException("Poll is closed");
+        }
+        if (option < 0 || option >= poll.tallies.length) {
+            throw new BusinessException("Invalid poll option");
+        }
+
+        Boolean alreadyVoted = stringRedisTemplate.opsForValue().setBit(votersKey(pollId), userId, true);
+        if (Boolean.TRUE.equals(alreadyVoted)) {
+            throw new BusinessException("You have already voted in this poll");
+        }
+        poll.tallies[option].increment();
+    }
+
+    // ============================================================
+    // Results
+    // ============================================================
+
+    public List<PollDTO> getPolls(Long streamId) {
+        List<Poll> polls = pollRepository.findTop20ByStreamIdOrderByIdDesc(streamId);
+        if (polls.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<PollOption>> options = pollOptionRepository
+                .findByPollIdInOrderByPollIdAscPositionAsc(polls.stream().map(Poll::getId).toList()).stream()
+                .collect(Collectors.groupingBy(PollOption::getPollId));
+        List<Long> pending = polls.stream()
+                .filter(poll -> !Boolean.TRUE.equals(poll.getResultsPersisted()))
+                .map(Poll::getId)
+                .toList();
+        Map<Long, List<Long>> tallies = getTallies(pending);
+        return polls.stream()
+                .map(poll -> convertToDTO(poll, options.getOrDefault(poll.getId(), List.of()), tallies.get(poll.getId())))
+                .toList();
+    }
+
+    public PollDTO getPoll(Long streamId, Long pollId) {
+        Poll poll = findPoll(streamId, pollId);
+        List<Long> tally = Boolean.TRUE.equals(poll.getResultsPersisted())
+                ? null
+                : getTallies(List.of(pollId)).get(pollId);
+        return convertToDTO(poll, pollOptionRepository.findByPollIdOrderByPositionAsc(pollId), tally);
+    }
+
+    /**
+     * Polls node này đang theo dõi (cho PollBroadcaster)
+     */
+    public List<LivePollView> getLivePolls() {
+        long now = System.currentTimeMillis();
+        return livePolls.values().stream()
+                .map(poll -> new LivePollView(poll.pollId, poll.streamId,
+                        poll.isAcceptingVotes(now) ? Poll.Status.OPEN : Poll.Status.CLOSED))
+                .toList();
+    }
+
+    /**
+     * Tally đã merge trong Redis (một pipeline HGETALL)
+     *
+     * @return pollId → votes theo vị trí lựa chọn
+     */
+    public Map<Long, List<Long>> getTallies(Collection<Long> pollIds) {
+        if (pollIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Long> ids = List.copyOf(pollIds);
+        List<Object> results = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            ids.forEach(id -> conn.hGetAll(tallyKey(id)));
+            return null;
+        });
+        Map<Long, List<Long>> tallies = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Map<String, String> fields = (Map<String, String>) results.get(i);
+            LivePoll live = livePolls.get(ids.get(i));
+            int optionCount = live != null ? live.tallies.length : maxPosition(fields) + 1;
+            tallies.put(ids.get(i), toCounts(fields, optionCount));
+        }
+        return tallies;
+    }
+
+    // ============================================================
+    // Replication + scheduled work
+    // ============================================================
+
+    /**
+     * Payload: "open:{pollId}" | "close:{pollId}"
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String payload = new String(message.getBody(), StandardCharsets.UTF_8);
+        try {
+            long pollId = Long.parseLong(payload.substring(payload.indexOf(':') + 1));
+            if (payload.startsWith("open:")) {
+                if (!livePolls.containsKey(pollId)) {
+                    loadLivePoll(pollId);
+                }
+            } else if (payload.startsWith("close:")) {
+                markClosed(pollId);
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Ignoring poll event '{}': {}", payload, ex.getMessage());
+        }
+    }
+
+    /**
+     * Flush deltas local → Redis, một script cho tất cả polls
+     */
+    @Scheduled(fixedRateString = "${app.polls.flush-interval-ms:500}")
+    public void flushTallies() {
+        // Batch lỗi retry nguyên vẹn (cùng flush id) trước; votes mới tiếp tục dồn trong LongAdders
+        FlushBatch retry = failedBatch;
+        if (retry != null) {
+            if (!apply(retry)) {
+                return;
+            }
+            failedBatch = null;
+        }
+
+        Map<Long, long[]> deltas = new HashMap<>();
+        livePolls.forEach((pollId, poll) -> {
+            long[] drained = poll.drain();
+            if (drained != null) {
+                deltas.put(pollId, drained);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        FlushBatch batch = new FlushBatch(nodeId + ":" + (++flushSequence), deltas);
+        if (!apply(batch)) {
+            failedBatch = batch;
+        }
+    }
+
+    /**
+     * @return false nếu Redis lỗi (batch có thể đã apply hoặc chưa - retry cùng flush id sẽ biết)
+     */
+    private boolean apply(FlushBatch batch) {
+        List<String> keys = new ArrayList<>(2 * batch.deltas().size() + 1);
+        List<String> args = new ArrayList<>();
+        keys.add(FLUSH_KEY_PREFIX + batch.flushId());
+        args.add(String.valueOf(FLUSH_DEDUP_TTL_SECONDS));
+        batch.deltas().forEach((pollId, counts) -> {
+            keys.add(tallyKey(pollId));
+            keys.add(finalKey(pollId));
+            int fieldsAt = args.size();
+            args.add(null);
+            int fields = 0;
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] > 0) {
+                    args.add(String.valueOf(i));
+                    args.add(String.valueOf(counts[i]));
+                    fields++;
+                }
+            }
+            args.set(fieldsAt, String.valueOf(fields));
+        });
+
+        try {
+            Long result = stringRedisTemplate.execute(FLUSH_SCRIPT, keys, args.toArray());
+            if (result != null && result < 0) {
+                log.info("Poll flush {} was already applied", batch.flushId());
+            } else if (result != null && result > 0) {
+                log.warn("Poll flush {}: deltas of {} polls rejected, results already persisted",
+                        batch.flushId(), result);
+            }
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Failed to flush tallies of {} polls, will retry: {}", batch.deltas().size(), ex.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Tự đóng polls hết hạn, persist kết quả polls đã đóng đủ lâu, dọn polls đã xong khỏi memory
+     */
+    @Scheduled(fixedDelayString = "${app.polls.sweep-interval-ms:2000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        livePolls.values().stream()
+                .filter(poll -> poll.closedAtMillis == 0 && poll.closesAtMillis > 0 && poll.closesAtMillis <= now)
+                .forEach(poll -> {
+                    if (close(poll.pollId)) {
+                        log.info("Poll {} closed automatically", poll.pollId);
+                    } else {
+                        markClosed(poll.pollId);
+                    }
+                });
+
+        Timestamp cutoff = new Timestamp(now - finalizeDelayMs);
+        FlushBatch pending = failedBatch;
+        for (Long pollId : jdbcTemplate.queryForList(SELECT_UNPERSISTED_SQL, Long.class, cutoff)) {
+            if (pending != null && pending.deltas().containsKey(pollId)) {
+                // Node này còn votes chưa flush được cho poll → chờ retry thành công rồi mới chốt
+                log.debug("Poll {} has unflushed votes on this node, finalization deferred", pollId);
+                continue;
+            }
+            try {
+                finalizePoll(pollId);
+            } catch (RuntimeException ex) {
+                log.error("Failed to persist results of poll {}: {}", pollId, ex.getMessage());
+            }
+        }
+
+        missingPolls.values().removeIf(expiresAt -> expiresAt <= now);
+
+        // Đã đóng lâu hơn 2 × finalize delay và không còn deltas chờ flush
+        livePolls.values().removeIf(poll -> poll.closedAtMillis > 0
+                && now - poll.closedAtMillis > 2 * finalizeDelayMs
+                && poll.isDrained()
+                && (pending == null || !pending.deltas().containsKey(poll.pollId)));
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    /**
+     * Đóng poll trong DB (một node thắng) rồi báo cả cluster
+     */
+    private boolean close(Long pollId) {
+        int updated = jdbcTemplate.update(CLOSE_SQL, Timestamp.valueOf(LocalDateTime.now()), pollId);
+        if (updated == 1) {
+            markClosed(pollId);
+            publishEvent("close:" + pollId);
+        }
+        return updated == 1;
+    }
+
+    /**
+     * Chốt tally trong Redis rồi ghi kết quả cuối: một UPDATE polls + một batch UPDATE poll_options
+     * trong một transaction. Transaction lỗi → sweep sau chốt lại (tally không đổi sau khi chốt).
+     */
+    private void finalizePoll(Long pollId) {
+        List<?> fields = stringRedisTemplate.execute(SEAL_SCRIPT, List.of(tallyKey(pollId), finalKey(pollId)));
+        List<long[]> counts = new ArrayList<>();
+        long total = 0;
+        for (int i = 0; fields != null && i + 1 < fields.size(); i += 2) {
+            long votes = Long.parseLong((String) fields.get(i + 1));
+            counts.add(new long[]{Long.parseLong((String) fields.get(i)), votes});
+            total += votes;
+        }
+
+        long totalVotes = total;
+        Boolean persisted = transactionTemplate.execute(status -> {
+            if (jdbcTemplate.update(MARK_PERSISTED_SQL, totalVotes, pollId) == 0) {
+                // Node khác đã persist
+                return false;
+            }
+            if (!counts.isEmpty()) {
+                jdbcTemplate.batchUpdate(UPDATE_OPTION_SQL, counts, counts.size(), (ps, count) -> {
+                    ps.setLong(1, count[1]);
+                    ps.setLong(2, pollId);
+                    ps.setInt(3, (int) count[0]);
+                });
+            }
+            return true;
+        });
+
+        if (Boolean.TRUE.equals(persisted)) {
+            long ttlSeconds = resultTtlHours * 3600;
+            stringRedisTemplate.expire(tallyKey(pollId), Duration.ofSeconds(ttlSeconds));
+            stringRedisTemplate.expire(votersKey(pollId), Duration.ofSeconds(ttlSeconds));
+            stringRedisTemplate.expire(finalKey(pollId), Duration.ofSeconds(ttlSeconds));
+            log.info("Persisted results of poll {}: {} votes", pollId, totalVotes);
+        }
+    }
+
+    private LivePoll loadLivePoll(Long pollId) {
+        Poll poll = pollRepository.findById(pollId).orElse(null);
+        if (poll == null || poll.getStatus() != Poll.Status.OPEN) {
+            if (missingPolls.size() < MAX_MISSING_POLLS) {
+                missingPolls.put(pollId, System.currentTimeMillis() + missingCacheMs);
+            }
+            return null;
+        }
+        return register(poll, pollOptionRepository.findByPollIdOrderByPositionAsc(pollId).size());
+    }
+
+    private boolean isKnownMissing(Long pollId) {
+        Long expiresAt = missingPolls.get(pollId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    private LivePoll register(Poll poll, int optionCount) {
+        long closesAt = poll.getClosesAt() != null
+                ? poll.getClosesAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : 0;
+        missingPolls.remove(poll.getId());
+        return livePolls.computeIfAbsent(poll.getId(),
+                id -> new LivePoll(id, poll.getStreamId(), optionCount, closesAt));
+    }
+
+    private void markClosed(Long pollId) {
+        LivePoll poll = livePolls.get(pollId);
+        if (poll != null && poll.closedAtMillis == 0) {
+            poll.closedAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    private void publishEvent(String payload) {
+        try {
+            stringRedisTemplate.convertAndSend(EVENTS_CHANNEL, payload);
+        } catch (RuntimeException ex) {
+            // Nodes khác: "open" → load khi nhận vote đầu tiên; "close" → votes bị chặn bởi closes_at / DB khi reload
+            log.warn("Failed to publish poll event {}: {}", payload, ex.getMessage());
+        }
+    }
+
+    private Poll findPoll(Long streamId, Long pollId) {
+        Poll poll = pollRepository.findById(pollId)
+                .orElseThrow(() -> new ResourceNotFoundException("Poll", "id", pollId));
+        if (!poll.getStreamId().equals(streamId)) {
+            throw new ResourceNotFoundException("Poll", "id", pollId);
+        }
+        return poll;
+    }
+
+    private static List<Long> toCounts(Map<String, String> fields, int optionCount) {
+        List<Long> counts = new ArrayList<>(optionCount);
+        for (int i = 0; i < optionCount; i++) {
+            String value = fields != null ? fields.get(String.valueOf(i)) : null;
+            counts.add(value != null ? Long.parseLong(value) : 0L);
+        }
+        return counts;
+    }
+
+    private static int maxPosition(Map<String, String> fields) {
+        return fields == null ? -1 : fields.keySet().stream().mapToInt(Integer::parseInt).max().orElse(-1);
+    }
+
+    private static String tallyKey(Long pollId) {
+        return String.format(TALLY_KEY_PATTERN, pollId);
+    }
+
+    private static String votersKey(Long pollId) {
+        return String.format(VOTERS_KEY_PATTERN, pollId);
+    }
+
+    private static String finalKey(Long pollId) {
+        return String.format(FINAL_KEY_PATTERN, pollId);
+    }
+
+    /**
+     * @param tally votes từ Redis khi kết quả chưa persist; null → dùng vote_count trong DB
+     */
+    private PollDTO convertToDTO(Poll poll, List<PollOption> options, List<Long> tally) {
+        List<PollDTO.Option> optionDTOs = new ArrayList<>(options.size());
+        long total = 0;
+        for (PollOption option : options) {
+            int position = option.getPosition();
+            long votes = tally != null
+                    ? (position < tally.size() ? tally.get(position) : 0L)
+                    : option.getVoteCount();
+            total += votes;
+            optionDTOs.add(PollDTO.Option.builder()
+                    .position(position)
+                    .text(option.getText())
+                    .votes(votes)
+                    .build());
+        }
+        return PollDTO.builder()
+                .id(poll.getId())
+                .streamId(poll.getStreamId())
+                .question(poll.getQuestion())
+                .status(poll.getStatus())
+                .options(optionDTOs)
+                .totalVotes(total)
+                .closesAt(poll.getClosesAt())
+                .closedAt(poll.getClosedAt())
+                .createdAt(poll.getCreatedAt())
+                .build();
+    }
+
+    public record LivePollView(long pollId, long streamId, Poll.Status status) {
+    }
+
+    private record FlushBatch(String flushId, Map<Long, long[]> deltas) {
+    }
+
+    /**
+     * Poll đang mở trên node này: counters local theo lựa chọn, chưa flush
+     */
+    private static final class LivePoll {
+        private final long pollId;
+        private final long streamId;
+        private final long closesAtMillis;
+        private final LongAdder[] tallies;
+        private volatile long closedAtMillis;
+
+        private LivePoll(long pollId, long streamId, int optionCount, long closesAtMillis) {
+            this.pollId = pollId;
+            this.streamId = streamId;
+            this.closesAtMillis = closesAtMillis;
+            this.tallies = new LongAdder[optionCount];
+            for (int i = 0; i < optionCount; i++) {
+                tallies[i] = new LongAdder();
+            }
+        }
+
+        private boolean isAcceptingVotes(long now) {
+            return closedAtMillis == 0 && (closesAtMillis == 0 || now < closesAtMillis);
+        }
+
+        private long[] drain() {
+            long[] counts = null;
+            for (int i = 0; i < tallies.length; i++) {
+                long count = tallies[i].sumThenReset();
+                if (count != 0) {
+                    if (counts == null) {
+                        counts = new long[tallies.length];
+                    }
+                    counts[i] = count;
+                }
+            }
+            return counts;
+        }
+
+        private boolean isDrained() {
+            for (LongAdder tally : tallies) {
+                if (tally.sum() != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
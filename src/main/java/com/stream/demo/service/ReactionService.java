@@ -0,0 +1,339 @@
+package com.stream.demo.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stream.demo.common.exception.BusinessException;
+import com.stream.demo.model.dto.websocket.ReactionMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reaction Service
+ * <p>
+ * Taps (heart, like...) không đi qua Redis / DB từng cái:
+ * 1. react(): LongAdder per stream per type (striped, không contention giữa các cores)
+ * 2. Mỗi tick: sumThenReset tất cả counters → một script: HINCRBY reactions:v1:{streamId} + PUBLISH deltas của node
+ * 3. Mọi node gộp deltas nhận được; ReactionBroadcaster gửi một frame per room per tick
+ * <p>
+ * Flush có flush id: script apply nguyên batch hoặc không gì cả, batch lỗi được giữ nguyên và retry với cùng id
+ * → không mất taps, không cộng hai lần khi lần trước đã apply nhưng mất reply.
+ * <p>
+ * Redis round trips: một script call per node per tick, không phụ thuộc số taps.
+ */
+@Service
+@Slf4j
+public class ReactionService implements MessageListener {
+
+    private static final String DELTAS_CHANNEL = "reactions:deltas";
+    private static final String TOTALS_KEY_PATTERN = "reactions:v1:%d";
+    private static final ReactionMessage.Type[] TYPES = ReactionMessage.Type.values();
+    private static final String FLUSH_KEY_PREFIX = "reactions:v1:flush:";
+    private static final long FLUSH_DEDUP_TTL_SECONDS = 3600;
+    private static final TypeReference<Map<Long, Map<String, Long>>> DELTAS_TYPE = new TypeReference<>() {
+    };
+    private static final RedisScript<Long> FLUSH_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/reactions_flush.lua"), Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final Counter receivedCounter;
+
+    // Taps local chưa flush
+    private final Map<Long, RoomCounters> counters = new ConcurrentHashMap<>();
+    // Deltas của cả cluster chưa broadcast
+    private final Map<Long, long[]> pendingBroadcast = new ConcurrentHashMap<>();
+
+    // Flush id = node id + sequence; batch flush lỗi chờ retry (chỉ flush thread đọc / ghi)
+    private final String nodeId = UUID.randomUUID().toString();
+    private long flushSequence;
+    private FlushBatch failedBatch;
+
+    @Value("${app.reactions.key-ttl-days:7}")
+    private long keyTtlDays;
+
+    @Value("${app.reactions.idle-ticks-before-evict:60}")
+    private int idleTicksBeforeEvict;
+
+    public ReactionService(StringRedisTemplate stringRedisTemplate,
+                           RedisMessageListenerContainer listenerContainer,
+                           ObjectMapper objectMapper,
+                           MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.receivedCounter = Counter.builder("reactions.received")
+                .description("Reaction taps accepted on this node")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void subscribeDeltas() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(DELTAS_CHANNEL));
+    }
+
+    // ============================================================
+    // Taps (hot path, không I/O)
+    // ============================================================
+
+    public void react(Long streamId, ReactionMessage.Type type, int count) {
+        if (type == null) {
+            throw new BusinessException("Reaction type is required");
+        }
+        if (count < 1 || count > 50) {
+            throw new BusinessException("Reaction count must be between 1 and 50");
+        }
+        RoomCounters room = counters.computeIfAbsent(streamId, id -> new RoomCounters());
+        room.add(type.ordinal(), count);
+        // Flush vừa evict room này: tap có thể đến sau lần drain cuối → chuyển phần còn lại sang room mới.
+        // Mỗi increment chỉ được một bên sumThenReset lấy → không mất, không đếm hai lần.
+        while (room.evicted) {
+            long[] stranded = room.drain();
+            if (stranded == null) {
+                break;
+            }
+            room = counters.computeIfAbsent(streamId, id -> new RoomCounters());
+            room.addAll(stranded);
+        }
+        receivedCounter.increment(count);
+    }
+
+    /**
+     * Tổng reactions của stream (đã flush, trễ tối đa một tick)
+     */
+    public Map<String, Long> getTotals(Long streamId) {
+        Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(totalsKey(streamId));
+        Map<String, Long> totals = new LinkedHashMap<>();
+        for (ReactionMessage.Type type : TYPES) {
+            Object value = entries.get(type.getKey());
+            totals.put(type.getKey(), value != null ? Long.parseLong((String) value) : 0L);
+        }
+        return totals;
+    }
+
+    // ============================================================
+    // Flush
+    // ============================================================
+
+    @Scheduled(fixedRateString = "${app.reactions.tick-ms:1000}")
+    public void flush() {
+        // Batch lỗi retry nguyên vẹn (cùng flush id) trước; taps mới tiếp tục dồn trong LongAdders
+        if (failedBatch != null) {
+            if (!apply(failedBatch)) {
+                return;
+            }
+            failedBatch = null;
+        }
+
+        Map<Long, long[]> deltas = new HashMap<>();
+        counters.forEach((streamId, room) -> {
+            long[] drained = room.drain();
+            if (drained != null) {
+                room.idleTicks = 0;
+                deltas.put(streamId, drained);
+            } else if (room.idleTicks++ >= idleTicksBeforeEvict) {
+                // Đánh dấu trước khi bỏ khỏi map: react() thấy evicted sẽ tự chuyển taps đến muộn sang room mới
+                room.evicted = true;
+                counters.remove(streamId, room);
+                long[] late = room.drain();
+                if (late != null) {
+                    deltas.put(streamId, late);
+                }
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        FlushBatch batch = new FlushBatch(nodeId + ":" + (++flushSequence), deltas);
+        if (!apply(batch)) {
+            failedBatch = batch;
+        }
+    }
+
+    /**
+     * @return false nếu Redis lỗi (batch có thể đã apply hoặc chưa - retry cùng flush id sẽ biết)
+     */
+    private boolean apply(FlushBatch batch) {
+        List<String> keys = new ArrayList<>(batch.deltas().size() + 1);
+        List<String> args = new ArrayList<>();
+        keys.add(FLUSH_KEY_PREFIX + batch.flushId());
+        args.add(String.valueOf(FLUSH_DEDUP_TTL_SECONDS));
+        args.add(String.valueOf(keyTtlDays * 86400));
+        args.add(DELTAS_CHANNEL);
+        args.add(serialize(batch.deltas()));
+        batch.deltas().forEach((streamId, counts) -> {
+            keys.add(totalsKey(streamId));
+            int fieldsAt = args.size();
+            args.add(null);
+            int fields = 0;
+            for (ReactionMessage.Type type : TYPES) {
+                if (counts[type.ordinal()] > 0) {
+                    args.add(type.getKey());
+                    args.add(String.valueOf(counts[type.ordinal()]));
+                    fields++;
+                }
+            }
+            args.set(fieldsAt, String.valueOf(fields));
+        });
+
+        try {
+            Long applied = stringRedisTemplate.execute(FLUSH_SCRIPT, keys, args.toArray());
+            if (applied != null && applied == 0) {
+                log.info("Reaction flush {} was already applied", batch.flushId());
+            }
+            return true;
+        } catch (RuntimeException ex) {
+            log.warn("Failed to flush reactions for {} streams, will retry: {}", batch.deltas().size(), ex.getMessage());
+            return false;
+        }
+    }
+
+    // ============================================================
+    // Cluster deltas
+    // ============================================================
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Map<Long, Map<String, Long>> deltas;
+        try {
+            deltas = objectMapper.readValue(message.getBody(), DELTAS_TYPE);
+        } catch (IOException ex) {
+            log.warn("Ignoring malformed reaction deltas: {}", ex.getMessage());
+            return;
+        }
+        deltas.forEach((streamId, counts) -> pendingBroadcast.merge(streamId, toArray(counts), (current, added) -> {
+            for (int i = 0; i < current.length; i++) {
+                current[i] += added[i];
+            }
+            return current;
+        }));
+    }
+
+    /**
+     * Lấy và xóa deltas của cả cluster chưa broadcast (ReactionBroadcaster gọi mỗi tick)
+     *
+     * @return streamId → type key → delta
+     */
+    public Map<Long, Map<String, Long>> drainPendingDeltas() {
+        Map<Long, Map<String, Long>> drained = new HashMap<>();
+        for (Long streamId : pendingBroadcast.keySet()) {
+            long[] counts = pendingBroadcast.remove(streamId);
+            if (counts != null) {
+                drained.put(streamId, toMap(counts));
+            }
+        }
+        return drained;
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    private String serialize(Map<Long, long[]> deltas) {
+        Map<Long, Map<String, Long>> payload = new HashMap<>();
+        deltas.forEach((streamId, counts) -> payload.put(streamId, toMap(counts)));
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize reaction deltas", ex);
+        }
+    }
+
+    private static Map<String, Long> toMap(long[] counts) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (ReactionMessage.Type type : TYPES) {
+            if (counts[type.ordinal()] > 0) {
+                map.put(type.getKey(), counts[type.ordinal()]);
+            }
+        }
+        return map;
+    }
+
+    private static long[] toArray(Map<String, Long> counts) {
+        long[] array = new long[TYPES.length];
+        for (ReactionMessage.Type type : TYPES) {
+            Long count = counts.get(type.getKey());
+            if (count != null) {
+                array[type.ordinal()] = count;
+            }
+        }
+        return array;
+    }
+
+    private static String totalsKey(Long streamId) {
+        return String.format(TOTALS_KEY_PATTERN, streamId);
+    }
+
+    private record FlushBatch(String flushId, Map<Long, long[]> deltas) {
+    }
+
+    /**
+     * LongAdder per reaction type của một room
+     */
+    private static final class RoomCounters {
+        private final LongAdder[] adders = new LongAdder[TYPES.length];
+        // Chỉ flush thread đọc / ghi
+        private int idleTicks;
+        // Set bởi flush trước khi bỏ room khỏi map
+        private volatile boolean evicted;
+
+        private RoomCounters() {
+            for (int i = 0; i < adders.length; i++) {
+                adders[i] = new LongAdder();
+            }
+        }
+
+        private void add(int ordinal, long count) {
+            adders[ordinal].add(count);
+        }
+
+        private void addAll(long[] counts) {
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    adders[i].add(counts[i]);
+                }
+            }
+        }
+
+        /**
+         * @return deltas theo ordinal, hoặc null nếu không có tap nào từ lần drain trước
+         */
+        private long[] drain() {
+            long[] counts = null;
+            for (int i = 0; i < adders.length; i++) {
+                long count = adders[i].sumThenReset();
+                if (count != 0) {
+                    if (counts == null) {
+                        counts = new long[adders.length];
+                    }
+                    counts[i] = count;
+                }
+            }
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.stream.demo.service;
+
+import com.stream.demo.model.dto.event.ClusterRingChangedEvent;
+import com.stream.demo.model.dto.response.RoomNodeResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Room Affinity Service (optional, app.chat.affinity.enabled)
+ * <p>
+ * Gán chat rooms cho nodes bằng consistent-hash ring trên tập nodes live:
+ * - Membership: mỗi node heartbeat ZADD cluster:v1:nodes (score = thời điểm heartbeat) + URL trong cluster:v1:node-urls;
+ *   node không heartbeat quá node-ttl-ms bị loại khỏi ring. Score và cutoff đều lấy từ Redis TIME trong script
+ *   → clock lệch giữa các nodes không loại nhầm node live / giữ node đã chết
+ * - Ring đổi → ClusterRingChangedEvent; chỉ rooms trên cung của node join / leave đổi owner
+ * - WebSocket subscribe room của node khác → redirect frame tới URL của owner
+ * <p>
+ * Mỗi room chỉ có subscribers trên owner node → mỗi node chỉ SUBSCRIBE ~rooms/nodes chat channels.
+ * Redis lỗi → giữ ring cũ (không rebalance khi không chắc chắn).
+ */
+@Service
+@Slf4j
+public class RoomAffinityService {
+
+    private static final String NODES_KEY = "cluster:v1:nodes";
+    private static final String NODE_URLS_KEY = "cluster:v1:node-urls";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> HEARTBEAT_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/cluster_heartbeat.lua"), List.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile ConsistentHashRing ring = ConsistentHashRing.EMPTY;
+    private volatile Map<String, String> nodeUrls = Map.of();
+
+    @Value("${app.chat.affinity.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.chat.affinity.node-id:}")
+    private String nodeId;
+
+    @Value("${app.chat.affinity.advertised-url:}")
+    private String advertisedUrl;
+
+    @Value("${app.chat.affinity.virtual-nodes:160}")
+    private int virtualNodes;
+
+    @Value("${app.chat.affinity.node-ttl-ms:6000}")
+    private long nodeTtlMs;
+
+    public RoomAffinityService(StringRedisTemplate stringRedisTemplate, ApplicationEventPublisher eventPublisher) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) {
+            return;
+        }
+        if (advertisedUrl.isBlank()) {
+            throw new IllegalStateException("app.chat.affinity.advertised-url is required when room affinity is enabled");
+        }
+        if (nodeId.isBlank()) {
+            nodeId = defaultNodeId();
+        }
+        // Ring ban đầu chỉ có node này cho tới heartbeat đầu tiên
+        ring = ConsistentHashRing.of(List.of(nodeId), virtualNodes);
+        nodeUrls = Map.of(nodeId, advertisedUrl);
+        heartbeat();
+        log.info("Room affinity enabled: node {} ({})", nodeId, advertisedUrl);
+    }
+
+    // ============================================================
+    // Lookup (WebSocket path)
+    // ============================================================
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * true nếu node này phục vụ room (luôn true khi affinity tắt)
+     */
+    public boolean isLocal(Long streamId) {
+        if (!enabled) {
+            return true;
+        }
+        String owner = ring.ownerOf(streamId);
+        return owner == null || owner.equals(nodeId);
+    }
+
+    /**
+     * WebSocket URL của owner node; null nếu node này là owner hoặc affinity tắt
+     */
+    public String getRedirectUrl(Long streamId) {
+        if (isLocal(streamId)) {
+            return null;
+        }
+        return nodeUrls.get(ring.ownerOf(streamId));
+    }
+
+    public RoomNodeResponse getRoomNode(Long streamId) {
+        if (!enabled) {
+            return RoomNodeResponse.builder().streamId(streamId).affinityEnabled(false).build();
+        }
+        String owner = ring.ownerOf(streamId);
+        return RoomNodeResponse.builder()
+                .streamId(streamId)
+                .affinityEnabled(true)
+                .nodeId(owner)
+                .url(nodeUrls.get(owner))
+                .build();
+    }
+
+    // ============================================================
+    // Membership
+    // ============================================================
+
+    /**
+     * Heartbeat + đọc lại tập nodes live trong một script (một round trip, thời gian theo Redis TIME)
+     */
+    @Scheduled(fixedRateString = "${app.chat.affinity.heartbeat-interval-ms:2000}")
+    @SuppressWarnings("unchecked")
+    public void heartbeat() {
+        if (!enabled) {
+            return;
+        }
+        List<Object> results;
+        try {
+            results = stringRedisTemplate.execute(HEARTBEAT_SCRIPT, List.of(NODES_KEY, NODE_URLS_KEY),
+                    nodeId, advertisedUrl, String.valueOf(nodeTtlMs));
+        } catch (RuntimeException ex) {
+            log.warn("Room affinity heartbeat failed, keeping current ring: {}", ex.getMessage());
+            return;
+        }
+        if (results == null || results.size() < 2) {
+            log.warn("Room affinity heartbeat returned no membership, keeping current ring");
+            return;
+        }
+
+        Set<String> liveNodes = new TreeSet<>((List<String>) results.get(0));
+        liveNodes.add(nodeId);
+        List<String> flatUrls = (List<String>) results.get(1);
+        Map<String, String> urls = new HashMap<>();
+        for (int i = 0; i + 1 < flatUrls.size(); i += 2) {
+            urls.put(flatUrls.get(i), flatUrls.get(i + 1));
+        }
+        List<String> deadNodes = urls.keySet().stream().filter(node -> !liveNodes.contains(node)).toList();
+        urls.keySet().removeAll(deadNodes);
+        nodeUrls = Map.copyOf(urls);
+        if (!deadNodes.isEmpty()) {
+            stringRedisTemplate.opsForHash().delete(NODE_URLS_KEY, deadNodes.toArray());
+        }
+
+        if (!liveNodes.equals(new TreeSet<>(ring.getNodes()))) {
+            ring = ConsistentHashRing.of(liveNodes, virtualNodes);
+            log.info("Room affinity ring changed: {} nodes {}", liveNodes.size(), liveNodes);
+            eventPublisher.publishEvent(new ClusterRingChangedEvent(List.copyOf(liveNodes)));
+        }
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    private String defaultNodeId() {
+        try {
+            return InetAddress.getLocalHost().getHostName() + "-" + UUID.randomUUID().toString().substring(0, 8);
+        } catch (UnknownHostException ex) {
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    /**
+     * Rời ring ngay khi shutdown thay vì chờ node-ttl-ms
+     */
+    @PreDestroy
+    void leave() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForZSet().remove(NODES_KEY, nodeId);
+            stringRedisTemplate.opsForHash().delete(NODE_URLS_KEY, nodeId);
+        } catch (RuntimeException ex) {
+            log.warn("Failed to leave room affinity ring: {}", ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.stream.demo.service;
+
+import com.stream.demo.common.exception.BusinessException;
+import com.stream.demo.model.dto.event.RtmpWebhookEvent;
+import com.stream.demo.model.dto.event.StreamChangedEvent;
+import com.stream.demo.model.dto.event.StreamLifecycleEvent;
+import com.stream.demo.model.dto.request.RtmpWebhookRequest;
+import com.stream.demo.model.dto.response.RtmpWebhookBatchResponse;
+import com.stream.demo.model.dto.response.RtmpWebhookBatchResponse.EventResult;
+import com.stream.demo.model.dto.response.RtmpWebhookBatchResponse.Status;
+import com.stream.demo.model.entity.Stream;
+import com.stream.demo.repository.StreamRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.redis.connection.RedisStringCommands.SetOption;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * RTMP Webhook Batch Service
+ * <p>
+ * Xử lý đồng bộ một batch lifecycle events từ RTMP edge servers:
+ * 1. Dedupe tất cả events trong một Redis pipeline
+ * 2. Resolve tất cả stream keys trong một query (FOR UPDATE)
+ * 3. Apply transitions theo thứ tự, ghi DB + outbox bằng JDBC batch trong một transaction
+ * 4. Update live status trong một Redis pipeline
+ * <p>
+ * Trả kết quả per event để edge chỉ retry events FAILED.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RtmpWebhookBatchService {
+
+    private static final String UPDATE_LIFECYCLE_SQL =
+            "UPDATE streams SET is_live = ?, started_at = ?, ended_at = ?, updated_at = ? WHERE id = ?";
+
+    private final RtmpWebhookService rtmpWebhookService;
+    private final StreamRepository streamRepository;
+    private final LiveStreamCacheService liveStreamCache;
+    private final StreamEventOutboxService streamEventOutbox;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.webhook.rtmp.dedup-ttl-seconds:600}")
+    private long dedupTtlSeconds;
+
+    public RtmpWebhookBatchResponse processBatch(List<RtmpWebhookRequest> events) {
+        Instant receivedAt = Instant.now();
+        EventResult[] results = new EventResult[events.size()];
+
+        // 1. Validate từng event
+        List<PendingEvent> pending = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            RtmpWebhookRequest request = events.get(i);
+            if (request.getEvent() == null) {
+                results[i] = result(i, request, Status.REJECTED, null, "event type is required");
+                continue;
+            }
+            try {
+                Instant occurredAt = rtmpWebhookService.parseTimestamp(request.getTimestamp(), receivedAt);
+                pending.add(new PendingEvent(i, request,
+                        LocalDateTime.ofInstant(occurredAt, ZoneId.systemDefault()),
+                        rtmpWebhookService.buildDedupKey(request, request.getEvent())));
+            } catch (BusinessException ex) {
+                results[i] = result(i, request, Status.REJECTED, null, ex.getMessage());
+            }
+        }
+
+        // 2. Dedupe (một pipeline)
+        pending = claimDedupKeys(pending, results);
+
+        // 3 + 4. Apply trong một transaction, rồi sync Redis
+        if (!pending.isEmpty()) {
+            List<PendingEvent> toApply = pending;
+            try {
+                Map<Long, Boolean> liveChanges = transactionTemplate.execute(status -> applyInTransaction(toApply, results));
+                syncLiveStatuses(liveChanges);
+            } catch (RuntimeException ex) {
+                log.error("Batch webhook transaction failed for {} events: {}", toApply.size(), ex.getMessage());
+                for (PendingEvent event : toApply) {
+                    results[event.index()] = result(event.index(), event.request(), Status.FAILED, null,
+                            "Temporary failure, please retry");
+                }
+                releaseDedupKeys(toApply);
+            }
+        }
+
+        List<EventResult> resultList = Arrays.asList(results);
+        int applied = (int) resultList.stream().filter(r -> r.getStatus() == Status.APPLIED).count();
+        int failed = (int) resultList.stream().filter(r -> r.getStatus() == Status.FAILED).count();
+        log.info("Processed webhook batch: {} events, {} applied, {} failed", events.size(), applied, failed);
+
+        return RtmpWebhookBatchResponse.builder()
+                .applied(applied)
+                .failed(failed)
+                .results(resultList)
+                .build();
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    /**
+     * Resolve streams, apply transitions theo thứ tự event, flush bằng JDBC batch.
+     *
+     * @return streamId → isLive cho các streams đã thay đổi
+     */
+    private Map<Long, Boolean> applyInTransaction(List<PendingEvent> pending, EventResult[] results) {
+        Set<String> streamKeys = pending.stream()
+                .map(event -> event.request().getStreamKey())
+                .collect(Collectors.toSet());
+        Map<String, Stream> streamsByKey = streamRepository.findByStreamKeyInOrderByIdAsc(streamKeys).stream()
+                .collect(Collectors.toMap(Stream::getStreamKey, Function.identity()));
+
+        Map<Long, StreamState> states = new LinkedHashMap<>();
+        List<StreamLifecycleEvent> outboxEvents = new ArrayList<>();
+        for (PendingEvent event : pending) {
+            RtmpWebhookRequest request = event.request();
+            Stream stream = streamsByKey.get(request.getStreamKey());
+            if (stream == null) {
+                results[event.index()] = result(event.index(), request, Status.REJECTED, null, "Unknown streamKey");
+                continue;
+            }
+
+            StreamState state = states.computeIfAbsent(stream.getId(), id -> new StreamState(stream));
+            StreamLifecycleTransitions.Decision decision = StreamLifecycleTransitions.evaluate(
+                    request.getEvent(), state.live, state.startedAt, state.endedAt, event.occurredAt());
+            if (decision != StreamLifecycleTransitions.Decision.APPLY) {
+                results[event.index()] = result(event.index(), request, Status.SKIPPED, stream.getId(), decision.name());
+                continue;
+            }
+
+            state.apply(request.getEvent(), event.occurredAt());
+            outboxEvents.add(StreamLifecycleEvent.builder()
+                    .type(request.getEvent() == RtmpWebhookEvent.Type.STREAM_STARTED
+                            ? StreamLifecycleEvent.Type.STREAM_STARTED
+                            : StreamLifecycleEvent.Type.STREAM_ENDED)
+                    .streamId(stream.getId())
+                    .occurredAt(event.occurredAt())
+                    .build());
+            results[event.index()] = result(event.index(), request, Status.APPLIED, stream.getId(), null);
+        }
+
+        List<StreamState> changed = states.values().stream().filter(state -> state.dirty).toList();
+        if (!changed.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            jdbcTemplate.batchUpdate(UPDATE_LIFECYCLE_SQL, changed, changed.size(), (ps, state) -> {
+                ps.setBoolean(1, state.live);
+                ps.setTimestamp(2, state.startedAt != null ? Timestamp.valueOf(state.startedAt) : null);
+                ps.setTimestamp(3, state.endedAt != null ? Timestamp.valueOf(state.endedAt) : null);
+                ps.setTimestamp(4, now);
+                ps.setLong(5, state.streamId);
+            });
+        }
+        streamEventOutbox.appendAll(outboxEvents);
+        if (!changed.isEmpty()) {
+            eventPublisher.publishEvent(new StreamChangedEvent(
+                    changed.stream().map(state -> state.streamId).toList(), true));
+        }
+
+        Map<Long, Boolean> liveChanges = new HashMap<>();
+        changed.forEach(state -> liveChanges.put(state.streamId, state.live));
+        return liveChanges;
+    }
+
+    /**
+     * SET NX tất cả dedup keys trong một pipeline.
+     * Events đã nhận trước đó (kể cả trùng trong cùng batch) được đánh dấu DUPLICATE.
+     */
+    private List<PendingEvent> claimDedupKeys(List<PendingEvent> pending, EventResult[] results) {
+        List<PendingEvent> withKeys = pending.stream().filter(event -> event.dedupKey() != null).toList();
+        if (withKeys.isEmpty()) {
+            return pending;
+        }
+
+        List<Object> claimed = stringRedisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection conn = (StringRedisConnection) connection;
+            for (PendingEvent event : withKeys) {
+                conn.set(event.dedupKey(), String.valueOf(event.index()),
+                        Expiration.seconds(dedupTtlSeconds), SetOption.ifAbsent());
+            }
+            return null;
+        });
+
+        Set<Integer> duplicates = new HashSet<>();
+        for (int i = 0; i < withKeys.size(); i++) {
+            if (!Boolean.TRUE.equals(claimed.get(i))) {
+                PendingEvent event = withKeys.get(i);
+                duplicates.add(event.index());
+                results[event.index()] = result(event.index(), event.request(), Status.DUPLICATE, null, null);
+            }
+        }
+        return pending.stream().filter(event -> !duplicates.contains(event.index())).toList();
+    }
+
+    /**
+     * Xóa dedup keys của events FAILED để edge retry được
+     */
+    private void releaseDedupKeys(List<PendingEvent> events) {
+        List<String> keys = events.stream().map(PendingEvent::dedupKey).filter(Objects::nonNull).toList();
+        if (!keys.isEmpty()) {
+            stringRedisTemplate.delete(keys);
+        }
+    }
+
+    /**
+     * DB là source of truth - lỗi Redis chỉ log, không fail events đã commit
+     */
+    private void syncLiveStatuses(Map<Long, Boolean> liveChanges) {
+        if (liveChanges == null || liveChanges.isEmpty()) {
+            return;
+        }
+        try {
+            liveStreamCache.setLiveStatuses(liveChanges);
+        } catch (RuntimeException ex) {
+            log.error("Failed to sync live status cache for streams {}: {}", liveChanges.keySet(), ex.getMessage());
+        }
+    }
+
+    private EventResult result(int index, RtmpWebhookRequest request, Status status, Long streamId, String error) {
+        return EventResult.builder()
+                .index(index)
+                .eventId(request.getEventId())
+                .streamKey(request.getStreamKey())
+                .event(request.getEvent())
+                .status(status)
+                .streamId(streamId)
+                .error(error)
+                .build();
+    }
+
+    private record PendingEvent(int index, RtmpWebhookRequest request, LocalDateTime occurredAt, String dedupKey) {
+    }
+
+    /**
+     * Trạng thái lifecycle in-memory của một stream trong batch
+     */
+    private static final class StreamState {
+        private final long streamId;
+        private boolean live;
+        private LocalDateTime startedAt;
+        private LocalDateTime endedAt;
+        private boolean dirty;
+
+        private StreamState(Stream stream) {
+            this.streamId = stream.getId();
+            this.live = Boolean.TRUE.equals(stream.getIsLive());
+            this.startedAt = stream.getStartedAt();
+            this.endedAt = stream.getEndedAt();
+        }
+
+        private void apply(RtmpWebhookEvent.Type type, LocalDateTime occurredAt) {
+            if (type == RtmpWebhookEvent.Type.STREAM_STARTED) {
+                live = true;
+                startedAt = occurredAt;
+            } else {
+                live = false;
+                endedAt = occurredAt;
+            }
+            dirty = true;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.stream.demo.service;
+
+import com.stream.demo.common.exception.BusinessException;
+import com.stream.demo.common.exception.ServiceUnavailableException;
+import com.stream.demo.config.RabbitMQConfig.RabbitNames;
+import com.stream.demo.model.dto.event.RtmpWebhookEvent;
+import com.stream.demo.model.dto.request.RtmpWebhookRequest;
+import com.stream.demo.model.dto.response.WebhookAckResponse;
+import com.stream.demo.model.entity.Stream;
+import com.stream.demo.repository.StreamRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RTMP Webhook Service
+ * <p>
+ * Ingestion pipeline cho RTMP webhooks:
+ * 1. Controller: dedupe (Redis SET NX) → enqueue (RabbitMQ, publisher confirm) → ACK ngay
+ * 2. Consumer: apply lifecycle transition theo thứ tự per stream (partitioned queues)
+ * <p>
+ * Callback latency của RTMP server chỉ phụ thuộc Redis + RabbitMQ, không phụ thuộc DB.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RtmpWebhookService {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final StreamRepository streamRepository;
+    private final StreamService streamService;
+    private final TransactionTemplate transactionTemplate;
+
+    // Dedup key: webhook:v1:rtmp:{eventId} hoặc webhook:v1:rtmp:{streamKey}:{type}:{timestamp}
+    private static final String DEDUP_KEY_PREFIX = "webhook:v1:rtmp:";
+
+    @Value("${app.webhook.rtmp.partitions:4}")
+    private int partitions;
+
+    @Value("${app.webhook.rtmp.dedup-ttl-seconds:600}")
+    private long dedupTtlSeconds;
+
+    @Value("${app.webhook.rtmp.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    // ============================================================
+    // Ingestion (webhook thread)
+    // ============================================================
+
+    /**
+     * Dedupe và enqueue webhook event.
+     * Chỉ return sau khi broker confirm message đã durable.
+     *
+     * @throws ServiceUnavailableException nếu broker không confirm (RTMP server nên retry)
+     */
+    public WebhookAckResponse enqueue(RtmpWebhookRequest request, RtmpWebhookEvent.Type type) {
+        Instant receivedAt = Instant.now();
+        String eventId = request.getEventId() != null ? request.getEventId() : UUID.randomUUID().toString();
+        RtmpWebhookEvent event = RtmpWebhookEvent.builder()
+                .eventId(eventId)
+                .type(type)
+                .streamKey(request.getStreamKey())
+                .occurredAt(parseTimestamp(request.getTimestamp(), receivedAt))
+                .receivedAt(receivedAt)
+                .build();
+
+        // 1. Deduplicate retries
+        String dedupKey = buildDedupKey(request, type);
+        if (dedupKey != null) {
+            Boolean firstSeen = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(dedupKey, eventId, Duration.ofSeconds(dedupTtlSeconds));
+            if (!Boolean.TRUE.equals(firstSeen)) {
+                log.info("Duplicate {} webhook ignored for streamKey: {}", type, request.getStreamKey());
+                return buildAck(eventId, request.getStreamKey(), WebhookAckResponse.Status.DUPLICATE);
+            }
+        }
+
+        // 2. Durable enqueue
+        try {
+            publishAndConfirm(event);
+        } catch (RuntimeException ex) {
+            // Cho phép RTMP server retry event này
+            if (dedupKey != null) {
+                stringRedisTemplate.delete(dedupKey);
+            }
+            throw ex;
+        }
+
+        log.info("{} webhook enqueued for streamKey: {} (eventId: {})", type, request.getStreamKey(), eventId);
+        return buildAck(eventId, request.getStreamKey(), WebhookAckResponse.Status.ACCEPTED);
+    }
+
+    // ============================================================
+    // Processing (consumer thread)
+    // ============================================================
+
+    /**
+     * Apply lifecycle transition cho stream.
+     * Idempotent: bỏ qua transition đã apply (start khi đang live, end khi đã ended)
+     * và events cũ hơn transition gần nhất.
+     * <p>
+     * Evaluate + apply trong một transaction với row stream bị lock (FOR UPDATE) - cùng lock với
+     * batch webhook path, nên hai path không thể apply transitions xung đột trên cùng stream.
+     */
+    public void process(RtmpWebhookEvent event) {
+        transactionTemplate.executeWithoutResult(status -> processLocked(event));
+    }
+
+    private void processLocked(RtmpWebhookEvent event) {
+        Optional<Stream> found = streamRepository.findForUpdateByStreamKey(event.getStreamKey());
+        if (found.isEmpty()) {
+            log.warn("Dropping {} event {}: unknown streamKey {}", event.getType(), event.getEventId(), event.getStreamKey());
+            return;
+        }
+
+        Stream stream = found.get();
+        LocalDateTime occurredAt = LocalDateTime.ofInstant(event.getOccurredAt(), ZoneId.systemDefault());
+        boolean live = Boolean.TRUE.equals(stream.getIsLive());
+
+        StreamLifecycleTransitions.Decision decision = StreamLifecycleTransitions.evaluate(
+                event.getType(), live, stream.getStartedAt(), stream.getEndedAt(), occurredAt);
+        if (decision != StreamLifecycleTransitions.Decision.APPLY) {
+            log.info("Skipping {} event {} for stream {}: {}", event.getType(), event.getEventId(), stream.getId(), decision);
+            return;
+        }
+
+        switch (event.getType()) {
+            case STREAM_STARTED -> streamService.startStream(stream.getId(), occurredAt);
+            case STREAM_ENDED -> streamService.endStream(stream.getId(), occurredAt);
+        }
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    private void publishAndConfirm(RtmpWebhookEvent event) {
+        int partition = Math.floorMod(event.getStreamKey().hashCode(), partitions);
+        CorrelationData correlation = new CorrelationData(event.getEventId());
+
+        rabbitTemplate.convertAndSend(
+                RabbitNames.RTMP_WEBHOOK_EXCHANGE,
+                RabbitNames.rtmpWebhookRoutingKey(partition),
+                event,
+                correlation);
+
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture().get(confirmTimeoutMs, TimeUnit.MILLISECONDS);
+            if (!confirm.isAck() || correlation.getReturned() != null) {
+                throw new ServiceUnavailableException("Webhook event was not accepted by broker");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Interrupted while waiting for broker confirm", ex);
+        } catch (ServiceUnavailableException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Failed to enqueue webhook event {}: {}", event.getEventId(), ex.getMessage());
+            throw new ServiceUnavailableException("Webhook queue unavailable, please retry", ex);
+        }
+    }
+
+    /**
+     * Build dedup key cho event; null nếu không đủ thông tin để dedupe
+     */
+    public String buildDedupKey(RtmpWebhookRequest request, RtmpWebhookEvent.Type type) {
+        if (request.getEventId() != null) {
+            return DEDUP_KEY_PREFIX + request.getEventId();
+        }
+        if (request.getTimestamp() != null) {
+            return DEDUP_KEY_PREFIX + request.getStreamKey() + ":" + type + ":" + request.getTimestamp();
+        }
+        // Không đủ thông tin để dedupe - consumer vẫn idempotent theo state
+        return null;
+    }
+
+    /**
+     * Parse ISO-8601 timestamp từ RTMP server (fallback nếu không có)
+     */
+    public Instant parseTimestamp(String timestamp, Instant fallback) {
+        if (timestamp == null) {
+            return fallback;
+        }
+        try {
+            return Instant.parse(timestamp);
+        } catch (DateTimeParseException ex) {
+            throw new BusinessException("Invalid timestamp format, expected ISO-8601 instant: " + timestamp);
+        }
+    }
+
+    private WebhookAckResponse buildAck(String eventId, String streamKey, WebhookAckResponse.Status status) {
+        return WebhookAckResponse.builder()
+                .eventId(eventId)
+                .streamKey(streamKey)
+                .status(status)
+                .build();
+    }
+}
@@ -0,0 +1,186 @@
+package com.stream.demo.service;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Sliding-window Count-Min Sketch
+ * <p>
+ * depth × width counters cho mỗi bucket, ring gồm {@code buckets} buckets (mỗi bucket = window / buckets).
+ * Estimate = min theo row của tổng counters các buckets → tần suất trong window (chỉ overestimate).
+ * <p>
+ * Conservative update: chỉ tăng các cells đang bằng min → noise của item hiếm ≈ số events / width thay vì
+ * tổng mọi collisions. Width tự tăng theo traffic: rotate() thấy events dự kiến trong window (max của window hiện
+ * tại và bucket vừa xong × buckets) vượt width × maxLoad → table mới đủ rộng (tối đa maxWidth); table cũ chỉ còn
+ * đọc (cộng vào estimate) cho tới khi trượt hết window.
+ * Không tự thu nhỏ - caller bỏ sketch idle.
+ * <p>
+ * Memory: depth × width × buckets ints per table. add/estimate O(depth × buckets), lock-free (AtomicIntegerArray);
+ * rotate() chỉ gọi từ một thread - increments đồng thời trong lúc rotate có thể mất (chấp nhận được cho spam detection).
+ */
+public final class SlidingCountMinSketch {
+
+    private final int depth;
+    private final int buckets;
+    private final int maxWidth;
+    private final double maxLoad;
+
+    private volatile Table current;
+    // Table trước lần tăng width gần nhất, chỉ đọc
+    private volatile Table previous;
+    // Chỉ thread rotate đọc / ghi
+    private int previousRotationsLeft;
+
+    public SlidingCountMinSketch(int depth, int width, int buckets) {
+        this(depth, width, width, buckets, Double.MAX_VALUE);
+    }
+
+    /**
+     * @param maxLoad events trung bình per cell (trong window) trước khi tăng width
+     */
+    public SlidingCountMinSketch(int depth, int width, int maxWidth, int buckets, double maxLoad) {
+        if (Integer.bitCount(width) != 1 || Integer.bitCount(maxWidth) != 1 || maxWidth < width) {
+            throw new IllegalArgumentException("width and maxWidth must be powers of two, width <= maxWidth");
+        }
+        this.depth = depth;
+        this.buckets = buckets;
+        this.maxWidth = maxWidth;
+        this.maxLoad = maxLoad;
+        this.current = new Table(depth, width, buckets);
+    }
+
+    /**
+     * Tăng count của item trong bucket hiện tại
+     *
+     * @return tần suất ước lượng trong window (đã tính lần này)
+     */
+    public int addAndEstimate(long hash) {
+        Table frozen = previous;
+        int carried = frozen != null ? frozen.estimate(hash) : 0;
+        return carried + current.addAndEstimate(hash);
+    }
+
+    /**
+     * Chuyển sang bucket kế tiếp (bucket cũ nhất rời khỏi window); tăng width nếu window quá đầy
+     */
+    public void rotate() {
+        Table table = current;
+        long windowEvents = Math.max(table.windowEvents(), table.currentBucketEvents() * (long) buckets);
+        table.rotate();
+
+        Table frozen = previous;
+        if (frozen != null) {
+            frozen.rotate();
+            if (--previousRotationsLeft == 0) {
+                previous = null;
+                frozen = null;
+            }
+        }
+
+        if (frozen == null && table.width < maxWidth && windowEvents > table.width * maxLoad) {
+            int width = table.width;
+            while (width < maxWidth && windowEvents > width * maxLoad) {
+                width <<= 1;
+            }
+            previousRotationsLeft = buckets;
+            previous = table;
+            current = new Table(depth, width, buckets);
+        }
+    }
+
+    public int getWidth() {
+        return current.width;
+    }
+
+    public int getMemoryBytes() {
+        Table frozen = previous;
+        return current.memoryBytes() + (frozen != null ? frozen.memoryBytes() : 0);
+    }
+
+    private static final class Table {
+        private final int depth;
+        private final int width;
+        private final int buckets;
+        private final int bucketSize;
+        private final AtomicIntegerArray counters;
+        private final AtomicIntegerArray bucketEvents;
+
+        private volatile int currentBucket;
+
+        private Table(int depth, int width, int buckets) {
+            this.depth = depth;
+            this.width = width;
+            this.buckets = buckets;
+            this.bucketSize = depth * width;
+            this.counters = new AtomicIntegerArray(bucketSize * buckets);
+            this.bucketEvents = new AtomicIntegerArray(buckets);
+        }
+
+        private int addAndEstimate(long hash) {
+            int bucket = currentBucket;
+            int bucketOffset = bucket * bucketSize;
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            bucketEvents.incrementAndGet(bucket);
+
+            int min = estimate(h1, h2);
+            // Conservative update: cells lớn hơn min đã overestimate item này, không cần tăng thêm
+            for (int row = 0; row < depth; row++) {
+                int cell = cell(row, h1, h2);
+                if (windowSum(cell) == min) {
+                    counters.incrementAndGet(bucketOffset + cell);
+                }
+            }
+            return min + 1;
+        }
+
+        private int estimate(long hash) {
+            return estimate((int) hash, (int) (hash >>> 32) | 1);
+        }
+
+        private int estimate(int h1, int h2) {
+            int estimate = Integer.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                estimate = Math.min(estimate, windowSum(cell(row, h1, h2)));
+            }
+            return estimate;
+        }
+
+        private int cell(int row, int h1, int h2) {
+            return row * width + ((h1 + row * h2) & (width - 1));
+        }
+
+        private int windowSum(int cell) {
+            int sum = 0;
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                sum += counters.get(bucket * bucketSize + cell);
+            }
+            return sum;
+        }
+
+        private long windowEvents() {
+            long events = 0;
+            for (int bucket = 0; bucket < buckets; bucket++) {
+                events += bucketEvents.get(bucket);
+            }
+            return events;
+        }
+
+        private long currentBucketEvents() {
+            return bucketEvents.get(currentBucket);
+        }
+
+        private void rotate() {
+            int next = (currentBucket + 1) % buckets;
+            int offset = next * bucketSize;
+            for (int i = 0; i < bucketSize; i++) {
+                counters.set(offset + i, 0);
+            }
+            bucketEvents.set(next, 0);
+            currentBucket = next;
+        }
+
+        private int memoryBytes() {
+            return (counters.length() + bucketEvents.length()) * Integer.BYTES;
+        }
+    }
+}
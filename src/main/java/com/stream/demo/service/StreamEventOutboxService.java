@@ -0,0 +1,68 @@
+package com.stream.demo.service;
+
+import com.stream.demo.model.dto.event.StreamLifecycleEvent;
+import com.stream.demo.scheduler.StreamOutboxRelay;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Stream Event Outbox Service
+ * <p>
+ * Ghi lifecycle events vào bảng stream_event_outbox trong CÙNG transaction với update streams.
+ * Rollback → event biến mất cùng data; commit → relay được đánh thức để publish.
+ * Không publish trực tiếp lên broker trong transaction (tránh broker latency + mất event khi rollback).
+ */
+@Service
+@RequiredArgsConstructor
+public class StreamEventOutboxService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO stream_event_outbox (stream_id, event_type, occurred_at, created_at) "
+                    + "VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StreamOutboxRelay streamOutboxRelay;
+
+    /**
+     * Append một event vào outbox (bắt buộc chạy trong transaction của caller)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(StreamLifecycleEvent event) {
+        appendAll(List.of(event));
+    }
+
+    /**
+     * Append nhiều events bằng JDBC batch (bắt buộc chạy trong transaction của caller)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendAll(List<StreamLifecycleEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, events, events.size(), (ps, event) -> {
+            ps.setLong(1, event.getStreamId());
+            ps.setString(2, event.getType().name());
+            ps.setTimestamp(3, Timestamp.valueOf(event.getOccurredAt()));
+            ps.setTimestamp(4, now);
+        });
+
+        // Đánh thức relay sau khi commit (không publish events chưa commit)
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                streamOutboxRelay.wakeUp();
+            }
+        });
+    }
+}
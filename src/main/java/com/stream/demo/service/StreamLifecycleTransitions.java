@@ -0,0 +1,41 @@
+package com.stream.demo.service;
+
+import com.stream.demo.model.dto.event.RtmpWebhookEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stream Lifecycle Transitions
+ * <p>
+ * Rules chung để quyết định một RTMP event có được apply hay không.
+ * Dùng cho cả async consumer và batch endpoint để hai đường xử lý luôn nhất quán.
+ */
+public final class StreamLifecycleTransitions {
+
+    private StreamLifecycleTransitions() {}
+
+    public enum Decision {
+        APPLY,
+        ALREADY_APPLIED, // start khi đang live, end khi không live
+        STALE            // event cũ hơn transition gần nhất
+    }
+
+    public static Decision evaluate(RtmpWebhookEvent.Type type, boolean live,
+                                    LocalDateTime startedAt, LocalDateTime endedAt,
+                                    LocalDateTime occurredAt) {
+        return switch (type) {
+            case STREAM_STARTED -> {
+                if (live) {
+                    yield Decision.ALREADY_APPLIED;
+                }
+                yield endedAt != null && occurredAt.isBefore(endedAt) ? Decision.STALE : Decision.APPLY;
+            }
+            case STREAM_ENDED -> {
+                if (!live) {
+                    yield Decision.ALREADY_APPLIED;
+                }
+                yield startedAt != null && occurredAt.isBefore(startedAt) ? Decision.STALE : Decision.APPLY;
+            }
+        };
+    }
+}
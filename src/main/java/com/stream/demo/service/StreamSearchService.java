@@ -0,0 +1,192 @@
+package com.stream.demo.service;
+
+import com.stream.demo.common.exception.BusinessException;
+import com.stream.demo.config.RedisConfig;
+import com.stream.demo.model.dto.StreamDTO;
+import com.stream.demo.model.dto.cache.StreamSearchCacheDTO;
+import com.stream.demo.model.dto.response.StreamSearchResponse;
+import com.stream.demo.model.entity.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Stream Search Service
+ * <p>
+ * Full-text search trên title/description:
+ * - Generated tsvector column streams.search_vector + GIN index (db/schema.sql)
+ * - Ranking bằng ts_rank (title weight A, description weight B)
+ * - Keyset pagination theo (rank, id) - không OFFSET
+ * - Cache từng trang kết quả trong Redis với TTL ngắn (trending queries không chạm PostgreSQL)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StreamSearchService {
+
+    private static final String CACHE_VERSION = "v1";
+    private static final String SEARCH_CACHE_PREFIX = "stream_search:" + CACHE_VERSION + ":";
+
+    private static final int MAX_QUERY_LENGTH = 100;
+
+    private static final String SEARCH_SELECT =
+            "SELECT s.id, s.creator_id, s.stream_key, s.title, s.description, s.is_live, "
+                    + "s.started_at, s.ended_at, s.created_at, s.updated_at, "
+                    + "ts_rank(s.search_vector, q) AS rank "
+                    + "FROM streams s, websearch_to_tsquery('simple', ?) q "
+                    + "WHERE s.search_vector @@ q";
+
+    private final StreamService streamService;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Qualifier(RedisConfig.RedisTemplateBeanNames.STREAM_SEARCH_CACHE)
+    private final RedisTemplate<String, StreamSearchCacheDTO> streamSearchCacheRedisTemplate;
+
+    @Value("${app.stream.search.cache-ttl-seconds:30}")
+    private long cacheTtlSeconds;
+
+    @Value("${app.stream.search.default-limit:20}")
+    private int defaultLimit;
+
+    @Value("${app.stream.search.max-limit:50}")
+    private int maxLimit;
+
+    /**
+     * Search streams theo relevance
+     *
+     * @param query    search terms (websearch syntax: "quoted phrase", -exclude, or)
+     * @param liveOnly chỉ trả streams đang live
+     * @param cursor   nextCursor từ trang trước (null cho trang đầu)
+     * @param limit    page size (null → default)
+     */
+    public StreamSearchResponse search(String query, boolean liveOnly, String cursor, Integer limit) {
+        String normalized = normalizeQuery(query);
+        int pageSize = limit == null ? defaultLimit : Math.max(1, Math.min(limit, maxLimit));
+        Cursor after = cursor != null ? decodeCursor(cursor) : null;
+
+        // 1. Cache hit
+        String cacheKey = buildCacheKey(normalized, liveOnly, cursor, pageSize);
+        StreamSearchCacheDTO cached = streamSearchCacheRedisTemplate.opsForValue().get(cacheKey);
+        if (cached != null) {
+            return cached.toResponse();
+        }
+
+        // 2. Query PostgreSQL (fetch thêm 1 row để biết còn trang kế tiếp)
+        StringBuilder sql = new StringBuilder(SEARCH_SELECT);
+        List<Object> args = new ArrayList<>();
+        args.add(normalized);
+        if (liveOnly) {
+            sql.append(" AND s.is_live = true");
+        }
+        if (after != null) {
+            sql.append(" AND (ts_rank(s.search_vector, q), s.id) < (?, ?)");
+            args.add(after.rank());
+            args.add(after.id());
+        }
+        sql.append(" ORDER BY rank DESC, s.id DESC LIMIT ?");
+        args.add(pageSize + 1);
+
+        List<SearchHit> hits = jdbcTemplate.query(sql.toString(), SEARCH_HIT_MAPPER, args.toArray());
+
+        boolean hasMore = hits.size() > pageSize;
+        List<SearchHit> page = hasMore ? hits.subList(0, pageSize) : hits;
+        List<StreamDTO> items = page.stream().map(hit -> streamService.convertToDTO(hit.stream())).toList();
+        String nextCursor = null;
+        if (hasMore) {
+            SearchHit last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(new Cursor(last.rank(), last.stream().getId()));
+        }
+
+        StreamSearchResponse response = StreamSearchResponse.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+
+        // 3. Populate cache
+        streamSearchCacheRedisTemplate.opsForValue()
+                .set(cacheKey, StreamSearchCacheDTO.fromResponse(response), Duration.ofSeconds(cacheTtlSeconds));
+        return response;
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    private String normalizeQuery(String query) {
+        if (query == null || query.isBlank()) {
+            throw new BusinessException("Search query is required");
+        }
+        String normalized = query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        if (normalized.length() > MAX_QUERY_LENGTH) {
+            throw new BusinessException("Search query must not exceed " + MAX_QUERY_LENGTH + " characters");
+        }
+        return normalized;
+    }
+
+    /**
+     * Key: stream_search:v1:{live|all}:{limit}:{md5(query)}:{cursor|first}
+     */
+    private String buildCacheKey(String normalizedQuery, boolean liveOnly, String cursor, int limit) {
+        String queryHash = DigestUtils.md5DigestAsHex(normalizedQuery.getBytes(StandardCharsets.UTF_8));
+        return SEARCH_CACHE_PREFIX + (liveOnly ? "live" : "all") + ":" + limit + ":" + queryHash + ":"
+                + (cursor != null ? cursor : "first");
+    }
+
+    /**
+     * Cursor = base64url("{rank}:{id}") - rank là float4 nên Float.toString round-trip chính xác
+     */
+    private String encodeCursor(Cursor cursor) {
+        String raw = cursor.rank() + ":" + cursor.id();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Cursor decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new Cursor(Float.parseFloat(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException ex) {
+            throw new BusinessException("Invalid search cursor");
+        }
+    }
+
+    private static final RowMapper<SearchHit> SEARCH_HIT_MAPPER = (rs, rowNum) -> new SearchHit(
+            Stream.builder()
+                    .id(rs.getLong("id"))
+                    .creatorId(rs.getLong("creator_id"))
+                    .streamKey(rs.getString("stream_key"))
+                    .title(rs.getString("title"))
+                    .description(rs.getString("description"))
+                    .isLive(rs.getBoolean("is_live"))
+                    .startedAt(toLocalDateTime(rs.getTimestamp("started_at")))
+                    .endedAt(toLocalDateTime(rs.getTimestamp("ended_at")))
+                    .createdAt(toLocalDateTime(rs.getTimestamp("created_at")))
+                    .updatedAt(toLocalDateTime(rs.getTimestamp("updated_at")))
+                    .build(),
+            rs.getFloat("rank"));
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    private record SearchHit(Stream stream, float rank) {
+    }
+
+    private record Cursor(float rank, long id) {
+    }
+}
@@ -1,6 +1,8 @@
 package com.stream.demo.service;
 
 import com.stream.demo.model.dto.StreamDTO;
+import com.stream.demo.model.dto.event.StreamChangedEvent;
+import com.stream.demo.model.dto.event.StreamLifecycleEvent;
 import com.stream.demo.model.dto.request.CreateStreamRequest;
 import com.stream.demo.model.entity.Stream;
 import com.stream.demo.model.entity.User;
@@ -8,6 +10,7 @@ import com.stream.demo.repository.StreamRepository;
 import com.stream.demo.common.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,6 +29,8 @@ public class StreamService {
     private final StreamRepository streamRepository;
     private final UserService userService;
     private final LiveStreamCacheService liveStreamCache;
+    private final StreamEventOutboxService streamEventOutbox;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Tạo stream mới
@@ -50,6 +55,7 @@ public class StreamService {
         // 3. Save to DB
         stream = streamRepository.save(stream);
         log.info("Stream created with ID: {} and streamKey: {}", stream.getId(), streamKey);
+        eventPublisher.publishEvent(new StreamChangedEvent(List.of(stream.getId()), false));
 
         // 4. Convert to DTO and return
         return convertToDTO(stream);
@@ -90,6 +96,14 @@ public class StreamService {
                 .orElseThrow(() -> new ResourceNotFoundException("Stream", "id", streamId));
     }
 
+    /**
+     * Lấy Stream entity và lock row (FOR UPDATE) - bắt buộc chạy trong transaction
+     */
+    private Stream getStreamEntityForUpdate(Long streamId) {
+        return streamRepository.findForUpdateById(streamId)
+                .orElseThrow(() -> new ResourceNotFoundException("Stream", "id", streamId));
+    }
+
     /**
      * Lấy các stream của một user
      */
@@ -151,18 +165,27 @@ public class StreamService {
      * Business Logic theo Phase 4 spec:
      * 1. Update DB: isLive=true, startedAt=NOW
      * 2. Sync Redis cache
-     * 3. TODO: Publish RabbitMQ event (Phase 6)
+     * 3. Ghi stream.started vào outbox (cùng transaction, relay publish sau commit)
      */
     @Transactional
     public StreamDTO startStream(Long streamId) {
+        return startStream(streamId, LocalDateTime.now());
+    }
+
+    /**
+     * Bắt đầu stream với thời điểm start cụ thể
+     * (dùng cho async webhook consumer - startedAt lấy theo event time, không phải processing time)
+     */
+    @Transactional
+    public StreamDTO startStream(Long streamId, LocalDateTime startedAt) {
         log.info("Starting stream with ID: {}", streamId);
 
-        // 1. Load stream entity
-        Stream stream = getStreamEntityById(streamId);
+        // 1. Load + lock stream row: transitions của cùng stream serialize tới commit
+        Stream stream = getStreamEntityForUpdate(streamId);
 
         // 2. Update DB
         stream.setIsLive(true);
-        stream.setStartedAt(LocalDateTime.now());
+        stream.setStartedAt(startedAt);
         streamRepository.save(stream);
 
         log.info("Stream {} set to LIVE in DB", streamId);
@@ -170,8 +193,13 @@ public class StreamService {
         // 3. Sync Redis cache
         liveStreamCache.setLiveStatus(streamId, true);
 
-        // 4. TODO: Publish RabbitMQ event (Phase 6)
-        // eventPublisher.publish("stream.started", streamId);
+        // 4. Outbox: stream.started
+        streamEventOutbox.append(StreamLifecycleEvent.builder()
+                .type(StreamLifecycleEvent.Type.STREAM_STARTED)
+                .streamId(streamId)
+                .occurredAt(startedAt)
+                .build());
+        eventPublisher.publishEvent(new StreamChangedEvent(List.of(streamId), true));
 
         // 5. Return DTO with current viewer count
         return convertToDTO(stream);
@@ -192,40 +220,48 @@ public class StreamService {
      * Kết thúc stream
      * Business Logic theo Phase 4 spec:
      * 1. Update DB: isLive=false, endedAt=NOW
-     * 2. Clear Redis cache
-     * 3. Get final viewer count (optional persist)
-     * 4. TODO: Publish RabbitMQ event (Phase 6)
+     * 2. Clear live status cache
+     * 3. Ghi stream.ended vào outbox (cùng transaction, relay publish sau commit)
+     * <p>
+     * Snapshot stats (unique viewers, peak concurrency, duration) và release Redis keys
+     * chạy async trong StreamFinalizationConsumer - không đọc HLL trên webhook thread.
      */
     @Transactional
     public StreamDTO endStream(Long streamId) {
+        return endStream(streamId, LocalDateTime.now());
+    }
+
+    /**
+     * Kết thúc stream với thời điểm end cụ thể
+     * (dùng cho async webhook consumer - endedAt lấy theo event time)
+     */
+    @Transactional
+    public StreamDTO endStream(Long streamId, LocalDateTime endedAt) {
         log.info("Ending stream with ID: {}", streamId);
 
-        // 1. Load stream entity
-        Stream stream = getStreamEntityById(streamId);
+        // 1. Load + lock stream row: transitions của cùng stream serialize tới commit
+        Stream stream = getStreamEntityForUpdate(streamId);
 
         // 2. Update DB
         stream.setIsLive(false);
-        stream.setEndedAt(LocalDateTime.now());
+        stream.setEndedAt(endedAt);
         streamRepository.save(stream);
 
         log.info("Stream {} set to ENDED in DB", streamId);
 
-        // 3. Get final viewer count before clearing cache
-        Long finalViewerCount = liveStreamCache.getViewerCount(streamId);
-        log.info("Stream {} ended with {} unique viewers", streamId, finalViewerCount);
-
-        // 4. Clear Redis cache
+        // 3. Clear live status cache
         liveStreamCache.setLiveStatus(streamId, false);
-        // Optional: Reset viewer count (keep for historical query)
-        // liveStreamCache.resetViewerCount(streamId);
 
-        // 5. TODO: Publish RabbitMQ event (Phase 6)
-        // eventPublisher.publish("stream.ended", streamId, finalViewerCount);
+        // 4. Outbox: stream.ended → finalization pipeline
+        streamEventOutbox.append(StreamLifecycleEvent.builder()
+                .type(StreamLifecycleEvent.Type.STREAM_ENDED)
+                .streamId(streamId)
+                .occurredAt(endedAt)
+                .build());
+        eventPublisher.publishEvent(new StreamChangedEvent(List.of(streamId), true));
 
-        // 6. Return DTO
-        StreamDTO dto = convertToDTO(stream);
-        dto.setViewerCount(finalViewerCount); // Include final count in response
-        return dto;
+        // 5. Return DTO
+        return convertToDTO(stream);
     }
 
     /**
@@ -0,0 +1,157 @@
+package com.stream.demo.service;
+
+import com.stream.demo.common.exception.ResourceNotFoundException;
+import com.stream.demo.model.dto.StreamStatsDTO;
+import com.stream.demo.model.entity.Stream;
+import com.stream.demo.model.entity.StreamStats;
+import com.stream.demo.repository.StreamRepository;
+import com.stream.demo.repository.StreamStatsRepository;
+import com.stream.demo.service.LiveStreamCacheService.ViewerSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stream Stats Service
+ * <p>
+ * End-of-stream finalization (chạy trên consumer thread, không phải webhook thread):
+ * 1. Load streams đã end (bỏ qua streams đã restart)
+ * 2. Đọc unique viewers + peak concurrency của cả batch trong một Redis pipeline
+ * 3. Upsert stream_stats bằng một JDBC batch
+ * 4. Archive raw HLL bytes vào PostgreSQL (StreamViewerArchiveService)
+ * 5. Release viewer keys trong Redis
+ * <p>
+ * Idempotent: upsert chỉ ghi đè khi ended_at mới hơn snapshot hiện có,
+ * nên redelivery sau khi keys đã release không ghi đè stats bằng 0.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StreamStatsService {
+
+    private static final String UPSERT_STATS_SQL =
+            "INSERT INTO stream_stats (stream_id, creator_id, unique_viewers, peak_concurrent_viewers, "
+                    + "duration_seconds, gift_total, started_at, ended_at, finalized_at) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON CONFLICT (stream_id) DO UPDATE SET "
+                    + "unique_viewers = EXCLUDED.unique_viewers, "
+                    + "peak_concurrent_viewers = EXCLUDED.peak_concurrent_viewers, "
+                    + "duration_seconds = EXCLUDED.duration_seconds, "
+                    + "gift_total = EXCLUDED.gift_total, "
+                    + "started_at = EXCLUDED.started_at, "
+                    + "ended_at = EXCLUDED.ended_at, "
+                    + "finalized_at = EXCLUDED.finalized_at "
+                    + "WHERE stream_stats.ended_at < EXCLUDED.ended_at";
+
+    private final StreamRepository streamRepository;
+    private final StreamStatsRepository streamStatsRepository;
+    private final LiveStreamCacheService liveStreamCache;
+    private final StreamViewerArchiveService viewerArchiveService;
+    private final JdbcTemplate jdbcTemplate;
+
+    // ============================================================
+    // Finalization (consumer thread)
+    // ============================================================
+
+    /**
+     * Finalize một batch streams đã end
+     *
+     * @param streamIds IDs từ các stream.ended events (đã distinct)
+     */
+    public void finalizeStreams(Collection<Long> streamIds) {
+        // 1. Stream đã restart trước khi finalize → để lần end kế tiếp finalize
+        List<Stream> ended = streamRepository.findAllById(streamIds).stream()
+                .filter(stream -> !Boolean.TRUE.equals(stream.getIsLive()) && stream.getEndedAt() != null)
+                .toList();
+        if (ended.isEmpty()) {
+            return;
+        }
+
+        // 2. Snapshot viewer stats (một pipeline)
+        List<Long> endedIds = ended.stream().map(Stream::getId).toList();
+        Map<Long, ViewerSnapshot> snapshots = liveStreamCache.getViewerSnapshots(endedIds);
+
+        // 3. Upsert stream_stats (một JDBC batch)
+        Timestamp finalizedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_STATS_SQL, ended, ended.size(), (ps, stream) -> {
+            ViewerSnapshot snapshot = snapshots.get(stream.getId());
+            ps.setLong(1, stream.getId());
+            ps.setLong(2, stream.getCreatorId());
+            ps.setLong(3, snapshot.uniqueViewers());
+            ps.setLong(4, snapshot.peakConcurrentViewers());
+            ps.setLong(5, durationSeconds(stream));
+            // Chưa có gifts (Phase 7) → NULL, không ghi 0 giả
+            ps.setNull(6, Types.NUMERIC);
+            ps.setTimestamp(7, stream.getStartedAt() != null ? Timestamp.valueOf(stream.getStartedAt()) : null);
+            ps.setTimestamp(8, Timestamp.valueOf(stream.getEndedAt()));
+            ps.setTimestamp(9, finalizedAt);
+        });
+
+        // 4. Archive HLLs trước khi xóa khỏi Redis
+        viewerArchiveService.archive(endedIds, snapshots);
+
+        // 5. Release Redis keys - stats + archive đã durable, lỗi ở đây chỉ log
+        try {
+            liveStreamCache.releaseViewerKeys(endedIds);
+        } catch (RuntimeException ex) {
+            log.error("Failed to release viewer keys for streams {}: {}", endedIds, ex.getMessage());
+        }
+
+        log.info("Finalized stats for {} streams", ended.size());
+    }
+
+    // ============================================================
+    // Queries
+    // ============================================================
+
+    /**
+     * Lấy stats đã finalize của một stream
+     */
+    public StreamStatsDTO getStatsByStreamId(Long streamId) {
+        StreamStats stats = streamStatsRepository.findById(streamId)
+                .orElseThrow(() -> new ResourceNotFoundException("StreamStats", "streamId", streamId));
+        return convertToDTO(stats);
+    }
+
+    /**
+     * Lấy stats các phiên stream của một creator (creator dashboard)
+     */
+    public List<StreamStatsDTO> getStatsByCreatorId(Long creatorId) {
+        return streamStatsRepository.findByCreatorIdOrderByEndedAtDesc(creatorId).stream()
+                .map(this::convertToDTO)
+                .toList();
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    private long durationSeconds(Stream stream) {
+        if (stream.getStartedAt() == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(stream.getStartedAt(), stream.getEndedAt()).toSeconds());
+    }
+
+    private StreamStatsDTO convertToDTO(StreamStats stats) {
+        return StreamStatsDTO.builder()
+                .streamId(stats.getStreamId())
+                .uniqueViewers(stats.getUniqueViewers())
+                .peakConcurrentViewers(stats.getPeakConcurrentViewers())
+                .durationSeconds(stats.getDurationSeconds())
+                .giftTotal(stats.getGiftTotal())
+                .startedAt(stats.getStartedAt())
+                .endedAt(stats.getEndedAt())
+                .finalizedAt(stats.getFinalizedAt())
+                .build();
+    }
+}
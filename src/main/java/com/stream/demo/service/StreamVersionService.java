@@ -0,0 +1,120 @@
+package com.stream.demo.service;
+
+import com.stream.demo.model.dto.event.StreamChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stream Version Service
+ * <p>
+ * Version counters trong Redis (dùng chung mọi node) cho conditional GETs:
+ * - stream_version:v1:{id}: representation của một stream
+ * - stream_version:v1:live_listing / all_listing: danh sách streams
+ * <p>
+ * Bump sau commit (StreamChangedEvent) → ETag = version, node nào cũng trả 304 được
+ * mà không chạm DB hay Jackson.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StreamVersionService {
+
+    private static final String CACHE_VERSION = "v1";
+    private static final String VERSION_KEY_PREFIX = "stream_version:" + CACHE_VERSION + ":";
+    private static final String LIVE_LISTING_KEY = VERSION_KEY_PREFIX + "live_listing";
+    private static final String ALL_LISTING_KEY = VERSION_KEY_PREFIX + "all_listing";
+
+    // Key expire → seed lại bằng timestamp, ETag cũ không còn match (chỉ tốn một 200).
+    // Đồng thời giới hạn thời gian 304 cũ nếu một lần bump bị lỗi.
+    private static final Duration VERSION_TTL = Duration.ofDays(1);
+
+    private static final RedisScript<Long> VERSION_BUMP_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/version_bump.lua"), Long.class);
+    private static final RedisScript<String> VERSION_GET_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/version_get.lua"), String.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    // ============================================================
+    // ETags
+    // ============================================================
+
+    /**
+     * Strong ETag cho GET /api/streams/{id}
+     *
+     * @return null nếu Redis lỗi (caller trả full response, không conditional)
+     */
+    public String streamETag(Long streamId) {
+        String version = getVersion(VERSION_KEY_PREFIX + streamId);
+        return version != null ? "\"s" + streamId + "-" + version + "\"" : null;
+    }
+
+    /**
+     * Strong ETag cho GET /api/streams?liveOnly=...
+     *
+     * @return null nếu Redis lỗi (caller trả full response, không conditional)
+     */
+    public String listingETag(boolean liveOnly) {
+        String version = getVersion(liveOnly ? LIVE_LISTING_KEY : ALL_LISTING_KEY);
+        if (version == null) {
+            return null;
+        }
+        return (liveOnly ? "\"live-" : "\"all-") + version + "\"";
+    }
+
+    /**
+     * Version hiện tại của live listing (null nếu Redis lỗi) - dùng cho LiveListingSnapshotService
+     */
+    public String getLiveListingVersion() {
+        return getVersion(LIVE_LISTING_KEY);
+    }
+
+    // ============================================================
+    // Invalidation
+    // ============================================================
+
+    /**
+     * Bump versions sau khi transaction commit (một Lua call cho tất cả keys)
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStreamChanged(StreamChangedEvent event) {
+        List<String> keys = new ArrayList<>(event.getStreamIds().size() + 2);
+        event.getStreamIds().forEach(streamId -> keys.add(VERSION_KEY_PREFIX + streamId));
+        keys.add(ALL_LISTING_KEY);
+        if (event.isLiveListingChanged()) {
+            keys.add(LIVE_LISTING_KEY);
+        }
+
+        try {
+            stringRedisTemplate.execute(VERSION_BUMP_SCRIPT, keys,
+                    String.valueOf(System.currentTimeMillis()), String.valueOf(VERSION_TTL.toSeconds()));
+        } catch (RuntimeException ex) {
+            // Không bump được → clients có thể nhận 304 cũ tới khi version expire
+            log.error("Failed to bump stream versions for {}: {}", event.getStreamIds(), ex.getMessage());
+        }
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    private String getVersion(String key) {
+        try {
+            return stringRedisTemplate.execute(VERSION_GET_SCRIPT, List.of(key),
+                    String.valueOf(System.currentTimeMillis()), String.valueOf(VERSION_TTL.toSeconds()));
+        } catch (RuntimeException ex) {
+            log.warn("Failed to read version {}: {}", key, ex.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.stream.demo.service;
+
+import com.stream.demo.repository.StreamViewerArchiveRepository;
+import com.stream.demo.service.LiveStreamCacheService.ViewerSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stream Viewer Archive Service
+ * <p>
+ * Giải phóng Redis memory của HLL (~12 KB/stream) sau khi stream kết thúc:
+ * - Finalization export raw bytes (MGET) vào stream_viewer_archives bằng một JDBC batch, sau đó xóa key
+ * - getViewerCount serve stream đang live từ Redis, stream đã end từ bản archive (DB qua local LRU cache)
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StreamViewerArchiveService {
+
+    private static final String UPSERT_ARCHIVE_SQL =
+            "INSERT INTO stream_viewer_archives (stream_id, hll, unique_viewers, archived_at) VALUES (?, ?, ?, ?) "
+                    + "ON CONFLICT (stream_id) DO UPDATE SET "
+                    + "hll = EXCLUDED.hll, unique_viewers = EXCLUDED.unique_viewers, archived_at = EXCLUDED.archived_at";
+
+    // Archived counts không đổi → LRU không cần TTL
+    private static final int LOCAL_CACHE_MAX_ENTRIES = 10_000;
+
+    private final LiveStreamCacheService liveStreamCache;
+    private final StreamViewerArchiveRepository archiveRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, Long> archivedCounts = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                    return size() > LOCAL_CACHE_MAX_ENTRIES;
+                }
+            });
+
+    /**
+     * Unique viewer count của stream.
+     * Stream đang live → Redis HLL; stream đã end → bản archive (cache local).
+     * Đã end nhưng finalization chưa archive → HLL còn trong Redis.
+     */
+    public Long getViewerCount(Long streamId) {
+        Long live = liveStreamCache.getLiveViewerCount(streamId);
+        if (live != null) {
+            return live;
+        }
+
+        Long cached = archivedCounts.get(streamId);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Stream chưa archive (chưa finalize / không tồn tại) không được cache
+        Optional<Long> archived = archiveRepository.findUniqueViewersByStreamId(streamId);
+        if (archived.isPresent()) {
+            archivedCounts.put(streamId, archived.get());
+            return archived.get();
+        }
+        Long count = liveStreamCache.getViewerCount(streamId);
+        return count != null ? count : 0L;
+    }
+
+    /**
+     * Archive HLLs của các streams đã finalize (chưa xóa key - caller release sau khi archive thành công).
+     * Stream không còn key (redelivery sau khi đã release) được bỏ qua để không ghi đè bản archive.
+     *
+     * @return số streams đã archive
+     */
+    public int archive(List<Long> streamIds, Map<Long, ViewerSnapshot> snapshots) {
+        Map<Long, byte[]> hlls = liveStreamCache.dumpViewerHlls(streamIds);
+        if (hlls.isEmpty()) {
+            return 0;
+        }
+
+        List<Map.Entry<Long, byte[]>> rows = new ArrayList<>(hlls.entrySet());
+        Timestamp archivedAt = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_ARCHIVE_SQL, rows, rows.size(), (ps, row) -> {
+            ps.setLong(1, row.getKey());
+            ps.setBytes(2, row.getValue());
+            ps.setLong(3, snapshots.get(row.getKey()).uniqueViewers());
+            ps.setTimestamp(4, archivedAt);
+        });
+
+        // Stream restart rồi end lại → count mới
+        rows.forEach(row -> archivedCounts.remove(row.getKey()));
+
+        log.info("Archived viewer HLLs for {} streams", rows.size());
+        return rows.size();
+    }
+}
@@ -0,0 +1,213 @@
+package com.stream.demo.service;
+
+import com.stream.demo.common.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Viewer Bitmap Service
+ * <p>
+ * Exact viewer sets cho logged-in users: Roaring bitmap over User.id per stream,
+ * serialize (portable format) vào Redis key stream:{id}:viewer_bitmap.
+ * Anonymous viewers vẫn chỉ đếm bằng HLL (LiveStreamCacheService).
+ * <p>
+ * Write path: heartbeat chỉ add vào bitmap pending local; flush mỗi giây merge vào Redis
+ * bằng WATCH/MULTI (optimistic - nhiều nodes cùng flush một stream không mất update).
+ * <p>
+ * Roaring 32-bit coi int là unsigned → hỗ trợ User.id trong [0, 2^32).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ViewerBitmapService {
+
+    private static final String BITMAP_KEY_PATTERN = "stream:%d:viewer_bitmap";
+    private static final int MAX_FLUSH_ATTEMPTS = 3;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    // streamId → user ids chưa flush (chỉ mutate trong compute → atomic với remove khi flush)
+    private final Map<Long, RoaringBitmap> pending = new ConcurrentHashMap<>();
+
+    @Value("${app.stream.viewer-bitmap.ttl-days:30}")
+    private long ttlDays;
+
+    // ============================================================
+    // Write path
+    // ============================================================
+
+    /**
+     * Ghi nhận logged-in viewer (không round trip Redis)
+     */
+    public void recordViewer(Long streamId, Long userId) {
+        int value = toUnsignedInt(userId);
+        pending.compute(streamId, (id, bitmap) -> {
+            RoaringBitmap result = bitmap != null ? bitmap : new RoaringBitmap();
+            result.add(value);
+            return result;
+        });
+    }
+
+    /**
+     * Merge pending bitmaps vào Redis
+     */
+    @Scheduled(fixedDelayString = "${app.stream.viewer-bitmap.flush-interval-ms:1000}")
+    public void flushPending() {
+        for (Long streamId : pending.keySet()) {
+            RoaringBitmap additions = pending.remove(streamId);
+            if (additions == null) {
+                continue;
+            }
+            try {
+                if (!mergeIntoRedis(streamId, additions)) {
+                    requeue(streamId, additions);
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Failed to flush viewer bitmap for stream {}: {}", streamId, ex.getMessage());
+                requeue(streamId, additions);
+            }
+        }
+    }
+
+    // ============================================================
+    // Queries
+    // ============================================================
+
+    /**
+     * Số logged-in viewers chính xác
+     */
+    public long getExactViewerCount(Long streamId) {
+        return load(streamId).getLongCardinality();
+    }
+
+    /**
+     * User có xem stream không
+     */
+    public boolean hasWatched(Long streamId, Long userId) {
+        return load(streamId).contains(toUnsignedInt(userId));
+    }
+
+    /**
+     * Số users đã xem ít nhất một trong các streams
+     */
+    public long countUnion(List<Long> streamIds) {
+        return RoaringBitmap.or(loadAll(streamIds).iterator()).getLongCardinality();
+    }
+
+    /**
+     * Số users đã xem tất cả các streams
+     */
+    public long countIntersection(List<Long> streamIds) {
+        List<RoaringBitmap> bitmaps = loadAll(streamIds);
+        if (bitmaps.isEmpty()) {
+            return 0;
+        }
+        RoaringBitmap result = bitmaps.get(0).clone();
+        for (int i = 1; i < bitmaps.size() && !result.isEmpty(); i++) {
+            result.and(bitmaps.get(i));
+        }
+        return result.getLongCardinality();
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    /**
+     * WATCH → GET → OR → MULTI/SET/EXEC, retry nếu node khác ghi xen giữa
+     *
+     * @return false nếu hết số lần thử
+     */
+    private boolean mergeIntoRedis(Long streamId, RoaringBitmap additions) {
+        byte[] key = bitmapKey(streamId);
+        long ttlSeconds = ttlDays * 24 * 3600;
+        for (int attempt = 0; attempt < MAX_FLUSH_ATTEMPTS; attempt++) {
+            Boolean committed = stringRedisTemplate.execute((RedisCallback<Boolean>) connection -> {
+                connection.watch(key);
+                RoaringBitmap merged = deserialize(connection.stringCommands().get(key));
+                merged.or(additions);
+                merged.runOptimize();
+
+                connection.multi();
+                connection.stringCommands().setEx(key, ttlSeconds, serialize(merged));
+                List<Object> results = connection.exec();
+                return results != null && !results.isEmpty();
+            });
+            if (Boolean.TRUE.equals(committed)) {
+                return true;
+            }
+        }
+        log.debug("Viewer bitmap flush for stream {} contended, retrying next tick", streamId);
+        return false;
+    }
+
+    private void requeue(Long streamId, RoaringBitmap additions) {
+        pending.merge(streamId, additions, (current, failed) -> {
+            current.or(failed);
+            return current;
+        });
+    }
+
+    private RoaringBitmap load(Long streamId) {
+        byte[] key = bitmapKey(streamId);
+        return deserialize(stringRedisTemplate.execute(
+                (RedisCallback<byte[]>) connection -> connection.stringCommands().get(key)));
+    }
+
+    /**
+     * Load nhiều bitmaps trong một MGET
+     */
+    private List<RoaringBitmap> loadAll(List<Long> streamIds) {
+        if (streamIds.isEmpty()) {
+            return List.of();
+        }
+        byte[][] keys = streamIds.stream().map(this::bitmapKey).toArray(byte[][]::new);
+        List<byte[]> values = stringRedisTemplate.execute(
+                (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(keys));
+        return values == null ? List.of() : values.stream().map(this::deserialize).toList();
+    }
+
+    private byte[] bitmapKey(Long streamId) {
+        return String.format(BITMAP_KEY_PATTERN, streamId).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private RoaringBitmap deserialize(byte[] bytes) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        if (bytes == null || bytes.length == 0) {
+            return bitmap;
+        }
+        try {
+            bitmap.deserialize(ByteBuffer.wrap(bytes));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Corrupted viewer bitmap", ex);
+        }
+        return bitmap;
+    }
+
+    private byte[] serialize(RoaringBitmap bitmap) {
+        ByteBuffer buffer = ByteBuffer.allocate(bitmap.serializedSizeInBytes());
+        bitmap.serialize(buffer);
+        return buffer.array();
+    }
+
+    private int toUnsignedInt(Long userId) {
+        if (userId == null || userId < 0 || (userId >>> 32) != 0) {
+            throw new BusinessException("User id out of bitmap range: " + userId);
+        }
+        return (int) (long) userId;
+    }
+}
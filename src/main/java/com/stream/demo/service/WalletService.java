@@ -1,23 +1,297 @@
 package com.stream.demo.service;
 
+import com.stream.demo.common.exception.BusinessException;
+import com.stream.demo.common.exception.ResourceNotFoundException;
+import com.stream.demo.common.exception.ServiceUnavailableException;
 import com.stream.demo.model.dto.WalletDTO;
+import com.stream.demo.model.dto.WalletLedgerEntryDTO;
+import com.stream.demo.model.entity.WalletLedgerEntry;
+import com.stream.demo.repository.UserRepository;
+import com.stream.demo.repository.WalletLedgerEntryRepository;
+import com.stream.demo.scheduler.WalletLedgerWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
 
+/**
+ * Wallet Service
+ * <p>
+ * Balance live nằm trong Redis (wallet:v1:balance:{userId}, không TTL). Mỗi transaction là một Lua script:
+ * idempotency theo txnId → chặn overdraft → INCRBY → XADD ledger stream → lưu kết quả. Không lock row wallets nào.
+ * <p>
+ * Ledger stream được WalletLedgerWriter drain theo batch vào wallet_ledger + snapshot wallets (PostgreSQL);
+ * WalletReconciliationScheduler đối chiếu định kỳ Redis ↔ snapshot ↔ SUM(ledger).
+ * <p>
+ * Balance chưa có trong Redis được seed lazily từ snapshot DB (SET NX) rồi chạy lại script.
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class WalletService {
 
+    public static final String CURRENCY = "COINS";
+    public static final String BALANCE_KEY_PREFIX = "wallet:v1:balance:";
+    public static final String LEDGER_STREAM_KEY = "wallet:v1:ledger";
+    private static final String TXN_KEY_PREFIX = "wallet:v1:txn:";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> APPLY_SCRIPT =
+            RedisScript.of(new ClassPathResource("redis/wallet_apply.lua"), List.class);
+
+    private static final String SEED_WALLET_SQL =
+            "INSERT INTO wallets (user_id, balance, currency, ledger_seq, updated_at) VALUES (?, 0, ?, 0, now()) "
+                    + "ON CONFLICT (user_id) DO NOTHING";
+    private static final String SELECT_BALANCE_SQL = "SELECT balance FROM wallets WHERE user_id = ?";
+
+    private static final int MAX_TXN_ID_LENGTH = 64;
+    private static final int MAX_REFERENCE_LENGTH = 100;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final UserRepository userRepository;
+    private final WalletLedgerEntryRepository ledgerRepository;
+    private final WalletLedgerWriter ledgerWriter;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.wallet.txn-ttl-hours:72}")
+    private long txnTtlHours;
+
+    // ============================================================
+    // Mutations
+    // ============================================================
+
     public WalletDTO deposit(Long userId, BigDecimal amount, String description) {
-        log.info("Depositing {} to userId: {}. Description: {}", amount, userId, description);
+        return deposit(userId, amount, description, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Nạp coins. Gọi lại với cùng txnId trả về kết quả lần đầu (không nạp hai lần).
+     */
+    public WalletDTO deposit(Long userId, BigDecimal amount, String description, String txnId) {
+        long coins = toCoins(amount);
+        TxnResult result = apply(txnId, WalletLedgerEntry.Type.DEPOSIT, description, List.of(new Leg(userId, coins)));
+        log.info("Deposited {} coins to userId: {} (txn: {}, duplicate: {})", coins, userId, txnId, result.duplicate());
+        return buildDTO(userId, result.balanceOf(userId));
+    }
+
+    /**
+     * Trừ coins (mua hàng, gift tới hệ thống...)
+     *
+     * @throws BusinessException nếu không đủ balance
+     */
+    public WalletDTO debit(Long userId, BigDecimal amount, String reference, String txnId) {
+        long coins = toCoins(amount);
+        TxnResult result = apply(txnId, WalletLedgerEntry.Type.DEBIT, reference, List.of(new Leg(userId, -coins)));
+        return buildDTO(userId, result.balanceOf(userId));
+    }
+
+    /**
+     * Chuyển coins giữa hai users (gift): debit + credit trong cùng một script
+     *
+     * @return wallet của người gửi sau transaction
+     */
+    public WalletDTO transfer(Long fromUserId, Long toUserId, BigDecimal amount, WalletLedgerEntry.Type type,
+                              String reference, String txnId) {
+        if (fromUserId.equals(toUserId)) {
+            throw new BusinessException("Cannot transfer to the same wallet");
+        }
+        long coins = toCoins(amount);
+        TxnResult result = apply(txnId, type, reference,
+                List.of(new Leg(fromUserId, -coins), new Leg(toUserId, coins)));
+        return buildDTO(fromUserId, result.balanceOf(fromUserId));
+    }
+
+    // ============================================================
+    // Queries
+    // ============================================================
+
+    /**
+     * Balance live từ Redis (seed từ DB nếu chưa có)
+     */
+    public WalletDTO getWallet(Long userId) {
+        String balance = stringRedisTemplate.opsForValue().get(balanceKey(userId));
+        if (balance == null) {
+            seedBalance(userId);
+            balance = stringRedisTemplate.opsForValue().get(balanceKey(userId));
+        }
+        return buildDTO(userId, balance != null ? Long.parseLong(balance) : 0L);
+    }
+
+    /**
+     * Ledger entries gần nhất đã persist (entries còn trong stream chưa hiện ở đây)
+     */
+    public List<WalletLedgerEntryDTO> getRecentTransactions(Long userId) {
+        return ledgerRepository.findTop50ByUserIdOrderByIdDesc(userId).stream()
+                .map(this::convertToDTO)
+                .toList();
+    }
+
+    public static String balanceKey(Long userId) {
+        return BALANCE_KEY_PREFIX + userId;
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    /**
+     * Chạy script; seed balance còn thiếu rồi thử lại (mỗi leg tối đa một lần seed)
+     */
+    private TxnResult apply(String txnId, WalletLedgerEntry.Type type, String reference, List<Leg> legs) {
+        validateTxnId(txnId);
+        String ref = reference != null ? truncate(reference, MAX_REFERENCE_LENGTH) : "";
+
+        List<String> keys = new ArrayList<>(legs.size() + 2);
+        keys.add(TXN_KEY_PREFIX + txnId);
+        keys.add(LEDGER_STREAM_KEY);
+        List<String> args = new ArrayList<>(5 + legs.size() * 2);
+        args.add(txnId);
+        args.add(String.valueOf(Duration.ofHours(txnTtlHours).toSeconds()));
+        args.add(type.name());
+        args.add(ref);
+        args.add(String.valueOf(System.currentTimeMillis()));
+        for (Leg leg : legs) {
+            keys.add(balanceKey(leg.userId()));
+            args.add(String.valueOf(leg.userId()));
+            args.add(String.valueOf(leg.delta()));
+        }
+
+        for (int attempt = 0; attempt <= legs.size(); attempt++) {
+            List<?> reply = execute(keys, args);
+            String status = String.valueOf(reply.get(0));
+            String payload = String.valueOf(reply.get(1));
+            switch (status) {
+                case "OK" -> {
+                    ledgerWriter.wakeUp();
+                    meterRegistry.counter("wallet.transactions", "type", type.name()).increment();
+                    return TxnResult.parse(payload, false);
+                }
+                case "DUPLICATE" -> {
+                    return TxnResult.parse(payload, true);
+                }
+                case "INSUFFICIENT" -> throw new BusinessException("Insufficient balance");
+                case "NOT_LOADED" -> seedBalance(Long.parseLong(payload));
+                default -> throw new IllegalStateException("Unexpected wallet script status: " + status);
+            }
+        }
+        throw new ServiceUnavailableException("Wallet balance could not be loaded, please retry");
+    }
+
+    private List<?> execute(List<String> keys, List<String> args) {
+        try {
+            List<?> reply = stringRedisTemplate.execute(APPLY_SCRIPT, keys, args.toArray());
+            if (reply == null || reply.size() < 2) {
+                throw new ServiceUnavailableException("Wallet store returned no result, please retry");
+            }
+            return reply;
+        } catch (DataAccessException ex) {
+            log.error("Wallet script failed for txn {}: {}", args.get(0), ex.getMessage());
+            throw new ServiceUnavailableException("Wallet store unavailable, please retry", ex);
+        }
+    }
+
+    /**
+     * Seed balance Redis từ snapshot DB (SET NX: không ghi đè balance live).
+     * Snapshot chỉ thiếu entries chưa persist khi key Redis bị mất - reconciliation sẽ phát hiện.
+     */
+    private void seedBalance(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        jdbcTemplate.update(SEED_WALLET_SQL, userId, CURRENCY);
+        Long balance = jdbcTemplate.queryForObject(SELECT_BALANCE_SQL, Long.class, userId);
+        Boolean seeded = stringRedisTemplate.opsForValue().setIfAbsent(balanceKey(userId), String.valueOf(balance));
+        if (Boolean.TRUE.equals(seeded)) {
+            log.info("Seeded wallet balance for userId: {} from DB snapshot ({} coins)", userId, balance);
+        }
+    }
+
+    /**
+     * Coins là số nguyên dương
+     */
+    private long toCoins(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new BusinessException("Amount must be positive");
+        }
+        try {
+            return amount.stripTrailingZeros().longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new BusinessException("Amount must be a whole number of coins");
+        }
+    }
+
+    private void validateTxnId(String txnId) {
+        if (txnId == null || txnId.isBlank() || txnId.length() > MAX_TXN_ID_LENGTH) {
+            throw new BusinessException("Transaction id is required (max " + MAX_TXN_ID_LENGTH + " characters)");
+        }
+    }
+
+    private String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private WalletDTO buildDTO(Long userId, long balance) {
         return WalletDTO.builder()
                 .userId(userId)
-                .balance(amount) // In simulation, we just return the deposited amount as balance
-                .currency("COINS")
+                .balance(BigDecimal.valueOf(balance))
+                .currency(CURRENCY)
                 .updatedAt(LocalDateTime.now())
                 .build();
     }
+
+    private WalletLedgerEntryDTO convertToDTO(WalletLedgerEntry entry) {
+        return WalletLedgerEntryDTO.builder()
+                .id(entry.getId())
+                .txnId(entry.getTxnId())
+                .type(entry.getType())
+                .amount(BigDecimal.valueOf(entry.getDelta()))
+                .balanceAfter(BigDecimal.valueOf(entry.getBalanceAfter()))
+                .reference(entry.getReference())
+                .createdAt(entry.getCreatedAt())
+                .build();
+    }
+
+    private record Leg(long userId, long delta) {
+    }
+
+    /**
+     * Kết quả script: "userId:balanceAfter,..."
+     */
+    private record TxnResult(long[] userIds, long[] balances, boolean duplicate) {
+
+        static TxnResult parse(String payload, boolean duplicate) {
+            String[] parts = payload.split(",");
+            long[] userIds = new long[parts.length];
+            long[] balances = new long[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                int separator = parts[i].indexOf(':');
+                userIds[i] = Long.parseLong(parts[i].substring(0, separator));
+                balances[i] = Long.parseLong(parts[i].substring(separator + 1));
+            }
+            return new TxnResult(userIds, balances, duplicate);
+        }
+
+        long balanceOf(long userId) {
+            for (int i = 0; i < userIds.length; i++) {
+                if (userIds[i] == userId) {
+                    return balances[i];
+                }
+            }
+            throw new BusinessException("Transaction id was already used for a different wallet");
+        }
+    }
 }
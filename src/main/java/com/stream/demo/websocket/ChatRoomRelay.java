@@ -0,0 +1,144 @@
+package com.stream.demo.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stream.demo.service.ChatRoomPolicyService;
+import com.stream.demo.service.ChatService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Chat Room Relay
+ * <p>
+ * Per-node fan-out cho chat:
+ * - Chỉ SUBSCRIBE chat:room:{id} khi node có subscriber local của room (reconcile theo registry)
+ * - Mỗi message từ Redis → một TextMessage (payload bytes nguyên vẹn, không re-serialize)
+ *   ghi tới tất cả sessions local của room
+ * - Fan-out chạy trên N single-thread executors chọn theo streamId
+ *   → giữ thứ tự trong room, các rooms song song, không block Redis I/O thread
+ * - Mega-room: ChatRoomPolicyService quyết định sample (chỉ parse payload khi room đang sampling)
+ */
+@Component
+@Slf4j
+public class ChatRoomRelay implements MessageListener, RoomMembershipListener {
+
+    private final RedisMessageListenerContainer listenerContainer;
+    private final StreamSubscriptionRegistry subscriptionRegistry;
+    private final ChatRoomPolicyService chatRoomPolicy;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService[] fanoutExecutors;
+
+    // streamId → topic đang subscribe
+    private final Map<Long, ChannelTopic> subscribedRooms = new ConcurrentHashMap<>();
+
+    public ChatRoomRelay(RedisMessageListenerContainer listenerContainer,
+                         StreamSubscriptionRegistry subscriptionRegistry,
+                         ChatRoomPolicyService chatRoomPolicy,
+                         ObjectMapper objectMapper,
+                         @Value("${app.chat.fanout-threads:4}") int fanoutThreads) {
+        this.listenerContainer = listenerContainer;
+        this.subscriptionRegistry = subscriptionRegistry;
+        this.chatRoomPolicy = chatRoomPolicy;
+        this.objectMapper = objectMapper;
+        this.fanoutExecutors = new ExecutorService[fanoutThreads];
+        for (int i = 0; i < fanoutThreads; i++) {
+            String threadName = "chat-fanout-" + i;
+            fanoutExecutors[i] = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, threadName);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    // ============================================================
+    // Room registration
+    // ============================================================
+
+    @Override
+    public void onRoomMembershipChanged(Long streamId) {
+        subscribedRooms.compute(streamId, (id, topic) -> {
+            boolean wanted = subscriptionRegistry.hasSubscribers(id);
+            if (wanted && topic == null) {
+                ChannelTopic roomTopic = new ChannelTopic(ChatService.roomChannel(id));
+                listenerContainer.addMessageListener(this, roomTopic);
+                log.debug("Subscribed chat room {}", id);
+                return roomTopic;
+            }
+            if (!wanted && topic != null) {
+                listenerContainer.removeMessageListener(this, topic);
+                log.debug("Unsubscribed chat room {}", id);
+                return null;
+            }
+            return topic;
+        });
+    }
+
+    // ============================================================
+    // Fan-out
+    // ============================================================
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Long streamId = ChatService.parseRoomChannel(new String(message.getChannel(), StandardCharsets.UTF_8));
+        if (streamId == null) {
+            return;
+        }
+        chatRoomPolicy.recordMessage(streamId);
+        byte[] body = message.getBody();
+        try {
+            fanoutExecutors[Math.floorMod(streamId.hashCode(), fanoutExecutors.length)].execute(() -> {
+                if (!chatRoomPolicy.isMegaRoom(streamId) || chatRoomPolicy.shouldDeliver(streamId, isPriority(body))) {
+                    deliver(streamId, new TextMessage(body));
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            log.debug("Dropping chat message for room {}: relay shutting down", streamId);
+        }
+    }
+
+    private void deliver(Long streamId, TextMessage frame) {
+        for (WebSocketSession session : subscriptionRegistry.getSubscribers(streamId)) {
+            if (!session.isOpen()) {
+                continue;
+            }
+            try {
+                session.sendMessage(frame);
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Failed to deliver chat message to session {}: {}", session.getId(), ex.getMessage());
+            }
+        }
+    }
+
+    private boolean isPriority(byte[] body) {
+        try {
+            JsonNode priority = objectMapper.readTree(body).get("priority");
+            return priority != null && priority.asBoolean();
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        for (ExecutorService executor : fanoutExecutors) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.stream.demo.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stream.demo.common.exception.BusinessException;
+import com.stream.demo.common.exception.ResourceNotFoundException;
+import com.stream.demo.common.exception.ServiceUnavailableException;
+import com.stream.demo.model.dto.websocket.ChatMessage;
+import com.stream.demo.model.dto.websocket.ClientMessage;
+import com.stream.demo.security.WebSocketAuthHandshakeInterceptor;
+import com.stream.demo.service.ChatService;
+import com.stream.demo.service.PollService;
+import com.stream.demo.service.ReactionService;
+import com.stream.demo.service.RoomAffinityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live WebSocket Handler (/ws/live)
+ * <p>
+ * Protocol JSON text frames:
+ * - Client → server: {"action":"subscribe"|"unsubscribe","streamId":1},
+ *   {"action":"chat","streamId":1,"content":"..."} (cần token khi handshake + đã subscribe room),
+ *   {"action":"react","streamId":1,"reaction":"heart","count":3} (đã subscribe room),
+ *   {"action":"vote","streamId":1,"pollId":7,"option":0} (cần token)
+ * - Server → client: {"type":"viewers","streamId":1,"count":123}, {"type":"chat",...},
+ *   {"type":"reactions","streamId":1,"counts":{"heart":120}} (mỗi tick), {"type":"poll",...} (kết quả poll thay đổi),
+ *   {"type":"redirect","streamId":1,"url":"ws://..."} (room-affinity: room thuộc node khác), {"type":"error","message":"..."}
+ * <p>
+ * Sessions được decorate (OutboundQueueSession): broadcaster threads chỉ enqueue vào bounded queue per session,
+ * sender threads ghi socket → client chậm không block broadcast.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LiveWebSocketHandler extends TextWebSocketHandler {
+
+    private static final String CHAT_ROLES_ATTRIBUTE = "chatRoles";
+
+    private final StreamSubscriptionRegistry subscriptionRegistry;
+    private final ViewerCountBroadcaster viewerCountBroadcaster;
+    private final ChatService chatService;
+    private final WebSocketOutboundDispatcher outboundDispatcher;
+    private final ObjectMapper objectMapper;
+    private final RoomAffinityService roomAffinity;
+    private final RoomAffinityRebalancer roomAffinityRebalancer;
+    private final ReactionService reactionService;
+    private final PollService pollService;
+
+    // Raw session id → decorated session
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    @Value("${app.websocket.max-subscriptions-per-session:10}")
+    private int maxSubscriptionsPerSession;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sessions.put(session.getId(), outboundDispatcher.decorate(session));
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession rawSession, TextMessage message) throws IOException {
+        WebSocketSession session = sessions.get(rawSession.getId());
+        if (session == null) {
+            return;
+        }
+
+        ClientMessage request;
+        try {
+            request = objectMapper.readValue(message.getPayload(), ClientMessage.class);
+        } catch (JsonProcessingException ex) {
+            sendError(session, "Invalid message format");
+            return;
+        }
+        if (request.getAction() == null || request.getStreamId() == null) {
+            sendError(session, "action and streamId are required");
+            return;
+        }
+
+        switch (request.getAction()) {
+            case SUBSCRIBE -> subscribe(session, request.getStreamId());
+            case UNSUBSCRIBE -> subscriptionRegistry.unsubscribe(request.getStreamId(), session);
+            case CHAT -> chat(session, request);
+            case REACT -> react(session, request);
+            case VOTE -> vote(session, request);
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession rawSession, CloseStatus status) {
+        WebSocketSession session = sessions.remove(rawSession.getId());
+        if (session != null) {
+            subscriptionRegistry.removeSession(session);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.debug("WebSocket transport error on session {}: {}", session.getId(), exception.getMessage());
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    private void subscribe(WebSocketSession session, Long streamId) throws IOException {
+        if (subscriptionRegistry.getSubscriptionCount(session) >= maxSubscriptionsPerSession) {
+            sendError(session, "Too many subscriptions (max " + maxSubscriptionsPerSession + ")");
+            return;
+        }
+        String redirectUrl = roomAffinity.getRedirectUrl(streamId);
+        if (redirectUrl != null) {
+            session.sendMessage(roomAffinityRebalancer.buildRedirectFrame(streamId, redirectUrl));
+            return;
+        }
+        if (subscriptionRegistry.subscribe(streamId, session)) {
+            TextMessage lastFrame = viewerCountBroadcaster.getLastFrame(streamId);
+            if (lastFrame != null) {
+                OutboundQueueSession.sendNonCritical(session, lastFrame);
+            }
+        }
+    }
+
+    /**
+     * Publish chat message; chính sender nhận lại message qua fan-out như mọi member khác
+     */
+    private void chat(WebSocketSession session, ClientMessage request) throws IOException {
+        Long userId = (Long) session.getAttributes().get(WebSocketAuthHandshakeInterceptor.USER_ID_ATTRIBUTE);
+        if (userId == null) {
+            sendError(session, "Authentication required to chat");
+            return;
+        }
+        if (!subscriptionRegistry.isSubscribed(request.getStreamId(), session)) {
+            sendError(session, "Subscribe to the stream before chatting");
+            return;
+        }
+        String username = (String) session.getAttributes().get(WebSocketAuthHandshakeInterceptor.USERNAME_ATTRIBUTE);
+        try {
+            ChatMessage.Role role = chatRole(session, request.getStreamId(), userId);
+            chatService.sendMessage(request.getStreamId(), userId, username, role, request.getContent());
+        } catch (BusinessException | ResourceNotFoundException | ServiceUnavailableException ex) {
+            sendError(session, ex.getMessage());
+        }
+    }
+
+    /**
+     * Reaction taps: chỉ cộng in-memory counter, không I/O
+     */
+    private void react(WebSocketSession session, ClientMessage request) throws IOException {
+        if (!subscriptionRegistry.isSubscribed(request.getStreamId(), session)) {
+            sendError(session, "Subscribe to the stream before reacting");
+            return;
+        }
+        try {
+            reactionService.react(request.getStreamId(), request.getReaction(),
+                    request.getCount() != null ? request.getCount() : 1);
+        } catch (BusinessException ex) {
+            sendError(session, ex.getMessage());
+        }
+    }
+
+    /**
+     * Poll vote: userId lấy từ session (handshake), không query DB
+     */
+    private void vote(WebSocketSession session, ClientMessage request) throws IOException {
+        Long userId = (Long) session.getAttributes().get(WebSocketAuthHandshakeInterceptor.USER_ID_ATTRIBUTE);
+        if (userId == null) {
+            sendError(session, "Authentication required to vote");
+            return;
+        }
+        if (request.getPollId() == null || request.getOption() == null) {
+            sendError(session, "pollId and option are required");
+            return;
+        }
+        try {
+            pollService.vote(request.getStreamId(), request.getPollId(), userId, request.getOption());
+        } catch (BusinessException | ResourceNotFoundException ex) {
+            sendError(session, ex.getMessage());
+        }
+    }
+
+    /**
+     * Role của session trong room, resolve một lần rồi cache trong session attributes
+     */
+    @SuppressWarnings("unchecked")
+    private ChatMessage.Role chatRole(WebSocketSession session, Long streamId, Long userId) {
+        Map<Long, ChatMessage.Role> roles = (Map<Long, ChatMessage.Role>) session.getAttributes()
+                .computeIfAbsent(CHAT_ROLES_ATTRIBUTE, key -> new ConcurrentHashMap<>());
+        boolean admin = Boolean.TRUE.equals(session.getAttributes().get(WebSocketAuthHandshakeInterceptor.ADMIN_ATTRIBUTE));
+        return roles.computeIfAbsent(streamId, id -> chatService.resolveRole(id, userId, admin));
+    }
+
+    private void sendError(WebSocketSession session, String message) throws IOException {
+        session.sendMessage(new TextMessage(objectMapper.writeValueAsString(
+                Map.of("type", "error", "message", message))));
+    }
+}
@@ -0,0 +1,23 @@
+package com.stream.demo.websocket;
+
+/**
+ * Hành vi khi outbound queue của một WebSocket session đầy (client đọc chậm)
+ */
+public enum OutboundOverflowPolicy {
+
+    /**
+     * Bỏ frame cũ nhất trong queue để nhận frame mới
+     */
+    DROP_OLDEST,
+
+    /**
+     * Bỏ frame non-critical cũ nhất (viewer counts - frame sau thay thế frame trước).
+     * Queue chỉ còn frames critical: frame mới non-critical bị bỏ, frame mới critical → disconnect
+     */
+    DROP_NON_CRITICAL,
+
+    /**
+     * Đóng session (client tự reconnect và load lại state)
+     */
+    DISCONNECT
+}
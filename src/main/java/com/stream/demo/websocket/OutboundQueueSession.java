@@ -0,0 +1,298 @@
+package com.stream.demo.websocket;
+
+import jakarta.websocket.RemoteEndpoint;
+import jakarta.websocket.SendResult;
+import jakarta.websocket.Session;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Outbound Queue Session
+ * <p>
+ * Decorator thay cho ConcurrentWebSocketSessionDecorator: sendMessage chỉ enqueue vào bounded queue
+ * (O(1), không bao giờ block broadcast thread); dispatcher drain queue, tối đa một frame in-flight per session.
+ * <p>
+ * Text frames ghi qua async remote endpoint (non-blocking): sender thread chỉ khởi tạo write, completion callback
+ * schedule frame kế tiếp → socket chậm không giữ sender thread nào. Frames khác (hiếm) ghi blocking với
+ * send timeout của container bằng send time limit.
+ * <p>
+ * Client chậm: queue đầy → áp dụng OutboundOverflowPolicy; frame in-flight quá send time limit
+ * → disconnect (kiểm tra khi enqueue và bởi sweep định kỳ của dispatcher).
+ */
+@Slf4j
+public class OutboundQueueSession extends WebSocketSessionDecorator {
+
+    // Tomcat: timeout cho blocking send + close frame (ms)
+    private static final String BLOCKING_SEND_TIMEOUT_PROPERTY = "org.apache.tomcat.websocket.BLOCKING_SEND_TIMEOUT";
+
+    private final WebSocketOutboundDispatcher dispatcher;
+    private final Deque<Frame> queue = new ArrayDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private volatile long sendStartNanos;
+    private volatile boolean closing;
+    private volatile RemoteEndpoint.Async asyncRemote;
+    private volatile boolean nativeResolved;
+
+    // Ghi dưới lock của queue, đọc khi disconnect (log)
+    private int maxQueueDepth;
+    private long droppedFrames;
+
+    OutboundQueueSession(WebSocketSession delegate, WebSocketOutboundDispatcher dispatcher) {
+        super(delegate);
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Gửi frame non-critical cho session bất kỳ (queue session → được phép drop khi client chậm)
+     */
+    public static void sendNonCritical(WebSocketSession session, WebSocketMessage<?> message) throws IOException {
+        if (session instanceof OutboundQueueSession queued) {
+            queued.enqueue(message, false);
+        } else {
+            session.sendMessage(message);
+        }
+    }
+
+    /**
+     * Frame critical (chat, error) - chỉ bị bỏ với policy DROP_OLDEST
+     */
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) {
+        enqueue(message, true);
+    }
+
+    int getQueueDepth() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    boolean isClosing() {
+        return closing;
+    }
+
+    /**
+     * Gọi bởi sweep của dispatcher: disconnect nếu frame in-flight quá send time limit
+     * (bắt cả session không còn nhận frame mới nào)
+     *
+     * @return true nếu session bị disconnect
+     */
+    boolean checkSendTimeout(long nowNanos) {
+        long inFlightSince = sendStartNanos;
+        if (inFlightSince != 0 && nowNanos - inFlightSince > dispatcher.getSendTimeLimitNanos()) {
+            disconnect("send_timeout");
+            return true;
+        }
+        return false;
+    }
+
+    // ============================================================
+    // Enqueue (caller thread)
+    // ============================================================
+
+    private void enqueue(WebSocketMessage<?> message, boolean critical) {
+        if (closing || !isOpen()) {
+            return;
+        }
+        if (checkSendTimeout(System.nanoTime())) {
+            return;
+        }
+
+        int depth;
+        synchronized (queue) {
+            if (queue.size() >= dispatcher.getQueueCapacity() && !makeRoom(critical)) {
+                return;
+            }
+            queue.addLast(new Frame(message, critical));
+            depth = queue.size();
+            if (depth > maxQueueDepth) {
+                maxQueueDepth = depth;
+            }
+        }
+        dispatcher.recordQueueDepth(depth);
+        scheduleDrain();
+    }
+
+    /**
+     * Áp dụng overflow policy khi queue đầy (gọi dưới lock của queue)
+     *
+     * @return true nếu frame mới được nhận vào queue
+     */
+    private boolean makeRoom(boolean critical) {
+        OutboundOverflowPolicy policy = dispatcher.getOverflowPolicy();
+        switch (policy) {
+            case DROP_OLDEST -> {
+                queue.pollFirst();
+                dropped(policy);
+                return true;
+            }
+            case DROP_NON_CRITICAL -> {
+                for (Iterator<Frame> it = queue.iterator(); it.hasNext(); ) {
+                    if (!it.next().critical()) {
+                        it.remove();
+                        dropped(policy);
+                        return true;
+                    }
+                }
+                if (!critical) {
+                    dropped(policy);
+                    return false;
+                }
+            }
+            case DISCONNECT -> {
+                // Không drop frame nào - đóng session ngay bên dưới
+            }
+        }
+        disconnect("overflow");
+        return false;
+    }
+
+    private void dropped(OutboundOverflowPolicy policy) {
+        droppedFrames++;
+        dispatcher.recordDropped(policy);
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            resumeDrain();
+        }
+    }
+
+    private void resumeDrain() {
+        try {
+            dispatcher.execute(this::drain);
+        } catch (RejectedExecutionException ex) {
+            draining.set(false);
+        }
+    }
+
+    // ============================================================
+    // Drain (sender thread)
+    // ============================================================
+
+    private void drain() {
+        while (true) {
+            Frame frame;
+            synchronized (queue) {
+                frame = queue.pollFirst();
+                if (frame == null) {
+                    // Release trong lock: enqueue sau thời điểm này sẽ tự schedule drain mới
+                    draining.set(false);
+                    return;
+                }
+            }
+            if (closing) {
+                continue;
+            }
+
+            long start = System.nanoTime();
+            sendStartNanos = start;
+            RemoteEndpoint.Async async = resolveAsyncRemote();
+            if (async != null && frame.message() instanceof TextMessage text) {
+                // Non-blocking: drainer vẫn giữ quyền drain, completion callback resume trên sender thread
+                try {
+                    async.sendText(text.getPayload(), result -> onSent(start, result));
+                    return;
+                } catch (RuntimeException ex) {
+                    sendFailed(ex);
+                    continue;
+                }
+            }
+
+            try {
+                getDelegate().sendMessage(frame.message());
+                dispatcher.recordSendTime(System.nanoTime() - start);
+            } catch (IOException | IllegalStateException ex) {
+                sendFailed(ex);
+            } finally {
+                sendStartNanos = 0;
+            }
+        }
+    }
+
+    /**
+     * Completion callback (container thread) - không ghi socket ở đây, chuyển frame kế tiếp về sender pool
+     */
+    private void onSent(long start, SendResult result) {
+        sendStartNanos = 0;
+        if (result.isOK()) {
+            dispatcher.recordSendTime(System.nanoTime() - start);
+        } else {
+            sendFailed(result.getException());
+        }
+        resumeDrain();
+    }
+
+    private void sendFailed(Throwable ex) {
+        sendStartNanos = 0;
+        log.debug("Outbound send failed on session {}: {}", getId(), ex != null ? ex.getMessage() : null);
+        closing = true;
+    }
+
+    /**
+     * Async remote của native session (null nếu container không phải JSR-356 → blocking fallback).
+     * Đồng thời đặt timeout blocking send/close của container bằng send time limit.
+     */
+    private RemoteEndpoint.Async resolveAsyncRemote() {
+        if (!nativeResolved) {
+            WebSocketSession raw = WebSocketSessionDecorator.unwrap(getDelegate());
+            if (raw instanceof NativeWebSocketSession nativeSession) {
+                Session session = nativeSession.getNativeSession(Session.class);
+                if (session != null) {
+                    long limitMs = dispatcher.getSendTimeLimitNanos() / 1_000_000;
+                    session.getUserProperties().put(BLOCKING_SEND_TIMEOUT_PROPERTY, limitMs);
+                    RemoteEndpoint.Async async = session.getAsyncRemote();
+                    async.setSendTimeout(limitMs);
+                    asyncRemote = async;
+                }
+            }
+            nativeResolved = true;
+        }
+        return asyncRemote;
+    }
+
+    private void disconnect(String reason) {
+        if (closing) {
+            return;
+        }
+        closing = true;
+        int maxDepth;
+        long dropped;
+        synchronized (queue) {
+            queue.clear();
+            maxDepth = maxQueueDepth;
+            dropped = droppedFrames;
+        }
+        dispatcher.recordDisconnect(reason);
+        log.info("Disconnecting slow WebSocket session {} ({}): maxQueueDepth={}, droppedFrames={}",
+                getId(), reason, maxDepth, dropped);
+        // Close (gửi close frame) trên sender pool: không block caller/sweep, bị chặn bởi send timeout
+        try {
+            dispatcher.execute(() -> {
+                try {
+                    getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+                } catch (IOException | IllegalStateException ex) {
+                    log.debug("Failed to close session {}: {}", getId(), ex.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            log.debug("Sender pool stopped, session {} not closed: {}", getId(), ex.getMessage());
+        }
+    }
+
+    private record Frame(WebSocketMessage<?> message, boolean critical) {
+    }
+}
@@ -0,0 +1,99 @@
+package com.stream.demo.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stream.demo.model.dto.websocket.PollMessage;
+import com.stream.demo.model.entity.Poll;
+import com.stream.demo.service.PollService;
+import com.stream.demo.service.PollService.LivePollView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Poll Broadcaster
+ * <p>
+ * Chu kỳ cố định: một pipeline HGETALL cho các polls của streams có subscriber trên node này,
+ * poll có kết quả / trạng thái thay đổi → một frame gửi cho tất cả subscribers của stream.
+ * Frame cuối (CLOSED) vẫn được gửi trước khi poll bị dọn khỏi memory.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PollBroadcaster {
+
+    private final StreamSubscriptionRegistry subscriptionRegistry;
+    private final PollService pollService;
+    private final ObjectMapper objectMapper;
+
+    // Kết quả đã push gần nhất per poll (chỉ push khi thay đổi)
+    private final Map<Long, PollMessage> lastPushed = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedRateString = "${app.polls.push-interval-ms:1000}")
+    public void broadcastResults() {
+        List<LivePollView> polls = pollService.getLivePolls().stream()
+                .filter(poll -> subscriptionRegistry.hasSubscribers(poll.streamId()))
+                .toList();
+        lastPushed.keySet().retainAll(polls.stream().map(LivePollView::pollId).toList());
+        if (polls.isEmpty()) {
+            return;
+        }
+
+        Map<Long, List<Long>> tallies;
+        try {
+            tallies = pollService.getTallies(polls.stream().map(LivePollView::pollId).toList());
+        } catch (RuntimeException ex) {
+            log.warn("Skipping poll push tick: {}", ex.getMessage());
+            return;
+        }
+
+        for (LivePollView poll : polls) {
+            List<Long> counts = tallies.get(poll.pollId());
+            PollMessage message = PollMessage.builder()
+                    .pollId(poll.pollId())
+                    .streamId(poll.streamId())
+                    .status(poll.status())
+                    .counts(counts)
+                    .totalVotes(counts.stream().mapToLong(Long::longValue).sum())
+                    .build();
+            if (message.equals(lastPushed.put(poll.pollId(), message))) {
+                continue;
+            }
+            send(subscriptionRegistry.getSubscribers(poll.streamId()), buildFrame(message), poll.status());
+        }
+    }
+
+    private TextMessage buildFrame(PollMessage message) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize poll frame", ex);
+        }
+    }
+
+    private void send(WebSocketSession[] sessions, TextMessage frame, Poll.Status status) {
+        for (WebSocketSession session : sessions) {
+            if (!session.isOpen()) {
+                continue;
+            }
+            try {
+                if (status == Poll.Status.CLOSED) {
+                    // Kết quả cuối: critical, không bị drop
+                    session.sendMessage(frame);
+                } else {
+                    OutboundQueueSession.sendNonCritical(session, frame);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Failed to push poll results to session {}: {}", session.getId(), ex.getMessage());
+            }
+        }
+    }
+}
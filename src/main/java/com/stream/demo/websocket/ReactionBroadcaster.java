@@ -0,0 +1,64 @@
+package com.stream.demo.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stream.demo.model.dto.websocket.ReactionMessage;
+import com.stream.demo.service.ReactionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Reaction Broadcaster
+ * <p>
+ * Mỗi tick: lấy deltas reactions đã gộp của cả cluster, mỗi room có subscriber trên node này
+ * serialize đúng một frame và gửi cho tất cả subscribers (non-critical, drop được khi client chậm).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReactionBroadcaster {
+
+    private final StreamSubscriptionRegistry subscriptionRegistry;
+    private final ReactionService reactionService;
+    private final ObjectMapper objectMapper;
+
+    @Scheduled(fixedRateString = "${app.reactions.tick-ms:1000}")
+    public void broadcastReactions() {
+        Map<Long, Map<String, Long>> deltas = reactionService.drainPendingDeltas();
+        deltas.forEach((streamId, counts) -> {
+            WebSocketSession[] sessions = subscriptionRegistry.getSubscribers(streamId);
+            if (sessions.length == 0 || counts.isEmpty()) {
+                return;
+            }
+            TextMessage frame = buildFrame(streamId, counts);
+            for (WebSocketSession session : sessions) {
+                if (!session.isOpen()) {
+                    continue;
+                }
+                try {
+                    OutboundQueueSession.sendNonCritical(session, frame);
+                } catch (IOException | IllegalStateException ex) {
+                    log.debug("Failed to push reactions to session {}: {}", session.getId(), ex.getMessage());
+                }
+            }
+        });
+    }
+
+    private TextMessage buildFrame(Long streamId, Map<String, Long> counts) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(ReactionMessage.builder()
+                    .streamId(streamId)
+                    .counts(counts)
+                    .build()));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize reaction frame", ex);
+        }
+    }
+}
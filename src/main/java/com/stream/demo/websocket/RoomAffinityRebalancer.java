@@ -0,0 +1,67 @@
+package com.stream.demo.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stream.demo.model.dto.event.ClusterRingChangedEvent;
+import com.stream.demo.model.dto.websocket.RoomRedirectMessage;
+import com.stream.demo.service.RoomAffinityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+
+/**
+ * Room Affinity Rebalancer
+ * <p>
+ * Ring thay đổi → với mỗi room có subscribers trên node này nhưng đã thuộc node khác:
+ * gửi redirect frame cho subscribers rồi gỡ subscription (room cuối cùng rời node → UNSUBSCRIBE chat channel).
+ * Consistent hashing → chỉ rooms trên cung của node join / leave bị chuyển.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoomAffinityRebalancer {
+
+    private final StreamSubscriptionRegistry subscriptionRegistry;
+    private final RoomAffinityService roomAffinity;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    public void onRingChanged(ClusterRingChangedEvent event) {
+        int moved = 0;
+        for (Long streamId : subscriptionRegistry.getSubscribedStreamIds()) {
+            String url = roomAffinity.getRedirectUrl(streamId);
+            if (url == null) {
+                continue;
+            }
+            TextMessage frame = buildRedirectFrame(streamId, url);
+            for (WebSocketSession session : subscriptionRegistry.getSubscribers(streamId)) {
+                try {
+                    session.sendMessage(frame);
+                } catch (IOException ex) {
+                    log.debug("Failed to send redirect to session {}: {}", session.getId(), ex.getMessage());
+                }
+                subscriptionRegistry.unsubscribe(streamId, session);
+            }
+            moved++;
+        }
+        if (moved > 0) {
+            log.info("Moved {} rooms to other nodes after ring change", moved);
+        }
+    }
+
+    public TextMessage buildRedirectFrame(Long streamId, String url) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(RoomRedirectMessage.builder()
+                    .streamId(streamId)
+                    .url(url)
+                    .build()));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize redirect frame", ex);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.stream.demo.websocket;
+
+/**
+ * Callback khi room trên node này chuyển giữa có / không có subscriber local.
+ * <p>
+ * Notifications của cùng room có thể đến không theo thứ tự (nhiều threads join/leave cùng lúc):
+ * implementations phải reconcile theo {@link StreamSubscriptionRegistry#hasSubscribers(Long)}
+ * thay vì tin vào thứ tự events.
+ */
+public interface RoomMembershipListener {
+
+    void onRoomMembershipChanged(Long streamId);
+}
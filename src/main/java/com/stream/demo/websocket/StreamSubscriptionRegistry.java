@@ -0,0 +1,99 @@
+package com.stream.demo.websocket;
+
+import com.stream.demo.common.collection.RoomMembershipIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Stream Subscription Registry
+ * <p>
+ * Subscribers WebSocket (room members) trên node này, theo stream.
+ * Sessions lưu ở đây đã được decorate (thread-safe send) bởi LiveWebSocketHandler.
+ * Room đầu tiên có subscriber / mất subscriber cuối cùng → notify RoomMembershipListeners
+ * (ví dụ: subscribe / unsubscribe Redis channel của chat room).
+ * <p>
+ * Index là RoomMembershipIndex (primitive long keys, mảng sessions copy-on-write):
+ * fan-out duyệt {@link #getSubscribers(Long)} không lock, không cấp phát.
+ */
+@Component
+@Slf4j
+public class StreamSubscriptionRegistry {
+
+    private final RoomMembershipIndex<WebSocketSession> index = new RoomMembershipIndex<>(WebSocketSession[]::new);
+    private final ObjectProvider<RoomMembershipListener> membershipListeners;
+
+    public StreamSubscriptionRegistry(ObjectProvider<RoomMembershipListener> membershipListeners) {
+        this.membershipListeners = membershipListeners;
+    }
+
+    /**
+     * @return false nếu session đã subscribe stream này
+     */
+    public boolean subscribe(Long streamId, WebSocketSession session) {
+        int members = index.add(streamId, session);
+        if (members == 1) {
+            notifyMembershipChanged(streamId);
+        }
+        return members > 0;
+    }
+
+    public void unsubscribe(Long streamId, WebSocketSession session) {
+        if (index.remove(streamId, session) == 0) {
+            notifyMembershipChanged(streamId);
+        }
+    }
+
+    /**
+     * Gỡ session khỏi tất cả streams (connection đóng)
+     */
+    public void removeSession(WebSocketSession session) {
+        for (long streamId : index.roomsOf(session)) {
+            unsubscribe(streamId, session);
+        }
+    }
+
+    public boolean hasSubscribers(Long streamId) {
+        return index.hasMembers(streamId);
+    }
+
+    public boolean isSubscribed(Long streamId, WebSocketSession session) {
+        return index.contains(streamId, session);
+    }
+
+    public int getSubscriptionCount(WebSocketSession session) {
+        return index.roomsOf(session).length;
+    }
+
+    /**
+     * Streams có ít nhất một subscriber trên node này (snapshot)
+     */
+    public Set<Long> getSubscribedStreamIds() {
+        Set<Long> streamIds = new HashSet<>(index.roomCount() * 2);
+        index.forEachRoom(streamIds::add);
+        return streamIds;
+    }
+
+    /**
+     * Snapshot subscribers của stream; KHÔNG sửa mảng trả về
+     */
+    public WebSocketSession[] getSubscribers(Long streamId) {
+        return index.members(streamId);
+    }
+
+    private void notifyMembershipChanged(Long streamId) {
+        List<RoomMembershipListener> listeners = membershipListeners.orderedStream().toList();
+        for (RoomMembershipListener listener : listeners) {
+            try {
+                listener.onRoomMembershipChanged(streamId);
+            } catch (RuntimeException ex) {
+                log.error("Room membership listener failed for stream {}: {}", streamId, ex.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.stream.demo.websocket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stream.demo.model.dto.websocket.ViewerCountMessage;
+import com.stream.demo.service.LiveStreamCacheService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Viewer Count Broadcaster
+ * <p>
+ * Mỗi tick: một Redis pipeline PFCOUNT cho tất cả streams có subscriber trên node này,
+ * mỗi stream có count thay đổi serialize đúng một frame và gửi cho tất cả subscribers.
+ * Redis reads: O(streams) per tick thay vì O(viewers) polling requests.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ViewerCountBroadcaster {
+
+    private final StreamSubscriptionRegistry subscriptionRegistry;
+    private final LiveStreamCacheService liveStreamCache;
+    private final ObjectMapper objectMapper;
+
+    // Frame gửi gần nhất per stream - subscriber mới nhận ngay, không đợi tick
+    private final Map<Long, LastFrame> lastFrames = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedDelayString = "${app.websocket.viewer-count.tick-ms:2000}")
+    public void broadcastViewerCounts() {
+        Set<Long> streamIds = subscriptionRegistry.getSubscribedStreamIds();
+        lastFrames.keySet().retainAll(streamIds);
+        if (streamIds.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> counts;
+        try {
+            counts = liveStreamCache.getViewerCounts(streamIds);
+        } catch (RuntimeException ex) {
+            log.warn("Skipping viewer count tick: {}", ex.getMessage());
+            return;
+        }
+
+        counts.forEach((streamId, count) -> {
+            LastFrame last = lastFrames.get(streamId);
+            // Unchanged, hoặc HLL đã archive sau khi stream end (giữ count cuối)
+            if (last != null && (last.count() == count || count == 0)) {
+                return;
+            }
+            TextMessage frame = buildFrame(streamId, count);
+            lastFrames.put(streamId, new LastFrame(count, frame));
+            send(subscriptionRegistry.getSubscribers(streamId), frame);
+        });
+    }
+
+    /**
+     * Frame gần nhất của stream (null nếu chưa broadcast)
+     */
+    public TextMessage getLastFrame(Long streamId) {
+        LastFrame last = lastFrames.get(streamId);
+        return last != null ? last.frame() : null;
+    }
+
+    // ============================================================
+    // Private helper methods
+    // ============================================================
+
+    private TextMessage buildFrame(Long streamId, long count) {
+        try {
+            return new TextMessage(objectMapper.writeValueAsString(ViewerCountMessage.builder()
+                    .streamId(streamId)
+                    .count(count)
+                    .build()));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to serialize viewer count frame", ex);
+        }
+    }
+
+    private void send(WebSocketSession[] sessions, TextMessage frame) {
+        for (WebSocketSession session : sessions) {
+            if (!session.isOpen()) {
+                continue;
+            }
+            try {
+                // Non-critical: frame sau thay thế frame trước → được drop khi client chậm
+                OutboundQueueSession.sendNonCritical(session, frame);
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Failed to push viewer count to session {}: {}", session.getId(), ex.getMessage());
+            }
+        }
+    }
+
+    private record LastFrame(long count, TextMessage frame) {
+    }
+}
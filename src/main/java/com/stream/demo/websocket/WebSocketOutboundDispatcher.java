@@ -0,0 +1,167 @@
+package com.stream.demo.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket Outbound Dispatcher
+ * <p>
+ * Tạo OutboundQueueSession cho mỗi connection và sở hữu sender thread pool dùng chung:
+ * broadcast threads chỉ enqueue, sender threads khởi tạo async write → latency broadcast per room
+ * không phụ thuộc số clients chậm, socket chậm không giữ sender thread.
+ * <p>
+ * Sweep định kỳ trên các sessions đang mở: disconnect session có frame in-flight quá send time limit,
+ * cập nhật gauges theo queue depth hiện tại.
+ * <p>
+ * Metrics: websocket.outbound.send.time, websocket.outbound.queue.depth,
+ * websocket.outbound.dropped{policy}, websocket.outbound.disconnects{reason},
+ * websocket.outbound.sessions, websocket.outbound.queue.depth.max, websocket.outbound.queued.frames
+ */
+@Component
+@Slf4j
+public class WebSocketOutboundDispatcher {
+
+    private final ExecutorService senderExecutor;
+    private final int queueCapacity;
+    private final OutboundOverflowPolicy overflowPolicy;
+    private final long sendTimeLimitNanos;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer sendTimer;
+    private final DistributionSummary queueDepthSummary;
+    private final Map<OutboundOverflowPolicy, Counter> droppedCounters = new EnumMap<>(OutboundOverflowPolicy.class);
+
+    private final Set<OutboundQueueSession> sessions = ConcurrentHashMap.newKeySet();
+    // Cập nhật bởi sweep
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicInteger queuedFrames = new AtomicInteger();
+
+    public WebSocketOutboundDispatcher(MeterRegistry meterRegistry,
+                                       @Value("${app.websocket.outbound.queue-capacity:256}") int queueCapacity,
+                                       @Value("${app.websocket.outbound.overflow-policy:DROP_NON_CRITICAL}") OutboundOverflowPolicy overflowPolicy,
+                                       @Value("${app.websocket.outbound.send-time-limit-ms:5000}") long sendTimeLimitMs,
+                                       @Value("${app.websocket.outbound.sender-threads:8}") int senderThreads) {
+        this.meterRegistry = meterRegistry;
+        this.queueCapacity = queueCapacity;
+        this.overflowPolicy = overflowPolicy;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.senderExecutor = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "ws-sender-" + threadIndex.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.sendTimer = Timer.builder("websocket.outbound.send.time")
+                .description("Time to write one frame to a WebSocket session")
+                .register(meterRegistry);
+        this.queueDepthSummary = DistributionSummary.builder("websocket.outbound.queue.depth")
+                .description("Per-session outbound queue depth after enqueue")
+                .register(meterRegistry);
+        for (OutboundOverflowPolicy policy : OutboundOverflowPolicy.values()) {
+            droppedCounters.put(policy, Counter.builder("websocket.outbound.dropped")
+                    .description("Frames dropped because a session's outbound queue was full")
+                    .tag("policy", policy.name())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("websocket.outbound.sessions", sessions, Set::size)
+                .description("Open sessions with an outbound queue")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.queue.depth.max", maxQueueDepth, AtomicInteger::get)
+                .description("Deepest current per-session outbound queue (last sweep)")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.queued.frames", queuedFrames, AtomicInteger::get)
+                .description("Frames waiting across all sessions (last sweep)")
+                .register(meterRegistry);
+        log.info("WebSocket outbound dispatcher started (queueCapacity={}, policy={}, senderThreads={})",
+                queueCapacity, overflowPolicy, senderThreads);
+    }
+
+    public OutboundQueueSession decorate(WebSocketSession session) {
+        OutboundQueueSession queued = new OutboundQueueSession(session, this);
+        sessions.add(queued);
+        return queued;
+    }
+
+    /**
+     * Sweep: frame in-flight quá send time limit → disconnect (kể cả session không nhận frame mới),
+     * bỏ sessions đã đóng khỏi registry, cập nhật gauges
+     */
+    @Scheduled(fixedDelayString = "${app.websocket.outbound.sweep-interval-ms:1000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        int maxDepth = 0;
+        int total = 0;
+        for (OutboundQueueSession session : sessions) {
+            if (session.isClosing() || !session.isOpen()) {
+                sessions.remove(session);
+                continue;
+            }
+            if (session.checkSendTimeout(now)) {
+                sessions.remove(session);
+                continue;
+            }
+            int depth = session.getQueueDepth();
+            maxDepth = Math.max(maxDepth, depth);
+            total += depth;
+        }
+        maxQueueDepth.set(maxDepth);
+        queuedFrames.set(total);
+    }
+
+    int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    OutboundOverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    long getSendTimeLimitNanos() {
+        return sendTimeLimitNanos;
+    }
+
+    void execute(Runnable task) {
+        senderExecutor.execute(task);
+    }
+
+    void recordSendTime(long nanos) {
+        sendTimer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    void recordQueueDepth(int depth) {
+        queueDepthSummary.record(depth);
+    }
+
+    void recordDropped(OutboundOverflowPolicy policy) {
+        droppedCounters.get(policy).increment();
+    }
+
+    void recordDisconnect(String reason) {
+        meterRegistry.counter("websocket.outbound.disconnects", "reason", reason).increment();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senderExecutor.shutdownNow();
+    }
+}
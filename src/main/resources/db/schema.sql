@@ -0,0 +1,52 @@
+-- Schema extensions chạy sau Hibernate ddl-auto (spring.jpa.defer-datasource-initialization)
+-- Mọi statement phải idempotent
+
+-- ============================================================
+-- Stream full-text search
+-- ============================================================
+-- 'simple' config: không stemming (title/description đa ngôn ngữ, chủ yếu tiếng Việt)
+-- Title weight A, description weight B
+ALTER TABLE streams ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(title, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_stream_search_vector ON streams USING GIN (search_vector);
+
+-- ============================================================
+-- Stream stats
+-- ============================================================
+-- gift_total NULL cho tới khi có gifts (Phase 7); ddl-auto update không tự bỏ NOT NULL của bảng cũ
+ALTER TABLE stream_stats ALTER COLUMN gift_total DROP NOT NULL;
+
+-- ============================================================
+-- Chat messages (write-behind, partition theo ngày)
+-- ============================================================
+-- Partitions tạo trước bởi ChatPartitionMaintenanceScheduler; DEFAULT bắt rows ngoài range
+-- PK gồm partition key (yêu cầu của PostgreSQL) - id là snowflake nên (id, sent_at) vẫn unique
+CREATE TABLE IF NOT EXISTS chat_messages (
+    id         BIGINT        NOT NULL,
+    stream_id  BIGINT        NOT NULL,
+    user_id    BIGINT        NOT NULL,
+    content    TEXT          NOT NULL,
+    sent_at    TIMESTAMP     NOT NULL,
+    created_at TIMESTAMP     NOT NULL DEFAULT now(),
+    PRIMARY KEY (id, sent_at)
+) PARTITION BY RANGE (sent_at);
+
+CREATE TABLE IF NOT EXISTS chat_messages_default PARTITION OF chat_messages DEFAULT;
+
+-- History theo room: WHERE stream_id = ? AND id < ? ORDER BY id DESC
+CREATE INDEX IF NOT EXISTS idx_chat_messages_stream_id ON chat_messages (stream_id, id);
+
+-- ============================================================
+-- Polls
+-- ============================================================
+-- PollService sweep mỗi vài giây: polls đã đóng chờ persist kết quả (rất ít rows)
+CREATE INDEX IF NOT EXISTS idx_polls_unpersisted ON polls (closed_at)
+    WHERE status = 'CLOSED' AND results_persisted = false;
+
+-- Tối đa một poll OPEN per stream (createPoll đồng thời: insert thứ hai vi phạm index → 400)
+CREATE UNIQUE INDEX IF NOT EXISTS uq_polls_open_stream ON polls (stream_id)
+    WHERE status = 'OPEN';
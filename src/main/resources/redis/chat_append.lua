@@ -0,0 +1,9 @@
+-- Append chat message vào history ring buffer và publish tới room trong một round trip.
+-- KEYS[1] = history stream key
+-- ARGV[1] = message JSON (serialize một lần: history entry = pub/sub payload = WebSocket frame)
+-- ARGV[2] = MAXLEN (approximate: trim theo macro node, rẻ hơn exact trim)
+-- ARGV[3] = TTL seconds (refresh mỗi message), ARGV[4] = room channel
+
+redis.call('XADD', KEYS[1], 'MAXLEN', '~', ARGV[2], '*', 'm', ARGV[1])
+redis.call('EXPIRE', KEYS[1], ARGV[3])
+return redis.call('PUBLISH', ARGV[4], ARGV[1])
@@ -0,0 +1,14 @@
+-- Cluster heartbeat: score + cutoff theo clock của Redis (TIME), không phụ thuộc clock lệch giữa các nodes
+-- KEYS[1] = cluster:v1:nodes      (ZSET nodeId → last heartbeat millis, Redis time)
+-- KEYS[2] = cluster:v1:node-urls  (Hash nodeId → advertised URL)
+-- ARGV[1] = nodeId, ARGV[2] = advertised URL, ARGV[3] = node TTL millis
+-- Return: { live nodeIds, node-urls dạng flat [nodeId, url, ...] }
+
+local time = redis.call('TIME')
+local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+
+redis.call('ZADD', KEYS[1], now, ARGV[1])
+redis.call('HSET', KEYS[2], ARGV[1], ARGV[2])
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - tonumber(ARGV[3]))
+
+return { redis.call('ZRANGE', KEYS[1], 0, -1), redis.call('HGETALL', KEYS[2]) }
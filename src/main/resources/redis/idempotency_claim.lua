@@ -0,0 +1,10 @@
+-- Claim Idempotency-Key trong một round trip.
+-- KEYS[1] = entry key; ARGV[1] = pending record, ARGV[2] = pending TTL seconds
+-- Return record hiện có (pending hoặc completed), nil nếu claim thành công
+
+local existing = redis.call('GET', KEYS[1])
+if existing then
+    return existing
+end
+redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2])
+return nil
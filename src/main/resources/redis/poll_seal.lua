@@ -0,0 +1,7 @@
+-- Chốt tally của poll trước khi persist: đặt final marker và đọc tally trong cùng một script
+-- → không HINCRBY nào (polls_flush.lua) lọt vào giữa lần đọc này và kết quả ghi vào DB
+-- KEYS[1] = poll:v1:{pollId}:tally, KEYS[2] = poll:v1:{pollId}:final
+-- Return: HGETALL tally dạng flat [position, votes, ...]
+
+redis.call('SET', KEYS[2], '1')
+return redis.call('HGETALL', KEYS[1])
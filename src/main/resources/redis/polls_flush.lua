@@ -0,0 +1,29 @@
+-- Flush vote deltas của một node: HINCRBY tally của nhiều polls, idempotent theo flush id
+-- (retry sau lỗi mạng / timeout không cộng hai lần, kể cả khi lần trước đã apply nhưng mất reply)
+-- KEYS[1] = poll:v1:flush:{flushId} (dedup marker)
+-- KEYS[2..] = với mỗi poll một cặp: poll:v1:{pollId}:tally, poll:v1:{pollId}:final
+-- ARGV[1] = dedup TTL seconds
+-- ARGV[2..] = với mỗi poll: số fields n, rồi n cặp (position, delta)
+-- Return: -1 nếu flush id đã được apply trước đó; ngược lại số polls bị từ chối vì đã finalize
+
+if not redis.call('SET', KEYS[1], '1', 'NX', 'EX', ARGV[1]) then
+    return -1
+end
+
+local rejected = 0
+local arg = 2
+for i = 2, #KEYS, 2 do
+    local fields = tonumber(ARGV[arg])
+    arg = arg + 1
+    if redis.call('EXISTS', KEYS[i + 1]) == 1 then
+        -- Kết quả đã chốt (poll_seal.lua): deltas đến muộn không được làm lệch tally so với DB
+        rejected = rejected + 1
+        arg = arg + 2 * fields
+    else
+        for _ = 1, fields do
+            redis.call('HINCRBY', KEYS[i], ARGV[arg], ARGV[arg + 1])
+            arg = arg + 2
+        end
+    end
+end
+return rejected
@@ -0,0 +1,24 @@
+-- Flush reaction deltas của một node: HINCRBY totals + PUBLISH deltas, idempotent theo flush id
+-- (retry sau lỗi mạng / timeout không cộng hai lần, kể cả khi lần trước đã apply nhưng mất reply)
+-- KEYS[1] = reactions:v1:flush:{flushId} (dedup marker), KEYS[2..] = reactions:v1:{streamId}
+-- ARGV[1] = dedup TTL seconds, ARGV[2] = totals TTL seconds, ARGV[3] = channel, ARGV[4] = payload
+-- ARGV[5..] = với mỗi totals key: số fields n, rồi n cặp (type, delta)
+-- Return: 1 nếu đã apply, 0 nếu flush id đã được apply trước đó
+
+if not redis.call('SET', KEYS[1], '1', 'NX', 'EX', ARGV[1]) then
+    return 0
+end
+
+local arg = 5
+for i = 2, #KEYS do
+    local fields = tonumber(ARGV[arg])
+    arg = arg + 1
+    for _ = 1, fields do
+        redis.call('HINCRBY', KEYS[i], ARGV[arg], ARGV[arg + 1])
+        arg = arg + 2
+    end
+    redis.call('EXPIRE', KEYS[i], ARGV[2])
+end
+
+redis.call('PUBLISH', ARGV[3], ARGV[4])
+return 1
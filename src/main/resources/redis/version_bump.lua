@@ -0,0 +1,13 @@
+-- Bump version counters (ETag). Key chưa tồn tại (mới / expired / Redis flush) được seed bằng
+-- ARGV[1] = now millis thay vì 1 → không bao giờ trùng ETag đã phát trước đó.
+-- KEYS = version keys, ARGV[2] = TTL seconds
+
+for _, key in ipairs(KEYS) do
+    if redis.call('EXISTS', key) == 1 then
+        redis.call('INCR', key)
+    else
+        redis.call('SET', key, ARGV[1])
+    end
+    redis.call('EXPIRE', key, ARGV[2])
+end
+return #KEYS
@@ -0,0 +1,9 @@
+-- Đọc version counter (ETag), seed bằng ARGV[1] = now millis nếu chưa tồn tại
+-- KEYS[1] = version key, ARGV[2] = TTL seconds
+
+local version = redis.call('GET', KEYS[1])
+if not version then
+    version = ARGV[1]
+    redis.call('SET', KEYS[1], version, 'EX', ARGV[2])
+end
+return version
@@ -0,0 +1,32 @@
+-- Viewer heartbeat: unique viewers (HLL) + concurrency (presence ZSET) + peak trong một round trip
+-- KEYS[1] = stream:{id}:viewers   (HyperLogLog)
+-- KEYS[2] = stream:{id}:presence  (ZSET viewerId → last heartbeat millis)
+-- KEYS[3] = stream:{id}:peak      (String, peak concurrent viewers)
+-- KEYS[4] = stream:{id}:live      (live status)
+-- ARGV[1] = viewerId, ARGV[2] = now millis, ARGV[3] = presence window millis, ARGV[4] = TTL seconds
+-- ARGV[5] = live status TTL seconds
+-- Return: 1 nếu viewer mới với HLL, 0 nếu không, -1 nếu stream không live (không ghi gì)
+
+-- Heartbeat tới sau endStream không được tạo lại keys mà finalization đã archive + release
+if redis.call('EXISTS', KEYS[4]) == 0 then
+    return -1
+end
+
+local added = redis.call('PFADD', KEYS[1], ARGV[1])
+
+redis.call('ZADD', KEYS[2], ARGV[2], ARGV[1])
+redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', tonumber(ARGV[2]) - tonumber(ARGV[3]))
+local current = redis.call('ZCARD', KEYS[2])
+
+local peak = tonumber(redis.call('GET', KEYS[3]) or '0')
+if current > peak then
+    redis.call('SET', KEYS[3], current)
+end
+
+-- Mọi key viewer đều có TTL: stream không bao giờ được finalize cũng không leak
+redis.call('EXPIRE', KEYS[1], ARGV[4])
+redis.call('EXPIRE', KEYS[2], ARGV[4])
+redis.call('EXPIRE', KEYS[3], ARGV[4])
+-- Stream còn viewers → gia hạn live status (stream dài hơn TTL không bị coi là đã end)
+redis.call('EXPIRE', KEYS[4], ARGV[5])
+return added
@@ -0,0 +1,39 @@
+-- Apply một wallet transaction (một hoặc nhiều legs) atomically: idempotency check → overdraft check → INCRBY →
+-- append ledger entry vào stream (outbox, drain vào PostgreSQL bởi WalletLedgerWriter) → lưu kết quả theo txnId.
+-- KEYS[1] = txn key (idempotency), KEYS[2] = ledger stream, KEYS[2 + i] = balance key của leg i
+-- ARGV[1] = txnId, ARGV[2] = txn TTL seconds, ARGV[3] = type, ARGV[4] = reference, ARGV[5] = created at (epoch ms)
+-- ARGV[4 + 2i] = userId của leg i, ARGV[5 + 2i] = delta của leg i (số nguyên, âm = debit)
+-- Return {status, payload}:
+--   {'OK', result} | {'DUPLICATE', result lần apply đầu} | {'NOT_LOADED', userId} | {'INSUFFICIENT', userId}
+--   result = "userId:balanceAfter,userId:balanceAfter..."
+
+local stored = redis.call('GET', KEYS[1])
+if stored then
+    return {'DUPLICATE', stored}
+end
+
+local legs = #KEYS - 2
+for i = 1, legs do
+    local balance = redis.call('GET', KEYS[2 + i])
+    if not balance then
+        return {'NOT_LOADED', ARGV[4 + 2 * i]}
+    end
+    if tonumber(balance) + tonumber(ARGV[5 + 2 * i]) < 0 then
+        return {'INSUFFICIENT', ARGV[4 + 2 * i]}
+    end
+end
+
+local result = {}
+local entries = {}
+for i = 1, legs do
+    local userId = ARGV[4 + 2 * i]
+    local after = redis.call('INCRBY', KEYS[2 + i], ARGV[5 + 2 * i])
+    result[i] = userId .. ':' .. after
+    entries[i] = userId .. ':' .. ARGV[5 + 2 * i] .. ':' .. after
+end
+
+local payload = table.concat(result, ',')
+redis.call('XADD', KEYS[2], '*', 'txn', ARGV[1], 'type', ARGV[3], 'ref', ARGV[4], 'at', ARGV[5],
+        'legs', table.concat(entries, ','))
+redis.call('SET', KEYS[1], payload, 'EX', ARGV[2])
+return {'OK', payload}
@@ -0,0 +1,110 @@
+package com.stream.demo.benchmark;
+
+import com.stream.demo.service.BannedPhraseMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Banned phrase matching: Aho-Corasick automaton vs naive contains loop
+ * <p>
+ * Chạy: mvn test-compile rồi chạy main() (hoặc -prof gc để xác nhận matcher không cấp phát per message)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BannedPhraseMatcherBenchmark {
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz";
+
+    @Param({"100", "10000"})
+    private int patternCount;
+
+    private List<String> patterns;
+    private BannedPhraseMatcher matcher;
+    private String[] messages;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Random random = new Random(42);
+        patterns = new ArrayList<>(patternCount);
+        for (int i = 0; i < patternCount; i++) {
+            patterns.add(randomWord(random, 5 + random.nextInt(8)));
+        }
+        matcher = BannedPhraseMatcher.compile(patterns);
+
+        // Chat messages thường: ~80 chars, phần lớn không match
+        messages = new String[1024];
+        for (int i = 0; i < messages.length; i++) {
+            StringBuilder message = new StringBuilder();
+            while (message.length() < 80) {
+                message.append(randomWord(random, 2 + random.nextInt(7))).append(' ');
+            }
+            messages[i] = message.toString();
+        }
+    }
+
+    @Benchmark
+    public boolean ahoCorasick() {
+        return matcher.matches(nextMessage());
+    }
+
+    @Benchmark
+    public boolean naiveContains() {
+        String message = nextMessage().toLowerCase(Locale.ROOT);
+        for (String pattern : patterns) {
+            if (message.contains(pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public BannedPhraseMatcher compile() {
+        return BannedPhraseMatcher.compile(patterns);
+    }
+
+    private String nextMessage() {
+        index = (index + 1) & (messages.length - 1);
+        return messages[index];
+    }
+
+    private static String randomWord(Random random, int length) {
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return word.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BannedPhraseMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,162 @@
+package com.stream.demo.benchmark;
+
+import com.stream.demo.common.collection.RoomMembershipIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Room membership: RoomMembershipIndex (primitive keys, mảng copy-on-write)
+ * vs ConcurrentHashMap&lt;Long, Set&lt;Session&gt;&gt; (cấu trúc cũ của StreamSubscriptionRegistry)
+ * <p>
+ * Chạy: mvn test-compile rồi chạy main() (thêm -prof gc: broadcast của index không cấp phát,
+ * boxed cấp phát Long + iterator mỗi lần)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoomMembershipIndexBenchmark {
+
+    private static final int ROOMS = 1024;
+
+    @Param({"16", "1024"})
+    private int membersPerRoom;
+
+    private RoomMembershipIndex<Session> index;
+    private Map<Long, Set<Session>> boxedRooms;
+    private Map<Session, Set<Long>> boxedSessions;
+    private Session[][] sessionsByRoom;
+    private Session churnSession;
+    private long room;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        index = new RoomMembershipIndex<>(Session[]::new);
+        boxedRooms = new ConcurrentHashMap<>();
+        boxedSessions = new ConcurrentHashMap<>();
+        sessionsByRoom = new Session[ROOMS][membersPerRoom];
+        int id = 0;
+        for (int roomId = 0; roomId < ROOMS; roomId++) {
+            for (int i = 0; i < membersPerRoom; i++) {
+                Session session = new Session(id++);
+                sessionsByRoom[roomId][i] = session;
+                index.add(roomId + 1000L, session);
+                boxedAdd(roomId + 1000L, session);
+            }
+        }
+        churnSession = new Session(-1);
+    }
+
+    // ============================================================
+    // Broadcast: duyệt members của một room
+    // ============================================================
+
+    @Benchmark
+    public void broadcastIndex(Blackhole blackhole) {
+        for (Session session : index.members(nextRoom())) {
+            blackhole.consume(session.id);
+        }
+    }
+
+    @Benchmark
+    public void broadcastBoxed(Blackhole blackhole) {
+        for (Session session : boxedRooms.getOrDefault(nextRoom(), Collections.emptySet())) {
+            blackhole.consume(session.id);
+        }
+    }
+
+    // ============================================================
+    // Lookup: room có subscriber không (chat relay, mỗi message)
+    // ============================================================
+
+    @Benchmark
+    public boolean hasMembersIndex() {
+        return index.hasMembers(nextRoom());
+    }
+
+    @Benchmark
+    public boolean hasMembersBoxed() {
+        return boxedRooms.containsKey(nextRoom());
+    }
+
+    // ============================================================
+    // Churn: join + leave
+    // ============================================================
+
+    @Benchmark
+    public int joinLeaveIndex() {
+        long roomId = nextRoom();
+        index.add(roomId, churnSession);
+        return index.remove(roomId, churnSession);
+    }
+
+    @Benchmark
+    public boolean joinLeaveBoxed() {
+        long roomId = nextRoom();
+        boxedAdd(roomId, churnSession);
+        return boxedRemove(roomId, churnSession);
+    }
+
+    private long nextRoom() {
+        room = (room + 1) & (ROOMS - 1);
+        return room + 1000L;
+    }
+
+    private void boxedAdd(long roomId, Session session) {
+        boxedSessions.computeIfAbsent(session, key -> ConcurrentHashMap.newKeySet()).add(roomId);
+        boxedRooms.compute(roomId, (key, sessions) -> {
+            Set<Session> result = sessions != null ? sessions : ConcurrentHashMap.newKeySet();
+            result.add(session);
+            return result;
+        });
+    }
+
+    private boolean boxedRemove(long roomId, Session session) {
+        boxedSessions.getOrDefault(session, Collections.emptySet()).remove(roomId);
+        boolean[] removed = new boolean[1];
+        boxedRooms.computeIfPresent(roomId, (key, sessions) -> {
+            removed[0] = sessions.remove(session);
+            return sessions.isEmpty() ? null : sessions;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Session handle giả lập (identity equality như WebSocketSession)
+     */
+    private static final class Session {
+        private final int id;
+
+        private Session(int id) {
+            this.id = id;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RoomMembershipIndexBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,86 @@
+package com.stream.demo.common.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LongLongHashMap: zero key, backward-shift delete, rehash, copy độc lập - so với java.util.HashMap
+ */
+class LongLongHashMapTest {
+
+    @Test
+    void zeroKeyIsStoredSeparately() {
+        LongLongHashMap map = new LongLongHashMap();
+        assertThat(map.containsKey(0)).isFalse();
+        assertThat(map.get(0, -1)).isEqualTo(-1);
+
+        map.put(0, 42);
+        assertThat(map.containsKey(0)).isTrue();
+        assertThat(map.get(0, -1)).isEqualTo(42);
+        assertThat(map.size()).isEqualTo(1);
+
+        assertThat(map.remove(0)).isTrue();
+        assertThat(map.remove(0)).isFalse();
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    void removeKeepsCollidingKeysReachable() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        // Capacity 8: nhiều keys chung chuỗi probe, xóa ở giữa chuỗi phải kéo các entries sau về
+        for (long key = 1; key <= 4; key++) {
+            map.put(key, key * 10);
+        }
+        for (long key = 1; key <= 4; key++) {
+            assertThat(map.remove(key)).isTrue();
+            for (long other = key + 1; other <= 4; other++) {
+                assertThat(map.get(other, -1)).as("key %d after removing %d", other, key).isEqualTo(other * 10);
+            }
+        }
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    void copyIsIndependent() {
+        LongLongHashMap map = new LongLongHashMap();
+        map.put(1, 1);
+        LongLongHashMap copy = map.copy();
+        copy.put(2, 2);
+        copy.remove(1);
+
+        assertThat(map.get(1, -1)).isEqualTo(1);
+        assertThat(map.containsKey(2)).isFalse();
+        assertThat(copy.containsKey(1)).isFalse();
+    }
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(11);
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> reference = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            // Dải keys nhỏ (kể cả 0 và số âm) → nhiều collisions; dải lớn dần → nhiều lần rehash
+            long key = i % 3 == 0 ? random.nextInt(64) - 32 : random.nextInt(1 + i / 10);
+            int op = random.nextInt(10);
+            if (op < 5) {
+                long value = random.nextLong();
+                map.put(key, value);
+                reference.put(key, value);
+            } else if (op < 8) {
+                assertThat(map.remove(key)).isEqualTo(reference.remove(key) != null);
+            } else {
+                assertThat(map.get(key, Long.MIN_VALUE)).isEqualTo(reference.getOrDefault(key, Long.MIN_VALUE));
+            }
+            assertThat(map.size()).isEqualTo(reference.size());
+        }
+
+        Map<Long, Long> iterated = new HashMap<>();
+        map.forEach(iterated::put);
+        assertThat(iterated).isEqualTo(reference);
+    }
+}
@@ -0,0 +1,75 @@
+package com.stream.demo.common.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * LongObjectHashMap: zero key, backward-shift delete, rehash, copy độc lập - so với java.util.HashMap
+ */
+class LongObjectHashMapTest {
+
+    @Test
+    void zeroKeyIsStoredSeparately() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        map.put(0, "zero");
+        map.put(0, "zero again");
+
+        assertThat(map.get(0)).isEqualTo("zero again");
+        assertThat(map.size()).isEqualTo(1);
+        assertThat(map.remove(0)).isEqualTo("zero again");
+        assertThat(map.remove(0)).isNull();
+        assertThat(map.isEmpty()).isTrue();
+    }
+
+    @Test
+    void nullValuesAreRejected() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        assertThatThrownBy(() -> map.put(1, null)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void copyIsIndependent() {
+        LongObjectHashMap<String> map = new LongObjectHashMap<>();
+        map.put(1, "a");
+        LongObjectHashMap<String> copy = map.copy();
+        copy.put(2, "b");
+        copy.remove(1);
+
+        assertThat(map.get(1)).isEqualTo("a");
+        assertThat(map.containsKey(2)).isFalse();
+        assertThat(copy.containsKey(1)).isFalse();
+    }
+
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(13);
+        LongObjectHashMap<Long> map = new LongObjectHashMap<>();
+        Map<Long, Long> reference = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            long key = i % 3 == 0 ? random.nextInt(64) - 32 : random.nextInt(1 + i / 10);
+            int op = random.nextInt(10);
+            if (op < 5) {
+                long value = random.nextLong();
+                map.put(key, value);
+                reference.put(key, value);
+            } else if (op < 8) {
+                assertThat(map.remove(key)).isEqualTo(reference.remove(key));
+            } else {
+                assertThat(map.get(key)).isEqualTo(reference.get(key));
+            }
+            assertThat(map.size()).isEqualTo(reference.size());
+        }
+
+        Set<Long> keys = new HashSet<>();
+        map.forEachKey(keys::add);
+        assertThat(keys).isEqualTo(reference.keySet());
+    }
+}
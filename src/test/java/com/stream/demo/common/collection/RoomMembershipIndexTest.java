@@ -0,0 +1,105 @@
+package com.stream.demo.common.collection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * RoomMembershipIndex: room → members và member → rooms luôn khớp nhau, kể cả khi add / remove đồng thời
+ */
+class RoomMembershipIndexTest {
+
+    @Test
+    void addAndRemoveReportCounts() {
+        RoomMembershipIndex<String> index = new RoomMembershipIndex<>(String[]::new);
+        String alice = "alice";
+        String bob = "bob";
+
+        assertThat(index.add(7, alice)).isEqualTo(1);
+        assertThat(index.add(7, bob)).isEqualTo(2);
+        assertThat(index.add(7, alice)).isEqualTo(-1);
+        assertThat(index.add(0, alice)).isEqualTo(1);
+
+        assertThat(index.members(7)).containsExactly(alice, bob);
+        assertThat(index.roomsOf(alice)).containsExactlyInAnyOrder(7L, 0L);
+        assertThat(index.roomCount()).isEqualTo(2);
+
+        assertThat(index.remove(7, alice)).isEqualTo(1);
+        assertThat(index.remove(7, alice)).isEqualTo(-1);
+        assertThat(index.remove(7, bob)).isZero();
+        assertThat(index.hasMembers(7)).isFalse();
+        assertThat(index.members(7)).isEmpty();
+        assertThat(index.roomsOf(alice)).containsExactly(0L);
+        assertThat(index.roomsOf(bob)).isEmpty();
+    }
+
+    @Test
+    void forEachRoomVisitsRoomsWithMembers() {
+        RoomMembershipIndex<String> index = new RoomMembershipIndex<>(String[]::new);
+        for (long room = -5; room <= 5; room++) {
+            index.add(room, "member");
+        }
+        index.remove(3, "member");
+
+        Set<Long> rooms = new HashSet<>();
+        index.forEachRoom(rooms::add);
+        assertThat(rooms).hasSize(10).doesNotContain(3L).contains(0L, -5L, 5L);
+    }
+
+    @Test
+    void concurrentAddRemoveKeepsReverseIndexConsistent() throws Exception {
+        RoomMembershipIndex<String> index = new RoomMembershipIndex<>(String[]::new);
+        String[] members = {"m0", "m1", "m2", "m3"};
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    for (int i = 0; i < 50_000; i++) {
+                        long room = random.nextInt(4);
+                        String member = members[random.nextInt(members.length)];
+                        if (random.nextBoolean()) {
+                            index.add(room, member);
+                        } else {
+                            index.remove(room, member);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (String member : members) {
+            Set<Long> expected = new HashSet<>();
+            for (long room = 0; room < 4; room++) {
+                if (index.contains(room, member)) {
+                    expected.add(room);
+                }
+            }
+            Set<Long> actual = new HashSet<>();
+            Arrays.stream(index.roomsOf(member)).forEach(actual::add);
+            assertThat(actual).as("rooms of %s", member).isEqualTo(expected);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.stream.demo.common.idempotency;
+
+import jakarta.servlet.ServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IdempotencyResponseFilter: body hash cho fingerprint, controller vẫn đọc được body
+ */
+class IdempotencyResponseFilterTest {
+
+    private final IdempotencyResponseFilter filter = new IdempotencyResponseFilter(null);
+
+    @Test
+    void bodyIsHashedAndStillReadableDownstream() throws Exception {
+        MockHttpServletRequest request = jsonRequest("{\"amount\":250}");
+        AtomicReference<String> downstreamBody = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> downstreamBody.set(read(req)));
+
+        assertThat(downstreamBody.get()).isEqualTo("{\"amount\":250}");
+        assertThat(bodyHash(request)).hasSize(64);
+    }
+
+    @Test
+    void differentBodiesGetDifferentHashes() throws Exception {
+        MockHttpServletRequest first = jsonRequest("{\"amount\":250}");
+        MockHttpServletRequest same = jsonRequest("{\"amount\":250}");
+        MockHttpServletRequest other = jsonRequest("{\"amount\":999}");
+        for (MockHttpServletRequest request : new MockHttpServletRequest[]{first, same, other}) {
+            filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> read(req));
+        }
+
+        assertThat(bodyHash(first)).isEqualTo(bodyHash(same));
+        assertThat(bodyHash(first)).isNotEqualTo(bodyHash(other));
+    }
+
+    @Test
+    void formParametersAreHashedIndependentOfOrder() throws Exception {
+        MockHttpServletRequest first = formRequest();
+        first.addParameter("a", "1");
+        first.addParameter("b", "2");
+        MockHttpServletRequest reordered = formRequest();
+        reordered.addParameter("b", "2");
+        reordered.addParameter("a", "1");
+        filter.doFilter(first, new MockHttpServletResponse(), (req, res) -> { });
+        filter.doFilter(reordered, new MockHttpServletResponse(), (req, res) -> { });
+
+        assertThat(bodyHash(first)).isNotNull().isEqualTo(bodyHash(reordered));
+    }
+
+    private static MockHttpServletRequest jsonRequest(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/dev/simulate/payment/deposit");
+        request.addHeader(IdempotencyInterceptor.HEADER, "key-1");
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static MockHttpServletRequest formRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/form");
+        request.addHeader(IdempotencyInterceptor.HEADER, "key-1");
+        request.setContentType("application/x-www-form-urlencoded");
+        return request;
+    }
+
+    private static String read(ServletRequest request) throws IOException {
+        return StreamUtils.copyToString(request.getInputStream(), StandardCharsets.UTF_8);
+    }
+
+    private static String bodyHash(MockHttpServletRequest request) {
+        return (String) request.getAttribute(IdempotencyResponseFilter.BODY_HASH_ATTRIBUTE);
+    }
+}
@@ -0,0 +1,124 @@
+package com.stream.demo.common.time;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * HierarchicalTimingWheel: ceil slot ở level 0, cascade qua các levels, overflow quá level cao nhất
+ */
+class HierarchicalTimingWheelTest {
+
+    // tick 10ms, 4 buckets × 3 levels: 40ms / 160ms / 640ms
+    private static final long TICK = 10;
+    private static final int SIZE = 4;
+    private static final int LEVELS = 3;
+
+    @Test
+    void firesAtFirstTickNotBeforeExpiry() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, LEVELS, 0);
+        wheel.schedule(15, "a");
+        wheel.schedule(20, "b");
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(10, fired::add);
+        assertThat(fired).isEmpty();
+
+        wheel.advanceTo(20, fired::add);
+        assertThat(fired).containsExactlyInAnyOrder("a", "b");
+    }
+
+    @Test
+    void pastExpiryIsRejected() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, LEVELS, 100);
+
+        assertThat(wheel.schedule(100, "now")).isFalse();
+        assertThat(wheel.schedule(50, "past")).isFalse();
+        assertThat(wheel.schedule(101, "future")).isTrue();
+    }
+
+    @Test
+    void cascadesFromHigherLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, LEVELS, 0);
+        // Level 1 (40..159ms) và level 2 (160..639ms), gồm cả đúng ranh giới bucket
+        long[] expiries = {40, 45, 79, 80, 155, 160, 161, 400, 639};
+        for (long expiry : expiries) {
+            assertThat(wheel.schedule(expiry, expiry)).isTrue();
+        }
+
+        Map<Long, Long> firedAt = advanceTickByTick(wheel, 0, 700);
+
+        assertThat(firedAt).hasSize(expiries.length);
+        for (long expiry : expiries) {
+            assertThat(firedAt.get(expiry)).as("expiry %d", expiry).isEqualTo(ceilToTick(expiry));
+        }
+    }
+
+    @Test
+    void overflowBeyondTopLevelIsRescheduled() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, LEVELS, 0);
+        long[] expiries = {640, 1000, 5555};
+        for (long expiry : expiries) {
+            wheel.schedule(expiry, expiry);
+        }
+
+        Map<Long, Long> firedAt = advanceTickByTick(wheel, 0, 6000);
+
+        for (long expiry : expiries) {
+            assertThat(firedAt.get(expiry)).as("expiry %d", expiry).isEqualTo(ceilToTick(expiry));
+        }
+    }
+
+    @Test
+    void randomTimersFireExactlyOnceAtCeilTick() {
+        Random random = new Random(7);
+        long start = 1_000_003;
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, LEVELS, start);
+        long aligned = start - start % TICK;
+        Map<Long, Long> expected = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            long expiry = start + 1 + random.nextInt(2000);
+            if (!expected.containsKey(expiry) && wheel.schedule(expiry, expiry)) {
+                expected.put(expiry, ceilToTick(expiry));
+            }
+        }
+
+        Map<Long, Long> firedAt = advanceTickByTick(wheel, aligned, aligned + 2100);
+
+        assertThat(firedAt).isEqualTo(expected);
+    }
+
+    @Test
+    void advanceSkippingManyTicksFiresEverythingDue() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, SIZE, LEVELS, 0);
+        wheel.schedule(25, 25L);
+        wheel.schedule(300, 300L);
+        wheel.schedule(900, 900L);
+
+        List<Long> fired = new ArrayList<>();
+        wheel.advanceTo(300, fired::add);
+        assertThat(fired).containsExactlyInAnyOrder(25L, 300L);
+
+        wheel.advanceTo(1000, fired::add);
+        assertThat(fired).containsExactlyInAnyOrder(25L, 300L, 900L);
+    }
+
+    private static Map<Long, Long> advanceTickByTick(HierarchicalTimingWheel<Long> wheel, long from, long to) {
+        Map<Long, Long> firedAt = new HashMap<>();
+        for (long now = from + TICK; now <= to; now += TICK) {
+            long time = now;
+            wheel.advanceTo(time, expiry -> assertThat(firedAt.put(expiry, time)).as("fired twice").isNull());
+        }
+        return firedAt;
+    }
+
+    private static long ceilToTick(long timeMs) {
+        return (timeMs + TICK - 1) / TICK * TICK;
+    }
+}
@@ -0,0 +1,134 @@
+package com.stream.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * BannedPhraseMatcher: các case chuẩn hóa / ranh giới word + so sánh automaton với naive indexOf
+ */
+class BannedPhraseMatcherTest {
+
+    @Test
+    void substringPhraseMatchesInsideWords() {
+        BannedPhraseMatcher matcher = BannedPhraseMatcher.compile(List.of("ass"));
+
+        assertThat(matcher.matches("classic")).isTrue();
+        assertThat(matcher.matches("you ASS")).isTrue();
+        assertThat(matcher.matches("nothing here")).isFalse();
+    }
+
+    @Test
+    void wholeWordPhraseRequiresWordBoundaries() {
+        BannedPhraseMatcher matcher = compileWholeWord("ass");
+
+        assertThat(matcher.matches("classic")).isFalse();
+        assertThat(matcher.matches("assistant")).isFalse();
+        assertThat(matcher.matches("cl@ss")).isFalse();
+        assertThat(matcher.matches("ass")).isTrue();
+        assertThat(matcher.matches("you ass.")).isTrue();
+        assertThat(matcher.matches("ass!")).isTrue();
+        assertThat(matcher.matches("what an @ss")).isTrue();
+        assertThat(matcher.matches("a55 hat")).isTrue();
+    }
+
+    @Test
+    void leetOnlyAppliesInsideWordsWithLetters() {
+        BannedPhraseMatcher matcher = BannedPhraseMatcher.compile(List.of("ass", "hello"));
+
+        assertThat(matcher.matches("call 455 now")).isFalse();
+        assertThat(matcher.matches("$$$")).isFalse();
+        assertThat(matcher.matches("a55")).isTrue();
+        assertThat(matcher.matches("h3ll0 there")).isTrue();
+    }
+
+    @Test
+    void digitPhraseMatchesDigitsLiterally() {
+        BannedPhraseMatcher matcher = BannedPhraseMatcher.compile(List.of("455"));
+
+        assertThat(matcher.matches("call 455 now")).isTrue();
+        assertThat(matcher.matches("ass")).isFalse();
+    }
+
+    @Test
+    void caseInsensitivePerChar() {
+        BannedPhraseMatcher matcher = BannedPhraseMatcher.compile(List.of("strasse", "λόγος"));
+
+        assertThat(matcher.matches("STRASSE")).isTrue();
+        // Final sigma ς và Σ cùng fold về σ
+        assertThat(matcher.matches("ΛΌΓΟΣ")).isTrue();
+    }
+
+    @Test
+    void wholeWordChainFollowsFailureLinks() {
+        BannedPhraseMatcher matcher = compileWholeWord("ass", "ss");
+
+        assertThat(matcher.matches("xass")).isFalse();
+        assertThat(matcher.matches("x ss")).isTrue();
+        assertThat(matcher.matches("x ass")).isTrue();
+    }
+
+    @Test
+    void emptyMatcherNeverMatches() {
+        assertThat(BannedPhraseMatcher.EMPTY.matches("anything")).isFalse();
+        assertThat(BannedPhraseMatcher.compile(List.of(" ", "")).getPatternCount()).isZero();
+    }
+
+    @Test
+    void automatonAgreesWithNaiveSearch() {
+        Random random = new Random(42);
+        String alphabet = "abs5$4@! .ASß";
+        for (int round = 0; round < 200; round++) {
+            List<BannedPhraseMatcher.Phrase> phrases = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(8); i++) {
+                phrases.add(new BannedPhraseMatcher.Phrase(randomText(random, "abs5$4@!", 1 + random.nextInt(4)),
+                        random.nextBoolean()));
+            }
+            BannedPhraseMatcher matcher = BannedPhraseMatcher.compilePhrases(phrases);
+            for (int i = 0; i < 50; i++) {
+                String text = randomText(random, alphabet, random.nextInt(24));
+                assertThat(matcher.matches(text))
+                        .as("phrases=%s text=\"%s\"", phrases, text)
+                        .isEqualTo(naiveMatches(phrases, text));
+            }
+        }
+    }
+
+    private static BannedPhraseMatcher compileWholeWord(String... phrases) {
+        List<BannedPhraseMatcher.Phrase> list = new ArrayList<>();
+        for (String phrase : phrases) {
+            list.add(new BannedPhraseMatcher.Phrase(phrase, true));
+        }
+        return BannedPhraseMatcher.compilePhrases(list);
+    }
+
+    private static boolean naiveMatches(List<BannedPhraseMatcher.Phrase> phrases, String text) {
+        String normalizedText = BannedPhraseMatcher.normalize(text);
+        for (BannedPhraseMatcher.Phrase phrase : phrases) {
+            String pattern = BannedPhraseMatcher.normalize(phrase.text().strip());
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            for (int at = normalizedText.indexOf(pattern); at >= 0; at = normalizedText.indexOf(pattern, at + 1)) {
+                if (!phrase.wholeWord()
+                        || (!BannedPhraseMatcher.isWordChar(text, at - 1)
+                        && !BannedPhraseMatcher.isWordChar(text, at + pattern.length()))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String randomText(Random random, String alphabet, int length) {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.stream.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ChatSpamDetector với config mặc định: traffic unique ở rate mục tiêu không bị suppress, raids / flood vẫn bị chặn
+ */
+class ChatSpamDetectorTest {
+
+    private static final int BUCKETS = 6;
+    private static final int BUCKET_SECONDS = 5;
+
+    private static ChatSpamDetector defaultDetector() {
+        return new ChatSpamDetector(new SimpleMeterRegistry(), BUCKETS, BUCKET_SECONDS, 10_000, 10, 3, 20, 256, 8192);
+    }
+
+    @Test
+    void uniqueTrafficAtTargetVolumeIsNotSuppressed() {
+        ChatSpamDetector detector = defaultDetector();
+        Random random = new Random(17);
+        Map<ChatSpamDetector.Verdict, Integer> verdicts = new EnumMap<>(ChatSpamDetector.Verdict.class);
+
+        // 10k msg/s qua node: 50k users, mỗi user 1 message per bucket (6 per window);
+        // 1/30 traffic (~333 msg/s) vào một room đông, còn lại rải trên 1000 rooms
+        int users = 50_000;
+        int perBucket = 10_000 * BUCKET_SECONDS;
+        for (int rotation = 0; rotation < 2 * BUCKETS; rotation++) {
+            for (int i = 0; i < perBucket; i++) {
+                long streamId = i % 30 == 0 ? 1L : 2L + random.nextInt(1000);
+                long userId = i % users;
+                String content = "msg " + Long.toString(random.nextLong() & Long.MAX_VALUE, 36);
+                verdicts.merge(detector.check(streamId, userId, content), 1, Integer::sum);
+            }
+            detector.rotate();
+        }
+
+        assertThat(verdicts).containsOnlyKeys(ChatSpamDetector.Verdict.OK);
+    }
+
+    @Test
+    void userFloodIsSuppressed() {
+        ChatSpamDetector detector = defaultDetector();
+        for (int i = 0; i < 20; i++) {
+            assertThat(detector.check(1L, 9L, "hello " + i)).isEqualTo(ChatSpamDetector.Verdict.OK);
+        }
+        assertThat(detector.check(1L, 9L, "hello 20")).isEqualTo(ChatSpamDetector.Verdict.USER_FLOOD);
+    }
+
+    @Test
+    void userRepeatingNormalizedMessageIsSuppressed() {
+        ChatSpamDetector detector = defaultDetector();
+        assertThat(detector.check(1L, 9L, "FREE   coins!!!")).isEqualTo(ChatSpamDetector.Verdict.OK);
+        assertThat(detector.check(1L, 9L, "free coinsss")).isEqualTo(ChatSpamDetector.Verdict.OK);
+        assertThat(detector.check(1L, 9L, "Free Coins")).isEqualTo(ChatSpamDetector.Verdict.OK);
+        assertThat(detector.check(1L, 9L, "free coins")).isEqualTo(ChatSpamDetector.Verdict.USER_DUPLICATE);
+    }
+
+    @Test
+    void roomRaidIsSuppressed() {
+        ChatSpamDetector detector = defaultDetector();
+        for (long userId = 1; userId <= 10; userId++) {
+            assertThat(detector.check(1L, userId, "join my channel")).isEqualTo(ChatSpamDetector.Verdict.OK);
+        }
+        assertThat(detector.check(1L, 11L, "join my channel")).isEqualTo(ChatSpamDetector.Verdict.ROOM_DUPLICATE);
+        assertThat(detector.check(2L, 11L, "join my channel")).isEqualTo(ChatSpamDetector.Verdict.OK);
+    }
+}
@@ -0,0 +1,91 @@
+package com.stream.demo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * SlidingCountMinSketch: window trượt, conservative update, tăng width giữ nguyên counts
+ */
+class SlidingCountMinSketchTest {
+
+    private static final int BUCKETS = 6;
+
+    @Test
+    void countsExpireAfterWindow() {
+        SlidingCountMinSketch sketch = new SlidingCountMinSketch(3, 256, BUCKETS);
+        for (int i = 0; i < 5; i++) {
+            sketch.addAndEstimate(42L);
+        }
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            sketch.rotate();
+        }
+        assertThat(sketch.addAndEstimate(42L)).isEqualTo(6);
+
+        // Bucket chứa 5 lần đầu vừa rời window
+        sketch.rotate();
+        assertThat(sketch.addAndEstimate(42L)).isEqualTo(2);
+
+        for (int i = 0; i < BUCKETS; i++) {
+            sketch.rotate();
+        }
+        assertThat(sketch.addAndEstimate(42L)).isEqualTo(1);
+    }
+
+    @Test
+    void neverUnderestimates() {
+        Random random = new Random(3);
+        SlidingCountMinSketch sketch = new SlidingCountMinSketch(3, 64, BUCKETS);
+        long[] heavy = {random.nextLong(), random.nextLong(), random.nextLong()};
+        int[] counts = new int[heavy.length];
+        for (int i = 0; i < 5_000; i++) {
+            if (i % 10 == 0) {
+                int item = random.nextInt(heavy.length);
+                counts[item]++;
+                assertThat(sketch.addAndEstimate(heavy[item])).isGreaterThanOrEqualTo(counts[item]);
+            } else {
+                sketch.addAndEstimate(random.nextLong());
+            }
+        }
+    }
+
+    @Test
+    void uniqueItemsAtMaxLoadStayBelowThreshold() {
+        // 4 × 131072, window 300k events (load ≈ 2.3): ngưỡng user-duplicate 3 không bị chạm bởi noise
+        SlidingCountMinSketch sketch = new SlidingCountMinSketch(4, 131_072, BUCKETS);
+        Random random = new Random(11);
+        int maxEstimate = 0;
+        for (int rotation = 0; rotation < 2 * BUCKETS; rotation++) {
+            for (int i = 0; i < 50_000; i++) {
+                maxEstimate = Math.max(maxEstimate, sketch.addAndEstimate(random.nextLong()));
+            }
+            sketch.rotate();
+        }
+        assertThat(maxEstimate).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void growsWithTrafficAndKeepsEarlierCounts() {
+        SlidingCountMinSketch sketch = new SlidingCountMinSketch(3, 256, 8192, BUCKETS, 8);
+        Random random = new Random(5);
+        for (int i = 0; i < 4; i++) {
+            sketch.addAndEstimate(7L);
+        }
+        for (int i = 0; i < 2_000; i++) {
+            sketch.addAndEstimate(random.nextLong());
+        }
+        sketch.rotate();
+
+        // 2000 events/bucket × 6 buckets / load 8 → 2048
+        assertThat(sketch.getWidth()).isEqualTo(2048);
+        assertThat(sketch.addAndEstimate(7L)).isGreaterThanOrEqualTo(5);
+
+        for (int i = 0; i < BUCKETS; i++) {
+            sketch.rotate();
+        }
+        assertThat(sketch.addAndEstimate(7L)).isEqualTo(1);
+        assertThat(sketch.getWidth()).isEqualTo(2048);
+    }
+}